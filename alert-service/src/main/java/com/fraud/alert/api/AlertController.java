@@ -1,32 +1,125 @@
 package com.fraud.alert.api;
 
-import com.fraud.alert.repository.AlertRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.repository.AlertFilter;
+import com.fraud.alert.repository.AlertQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Alerts newest first. The list endpoints return one page as a JSON array and, when more alerts match, the cursor for
+ * the next page in {@code X-Next-Cursor}; {@code /export} streams every matching alert as NDJSON.
+ */
 @RestController
 @RequestMapping("/api/v1/alerts")
 public class AlertController {
 
-    private final AlertRepository alertRepository;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final AlertQueryRepository alertQueryRepository;
     private final AlertMapper mapper;
+    private final ObjectWriter responseWriter;
+    private final int maxPageSize;
 
-    public AlertController(AlertRepository alertRepository, AlertMapper mapper) {
-        this.alertRepository = alertRepository;
+    public AlertController(
+            AlertQueryRepository alertQueryRepository,
+            AlertMapper mapper,
+            ObjectMapper objectMapper,
+            @Value("${app.alerts.api.max-page-size:500}") int maxPageSize
+    ) {
+        this.alertQueryRepository = alertQueryRepository;
         this.mapper = mapper;
+        this.responseWriter = objectMapper.writerFor(AlertResponse.class);
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping
-    public List<AlertResponse> listAlerts() {
-        return alertRepository.findAllByOrderByCreatedAtDesc().stream().map(mapper::toResponse).toList();
+    public ResponseEntity<List<AlertResponse>> listAlerts(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) Integer minRiskScore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.alerts.api.default-page-size:50}") int limit
+    ) {
+        return page(new AlertFilter(userId, minRiskScore, from, to), cursor, limit);
     }
 
     @GetMapping("/users/{userId}")
-    public List<AlertResponse> listAlertsByUser(@PathVariable String userId) {
-        return alertRepository.findByUserIdOrderByCreatedAtDesc(userId).stream().map(mapper::toResponse).toList();
+    public ResponseEntity<List<AlertResponse>> listAlertsByUser(
+            @PathVariable String userId,
+            @RequestParam(required = false) Integer minRiskScore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.alerts.api.default-page-size:50}") int limit
+    ) {
+        return page(new AlertFilter(userId, minRiskScore, from, to), cursor, limit);
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAlerts(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) Integer minRiskScore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        AlertFilter filter = new AlertFilter(userId, minRiskScore, from, to);
+        StreamingResponseBody body = out -> alertQueryRepository.stream(filter, alert -> {
+            try {
+                out.write(responseWriter.writeValueAsBytes(mapper.toResponse(alert)));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    private ResponseEntity<List<AlertResponse>> page(AlertFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
+        AlertCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = AlertCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+            }
+        }
+
+        // One extra row tells whether another page exists without a count query.
+        List<Alert> alerts = alertQueryRepository.findPage(
+                filter,
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.id(),
+                limit + 1
+        );
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (alerts.size() > limit) {
+            alerts = alerts.subList(0, limit);
+            Alert last = alerts.get(limit - 1);
+            response.header(NEXT_CURSOR_HEADER, new AlertCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(alerts.stream().map(mapper::toResponse).toList());
     }
 }
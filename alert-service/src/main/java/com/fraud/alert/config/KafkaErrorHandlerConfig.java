@@ -20,12 +20,16 @@ public class KafkaErrorHandlerConfig {
     private static final Logger log = LoggerFactory.getLogger(KafkaErrorHandlerConfig.class);
 
     @Bean
-    public DefaultErrorHandler defaultErrorHandler(KafkaTemplate<Object, Object> kafkaTemplate) {
-        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(KafkaTemplate<Object, Object> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(
                 kafkaTemplate,
                 (record, exception) -> new TopicPartition(record.topic() + ".dlq", record.partition())
         );
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 3L));
+    }
+
+    @Bean
+    public DefaultErrorHandler defaultErrorHandler(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterPublishingRecoverer, retryBackOff());
         errorHandler.setLogLevel(KafkaException.Level.DEBUG);
         errorHandler.setRetryListeners((record, ex, deliveryAttempt) ->
                 {
@@ -49,6 +53,10 @@ public class KafkaErrorHandlerConfig {
         return errorHandler;
     }
 
+    public static FixedBackOff retryBackOff() {
+        return new FixedBackOff(1000L, 3L);
+    }
+
     private static String extractTraceId(Object value) {
         if (value instanceof FraudDetectedEvent event) {
             return event.traceId();
@@ -0,0 +1,124 @@
+package com.fraud.alert.idempotency;
+
+import com.fraud.alert.model.ProcessedEvent;
+import com.fraud.alert.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Marks events as processed in {@code processed_events}. With the filter enabled, each owned partition keeps a
+ * {@link RecentEventFilter} of the ids stored for it within the retention window, streamed from the table the first
+ * time the partition is seen. Ids stored without a partition are loaded into every filter, so redeliveries of events
+ * marked before partitions were recorded (or replayed from the DLQ) take the database path. An id
+ * the filter has definitely not seen is persisted as a plain entity, so the insert is batched with the rest of the
+ * transaction at flush; only possible duplicates pay for the {@code INSERT ... ON CONFLICT DO NOTHING} round trip.
+ * Should the filter still miss a duplicate (a redelivery racing the previous owner's commit), the primary key rejects
+ * it at commit and the retried record takes the database path, because the filter has recorded it by then.
+ */
+@Component
+public class ProcessedEventGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventGuard.class);
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean filterEnabled;
+    private final int expectedPerBucket;
+    private final double falsePositiveRate;
+    private final Duration bucketDuration;
+    private final Duration window;
+    private final Map<Integer, RecentEventFilter> filters = new ConcurrentHashMap<>();
+
+    public ProcessedEventGuard(
+            ProcessedEventRepository processedEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.filter.enabled:false}") boolean filterEnabled,
+            @Value("${app.idempotency.filter.expected-events-per-bucket:50000}") int expectedPerBucket,
+            @Value("${app.idempotency.filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.idempotency.filter.bucket-duration:PT10M}") Duration bucketDuration,
+            @Value("${app.data-retention.processed-event-ttl:PT1H}") Duration window
+    ) {
+        this.processedEventRepository = processedEventRepository;
+        this.meterRegistry = meterRegistry;
+        this.filterEnabled = filterEnabled;
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bucketDuration = bucketDuration;
+        this.window = window;
+    }
+
+    /**
+     * Returns true when the event was not processed before and is now marked within the current transaction.
+     */
+    public boolean tryMarkAsProcessed(String eventId, Instant processedAt, int partition) {
+        if (!filterEnabled || partition < 0) {
+            return insertIfAbsent(eventId, processedAt, partition);
+        }
+        RecentEventFilter filter = filters.get(partition);
+        if (filter == null) {
+            // Loaded outside the map so a slow load does not block other partitions or forget().
+            RecentEventFilter loaded = loadFilter(partition);
+            RecentEventFilter existing = filters.putIfAbsent(partition, loaded);
+            filter = existing != null ? existing : loaded;
+        }
+        if (filter.checkAndPut(eventId, System.currentTimeMillis())) {
+            return insertIfAbsent(eventId, processedAt, partition);
+        }
+        processedEventRepository.save(new ProcessedEvent(eventId, processedAt, partition));
+        recordCheck("filter", "new");
+        return true;
+    }
+
+    /**
+     * Drops the filters of partitions this replica no longer owns; another replica may add ids to them meanwhile.
+     */
+    public void forget(Collection<Integer> partitions) {
+        partitions.forEach(filters::remove);
+    }
+
+    private boolean insertIfAbsent(String eventId, Instant processedAt, int partition) {
+        boolean inserted = processedEventRepository.insertIfAbsent(eventId, processedAt, partition) > 0;
+        recordCheck("database", inserted ? "new" : "duplicate");
+        return inserted;
+    }
+
+    private RecentEventFilter loadFilter(int partition) {
+        long startedAt = System.nanoTime();
+        RecentEventFilter filter = new RecentEventFilter(expectedPerBucket, falsePositiveRate, bucketDuration, window);
+        long now = System.currentTimeMillis();
+        long eventIds = 0;
+        try (Stream<String> stored = processedEventRepository.streamEventIdsBySourcePartition(
+                partition, Instant.ofEpochMilli(now).minus(window))) {
+            Iterator<String> iterator = stored.iterator();
+            while (iterator.hasNext()) {
+                filter.put(iterator.next(), now);
+                eventIds++;
+            }
+        }
+        log.info("processed_event_filter_loaded",
+                kv("event", "processed_event_filter_loaded"),
+                kv("outcome", "success"),
+                kv("partition", partition),
+                kv("event_ids", eventIds),
+                kv("duration_ms", (System.nanoTime() - startedAt) / 1_000_000)
+        );
+        return filter;
+    }
+
+    private void recordCheck(String path, String outcome) {
+        meterRegistry.counter("processed_event_checks", "path", path, "outcome", outcome).increment();
+    }
+}
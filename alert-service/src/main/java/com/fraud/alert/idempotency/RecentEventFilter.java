@@ -0,0 +1,63 @@
+package com.fraud.alert.idempotency;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Event ids seen on one partition within the dedupe window, kept as a ring of Bloom filters that each cover
+ * {@code bucketDuration}. Old buckets are dropped as a whole once they fall out of the window, so the false positive
+ * rate does not creep up the way it would with a single filter that only ever fills.
+ */
+final class RecentEventFilter {
+
+    private final int expectedPerBucket;
+    private final double falsePositiveRate;
+    private final long bucketMillis;
+    private final int maxBuckets;
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+
+    RecentEventFilter(int expectedPerBucket, double falsePositiveRate, Duration bucketDuration, Duration window) {
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bucketMillis = bucketDuration.toMillis();
+        // One extra bucket so an id is remembered for at least the full window, whatever the position in the bucket.
+        this.maxBuckets = (int) Math.ceilDiv(window.toMillis(), bucketMillis) + 1;
+    }
+
+    /**
+     * Records {@code eventId} and returns whether it may have been recorded before. {@code false} is definite.
+     */
+    synchronized boolean checkAndPut(String eventId, long nowMillis) {
+        long hash = BloomFilter.hash(eventId);
+        Bucket current = currentBucket(nowMillis);
+        boolean seen = false;
+        for (Bucket bucket : buckets) {
+            if (bucket.filter().mightContain(hash)) {
+                seen = true;
+                break;
+            }
+        }
+        current.filter().put(hash);
+        return seen;
+    }
+
+    synchronized void put(String eventId, long nowMillis) {
+        currentBucket(nowMillis).filter().put(BloomFilter.hash(eventId));
+    }
+
+    private Bucket currentBucket(long nowMillis) {
+        Bucket current = buckets.peekLast();
+        if (current == null || nowMillis - current.startMillis() >= bucketMillis) {
+            current = new Bucket(nowMillis, new BloomFilter(expectedPerBucket, falsePositiveRate));
+            buckets.addLast(current);
+            while (buckets.size() > maxBuckets) {
+                buckets.removeFirst();
+            }
+        }
+        return current;
+    }
+
+    private record Bucket(long startMillis, BloomFilter filter) {
+    }
+}
@@ -2,19 +2,19 @@ package com.fraud.alert.mapping;
 
 import com.fraud.alert.events.FraudDetectedEvent;
 import com.fraud.alert.model.Alert;
+import com.fraud.alert.model.UuidV7;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.StringJoiner;
-import java.util.UUID;
 
 @Component
 public class AlertEventMapper {
 
     public Alert toAlert(FraudDetectedEvent event, Instant createdAt, String traceId) {
         return new Alert(
-                UUID.randomUUID().toString(),
+                UuidV7.nextString(),
                 event.transactionId(),
                 event.userId(),
                 event.riskScore(),
@@ -1,29 +1,46 @@
 package com.fraud.alert.messaging;
 
 import com.fraud.alert.events.FraudDetectedEvent;
+import com.fraud.alert.idempotency.ProcessedEventGuard;
 import com.fraud.alert.service.AlertProcessingService;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Component
-public class FraudDetectedConsumer {
+@ConditionalOnProperty(name = "app.alert.consumer.mode", havingValue = "record", matchIfMissing = true)
+public class FraudDetectedConsumer implements ConsumerSeekAware {
 
     private static final Logger log = LoggerFactory.getLogger(FraudDetectedConsumer.class);
 
     private final AlertProcessingService alertProcessingService;
+    private final ProcessedEventGuard processedEventGuard;
 
-    public FraudDetectedConsumer(AlertProcessingService alertProcessingService) {
+    public FraudDetectedConsumer(AlertProcessingService alertProcessingService, ProcessedEventGuard processedEventGuard) {
         this.alertProcessingService = alertProcessingService;
+        this.processedEventGuard = processedEventGuard;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        processedEventGuard.forget(partitions.stream().map(TopicPartition::partition).toList());
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.fraud-detected}")
+    @KafkaListener(
+            topics = "${app.kafka.topics.fraud-detected}",
+            containerFactory = "fraudDetectedListenerContainerFactory"
+    )
     public void consume(
             FraudDetectedEvent event,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
@@ -63,7 +80,7 @@ public class FraudDetectedConsumer {
                     kv("offset", offset)
             );
 
-            alertProcessingService.process(event);
+            alertProcessingService.process(event, partition);
 
             log.info("fraud_event_processed",
                     kv("event", "fraud_event_processed"),
@@ -0,0 +1,205 @@
+package com.fraud.alert.messaging;
+
+import com.fraud.alert.config.KafkaErrorHandlerConfig;
+import com.fraud.alert.events.FraudDetectedEvent;
+import com.fraud.alert.idempotency.ProcessedEventGuard;
+import com.fraud.alert.service.AlertProcessingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Key-ordered counterpart of {@link FraudDetectedConsumer}: alerts for different users are built and notified in
+ * parallel, alerts for the same user stay in partition order. Offsets are acknowledged per record and committed by the
+ * container only up to the first one still in progress.
+ */
+@Component
+@ConditionalOnProperty(name = "app.alert.consumer.mode", havingValue = "key-ordered")
+public class FraudDetectedKeyOrderedConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudDetectedKeyOrderedConsumer.class);
+
+    private final AlertProcessingService alertProcessingService;
+    private final ProcessedEventGuard processedEventGuard;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final BackOff retryBackOff;
+    private final Duration drainTimeout;
+    private final KeyOrderedDispatcher dispatcher;
+
+    public FraudDetectedKeyOrderedConsumer(
+            AlertProcessingService alertProcessingService,
+            ProcessedEventGuard processedEventGuard,
+            DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+            MeterRegistry meterRegistry,
+            @Value("${app.alert.consumer.key-ordered.lanes:16}") int lanes,
+            @Value("${app.alert.consumer.key-ordered.max-in-flight:1000}") int maxInFlight,
+            @Value("${app.alert.consumer.key-ordered.drain-timeout:PT10S}") Duration drainTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.alertProcessingService = alertProcessingService;
+        this.processedEventGuard = processedEventGuard;
+        this.deadLetterPublishingRecoverer = deadLetterPublishingRecoverer;
+        this.retryBackOff = KafkaErrorHandlerConfig.retryBackOff();
+        this.drainTimeout = drainTimeout;
+        this.dispatcher = new KeyOrderedDispatcher("alert-lane", lanes, maxInFlight, virtualThreads);
+        Gauge.builder("kafka_key_ordered_in_flight", dispatcher, KeyOrderedDispatcher::inFlight)
+                .description("Records handed to key-ordered lanes and not yet acknowledged")
+                .tag("listener", "fraud-detected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        try {
+            if (!dispatcher.awaitIdle(drainTimeout)) {
+                log.warn("fraud_key_ordered_drain_timeout",
+                        kv("event", "fraud_key_ordered_drain_timeout"),
+                        kv("outcome", "failed"),
+                        kv("in_flight", dispatcher.inFlight()),
+                        kv("timeout_ms", drainTimeout.toMillis())
+                );
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        processedEventGuard.forget(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.fraud-detected}",
+            containerFactory = "fraudDetectedListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, FraudDetectedEvent> record, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        FraudDetectedEvent event = record.value();
+        if (event == null) {
+            log.warn("fraud_event_received",
+                    kv("event", "fraud_event_received"),
+                    kv("outcome", "failed"),
+                    kv("topic", record.topic()),
+                    kv("partition", record.partition()),
+                    kv("offset", record.offset()),
+                    kv("error_code", "EMPTY_EVENT_PAYLOAD")
+            );
+            acknowledgment.acknowledge();
+            return;
+        }
+        String key = event.userId() != null ? event.userId() : event.transactionId();
+        dispatcher.dispatch(key, () -> process(record, acknowledgment));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    private CompletableFuture<Void> process(ConsumerRecord<String, FraudDetectedEvent> record, Acknowledgment acknowledgment) {
+        FraudDetectedEvent event = record.value();
+        boolean injectedTraceId = event.traceId() != null && !event.traceId().isBlank();
+        if (injectedTraceId) {
+            MDC.put("traceId", event.traceId());
+        }
+        try {
+            BackOffExecution backOff = retryBackOff.start();
+            int deliveryAttempt = 1;
+            while (true) {
+                try {
+                    alertProcessingService.process(event, record.partition());
+                    log.info("fraud_event_processed",
+                            kv("event", "fraud_event_processed"),
+                            kv("outcome", "success"),
+                            kv("eventId", event.eventId()),
+                            kv("transactionId", event.transactionId()),
+                            kv("topic", record.topic()),
+                            kv("partition", record.partition()),
+                            kv("offset", record.offset())
+                    );
+                    acknowledgment.acknowledge();
+                    return CompletableFuture.completedFuture(null);
+                } catch (RuntimeException ex) {
+                    long delay = backOff.nextBackOff();
+                    if (delay == BackOffExecution.STOP) {
+                        if (deadLetter(record, ex, deliveryAttempt)) {
+                            acknowledgment.acknowledge();
+                        }
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (deliveryAttempt == 1) {
+                        log.warn("fraud_event_retry",
+                                kv("event", "fraud_event_retry"),
+                                kv("outcome", "retry"),
+                                kv("topic", record.topic()),
+                                kv("partition", record.partition()),
+                                kv("offset", record.offset()),
+                                kv("eventId", event.eventId()),
+                                kv("transactionId", event.transactionId()),
+                                kv("delivery_attempt", deliveryAttempt),
+                                kv("error_class", ex.getClass().getSimpleName()),
+                                kv("error_message", ex.getMessage())
+                        );
+                    }
+                    deliveryAttempt++;
+                    Thread.sleep(delay);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            if (injectedTraceId) {
+                MDC.remove("traceId");
+            }
+        }
+    }
+
+    private boolean deadLetter(ConsumerRecord<String, FraudDetectedEvent> record, RuntimeException ex, int attempts) {
+        log.error("fraud_event_dead_lettered",
+                kv("event", "fraud_event_dead_lettered"),
+                kv("outcome", "failed"),
+                kv("topic", record.topic()),
+                kv("partition", record.partition()),
+                kv("offset", record.offset()),
+                kv("eventId", record.value().eventId()),
+                kv("transactionId", record.value().transactionId()),
+                kv("delivery_attempts", attempts),
+                kv("error_class", ex.getClass().getSimpleName()),
+                kv("error_message", ex.getMessage())
+        );
+        try {
+            deadLetterPublishingRecoverer.accept(record, ex);
+            return true;
+        } catch (RuntimeException dlqEx) {
+            // Left unacknowledged: commits for the partition stop here until the record is redelivered.
+            log.error("fraud_event_dead_letter_failed",
+                    kv("event", "fraud_event_dead_letter_failed"),
+                    kv("outcome", "failed"),
+                    kv("topic", record.topic()),
+                    kv("partition", record.partition()),
+                    kv("offset", record.offset()),
+                    kv("error_class", dlqEx.getClass().getSimpleName()),
+                    kv("error_message", dlqEx.getMessage())
+            );
+            return false;
+        }
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
@@ -12,13 +16,14 @@ import java.time.Instant;
 @Table(
         name = "alerts",
         indexes = {
-                @Index(name = "idx_alert_user", columnList = "userId"),
+                @Index(name = "idx_alert_created_id", columnList = "createdAt, id"),
+                @Index(name = "idx_alert_user_created_id", columnList = "userId, createdAt, id"),
                 @Index(name = "idx_alert_transaction", columnList = "transactionId"),
                 @Index(name = "idx_alert_source_event", columnList = "sourceEventId"),
                 @Index(name = "idx_alert_trace", columnList = "traceId")
         }
 )
-public class Alert {
+public class Alert implements Persistable<String> {
 
     @Id
     private String id;
@@ -44,6 +49,9 @@ public class Alert {
     @Column
     private String traceId;
 
+    @Transient
+    private boolean isNew = true;
+
     protected Alert() {
     }
 
@@ -78,6 +86,7 @@ public class Alert {
         this.traceId = traceId;
     }
 
+    @Override
     public String getId() {
         return id;
     }
@@ -109,4 +118,15 @@ public class Alert {
     public String getTraceId() {
         return traceId;
     }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
@@ -0,0 +1,99 @@
+package com.fraud.alert.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * A notification of one alert on one channel that has not been delivered yet. {@code nextAttemptAt} is a lease: until
+ * it passes, the row belongs to whichever worker queue it was handed to.
+ */
+@Entity
+@Table(
+        name = "pending_notifications",
+        indexes = @Index(name = "idx_pending_notifications_next_attempt", columnList = "nextAttemptAt")
+)
+public class PendingNotification implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String alertId;
+
+    @Column(nullable = false)
+    private String channel;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected PendingNotification() {
+    }
+
+    public PendingNotification(String id, String alertId, String channel, Instant createdAt, Instant nextAttemptAt) {
+        this.id = id;
+        this.alertId = alertId;
+        this.channel = channel;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = nextAttemptAt;
+        this.attempts = 1;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getAlertId() {
+        return alertId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void claim(Instant leaseUntil) {
+        this.nextAttemptAt = leaseUntil;
+        this.attempts++;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
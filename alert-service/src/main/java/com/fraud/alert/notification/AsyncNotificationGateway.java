@@ -0,0 +1,283 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.model.PendingNotification;
+import com.fraud.alert.model.UuidV7;
+import com.fraud.alert.repository.AlertRepository;
+import com.fraud.alert.repository.PendingNotificationRepository;
+import com.fraud.alert.service.AlertMetrics;
+import com.fraud.alert.service.NotificationGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Asynchronous notification dispatch ({@code app.notification.dispatch.mode=async}). {@link #notifyFraud} only stores
+ * one {@code pending_notifications} row per channel inside the consumer transaction; once it commits, each row is
+ * handed to the worker pool of its channel, so a slow channel holds neither the listener thread nor its connection.
+ * Every pool has {@code workers} threads and a queue of {@code queue-capacity}; when the queue is full the row is left
+ * for {@link #redispatchDue()}, which also picks up rows whose delivery failed or was lost to a restart once their
+ * lease expires. Delivery is at least once.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notification.dispatch.mode", havingValue = "async")
+public class AsyncNotificationGateway implements NotificationGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncNotificationGateway.class);
+
+    private final CompositeNotificationGateway delivery;
+    private final PendingNotificationRepository pendingNotificationRepository;
+    private final AlertRepository alertRepository;
+    private final Map<String, ChannelWorker> workers = new LinkedHashMap<>();
+    private final Duration lease;
+    private final int retryBatchSize;
+    private final int maxAttempts;
+    private final Duration drainTimeout;
+    private final Queue<String> delivered = new ConcurrentLinkedQueue<>();
+
+    public AsyncNotificationGateway(
+            List<NotificationChannel> channels,
+            AlertMetrics alertMetrics,
+            PendingNotificationRepository pendingNotificationRepository,
+            AlertRepository alertRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.notification.dispatch.workers:4}") int workerCount,
+            @Value("${app.notification.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.notification.dispatch.lease:PT1M}") Duration lease,
+            @Value("${app.notification.dispatch.retry-batch-size:200}") int retryBatchSize,
+            @Value("${app.notification.dispatch.max-attempts:5}") int maxAttempts,
+            @Value("${app.notification.dispatch.drain-timeout:PT10S}") Duration drainTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (workerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Notification dispatch workers and queue capacity must be at least 1");
+        }
+        this.delivery = new CompositeNotificationGateway(channels, alertMetrics);
+        this.pendingNotificationRepository = pendingNotificationRepository;
+        this.alertRepository = alertRepository;
+        this.lease = lease;
+        this.retryBatchSize = retryBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.drainTimeout = drainTimeout;
+        for (NotificationChannel channel : channels) {
+            workers.put(channel.channelName(),
+                    new ChannelWorker(channel, workerCount, queueCapacity, virtualThreads, meterRegistry));
+        }
+    }
+
+    @Override
+    public void notifyFraud(Alert alert) {
+        Instant now = Instant.now();
+        List<PendingNotification> pending = new ArrayList<>(workers.size());
+        for (String channel : workers.keySet()) {
+            pending.add(new PendingNotification(UuidV7.nextString(), alert.getId(), channel, now, now.plus(lease)));
+        }
+        pendingNotificationRepository.saveAll(pending);
+
+        List<Runnable> submissions = new ArrayList<>(pending.size());
+        for (PendingNotification notification : pending) {
+            String id = notification.getId();
+            String channel = notification.getChannel();
+            submissions.add(() -> submit(id, channel, alert));
+        }
+        afterCommit(submissions);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.dispatch.cleanup-interval-ms:500}")
+    public void deleteDelivered() {
+        List<String> ids = new ArrayList<>();
+        String id;
+        while (ids.size() < retryBatchSize && (id = delivered.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            pendingNotificationRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.dispatch.retry-interval-ms:5000}")
+    @Transactional
+    public void redispatchDue() {
+        Instant now = Instant.now();
+        List<PendingNotification> due = pendingNotificationRepository.lockDueBatch(now, retryBatchSize);
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<String, Alert> alerts = alertRepository.findAllById(
+                due.stream().map(PendingNotification::getAlertId).distinct().toList()
+        ).stream().collect(Collectors.toMap(Alert::getId, Function.identity()));
+
+        List<Runnable> submissions = new ArrayList<>(due.size());
+        int abandoned = 0;
+        for (PendingNotification notification : due) {
+            Alert alert = alerts.get(notification.getAlertId());
+            String reason = abandonReason(notification, alert);
+            if (reason != null) {
+                pendingNotificationRepository.delete(notification);
+                abandoned++;
+                log.error("notification_dispatch_abandoned",
+                        kv("event", "notification_dispatch_abandoned"),
+                        kv("outcome", "failed"),
+                        kv("alertId", notification.getAlertId()),
+                        kv("channel", notification.getChannel()),
+                        kv("attempts", notification.getAttempts()),
+                        kv("error_code", reason)
+                );
+                continue;
+            }
+            notification.claim(now.plus(lease));
+            String id = notification.getId();
+            String channel = notification.getChannel();
+            submissions.add(() -> submit(id, channel, alert));
+        }
+        afterCommit(submissions);
+
+        log.info("notification_dispatch_redispatched",
+                kv("event", "notification_dispatch_redispatched"),
+                kv("outcome", abandoned == 0 ? "success" : "partial"),
+                kv("batch_size", due.size()),
+                kv("redispatched", submissions.size()),
+                kv("abandoned", abandoned)
+        );
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.values().forEach(worker -> worker.executor.shutdown());
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (ChannelWorker worker : workers.values()) {
+            // Whatever has not been delivered by then stays in pending_notifications for the next start.
+            if (!worker.executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                worker.executor.shutdownNow();
+            }
+        }
+        deleteDelivered();
+    }
+
+    private String abandonReason(PendingNotification notification, Alert alert) {
+        if (alert == null) {
+            return "ALERT_NOT_FOUND";
+        }
+        if (!workers.containsKey(notification.getChannel())) {
+            return "CHANNEL_NOT_CONFIGURED";
+        }
+        if (notification.getAttempts() >= maxAttempts) {
+            return "MAX_ATTEMPTS_EXCEEDED";
+        }
+        return null;
+    }
+
+    private void submit(String id, String channel, Alert alert) {
+        ChannelWorker worker = workers.get(channel);
+        try {
+            worker.executor.execute(() -> {
+                worker.dispatchDelay.record(Duration.between(alert.getCreatedAt(), Instant.now()));
+                if (delivery.deliver(worker.channel, alert)) {
+                    delivered.add(id);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            worker.rejected.increment();
+            log.warn("notification_dispatch_rejected",
+                    kv("event", "notification_dispatch_rejected"),
+                    kv("outcome", "deferred"),
+                    kv("alertId", alert.getId()),
+                    kv("channel", channel),
+                    kv("queue_depth", worker.executor.getQueue().size())
+            );
+        }
+    }
+
+    private static void afterCommit(List<Runnable> submissions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submissions.forEach(Runnable::run);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submissions.forEach(Runnable::run);
+            }
+        });
+    }
+
+    private static final class ChannelWorker {
+
+        private final NotificationChannel channel;
+        private final ThreadPoolExecutor executor;
+        private final Counter rejected;
+        private final Timer dispatchDelay;
+
+        private ChannelWorker(
+                NotificationChannel channel,
+                int workerCount,
+                int queueCapacity,
+                boolean virtualThreads,
+                MeterRegistry meterRegistry
+        ) {
+            String name = channel.channelName();
+            this.channel = channel;
+            this.executor = new ThreadPoolExecutor(
+                    workerCount,
+                    workerCount,
+                    0,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    threadFactory("notification-" + name + "-", virtualThreads),
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+            Gauge.builder("notification_dispatch_queue_depth", executor, pool -> pool.getQueue().size())
+                    .description("Notifications waiting for a worker of the channel")
+                    .tag("channel", name)
+                    .register(meterRegistry);
+            Gauge.builder("notification_dispatch_active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Workers of the channel currently sending a notification")
+                    .tag("channel", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("notification_dispatch_rejected")
+                    .description("Notifications left for the retry sweep because the channel queue was full")
+                    .tag("channel", name)
+                    .register(meterRegistry);
+            this.dispatchDelay = Timer.builder("notification_dispatch_delay")
+                    .description("Time from alert creation until a worker starts sending it")
+                    .tag("channel", name)
+                    .register(meterRegistry);
+        }
+
+        private static ThreadFactory threadFactory(String prefix, boolean virtualThreads) {
+            if (virtualThreads) {
+                return Thread.ofVirtual().name(prefix, 0).factory();
+            }
+            return Thread.ofPlatform().name(prefix, 0).daemon(true).factory();
+        }
+    }
+}
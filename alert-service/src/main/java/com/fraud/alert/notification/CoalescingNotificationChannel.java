@@ -0,0 +1,283 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.service.AlertMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Buffers alerts in front of another channel and sends each group (same user, or same severity) as one digest once
+ * {@code window} has passed since its first alert; a group holding a single alert is sent as a normal notification. A
+ * group that reaches {@code maxAlertsPerGroup} is sent right away, and when {@code maxGroups} groups are open the
+ * oldest one is sent early to make room, so memory stays bounded during a burst. Each send is recorded in
+ * {@link AlertMetrics} when it actually happens; a failed one is retried after {@code retryBackoff}, up to
+ * {@code maxAttempts} in total. {@link #close()} sends whatever is still buffered or waiting for a retry.
+ *
+ * <p>Buffered alerts live only in memory, so this channel must not sit behind {@link AsyncNotificationGateway}, which
+ * deletes its {@code pending_notifications} row as soon as {@link #send} returns.
+ */
+public class CoalescingNotificationChannel implements NotificationChannel, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingNotificationChannel.class);
+
+    public enum GroupBy {
+        USER,
+        SEVERITY
+    }
+
+    private final NotificationChannel delegate;
+    private final GroupBy groupBy;
+    private final Duration window;
+    private final int maxGroups;
+    private final int maxAlertsPerGroup;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final AlertMetrics alertMetrics;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private final Set<Group> retrying = new LinkedHashSet<>();
+    private final Counter coalescedAlerts;
+    private final Counter digestsSent;
+    private int bufferedAlerts;
+    private boolean closed;
+
+    public CoalescingNotificationChannel(
+            NotificationChannel delegate,
+            GroupBy groupBy,
+            Duration window,
+            int maxGroups,
+            int maxAlertsPerGroup,
+            int maxAttempts,
+            Duration retryBackoff,
+            AlertMetrics alertMetrics,
+            MeterRegistry meterRegistry
+    ) {
+        if (maxGroups < 1 || maxAlertsPerGroup < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException(
+                    "Coalescing max groups, max alerts per group and max attempts must be at least 1");
+        }
+        this.delegate = delegate;
+        this.groupBy = groupBy;
+        this.window = window;
+        this.maxGroups = maxGroups;
+        this.maxAlertsPerGroup = maxAlertsPerGroup;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.alertMetrics = alertMetrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("notification-coalescer-" + delegate.channelName()).daemon(true).factory());
+
+        String channel = delegate.channelName();
+        Gauge.builder("notification_coalescing_buffered", this, CoalescingNotificationChannel::buffered)
+                .description("Alerts held in open digest groups")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        this.coalescedAlerts = Counter.builder("notification_coalesced_alerts")
+                .description("Alerts delivered as part of a digest instead of on their own")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        this.digestsSent = Counter.builder("notification_digests")
+                .description("Digest notifications sent")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void send(Alert alert) {
+        String key = groupKey(alert);
+        List<Group> ready = new ArrayList<>(2);
+        synchronized (this) {
+            if (closed) {
+                ready.add(new Group(key, alert));
+            } else {
+                Group group = groups.get(key);
+                if (group == null) {
+                    if (groups.size() >= maxGroups) {
+                        ready.add(removeOldest());
+                    }
+                    group = new Group(key, alert);
+                    groups.put(key, group);
+                    Group scheduled = group;
+                    group.flush = scheduler.schedule(() -> flush(scheduled), window.toNanos(), TimeUnit.NANOSECONDS);
+                } else {
+                    group.alerts.add(alert);
+                }
+                bufferedAlerts++;
+                if (group.alerts.size() >= maxAlertsPerGroup) {
+                    ready.add(remove(group));
+                }
+            }
+        }
+        ready.forEach(this::deliver);
+    }
+
+    @Override
+    public String channelName() {
+        return delegate.channelName();
+    }
+
+    @Override
+    public boolean defersDelivery() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        List<Group> remaining;
+        synchronized (this) {
+            closed = true;
+            remaining = new ArrayList<>(groups.size());
+            while (!groups.isEmpty()) {
+                remaining.add(removeOldest());
+            }
+            remaining.addAll(retrying);
+            retrying.clear();
+        }
+        scheduler.shutdownNow();
+        if (!remaining.isEmpty()) {
+            log.info("notification_coalescing_flushed",
+                    kv("event", "notification_coalescing_flushed"),
+                    kv("outcome", "success"),
+                    kv("channel", channelName()),
+                    kv("groups", remaining.size())
+            );
+        }
+        remaining.forEach(this::deliver);
+    }
+
+    synchronized int buffered() {
+        return bufferedAlerts;
+    }
+
+    private void flush(Group group) {
+        synchronized (this) {
+            if (groups.get(group.key) != group) {
+                return;
+            }
+            remove(group);
+        }
+        deliver(group);
+    }
+
+    private Group removeOldest() {
+        Iterator<Group> oldest = groups.values().iterator();
+        Group group = oldest.next();
+        oldest.remove();
+        return detach(group);
+    }
+
+    private Group remove(Group group) {
+        groups.remove(group.key);
+        return detach(group);
+    }
+
+    private Group detach(Group group) {
+        bufferedAlerts -= group.alerts.size();
+        if (group.flush != null) {
+            group.flush.cancel(false);
+        }
+        return group;
+    }
+
+    private void retry(Group group) {
+        synchronized (this) {
+            if (!retrying.remove(group)) {
+                return;
+            }
+        }
+        deliver(group);
+    }
+
+    private void deliver(Group group) {
+        group.attempts++;
+        long startedAt = System.nanoTime();
+        try {
+            if (group.alerts.size() == 1) {
+                delegate.send(group.alerts.get(0));
+                alertMetrics.recordNotification(channelName(), "success", elapsedMs(startedAt));
+                return;
+            }
+            delegate.sendDigest(group.key, group.alerts);
+            alertMetrics.recordNotification(channelName(), "success", elapsedMs(startedAt));
+            digestsSent.increment();
+            coalescedAlerts.increment(group.alerts.size());
+            log.info("notification_digest_sent",
+                    kv("event", "notification_digest_sent"),
+                    kv("outcome", "success"),
+                    kv("channel", channelName()),
+                    kv("group_by", groupBy.name().toLowerCase(Locale.ROOT)),
+                    kv("alert_count", group.alerts.size())
+            );
+        } catch (Exception ex) {
+            alertMetrics.recordNotification(channelName(), "failed", elapsedMs(startedAt));
+            boolean retry = group.attempts < maxAttempts && scheduleRetry(group);
+            log.error("notification_digest_failed",
+                    kv("event", "notification_digest_failed"),
+                    kv("outcome", retry ? "retry" : "failed"),
+                    kv("channel", channelName()),
+                    kv("alert_count", group.alerts.size()),
+                    kv("attempt", group.attempts),
+                    kv("error_code", retry ? "NOTIFICATION_DIGEST_RETRY" : "NOTIFICATION_DIGEST_FAILED"),
+                    kv("error_class", ex.getClass().getSimpleName()),
+                    ex
+            );
+        }
+    }
+
+    private boolean scheduleRetry(Group group) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            retrying.add(group);
+        }
+        try {
+            scheduler.schedule(() -> retry(group), retryBackoff.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            // Closed in the meantime; close() has already taken the group and sends it once more.
+            return true;
+        }
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    private String groupKey(Alert alert) {
+        return groupBy == GroupBy.SEVERITY ? AlertMetrics.severity(alert.getRiskScore()) : alert.getUserId();
+    }
+
+    private static final class Group {
+
+        private final String key;
+        private final List<Alert> alerts = new ArrayList<>();
+        private ScheduledFuture<?> flush;
+        private int attempts;
+
+        private Group(String key, Alert first) {
+            this.key = key;
+            this.alerts.add(first);
+        }
+    }
+}
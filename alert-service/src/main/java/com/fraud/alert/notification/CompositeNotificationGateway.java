@@ -5,70 +5,171 @@ import com.fraud.alert.service.AlertMetrics;
 import com.fraud.alert.service.NotificationGateway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
  * Dispatches fraud alert notifications to all registered channels.
  * If a channel fails, it logs the error and continues with the remaining channels.
+ * In parallel mode every channel is sent on its own virtual thread, so the call takes as long as the slowest channel
+ * rather than the sum of all of them, and a channel still running after {@code channelTimeout} is interrupted and
+ * recorded as {@code timeout}.
  */
 public class CompositeNotificationGateway implements NotificationGateway {
 
     private static final Logger log = LoggerFactory.getLogger(CompositeNotificationGateway.class);
     private final List<NotificationChannel> channels;
     private final AlertMetrics alertMetrics;
+    private final Duration channelTimeout;
+    private final ExecutorService fanOutExecutor;
 
     public CompositeNotificationGateway(List<NotificationChannel> channels, AlertMetrics alertMetrics) {
+        this(channels, alertMetrics, false, null);
+    }
+
+    public CompositeNotificationGateway(
+            List<NotificationChannel> channels,
+            AlertMetrics alertMetrics,
+            boolean parallel,
+            Duration channelTimeout
+    ) {
         this.channels = channels;
         this.alertMetrics = alertMetrics;
+        this.channelTimeout = channelTimeout;
+        this.fanOutExecutor = parallel && channels.size() > 1
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-fan-out-", 0).factory())
+                : null;
         log.info("notification_gateway_initialized",
                 kv("event", "notification_gateway_initialized"),
                 kv("outcome", "success"),
-                kv("channels", channels.stream().map(NotificationChannel::channelName).toList())
+                kv("channels", channels.stream().map(NotificationChannel::channelName).toList()),
+                kv("fan_out", fanOutExecutor != null ? "parallel" : "sequential")
         );
     }
 
     @Override
     public void notifyFraud(Alert alert) {
+        if (fanOutExecutor == null) {
+            for (NotificationChannel channel : channels) {
+                deliver(channel, alert);
+            }
+            return;
+        }
+
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        long startedAt = System.nanoTime();
+        List<Future<Attempt>> attempts = new ArrayList<>(channels.size());
         for (NotificationChannel channel : channels) {
-            long attemptStartNanos = System.nanoTime();
-            String channelName = channel.channelName();
-            log.info("notification_attempt",
-                    kv("event", "notification_attempt"),
-                    kv("outcome", "attempt"),
+            attempts.add(fanOutExecutor.submit(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return attempt(channel, alert);
+                } finally {
+                    MDC.clear();
+                }
+            }));
+        }
+
+        // Every channel started at the same time, so they all share one deadline.
+        long deadline = startedAt + channelTimeout.toNanos();
+        for (int i = 0; i < attempts.size(); i++) {
+            NotificationChannel channel = channels.get(i);
+            Future<Attempt> attempt = attempts.get(i);
+            try {
+                record(alert, attempt.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                attempt.cancel(true);
+                record(alert, new Attempt(channel.channelName(), "timeout", System.nanoTime() - startedAt, ex));
+            } catch (ExecutionException ex) {
+                record(alert, new Attempt(channel.channelName(), "failed", System.nanoTime() - startedAt, ex.getCause()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                attempts.forEach(pending -> pending.cancel(true));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends {@code alert} through {@code channel} and returns whether it went through; a failure is logged and
+     * recorded, never thrown.
+     */
+    boolean deliver(NotificationChannel channel, Alert alert) {
+        return record(alert, attempt(channel, alert));
+    }
+
+    private Attempt attempt(NotificationChannel channel, Alert alert) {
+        long attemptStartNanos = System.nanoTime();
+        String channelName = channel.channelName();
+        log.info("notification_attempt",
+                kv("event", "notification_attempt"),
+                kv("outcome", "attempt"),
+                kv("alertId", alert.getId()),
+                kv("transactionId", alert.getTransactionId()),
+                kv("channel", channelName)
+        );
+        try {
+            channel.send(alert);
+            String outcome = channel.defersDelivery() ? "buffered" : "success";
+            return new Attempt(channelName, outcome, System.nanoTime() - attemptStartNanos, null);
+        } catch (Exception ex) {
+            return new Attempt(channelName, "failed", System.nanoTime() - attemptStartNanos, ex);
+        }
+    }
+
+    private boolean record(Alert alert, Attempt attempt) {
+        long durationMs = attempt.durationNanos() / 1_000_000;
+        if (!"buffered".equals(attempt.outcome())) {
+            // A buffering channel records the delivery once it happens.
+            alertMetrics.recordNotification(attempt.channel(), attempt.outcome(), durationMs);
+        }
+        if (attempt.error() == null) {
+            log.info("notification_result",
+                    kv("event", "notification_result"),
+                    kv("outcome", attempt.outcome()),
                     kv("alertId", alert.getId()),
                     kv("transactionId", alert.getTransactionId()),
-                    kv("channel", channelName)
+                    kv("channel", attempt.channel()),
+                    kv("duration_ms", durationMs)
             );
-            try {
-                channel.send(alert);
-                long durationMs = (System.nanoTime() - attemptStartNanos) / 1_000_000;
-                alertMetrics.recordNotification(channelName, "success", durationMs);
-                log.info("notification_result",
-                        kv("event", "notification_result"),
-                        kv("outcome", "success"),
-                        kv("alertId", alert.getId()),
-                        kv("transactionId", alert.getTransactionId()),
-                        kv("channel", channelName),
-                        kv("duration_ms", durationMs)
-                );
-            } catch (Exception ex) {
-                long durationMs = (System.nanoTime() - attemptStartNanos) / 1_000_000;
-                alertMetrics.recordNotification(channelName, "failed", durationMs);
-                log.error("notification_result",
-                        kv("event", "notification_result"),
-                        kv("outcome", "failed"),
-                        kv("alertId", alert.getId()),
-                        kv("transactionId", alert.getTransactionId()),
-                        kv("channel", channelName),
-                        kv("duration_ms", durationMs),
-                        kv("error_code", "NOTIFICATION_CHANNEL_FAILED"),
-                        kv("error_class", ex.getClass().getSimpleName()),
-                        ex
-                );
-            }
+            return true;
         }
+        log.error("notification_result",
+                kv("event", "notification_result"),
+                kv("outcome", attempt.outcome()),
+                kv("alertId", alert.getId()),
+                kv("transactionId", alert.getTransactionId()),
+                kv("channel", attempt.channel()),
+                kv("duration_ms", durationMs),
+                kv("error_code", "timeout".equals(attempt.outcome())
+                        ? "NOTIFICATION_CHANNEL_TIMEOUT"
+                        : "NOTIFICATION_CHANNEL_FAILED"),
+                kv("error_class", attempt.error().getClass().getSimpleName()),
+                attempt.error()
+        );
+        return false;
+    }
+
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    private record Attempt(String channel, String outcome, long durationNanos, Throwable error) {
     }
 }
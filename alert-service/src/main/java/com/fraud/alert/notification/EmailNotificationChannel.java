@@ -1,60 +1,52 @@
 package com.fraud.alert.notification;
 
 import com.fraud.alert.model.Alert;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 import java.util.List;
 
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
- * Notification channel that sends fraud alerts via email using SMTP.
+ * Notification channel that sends fraud alerts via email using SMTP. A failed send is logged and rethrown so the
+ * gateway can record it and retry.
  */
 public class EmailNotificationChannel implements NotificationChannel {
 
     private static final Logger log = LoggerFactory.getLogger(EmailNotificationChannel.class);
-    private static final DateTimeFormatter TIMESTAMP_FMT = DateTimeFormatter
-            .ofPattern("yyyy-MM-dd HH:mm:ss 'UTC'")
-            .withZone(ZoneOffset.UTC);
 
     private final JavaMailSender mailSender;
     private final String from;
     private final List<String> to;
+    private final EmailTemplateEngine templates;
 
     public EmailNotificationChannel(JavaMailSender mailSender, String from, List<String> to) {
+        this(mailSender, from, to, new EmailTemplateEngine());
+    }
+
+    public EmailNotificationChannel(
+            JavaMailSender mailSender,
+            String from,
+            List<String> to,
+            EmailTemplateEngine templates
+    ) {
         this.mailSender = mailSender;
         this.from = from;
         this.to = to;
+        this.templates = templates;
     }
 
     @Override
     public void send(Alert alert) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(from);
-            helper.setTo(to.toArray(String[]::new));
-            helper.setSubject(buildSubject(alert));
-            helper.setText(buildHtmlBody(alert), true);
-
-            mailSender.send(message);
-            log.info("email_notification_sent",
-                    kv("event", "email_notification_sent"),
-                    kv("outcome", "success"),
-                    kv("channel", "email"),
-                    kv("alertId", alert.getId()),
-                    kv("transactionId", alert.getTransactionId()),
-                    kv("recipient_count", to.size())
-            );
-        } catch (Exception ex) {
+            mailSender.send(createMessage(buildSubject(alert), buildHtmlBody(alert)));
+        } catch (RuntimeException ex) {
             log.error("email_notification_failed",
                     kv("event", "email_notification_failed"),
                     kv("outcome", "failed"),
@@ -65,97 +57,79 @@ public class EmailNotificationChannel implements NotificationChannel {
                     kv("error_class", ex.getClass().getSimpleName()),
                     ex
             );
+            // The gateway records the failure and, with async dispatch, keeps the pending row for a retry.
+            throw ex;
         }
+        log.info("email_notification_sent",
+                kv("event", "email_notification_sent"),
+                kv("outcome", "success"),
+                kv("channel", "email"),
+                kv("alertId", alert.getId()),
+                kv("transactionId", alert.getTransactionId()),
+                kv("recipient_count", to.size())
+        );
     }
 
     @Override
-    public String channelName() {
-        return "email";
+    public void sendDigest(String groupKey, List<Alert> alerts) {
+        try {
+            mailSender.send(createMessage(buildDigestSubject(groupKey, alerts), buildDigestHtmlBody(groupKey, alerts)));
+        } catch (RuntimeException ex) {
+            log.error("email_digest_failed",
+                    kv("event", "email_digest_failed"),
+                    kv("outcome", "failed"),
+                    kv("channel", "email"),
+                    kv("group", groupKey),
+                    kv("alert_count", alerts.size()),
+                    kv("error_code", "EMAIL_SEND_FAILED"),
+                    kv("error_class", ex.getClass().getSimpleName()),
+                    ex
+            );
+            // CoalescingNotificationChannel records the failure and retries the digest.
+            throw ex;
+        }
+        log.info("email_digest_sent",
+                kv("event", "email_digest_sent"),
+                kv("outcome", "success"),
+                kv("channel", "email"),
+                kv("group", groupKey),
+                kv("alert_count", alerts.size()),
+                kv("recipient_count", to.size())
+        );
     }
 
-    private String buildSubject(Alert alert) {
-        return String.format("[FRAUD ALERT] Risk score %d - User %s - Transaction %s",
-                alert.getRiskScore(), alert.getUserId(), alert.getTransactionId());
+    @Override
+    public String channelName() {
+        return "email";
     }
 
-    private String buildHtmlBody(Alert alert) {
-        String severityColor = getSeverityColor(alert.getRiskScore());
-        String severityLabel = getSeverityLabel(alert.getRiskScore());
-        List<String> reasons = parseReasons(alert.getReasons());
-
-        StringBuilder reasonsList = new StringBuilder();
-        for (String reason : reasons) {
-            reasonsList.append(String.format("<li style=\"padding:4px 0\">%s</li>", escapeHtml(reason)));
+    private MimeMessage createMessage(String subject, String htmlBody) {
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom(from);
+            helper.setTo(to.toArray(String[]::new));
+            helper.setSubject(subject);
+            helper.setText(htmlBody, true);
+        } catch (MessagingException ex) {
+            throw new MailPreparationException("Failed to build notification email", ex);
         }
-
-        return String.format("""
-                <div style="font-family:Arial,sans-serif;max-width:600px;margin:0 auto">
-                  <div style="background:%s;color:white;padding:16px 24px;border-radius:8px 8px 0 0">
-                    <h2 style="margin:0">Fraud Alert — %s</h2>
-                  </div>
-                  <div style="border:1px solid #e0e0e0;border-top:none;padding:24px;border-radius:0 0 8px 8px">
-                    <table style="width:100%%;border-collapse:collapse">
-                      <tr>
-                        <td style="padding:8px 0;font-weight:bold;color:#555">Transaction ID</td>
-                        <td style="padding:8px 0"><code>%s</code></td>
-                      </tr>
-                      <tr>
-                        <td style="padding:8px 0;font-weight:bold;color:#555">User ID</td>
-                        <td style="padding:8px 0"><code>%s</code></td>
-                      </tr>
-                      <tr>
-                        <td style="padding:8px 0;font-weight:bold;color:#555">Risk Score</td>
-                        <td style="padding:8px 0">
-                          <span style="background:%s;color:white;padding:4px 12px;border-radius:12px;font-weight:bold">%d / 100</span>
-                        </td>
-                      </tr>
-                      <tr>
-                        <td style="padding:8px 0;font-weight:bold;color:#555">Detected At</td>
-                        <td style="padding:8px 0">%s</td>
-                      </tr>
-                    </table>
-                    <h3 style="margin:20px 0 8px;color:#333">Triggered Rules</h3>
-                    <ul style="margin:0;padding-left:20px;color:#333">
-                      %s
-                    </ul>
-                    <hr style="margin:24px 0;border:none;border-top:1px solid #e0e0e0">
-                    <p style="color:#888;font-size:12px;margin:0">
-                      This is an automated alert from the Fraud Detection System. Alert ID: %s
-                    </p>
-                  </div>
-                </div>
-                """,
-                severityColor, severityLabel,
-                escapeHtml(alert.getTransactionId()),
-                escapeHtml(alert.getUserId()),
-                severityColor, alert.getRiskScore(),
-                TIMESTAMP_FMT.format(alert.getCreatedAt()),
-                reasonsList,
-                escapeHtml(alert.getId())
-        );
+        return message;
     }
 
-    private static String getSeverityColor(int riskScore) {
-        if (riskScore >= 80) return "#d32f2f";
-        if (riskScore >= 60) return "#f57c00";
-        if (riskScore >= 40) return "#fbc02d";
-        return "#388e3c";
+    private String buildSubject(Alert alert) {
+        return templates.alertSubject(alert);
     }
 
-    private static String getSeverityLabel(int riskScore) {
-        if (riskScore >= 80) return "CRITICAL";
-        if (riskScore >= 60) return "HIGH";
-        if (riskScore >= 40) return "MEDIUM";
-        return "LOW";
+    String buildHtmlBody(Alert alert) {
+        return templates.alertBody(alert);
     }
 
-    private static List<String> parseReasons(String reasons) {
-        if (reasons == null || reasons.isBlank()) return List.of("UNSPECIFIED");
-        return Arrays.stream(reasons.split(",")).map(String::trim).toList();
+    private String buildDigestSubject(String groupKey, List<Alert> alerts) {
+        return templates.digestSubject(groupKey, alerts);
     }
 
-    private static String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    String buildDigestHtmlBody(String groupKey, List<Alert> alerts) {
+        return templates.digestBody(groupKey, alerts);
     }
 }
@@ -0,0 +1,116 @@
+package com.fraud.alert.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An email template parsed once into the static text between placeholders and the {@link Slot} each placeholder
+ * stands for. {@code {{transactionId}}} is a slot; everything else is copied as is. Unknown slot names fail at parse
+ * time rather than leaving a literal placeholder in a sent email.
+ */
+final class EmailTemplate {
+
+    enum Slot {
+        ALERT_ID("alertId"),
+        TRANSACTION_ID("transactionId"),
+        USER_ID("userId"),
+        RISK_SCORE("riskScore"),
+        MAX_RISK_SCORE("maxRiskScore"),
+        SEVERITY_COLOR("severityColor"),
+        SEVERITY_LABEL("severityLabel"),
+        DETECTED_AT("detectedAt"),
+        REASONS("reasons"),
+        REASON_LIST("reasonList"),
+        GROUP_KEY("groupKey"),
+        ALERT_COUNT("alertCount"),
+        ROWS("rows");
+
+        private final String placeholder;
+
+        Slot(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        private static Slot of(String placeholder, String templateName) {
+            for (Slot slot : values()) {
+                if (slot.placeholder.equals(placeholder)) {
+                    return slot;
+                }
+            }
+            throw new IllegalArgumentException(
+                    "Unknown placeholder {{" + placeholder + "}} in email template " + templateName);
+        }
+    }
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final boolean html;
+    private final String[] literals;
+    private final Slot[] slots;
+    private final int literalLength;
+
+    private EmailTemplate(String name, boolean html, String[] literals, Slot[] slots) {
+        this.name = name;
+        this.html = html;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    static EmailTemplate parse(String name, String source, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open + " in email template " + name);
+            }
+            literals.add(source.substring(from, open));
+            slots.add(Slot.of(source.substring(open + OPEN.length(), close).trim(), name));
+            from = close + CLOSE.length();
+        }
+        literals.add(source.substring(from));
+        return new EmailTemplate(name, html, literals.toArray(String[]::new), slots.toArray(Slot[]::new));
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Whether slot values must be HTML-escaped; plain-text templates such as subjects are not.
+     */
+    boolean html() {
+        return html;
+    }
+
+    /**
+     * Number of slots; literal {@code i} comes before slot {@code i}, and there is one more literal than slots.
+     */
+    int slotCount() {
+        return slots.length;
+    }
+
+    String literal(int index) {
+        return literals[index];
+    }
+
+    Slot slot(int index) {
+        return slots[index];
+    }
+
+    /**
+     * Characters of static text, used to size the output buffer.
+     */
+    int literalLength() {
+        return literalLength;
+    }
+}
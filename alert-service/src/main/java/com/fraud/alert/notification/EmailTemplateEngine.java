@@ -0,0 +1,310 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.notification.EmailTemplate.Slot;
+import com.fraud.alert.service.AlertMetrics;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders alert and digest emails from templates under {@code location}, all parsed when the engine is built. Each
+ * template is looked up per severity and locale, most specific first: {@code alert-critical_es.html},
+ * {@code alert-critical.html}, {@code alert_es.html}, {@code alert.html}. Rendering appends static text and escaped
+ * values into a per-thread {@link StringBuilder} that is reused across emails.
+ */
+public class EmailTemplateEngine {
+
+    public static final String DEFAULT_LOCATION = "classpath:templates/email/";
+
+    private static final List<String> SEVERITIES = List.of("critical", "high", "medium", "low");
+    private static final DateTimeFormatter TIMESTAMP_FMT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss 'UTC'")
+            .withZone(ZoneOffset.UTC);
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    private enum Kind {
+        ALERT_BODY("alert", ".html", EnumSet.of(
+                Slot.ALERT_ID, Slot.TRANSACTION_ID, Slot.USER_ID, Slot.RISK_SCORE, Slot.SEVERITY_COLOR,
+                Slot.SEVERITY_LABEL, Slot.DETECTED_AT, Slot.REASONS, Slot.REASON_LIST)),
+        ALERT_SUBJECT("alert-subject", ".txt", ALERT_BODY.slots),
+        DIGEST_BODY("digest", ".html", EnumSet.of(
+                Slot.GROUP_KEY, Slot.ALERT_COUNT, Slot.MAX_RISK_SCORE, Slot.SEVERITY_COLOR, Slot.SEVERITY_LABEL,
+                Slot.ROWS)),
+        DIGEST_SUBJECT("digest-subject", ".txt", DIGEST_BODY.slots),
+        DIGEST_ROW("digest-row", ".html", union(ALERT_BODY.slots, EnumSet.of(Slot.GROUP_KEY)));
+
+        private final String baseName;
+        private final String extension;
+        private final Set<Slot> slots;
+
+        Kind(String baseName, String extension, Set<Slot> slots) {
+            this.baseName = baseName;
+            this.extension = extension;
+            this.slots = slots;
+        }
+
+        private boolean html() {
+            return ".html".equals(extension);
+        }
+
+        private static Set<Slot> union(Set<Slot> first, Set<Slot> second) {
+            EnumSet<Slot> union = EnumSet.copyOf(first);
+            union.addAll(second);
+            return union;
+        }
+    }
+
+    private final Map<Kind, Map<String, EmailTemplate>> templates = new EnumMap<>(Kind.class);
+
+    public EmailTemplateEngine() {
+        this(new DefaultResourceLoader(), DEFAULT_LOCATION, Locale.ENGLISH);
+    }
+
+    public EmailTemplateEngine(ResourceLoader resourceLoader, String location, Locale locale) {
+        String prefix = location.endsWith("/") ? location : location + "/";
+        Map<String, EmailTemplate> parsed = new HashMap<>();
+        for (Kind kind : Kind.values()) {
+            Map<String, EmailTemplate> bySeverity = new HashMap<>();
+            for (String severity : SEVERITIES) {
+                bySeverity.put(severity, resolve(resourceLoader, prefix, kind, severity, locale, parsed));
+            }
+            templates.put(kind, bySeverity);
+        }
+    }
+
+    public String alertSubject(Alert alert) {
+        return render(Kind.ALERT_SUBJECT, alert.getRiskScore(), alert, null, List.of());
+    }
+
+    public String alertBody(Alert alert) {
+        return render(Kind.ALERT_BODY, alert.getRiskScore(), alert, null, List.of());
+    }
+
+    public String digestSubject(String groupKey, List<Alert> alerts) {
+        return render(Kind.DIGEST_SUBJECT, maxRiskScore(alerts), null, groupKey, alerts);
+    }
+
+    public String digestBody(String groupKey, List<Alert> alerts) {
+        return render(Kind.DIGEST_BODY, maxRiskScore(alerts), null, groupKey, alerts);
+    }
+
+    private String render(Kind kind, int riskScore, Alert alert, String groupKey, List<Alert> alerts) {
+        EmailTemplate template = template(kind, riskScore);
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.ensureCapacity(template.literalLength() * 2);
+        write(template, out, riskScore, alert, groupKey, alerts);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            // One huge digest should not pin its buffer to the thread for good.
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    private void write(
+            EmailTemplate template,
+            StringBuilder out,
+            int riskScore,
+            Alert alert,
+            String groupKey,
+            List<Alert> alerts
+    ) {
+        boolean html = template.html();
+        int slotCount = template.slotCount();
+        for (int i = 0; i < slotCount; i++) {
+            out.append(template.literal(i));
+            switch (template.slot(i)) {
+                case ALERT_ID -> appendText(out, alert.getId(), html);
+                case TRANSACTION_ID -> appendText(out, alert.getTransactionId(), html);
+                case USER_ID -> appendText(out, alert.getUserId(), html);
+                case RISK_SCORE -> out.append(alert.getRiskScore());
+                case MAX_RISK_SCORE -> out.append(riskScore);
+                case SEVERITY_COLOR -> out.append(severityColor(riskScore));
+                case SEVERITY_LABEL -> out.append(severityLabel(riskScore));
+                case DETECTED_AT -> TIMESTAMP_FMT.formatTo(alert.getCreatedAt(), out);
+                case REASONS -> appendReasons(out, alert.getReasons(), html, "", ", ", "");
+                case REASON_LIST -> appendReasons(out, alert.getReasons(), html,
+                        "<li style=\"padding:4px 0\">", "", "</li>");
+                case GROUP_KEY -> appendText(out, groupKey, html);
+                case ALERT_COUNT -> out.append(alerts.size());
+                case ROWS -> {
+                    for (Alert row : alerts) {
+                        write(template(Kind.DIGEST_ROW, row.getRiskScore()), out, row.getRiskScore(), row, groupKey, alerts);
+                    }
+                }
+            }
+        }
+        out.append(template.literal(slotCount));
+    }
+
+    private EmailTemplate template(Kind kind, int riskScore) {
+        return templates.get(kind).get(AlertMetrics.severity(riskScore));
+    }
+
+    /**
+     * Appends each comma-separated reason, trimmed and escaped, without splitting the string first.
+     */
+    private static void appendReasons(
+            StringBuilder out,
+            String reasons,
+            boolean html,
+            String before,
+            String separator,
+            String after
+    ) {
+        if (reasons == null || reasons.isBlank()) {
+            out.append(before).append("UNSPECIFIED").append(after);
+            return;
+        }
+        boolean first = true;
+        int length = reasons.length();
+        int start = 0;
+        while (start <= length) {
+            int end = reasons.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(reasons.charAt(from))) from++;
+            while (to > from && Character.isWhitespace(reasons.charAt(to - 1))) to--;
+            if (from < to) {
+                if (!first) {
+                    out.append(separator);
+                }
+                out.append(before);
+                appendText(out, reasons, from, to, html);
+                out.append(after);
+                first = false;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static void appendText(StringBuilder out, String text, boolean html) {
+        if (text != null) {
+            appendText(out, text, 0, text.length(), html);
+        }
+    }
+
+    private static void appendText(StringBuilder out, String text, int from, int to, boolean html) {
+        if (!html) {
+            out.append(text, from, to);
+            return;
+        }
+        int run = from;
+        for (int i = from; i < to; i++) {
+            String entity = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(text, run, i).append(entity);
+                run = i + 1;
+            }
+        }
+        out.append(text, run, to);
+    }
+
+    private static int maxRiskScore(List<Alert> alerts) {
+        int max = 0;
+        for (Alert alert : alerts) {
+            max = Math.max(max, alert.getRiskScore());
+        }
+        return max;
+    }
+
+    private static String severityColor(int riskScore) {
+        if (riskScore >= 80) return "#d32f2f";
+        if (riskScore >= 60) return "#f57c00";
+        if (riskScore >= 40) return "#fbc02d";
+        return "#388e3c";
+    }
+
+    private static String severityLabel(int riskScore) {
+        return AlertMetrics.severity(riskScore).toUpperCase(Locale.ROOT);
+    }
+
+    private static EmailTemplate resolve(
+            ResourceLoader resourceLoader,
+            String prefix,
+            Kind kind,
+            String severity,
+            Locale locale,
+            Map<String, EmailTemplate> parsed
+    ) {
+        List<String> candidates = candidates(kind, severity, locale);
+        for (String candidate : candidates) {
+            EmailTemplate cached = parsed.get(candidate);
+            if (cached != null) {
+                return cached;
+            }
+            Resource resource = resourceLoader.getResource(prefix + candidate);
+            if (!resource.exists()) {
+                continue;
+            }
+            EmailTemplate template = EmailTemplate.parse(candidate, read(resource, kind), kind.html());
+            for (int i = 0; i < template.slotCount(); i++) {
+                if (!kind.slots.contains(template.slot(i))) {
+                    throw new IllegalArgumentException(
+                            "Placeholder " + template.slot(i) + " is not available in email template " + candidate);
+                }
+            }
+            parsed.put(candidate, template);
+            return template;
+        }
+        throw new IllegalStateException("No email template found under " + prefix + " for " + candidates);
+    }
+
+    private static List<String> candidates(Kind kind, String severity, Locale locale) {
+        Set<String> suffixes = new LinkedHashSet<>();
+        if (!locale.toString().isEmpty()) {
+            suffixes.add("_" + locale);
+        }
+        if (!locale.getLanguage().isEmpty()) {
+            suffixes.add("_" + locale.getLanguage());
+        }
+        suffixes.add("");
+
+        List<String> candidates = new ArrayList<>();
+        for (String name : List.of(kind.baseName + "-" + severity, kind.baseName)) {
+            for (String suffix : suffixes) {
+                candidates.add(name + suffix + kind.extension);
+            }
+        }
+        return candidates;
+    }
+
+    private static String read(Resource resource, Kind kind) {
+        try (InputStream in = resource.getInputStream()) {
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            // A subject is a single header line; drop the file's trailing newline.
+            return kind.html() ? source : source.strip();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read email template " + resource.getDescription(), ex);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.fraud.alert.notification;
 
 import com.fraud.alert.model.Alert;
 
+import java.util.List;
+
 /**
  * A single notification channel capable of delivering fraud alerts.
  * Implementations handle the specifics of each delivery mechanism (log, email, etc.).
@@ -12,9 +14,29 @@ public interface NotificationChannel {
      * Send a fraud alert notification through this channel.
      *
      * @param alert the alert to send
+     * @throws RuntimeException if the alert could not be delivered; it must not be swallowed, or the gateway counts
+     *                          the alert as sent and never retries it
      */
     void send(Alert alert);
 
+    /**
+     * Send several related alerts as one notification. Channels without a digest format send them one by one.
+     *
+     * @param groupKey what the alerts have in common (a user id or a severity)
+     * @param alerts   the alerts, oldest first
+     */
+    default void sendDigest(String groupKey, List<Alert> alerts) {
+        alerts.forEach(this::send);
+    }
+
+    /**
+     * Whether {@link #send} may return before the alert has gone out, in which case the channel records the outcome of
+     * the real delivery itself.
+     */
+    default boolean defersDelivery() {
+        return false;
+    }
+
     /**
      * @return human-readable name of this channel (for logging)
      */
@@ -2,48 +2,136 @@ package com.fraud.alert.notification;
 
 import com.fraud.alert.service.NotificationGateway;
 import com.fraud.alert.service.AlertMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 @Configuration
-@EnableConfigurationProperties(NotificationProperties.class)
+@EnableConfigurationProperties({NotificationProperties.class, MailProperties.class})
 public class NotificationConfig {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationConfig.class);
 
     @Bean
+    @ConditionalOnProperty(name = "app.notification.dispatch.mode", havingValue = "sync", matchIfMissing = true)
     public NotificationGateway notificationGateway(
             List<NotificationChannel> channels,
-            AlertMetrics alertMetrics
+            AlertMetrics alertMetrics,
+            @Value("${app.notification.fan-out.mode:sequential}") String fanOutMode,
+            @Value("${app.notification.fan-out.channel-timeout:PT5S}") Duration channelTimeout
     ) {
-        return new CompositeNotificationGateway(channels, alertMetrics);
+        if (!"sequential".equalsIgnoreCase(fanOutMode) && !"parallel".equalsIgnoreCase(fanOutMode)) {
+            throw new IllegalArgumentException("Unsupported notification fan-out mode: " + fanOutMode);
+        }
+        return new CompositeNotificationGateway(
+                channels, alertMetrics, "parallel".equalsIgnoreCase(fanOutMode), channelTimeout);
     }
 
     @Bean
     @ConditionalOnProperty(name = "app.notification.log-enabled", havingValue = "true", matchIfMissing = true)
-    public NotificationChannel logNotificationChannel() {
-        return new LogNotificationChannel();
+    public NotificationChannel logNotificationChannel(
+            NotificationProperties props,
+            MeterRegistry meterRegistry,
+            AlertMetrics alertMetrics,
+            @Value("${app.notification.dispatch.mode:sync}") String dispatchMode
+    ) {
+        return coalesce(new LogNotificationChannel(), props, meterRegistry, alertMetrics, dispatchMode);
+    }
+
+    /**
+     * Replaces the auto-configured {@link JavaMailSender}, built from the same {@code spring.mail.*} properties.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.notification.email.pool.enabled", havingValue = "true")
+    public PooledJavaMailSender pooledJavaMailSender(
+            MailProperties mailProperties,
+            MeterRegistry meterRegistry,
+            @Value("${app.notification.email.pool.max-connections:4}") int maxConnections,
+            @Value("${app.notification.email.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+            @Value("${app.notification.email.pool.max-idle:PT30S}") Duration maxIdle,
+            @Value("${app.notification.email.pool.borrow-timeout:PT10S}") Duration borrowTimeout
+    ) {
+        JavaMailSenderImpl settings = new JavaMailSenderImpl();
+        settings.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            settings.setPort(mailProperties.getPort());
+        }
+        settings.setUsername(mailProperties.getUsername());
+        settings.setPassword(mailProperties.getPassword());
+        settings.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            settings.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        settings.setJavaMailProperties(javaMailProperties);
+        return new PooledJavaMailSender(
+                settings, meterRegistry, maxConnections, maxMessagesPerConnection, maxIdle, borrowTimeout);
     }
 
     @Bean
     @ConditionalOnProperty(name = "app.notification.email.enabled", havingValue = "true")
     public NotificationChannel emailNotificationChannel(
             JavaMailSender mailSender,
-            NotificationProperties props
+            NotificationProperties props,
+            MeterRegistry meterRegistry,
+            AlertMetrics alertMetrics,
+            ResourceLoader resourceLoader,
+            @Value("${app.notification.dispatch.mode:sync}") String dispatchMode
     ) {
         NotificationProperties.EmailProperties email = props.email();
         if (email.to().isEmpty()) {
             log.warn("Email notification enabled but no recipients configured (app.notification.email.to). Skipping.");
             return new LogNotificationChannel();
         }
-        return new EmailNotificationChannel(mailSender, email.from(), email.to());
+        EmailTemplateEngine templates = new EmailTemplateEngine(
+                resourceLoader, email.templateLocation(), email.locale());
+        return coalesce(
+                new EmailNotificationChannel(mailSender, email.from(), email.to(), templates),
+                props, meterRegistry, alertMetrics, dispatchMode);
+    }
+
+    private static NotificationChannel coalesce(
+            NotificationChannel channel,
+            NotificationProperties props,
+            MeterRegistry meterRegistry,
+            AlertMetrics alertMetrics,
+            String dispatchMode
+    ) {
+        NotificationProperties.CoalescingProperties coalescing = props.coalescing();
+        if (!coalescing.enabled() || !coalescing.channels().contains(channel.channelName())) {
+            return channel;
+        }
+        if ("async".equalsIgnoreCase(dispatchMode)) {
+            // Async dispatch deletes the pending_notifications row once send() returns, while the alert would still
+            // only be buffered in memory.
+            throw new IllegalStateException(
+                    "app.notification.coalescing cannot be combined with app.notification.dispatch.mode=async");
+        }
+        return new CoalescingNotificationChannel(
+                channel,
+                coalescing.groupBy(),
+                coalescing.window(),
+                coalescing.maxGroups(),
+                coalescing.maxAlertsPerGroup(),
+                coalescing.maxAttempts(),
+                coalescing.retryBackoff(),
+                alertMetrics,
+                meterRegistry
+        );
     }
 }
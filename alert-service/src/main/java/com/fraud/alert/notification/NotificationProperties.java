@@ -2,26 +2,68 @@ package com.fraud.alert.notification;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 
 @ConfigurationProperties(prefix = "app.notification")
 public record NotificationProperties(
         boolean logEnabled,
-        EmailProperties email
+        EmailProperties email,
+        CoalescingProperties coalescing
 ) {
     public NotificationProperties {
         if (email == null) {
-            email = new EmailProperties(false, null, List.of());
+            email = new EmailProperties(false, null, List.of(), null, null);
+        }
+        if (coalescing == null) {
+            coalescing = new CoalescingProperties(false, null, null, 0, 0, 0, null, null);
         }
     }
 
+    /**
+     * {@code templateLocation} is a Spring resource location ({@code classpath:} or {@code file:}); see
+     * {@link EmailTemplateEngine} for how templates are picked by severity and {@code locale}.
+     */
     public record EmailProperties(
             boolean enabled,
             String from,
-            List<String> to
+            List<String> to,
+            Locale locale,
+            String templateLocation
     ) {
         public EmailProperties {
             if (to == null) to = List.of();
+            if (locale == null) locale = Locale.ENGLISH;
+            if (templateLocation == null || templateLocation.isBlank()) {
+                templateLocation = EmailTemplateEngine.DEFAULT_LOCATION;
+            }
+        }
+    }
+
+    /**
+     * Digest mode: alerts for the same group within {@code window} of the first one are sent as one notification on
+     * the listed channels. {@code maxGroups} and {@code maxAlertsPerGroup} bound the memory held by open groups; a send
+     * that fails is tried up to {@code maxAttempts} times, {@code retryBackoff} apart.
+     */
+    public record CoalescingProperties(
+            boolean enabled,
+            CoalescingNotificationChannel.GroupBy groupBy,
+            Duration window,
+            int maxGroups,
+            int maxAlertsPerGroup,
+            int maxAttempts,
+            Duration retryBackoff,
+            List<String> channels
+    ) {
+        public CoalescingProperties {
+            if (groupBy == null) groupBy = CoalescingNotificationChannel.GroupBy.USER;
+            if (window == null) window = Duration.ofMinutes(1);
+            if (maxGroups <= 0) maxGroups = 10_000;
+            if (maxAlertsPerGroup <= 0) maxAlertsPerGroup = 50;
+            if (maxAttempts <= 0) maxAttempts = 3;
+            if (retryBackoff == null) retryBackoff = Duration.ofSeconds(10);
+            if (channels == null) channels = List.of("email");
         }
     }
 }
@@ -0,0 +1,270 @@
+package com.fraud.alert.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * {@link JavaMailSender} that keeps up to {@code maxConnections} SMTP connections open and sends one message after
+ * another over them, instead of connecting, greeting and authenticating for every message as
+ * {@link JavaMailSenderImpl} does. A connection is retired after {@code maxMessagesPerConnection} messages or once it
+ * has been idle for {@code maxIdle}, before the server would drop it. When every connection is busy a send waits up to
+ * {@code borrowTimeout} and then fails.
+ */
+public class PooledJavaMailSender implements JavaMailSender, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledJavaMailSender.class);
+
+    private final JavaMailSenderImpl settings;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final Duration borrowTimeout;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter connectionsOpened;
+    private final Counter borrowTimeouts;
+    private final Timer borrowWait;
+    private volatile boolean closed;
+
+    public PooledJavaMailSender(
+            JavaMailSenderImpl settings,
+            MeterRegistry meterRegistry,
+            int maxConnections,
+            int maxMessagesPerConnection,
+            Duration maxIdle,
+            Duration borrowTimeout
+    ) {
+        if (maxConnections < 1 || maxMessagesPerConnection < 1) {
+            throw new IllegalArgumentException("SMTP pool size and messages per connection must be at least 1");
+        }
+        this.settings = settings;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+
+        Gauge.builder("smtp_pool_connections_active", active, AtomicInteger::get)
+                .description("SMTP connections currently sending a message")
+                .register(meterRegistry);
+        Gauge.builder("smtp_pool_connections_idle", idle, ConcurrentLinkedDeque::size)
+                .description("Open SMTP connections waiting for the next message")
+                .register(meterRegistry);
+        Gauge.builder("smtp_pool_connections_max", () -> maxConnections)
+                .description("Maximum SMTP connections in the pool")
+                .register(meterRegistry);
+        Gauge.builder("smtp_pool_pending", waiting, AtomicInteger::get)
+                .description("Sends waiting for a free SMTP connection")
+                .register(meterRegistry);
+        this.connectionsOpened = Counter.builder("smtp_pool_connections_opened")
+                .description("SMTP connections opened by the pool")
+                .register(meterRegistry);
+        this.borrowTimeouts = Counter.builder("smtp_pool_borrow_timeouts")
+                .description("Sends that gave up waiting for a free SMTP connection")
+                .register(meterRegistry);
+        this.borrowWait = Timer.builder("smtp_pool_borrow_wait")
+                .description("Time spent waiting for a free SMTP connection")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return settings.createMimeMessage();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        return settings.createMimeMessage(contentStream);
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        MimeMessage[] mimeMessages = new MimeMessage[simpleMessages.length];
+        for (int i = 0; i < simpleMessages.length; i++) {
+            MimeMailMessage message = new MimeMailMessage(createMimeMessage());
+            simpleMessages[i].copyTo(message);
+            mimeMessages[i] = message.getMimeMessage();
+        }
+        send(mimeMessages);
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        for (MimeMessage message : mimeMessages) {
+            send(message);
+        }
+    }
+
+    @Override
+    public void send(MimeMessage message) throws MailException {
+        if (closed) {
+            throw new MailSendException("SMTP connection pool is closed");
+        }
+        acquirePermit();
+        active.incrementAndGet();
+        try {
+            prepare(message);
+            PooledConnection connection = borrow();
+            try {
+                connection.send(message);
+            } catch (MessagingException ex) {
+                if (ex instanceof SendFailedException failed
+                        && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0) {
+                    // Rejected recipients: the connection itself is fine.
+                    release(connection);
+                    throw new MailSendException("Failed to send message", ex);
+                }
+                connection.close();
+                // A reused connection may have been dropped by the server since its last message: retry once on a
+                // fresh one. A brand-new connection failing means the server itself is the problem.
+                if (connection.sent == 0) {
+                    throw new MailSendException("Failed to send message", ex);
+                }
+                PooledConnection fresh = open();
+                try {
+                    fresh.send(message);
+                } catch (MessagingException retryEx) {
+                    fresh.close();
+                    throw new MailSendException("Failed to send message", retryEx);
+                }
+                release(fresh);
+                return;
+            }
+            release(connection);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private void acquirePermit() {
+        long startedAt = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                borrowTimeouts.increment();
+                throw new MailSendException("No SMTP connection available within " + borrowTimeout);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+        } finally {
+            waiting.decrementAndGet();
+            borrowWait.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private PooledConnection borrow() {
+        PooledConnection connection;
+        // Most recently used first: it is the least likely to have been dropped by the server. No NOOP probe here; a
+        // dropped connection shows up as a failed send and is retried on a fresh one.
+        while ((connection = idle.pollFirst()) != null) {
+            if (System.nanoTime() - connection.lastUsedAt < maxIdleNanos) {
+                return connection;
+            }
+            connection.close();
+        }
+        return open();
+    }
+
+    private PooledConnection open() {
+        try {
+            String protocol = settings.getProtocol() != null ? settings.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+            Transport transport = settings.getSession().getTransport(protocol);
+            transport.connect(settings.getHost(), settings.getPort(), settings.getUsername(), settings.getPassword());
+            connectionsOpened.increment();
+            return new PooledConnection(transport);
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException ex) {
+            log.error("smtp_pool_connect_failed",
+                    kv("event", "smtp_pool_connect_failed"),
+                    kv("outcome", "failed"),
+                    kv("host", settings.getHost()),
+                    kv("port", settings.getPort()),
+                    kv("error_class", ex.getClass().getSimpleName()),
+                    ex
+            );
+            throw new MailSendException("Failed to connect to SMTP server", ex);
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        if (closed || connection.sent >= maxMessagesPerConnection) {
+            connection.close();
+            return;
+        }
+        idle.offerFirst(connection);
+    }
+
+    private static void prepare(MimeMessage message) {
+        try {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+        } catch (MessagingException ex) {
+            throw new MailSendException("Failed to prepare message", ex);
+        }
+    }
+
+    private static final class PooledConnection {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsedAt = System.nanoTime();
+
+        private PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+            lastUsedAt = System.nanoTime();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // Closing a connection the server already dropped fails; either way it is gone.
+            }
+        }
+    }
+}
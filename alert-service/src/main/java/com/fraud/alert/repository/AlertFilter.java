@@ -0,0 +1,9 @@
+package com.fraud.alert.repository;
+
+import java.time.Instant;
+
+/**
+ * Optional filters for alert queries; null fields are not applied. {@code from} is inclusive and {@code to} exclusive.
+ */
+public record AlertFilter(String userId, Integer minRiskScore, Instant from, Instant to) {
+}
@@ -0,0 +1,111 @@
+package com.fraud.alert.repository;
+
+import com.fraud.alert.model.Alert;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read side of the alerts API. Results are ordered newest first by {@code (created_at, id)} and paged by keyset, so a
+ * page costs the same however deep the caller is, backed by the {@code (created_at, id)} and
+ * {@code (user_id, created_at, id)} indexes on {@link Alert}.
+ */
+@Repository
+public class AlertQueryRepository {
+
+    private static final String SELECT_ALERTS = """
+            SELECT id, transaction_id, user_id, risk_score, reasons, created_at, source_event_id, trace_id
+            FROM alerts
+            """;
+
+    private static final String ORDER = " ORDER BY created_at DESC, id DESC";
+
+    private static final RowMapper<Alert> ALERT_ROW_MAPPER = (rs, rowNum) -> new Alert(
+            rs.getString("id"),
+            rs.getString("transaction_id"),
+            rs.getString("user_id"),
+            rs.getInt("risk_score"),
+            rs.getString("reasons"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getString("source_event_id"),
+            rs.getString("trace_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int exportFetchSize;
+
+    public AlertQueryRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.alerts.api.export.fetch-size:500}") int exportFetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    /**
+     * Returns up to {@code limit} alerts matching {@code filter} that sort strictly after the {@code (afterCreatedAt,
+     * afterId)} position, or from the newest one when {@code afterCreatedAt} is null.
+     */
+    public List<Alert> findPage(AlertFilter filter, Instant afterCreatedAt, String afterId, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_ALERTS).append(where(filter, afterCreatedAt, afterId, parameters));
+        sql.append(ORDER).append(" LIMIT ?");
+        parameters.add(limit);
+        return jdbcTemplate.query(sql.toString(), ALERT_ROW_MAPPER, parameters.toArray());
+    }
+
+    /**
+     * Hands every alert matching {@code filter} to {@code consumer} in page order. Rows are fetched through a server-side
+     * cursor {@code fetch-size} rows at a time, which PostgreSQL only uses inside a transaction, so memory stays flat
+     * however many rows match.
+     */
+    @Transactional(readOnly = true)
+    public void stream(AlertFilter filter, Consumer<Alert> consumer) {
+        List<Object> parameters = new ArrayList<>();
+        String sql = SELECT_ALERTS + where(filter, null, null, parameters) + ORDER;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(exportFetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(ALERT_ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    private static String where(AlertFilter filter, Instant afterCreatedAt, String afterId, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.userId() != null) {
+            conditions.add("user_id = ?");
+            parameters.add(filter.userId());
+        }
+        if (filter.minRiskScore() != null) {
+            conditions.add("risk_score >= ?");
+            parameters.add(filter.minRiskScore());
+        }
+        if (filter.from() != null) {
+            conditions.add("created_at >= ?");
+            parameters.add(Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("created_at < ?");
+            parameters.add(Timestamp.from(filter.to()));
+        }
+        if (afterCreatedAt != null) {
+            conditions.add("(created_at, id) < (?, ?)");
+            parameters.add(Timestamp.from(afterCreatedAt));
+            parameters.add(afterId);
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+    }
+}
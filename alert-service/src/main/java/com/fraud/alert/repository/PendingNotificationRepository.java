@@ -0,0 +1,22 @@
+package com.fraud.alert.repository;
+
+import com.fraud.alert.model.PendingNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, String> {
+
+    @Query(value = """
+            SELECT *
+            FROM pending_notifications
+            WHERE next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PendingNotification> lockDueBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+}
@@ -4,13 +4,46 @@ import com.fraud.alert.model.ProcessedEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.time.Instant;
+import java.util.stream.Stream;
 
 public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
 
+    /**
+     * Returns 1 when the marker was inserted and 0 when the event was already processed. Unlike persisting the entity,
+     * a duplicate never fails the transaction. A negative partition is stored as null.
+     */
     @Modifying
-    @Query("DELETE FROM ProcessedEvent p WHERE p.processedAt < :cutoff")
-    int deleteByProcessedAtBefore(@Param("cutoff") Instant cutoff);
+    @Query(value = """
+            INSERT INTO processed_events (event_id, processed_at, source_partition)
+            VALUES (:eventId, :processedAt, NULLIF(:sourcePartition, -1))
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("eventId") String eventId,
+            @Param("processedAt") Instant processedAt,
+            @Param("sourcePartition") int sourcePartition
+    );
+
+    /**
+     * Streams the ids stored for the partition since {@code processedAfter}, plus the ones stored without a partition
+     * (markers written before partitions were recorded, and DLQ replays), so every id a redelivery may carry is seen.
+     * The rows are fetched in chunks; the caller must close the stream inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("""
+            SELECT p.eventId FROM ProcessedEvent p
+            WHERE (p.sourcePartition = :sourcePartition OR p.sourcePartition IS NULL)
+              AND p.processedAt >= :processedAfter
+            """)
+    Stream<String> streamEventIdsBySourcePartition(
+            @Param("sourcePartition") int sourcePartition,
+            @Param("processedAfter") Instant processedAfter
+    );
 }
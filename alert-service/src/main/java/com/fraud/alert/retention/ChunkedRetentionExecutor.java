@@ -0,0 +1,194 @@
+package com.fraud.alert.retention;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Deletes expired rows a bounded chunk at a time, each chunk its own auto-committed statement located by {@code ctid},
+ * so no run holds locks or an open transaction for long. Between chunks it pauses, and pauses longer while the hot path
+ * is under pressure: the last chunk exceeded {@code max-latency}, requests are waiting for a pooled connection, or the
+ * Kafka consumers lag more than {@code max-consumer-lag} records. A run stops after {@code max-run-duration}; whatever
+ * is left is reported as backlog and picked up by the next run.
+ */
+@Component
+public class ChunkedRetentionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedRetentionExecutor.class);
+
+    private static final String POOL_PENDING_METRIC = "hikaricp.connections.pending";
+    private static final String CONSUMER_LAG_METRIC = "kafka.consumer.fetch.manager.records.lag.max";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Duration yieldPause;
+    private final Duration maxLatency;
+    private final long maxConsumerLag;
+    private final Duration maxRunDuration;
+    private final int backlogCountLimit;
+    private final Map<String, Progress> progressByTable = new ConcurrentHashMap<>();
+
+    public ChunkedRetentionExecutor(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.data-retention.chunk.size:5000}") int chunkSize,
+            @Value("${app.data-retention.chunk.pause:PT0.05S}") Duration pause,
+            @Value("${app.data-retention.chunk.yield-pause:PT1S}") Duration yieldPause,
+            @Value("${app.data-retention.chunk.max-latency:PT0.5S}") Duration maxLatency,
+            @Value("${app.data-retention.chunk.max-consumer-lag:10000}") long maxConsumerLag,
+            @Value("${app.data-retention.chunk.max-run-duration:PT1M}") Duration maxRunDuration,
+            @Value("${app.data-retention.chunk.backlog-count-limit:100000}") int backlogCountLimit
+    ) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.data-retention.chunk.size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.yieldPause = yieldPause;
+        this.maxLatency = maxLatency;
+        this.maxConsumerLag = maxConsumerLag;
+        this.maxRunDuration = maxRunDuration;
+        this.backlogCountLimit = backlogCountLimit;
+    }
+
+    /**
+     * Deletes the rows of {@code table} matching {@code expiredCondition}, a predicate with a single {@code ?} bound to
+     * {@code cutoff}, and returns how many were deleted in this run.
+     */
+    public long purge(String table, String expiredCondition, Instant cutoff) {
+        Progress progress = progressByTable.computeIfAbsent(table, this::registerProgress);
+        String deleteChunk = deleteChunkStatement(table, expiredCondition);
+        Timestamp cutoffParameter = Timestamp.from(cutoff);
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + maxRunDuration.toNanos();
+        long deleted = 0;
+        int chunks = 0;
+        int yields = 0;
+        boolean drained = false;
+        while (System.nanoTime() < deadline) {
+            long chunkStartedAt = System.nanoTime();
+            int rows = jdbcTemplate.update(deleteChunk, cutoffParameter);
+            long chunkNanos = System.nanoTime() - chunkStartedAt;
+            deleted += rows;
+            chunks++;
+            if (rows < chunkSize) {
+                drained = true;
+                break;
+            }
+            boolean underPressure = underPressure(chunkNanos);
+            if (underPressure) {
+                yields++;
+            }
+            if (!sleep(underPressure ? yieldPause : pause)) {
+                break;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        progress.rowsPerSecond = seconds > 0 ? deleted / seconds : 0;
+        progress.backlog = drained ? 0 : countBacklog(table, expiredCondition, cutoffParameter);
+        if (deleted > 0 || !drained) {
+            log.info("data_retention_chunked_delete",
+                    kv("event", "data_retention_chunked_delete"),
+                    kv("outcome", drained ? "success" : "partial"),
+                    kv("table", table),
+                    kv("deleted", deleted),
+                    kv("chunks", chunks),
+                    kv("yields", yields),
+                    kv("rows_per_second", Math.round(progress.rowsPerSecond)),
+                    kv("backlog", progress.backlog),
+                    kv("cutoff", cutoff)
+            );
+        }
+        return deleted;
+    }
+
+    private String deleteChunkStatement(String table, String expiredCondition) {
+        String chunk = " WHERE " + expiredCondition + " LIMIT " + chunkSize;
+        if (isPartitioned(table)) {
+            // ctid is only unique within one partition, so pair it with the partition the row lives in.
+            return "DELETE FROM " + table + " WHERE (tableoid, ctid) IN (SELECT tableoid, ctid FROM " + table + chunk + ")";
+        }
+        return "DELETE FROM " + table + " WHERE ctid = ANY(ARRAY(SELECT ctid FROM " + table + chunk + "))";
+    }
+
+    private boolean underPressure(long chunkNanos) {
+        if (chunkNanos > maxLatency.toNanos()) {
+            return true;
+        }
+        if (largestGaugeValue(POOL_PENDING_METRIC) > 0) {
+            return true;
+        }
+        return largestGaugeValue(CONSUMER_LAG_METRIC) > maxConsumerLag;
+    }
+
+    private double largestGaugeValue(String name) {
+        return meterRegistry.find(name).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(Double::isFinite)
+                .max()
+                .orElse(0);
+    }
+
+    private long countBacklog(String table, String expiredCondition, Timestamp cutoff) {
+        Long backlog = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM (SELECT 1 FROM " + table + " WHERE " + expiredCondition
+                        + " LIMIT " + backlogCountLimit + ") AS expired",
+                Long.class,
+                cutoff
+        );
+        return backlog == null ? 0 : backlog;
+    }
+
+    private boolean isPartitioned(String table) {
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kind.size() == 1 && "p".equals(kind.get(0));
+    }
+
+    private Progress registerProgress(String table) {
+        Progress progress = new Progress();
+        Gauge.builder("data_retention_rows_per_second", progress, current -> current.rowsPerSecond)
+                .description("Rows deleted per second by the last retention run")
+                .tag("table", table)
+                .register(meterRegistry);
+        Gauge.builder("data_retention_backlog_rows", progress, current -> current.backlog)
+                .description("Expired rows left after the last retention run, counted up to the backlog limit")
+                .tag("table", table)
+                .register(meterRegistry);
+        return progress;
+    }
+
+    private static boolean sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Progress {
+        private volatile double rowsPerSecond;
+        private volatile long backlog;
+    }
+}
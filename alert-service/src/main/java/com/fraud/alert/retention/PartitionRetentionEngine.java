@@ -0,0 +1,188 @@
+package com.fraud.alert.retention;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Retention by partition instead of by row: creates the buckets from the cutoff up to {@code precreate} buckets ahead,
+ * drops buckets that ended before the cutoff as a whole and only deletes rows, in chunks, in the default partition,
+ * which holds the stragglers (late or far-future timestamps). Each create or drop runs in its own short transaction
+ * under an advisory lock on the table, so replicas running the same schedule do not race each other.
+ */
+@Component
+public class PartitionRetentionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionRetentionEngine.class);
+
+    private static final String RELATION_KIND = "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)";
+
+    private static final String LIST_PARTITIONS = """
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE pg_inherits.inhparent = to_regclass(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChunkedRetentionExecutor chunkedRetentionExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int precreate;
+    private final Set<String> reportedUnpartitioned = ConcurrentHashMap.newKeySet();
+
+    public PartitionRetentionEngine(
+            JdbcTemplate jdbcTemplate,
+            ChunkedRetentionExecutor chunkedRetentionExecutor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.data-retention.partition.precreate:3}") int precreate
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkedRetentionExecutor = chunkedRetentionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precreate = precreate;
+    }
+
+    /**
+     * Applies retention to {@code table} and returns true, or returns false without touching anything when the table
+     * is not partitioned yet, in which case the caller should fall back to deleting rows.
+     */
+    public boolean apply(PartitionedTable table, Instant now) {
+        if (!isPartitioned(table.name())) {
+            if (reportedUnpartitioned.add(table.name())) {
+                log.warn("data_retention_table_not_partitioned",
+                        kv("event", "data_retention_table_not_partitioned"),
+                        kv("outcome", "fallback"),
+                        kv("table", table.name())
+                );
+            }
+            return false;
+        }
+        PartitionedTable.Granularity granularity = table.granularity();
+        Instant cutoff = now.minus(table.retention());
+
+        Set<Instant> existing = new TreeSet<>();
+        for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, table.name())) {
+            Instant start = table.partitionStart(partition);
+            if (start != null) {
+                existing.add(start);
+            }
+        }
+
+        int created = 0;
+        Instant last = granularity.plus(granularity.truncate(now), precreate);
+        for (Instant start = granularity.truncate(cutoff); !start.isAfter(last); start = granularity.next(start)) {
+            if (!existing.contains(start) && createPartition(table, start)) {
+                created++;
+            }
+        }
+
+        int dropped = 0;
+        for (Instant start : existing) {
+            if (!granularity.next(start).isAfter(cutoff) && dropPartition(table, start)) {
+                dropped++;
+            }
+        }
+
+        long purged = purgeDefaultPartition(table, cutoff);
+        if (created > 0 || dropped > 0 || purged > 0) {
+            log.info("data_retention_partitions",
+                    kv("event", "data_retention_partitions"),
+                    kv("outcome", "success"),
+                    kv("table", table.name()),
+                    kv("created", created),
+                    kv("dropped", dropped),
+                    kv("purged_default_rows", purged),
+                    kv("cutoff", cutoff)
+            );
+        }
+        return true;
+    }
+
+    private boolean isPartitioned(String table) {
+        List<String> kind = jdbcTemplate.queryForList(RELATION_KIND, String.class, table);
+        return kind.size() == 1 && "p".equals(kind.get(0));
+    }
+
+    private boolean createPartition(PartitionedTable table, Instant start) {
+        String partition = table.partitionName(start);
+        Instant end = table.granularity().next(start);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            lockTable(table);
+            if (exists(partition)) {
+                return false;
+            }
+            // Created detached and attached afterwards so rows that already landed in the default partition for this
+            // bucket can be moved across; creating it with PARTITION OF would fail on them.
+            jdbcTemplate.execute("CREATE TABLE " + partition
+                    + " (LIKE " + table.name() + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            if (exists(table.defaultPartitionName())) {
+                jdbcTemplate.update(
+                        "WITH moved AS (DELETE FROM " + table.defaultPartitionName()
+                                + " WHERE " + table.column() + " >= ? AND " + table.column() + " < ? RETURNING *)"
+                                + " INSERT INTO " + partition + " SELECT * FROM moved",
+                        Timestamp.from(start),
+                        Timestamp.from(end)
+                );
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table.name() + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+            return true;
+        }));
+    }
+
+    private boolean dropPartition(PartitionedTable table, Instant start) {
+        String partition = table.partitionName(start);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            lockTable(table);
+            if (!exists(partition)) {
+                return false;
+            }
+            if (table.pendingRowCondition() != null && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE " + table.pendingRowCondition() + ")",
+                    Boolean.class
+            ))) {
+                log.warn("data_retention_partition_retained",
+                        kv("event", "data_retention_partition_retained"),
+                        kv("outcome", "skipped"),
+                        kv("table", table.name()),
+                        kv("partition", partition)
+                );
+                return false;
+            }
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            return true;
+        }));
+    }
+
+    private long purgeDefaultPartition(PartitionedTable table, Instant cutoff) {
+        if (!exists(table.defaultPartitionName())) {
+            return 0;
+        }
+        String expired = table.column() + " < ?";
+        if (table.pendingRowCondition() != null) {
+            expired += " AND NOT (" + table.pendingRowCondition() + ")";
+        }
+        return chunkedRetentionExecutor.purge(table.defaultPartitionName(), expired, cutoff);
+    }
+
+    private void lockTable(PartitionedTable table) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", table.name());
+    }
+
+    private boolean exists(String relation) {
+        return !jdbcTemplate.queryForList(RELATION_KIND, String.class, relation).isEmpty();
+    }
+}
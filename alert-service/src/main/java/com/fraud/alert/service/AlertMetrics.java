@@ -15,7 +15,6 @@ public class AlertMetrics {
     private final Counter fraudAlertsCreatedCounter;
     private final DistributionSummary fraudAlertRiskScoreSummary;
     private final MeterRegistry meterRegistry;
-    private final Timer notificationLatencyTimer;
 
     public AlertMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -25,9 +24,6 @@ public class AlertMetrics {
         this.fraudAlertRiskScoreSummary = DistributionSummary.builder("fraud_alert_risk_score")
                 .description("Risk score distribution for generated fraud alerts")
                 .register(meterRegistry);
-        this.notificationLatencyTimer = Timer.builder("fraud_alert_notification_latency")
-                .description("Latency for sending fraud notifications by channel")
-                .register(meterRegistry);
     }
 
     public void recordAlertCreated(Alert alert) {
@@ -38,10 +34,14 @@ public class AlertMetrics {
 
     public void recordNotification(String channel, String outcome, long durationMs) {
         meterRegistry.counter("fraud_alert_notifications", "channel", channel, "outcome", outcome).increment();
-        notificationLatencyTimer.record(durationMs, TimeUnit.MILLISECONDS);
+        Timer.builder("fraud_alert_notification_latency")
+                .description("Latency for sending fraud notifications by channel")
+                .tag("channel", channel)
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
     }
 
-    private static String severity(int riskScore) {
+    public static String severity(int riskScore) {
         if (riskScore >= 80) {
             return "critical";
         }
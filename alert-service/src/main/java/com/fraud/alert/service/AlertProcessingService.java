@@ -1,15 +1,14 @@
 package com.fraud.alert.service;
 
 import com.fraud.alert.events.FraudDetectedEvent;
+import com.fraud.alert.idempotency.ProcessedEventGuard;
 import com.fraud.alert.mapping.AlertEventMapper;
 import com.fraud.alert.model.Alert;
-import com.fraud.alert.model.ProcessedEvent;
 import com.fraud.alert.repository.AlertRepository;
-import com.fraud.alert.repository.ProcessedEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,28 +21,39 @@ public class AlertProcessingService {
 
     private static final Logger log = LoggerFactory.getLogger(AlertProcessingService.class);
 
-    private final ProcessedEventRepository processedEventRepository;
+    private final ProcessedEventGuard processedEventGuard;
     private final AlertRepository alertRepository;
     private final AlertEventMapper alertEventMapper;
     private final NotificationGateway notificationGateway;
     private final AlertMetrics alertMetrics;
+    private final boolean eventTimeMarkers;
 
     public AlertProcessingService(
-            ProcessedEventRepository processedEventRepository,
+            ProcessedEventGuard processedEventGuard,
             AlertRepository alertRepository,
             AlertEventMapper alertEventMapper,
             NotificationGateway notificationGateway,
-            AlertMetrics alertMetrics
+            AlertMetrics alertMetrics,
+            @Value("${app.data-retention.strategy:delete}") String retentionStrategy
     ) {
-        this.processedEventRepository = processedEventRepository;
+        this.processedEventGuard = processedEventGuard;
         this.alertRepository = alertRepository;
         this.alertEventMapper = alertEventMapper;
         this.notificationGateway = notificationGateway;
         this.alertMetrics = alertMetrics;
+        this.eventTimeMarkers = "partition".equalsIgnoreCase(retentionStrategy);
     }
 
     @Transactional
     public void process(FraudDetectedEvent event) {
+        process(event, -1);
+    }
+
+    /**
+     * {@code partition} is the source partition of the record, or -1 when unknown; it selects the dedupe filter.
+     */
+    @Transactional
+    public void process(FraudDetectedEvent event, int partition) {
         String previousTraceId = MDC.get("traceId");
         String traceId = resolveTraceId(previousTraceId, event.traceId());
         boolean injectedTraceId = false;
@@ -63,7 +73,10 @@ public class AlertProcessingService {
             );
 
             Instant now = Instant.now();
-            if (!tryMarkAsProcessed(event.eventId(), now)) {
+            // A partitioned processed_events only dedupes on (event_id, processed_at), so with partition retention the
+            // marker is keyed on the event time and a redelivery produces the same pair.
+            Instant processedAt = eventTimeMarkers && event.occurredAt() != null ? event.occurredAt() : now;
+            if (!processedEventGuard.tryMarkAsProcessed(event.eventId(), processedAt, partition)) {
                 log.info("alert_event_duplicate",
                         kv("event", "alert_event_duplicate"),
                         kv("outcome", "duplicate"),
@@ -106,13 +119,4 @@ public class AlertProcessingService {
         }
         return null;
     }
-
-    private boolean tryMarkAsProcessed(String eventId, Instant processedAt) {
-        try {
-            processedEventRepository.saveAndFlush(new ProcessedEvent(eventId, processedAt));
-            return true;
-        } catch (DataIntegrityViolationException ignored) {
-            return false;
-        }
-    }
 }
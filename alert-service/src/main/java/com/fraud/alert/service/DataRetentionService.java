@@ -1,12 +1,11 @@
 package com.fraud.alert.service;
 
-import com.fraud.alert.repository.ProcessedEventRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.fraud.alert.retention.ChunkedRetentionExecutor;
+import com.fraud.alert.retention.PartitionRetentionEngine;
+import com.fraud.alert.retention.PartitionedTable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -14,26 +13,36 @@ import java.time.Instant;
 @Service
 public class DataRetentionService {
 
-    private static final Logger log = LoggerFactory.getLogger(DataRetentionService.class);
-
-    private final ProcessedEventRepository processedEventRepository;
+    private final PartitionRetentionEngine partitionRetentionEngine;
+    private final ChunkedRetentionExecutor chunkedRetentionExecutor;
     private final Duration processedEventRetention;
+    private final boolean partitionStrategy;
+    private final PartitionedTable processedEventsTable;
 
     public DataRetentionService(
-            ProcessedEventRepository processedEventRepository,
-            @Value("${app.data-retention.processed-event-ttl:PT1H}") Duration processedEventRetention
+            PartitionRetentionEngine partitionRetentionEngine,
+            ChunkedRetentionExecutor chunkedRetentionExecutor,
+            @Value("${app.data-retention.processed-event-ttl:PT1H}") Duration processedEventRetention,
+            @Value("${app.data-retention.strategy:delete}") String strategy,
+            @Value("${app.data-retention.partition.granularity:HOUR}") PartitionedTable.Granularity granularity
     ) {
-        this.processedEventRepository = processedEventRepository;
+        if (!"delete".equalsIgnoreCase(strategy) && !"partition".equalsIgnoreCase(strategy)) {
+            throw new IllegalArgumentException("Unsupported data retention strategy: " + strategy);
+        }
+        this.partitionRetentionEngine = partitionRetentionEngine;
+        this.chunkedRetentionExecutor = chunkedRetentionExecutor;
         this.processedEventRetention = processedEventRetention;
+        this.partitionStrategy = "partition".equalsIgnoreCase(strategy);
+        this.processedEventsTable = new PartitionedTable(
+                "processed_events", "processed_at", granularity, processedEventRetention);
     }
 
     @Scheduled(fixedRateString = "${app.data-retention.cleanup-interval:300000}")
-    @Transactional
     public void purgeExpiredProcessedEvents() {
-        Instant cutoff = Instant.now().minus(processedEventRetention);
-        int deleted = processedEventRepository.deleteByProcessedAtBefore(cutoff);
-        if (deleted > 0) {
-            log.info("Purged {} expired processed events older than {}", deleted, cutoff);
+        Instant now = Instant.now();
+        if (partitionStrategy && partitionRetentionEngine.apply(processedEventsTable, now)) {
+            return;
         }
+        chunkedRetentionExecutor.purge("processed_events", "processed_at < ?", now.minus(processedEventRetention));
     }
 }
@@ -1,20 +1,33 @@
 package com.fraud.alert.api;
 
 import com.fraud.alert.model.Alert;
-import com.fraud.alert.repository.AlertRepository;
+import com.fraud.alert.repository.AlertFilter;
+import com.fraud.alert.repository.AlertQueryRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = AlertController.class)
@@ -24,7 +37,7 @@ class AlertControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private AlertRepository alertRepository;
+    private AlertQueryRepository alertQueryRepository;
 
     @MockBean
     private AlertMapper mapper;
@@ -69,7 +82,8 @@ class AlertControllerTest {
                 "trace-1"
         );
 
-        when(alertRepository.findAllByOrderByCreatedAtDesc()).thenReturn(List.of(first, second));
+        AlertFilter noFilter = new AlertFilter(null, null, null, null);
+        when(alertQueryRepository.findPage(noFilter, null, null, 51)).thenReturn(List.of(first, second));
         when(mapper.toResponse(first)).thenReturn(firstResponse);
         when(mapper.toResponse(second)).thenReturn(secondResponse);
 
@@ -79,9 +93,10 @@ class AlertControllerTest {
                 .andExpect(jsonPath("$[0].transactionId").value("tx-2"))
                 .andExpect(jsonPath("$[0].reasons[0]").value("HIGH_AMOUNT"))
                 .andExpect(jsonPath("$[1].id").value("a-1"))
-                .andExpect(jsonPath("$[1].transactionId").value("tx-1"));
+                .andExpect(jsonPath("$[1].transactionId").value("tx-1"))
+                .andExpect(header().doesNotExist(AlertController.NEXT_CURSOR_HEADER));
 
-        verify(alertRepository).findAllByOrderByCreatedAtDesc();
+        verify(alertQueryRepository).findPage(noFilter, null, null, 51);
     }
 
     @Test
@@ -106,7 +121,8 @@ class AlertControllerTest {
                 "trace-3"
         );
 
-        when(alertRepository.findByUserIdOrderByCreatedAtDesc("user-42")).thenReturn(List.of(userAlert));
+        AlertFilter userFilter = new AlertFilter("user-42", null, null, null);
+        when(alertQueryRepository.findPage(userFilter, null, null, 51)).thenReturn(List.of(userAlert));
         when(mapper.toResponse(userAlert)).thenReturn(userAlertResponse);
 
         mockMvc.perform(get("/api/v1/alerts/users/user-42"))
@@ -116,6 +132,95 @@ class AlertControllerTest {
                 .andExpect(jsonPath("$[0].riskScore").value(88))
                 .andExpect(jsonPath("$[0].reasons[1]").value("HIGH_RISK_MERCHANT"));
 
-        verify(alertRepository).findByUserIdOrderByCreatedAtDesc("user-42");
+        verify(alertQueryRepository).findPage(userFilter, null, null, 51);
+    }
+
+    @Test
+    void listAlertsShouldReturnCursorForNextPageAndApplyItOnTheFollowingRequest() throws Exception {
+        Alert newest = new Alert("a-3", "tx-3", "user-1", 90, "HIGH_AMOUNT", Instant.parse("2026-01-01T10:03:00Z"));
+        Alert middle = new Alert("a-2", "tx-2", "user-1", 80, "HIGH_AMOUNT", Instant.parse("2026-01-01T10:02:00Z"));
+        Alert oldest = new Alert("a-1", "tx-1", "user-1", 75, "HIGH_AMOUNT", Instant.parse("2026-01-01T10:01:00Z"));
+        AlertFilter filter = new AlertFilter(
+                null, 70, Instant.parse("2026-01-01T00:00:00Z"), Instant.parse("2026-01-02T00:00:00Z"));
+
+        when(alertQueryRepository.findPage(filter, null, null, 3)).thenReturn(List.of(newest, middle, oldest));
+        when(mapper.toResponse(any(Alert.class))).thenAnswer(invocation -> {
+            Alert alert = invocation.getArgument(0);
+            return new AlertResponse(alert.getId(), alert.getTransactionId(), alert.getUserId(), alert.getRiskScore(),
+                    List.of(alert.getReasons()), alert.getCreatedAt(), "evt", "trace");
+        });
+
+        String cursor = mockMvc.perform(get("/api/v1/alerts")
+                        .param("minRiskScore", "70")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-01-02T00:00:00Z")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value("a-2"))
+                .andExpect(header().exists(AlertController.NEXT_CURSOR_HEADER))
+                .andReturn()
+                .getResponse()
+                .getHeader(AlertController.NEXT_CURSOR_HEADER);
+
+        when(alertQueryRepository.findPage(filter, middle.getCreatedAt(), "a-2", 3)).thenReturn(List.of(oldest));
+
+        mockMvc.perform(get("/api/v1/alerts")
+                        .param("minRiskScore", "70")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-01-02T00:00:00Z")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("a-1"))
+                .andExpect(header().doesNotExist(AlertController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void listAlertsShouldRejectOutOfRangeLimitAndMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/alerts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/alerts").param("limit", "501"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/alerts").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(alertQueryRepository);
+    }
+
+    @Test
+    void exportAlertsShouldStreamOneJsonObjectPerLine() throws Exception {
+        Alert first = new Alert("a-2", "tx-2", "user-7", 70, "HIGH_AMOUNT", Instant.parse("2026-01-01T10:02:00Z"));
+        Alert second = new Alert("a-1", "tx-1", "user-7", 55, "HIGH_VELOCITY", Instant.parse("2026-01-01T10:01:00Z"));
+        AlertFilter filter = new AlertFilter("user-7", null, null, null);
+
+        doAnswer(invocation -> {
+            Consumer<Alert> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(alertQueryRepository).stream(eq(filter), any());
+        when(mapper.toResponse(first)).thenReturn(new AlertResponse(
+                "a-2", "tx-2", "user-7", 70, List.of("HIGH_AMOUNT"), first.getCreatedAt(), "evt-2", "trace-2"));
+        when(mapper.toResponse(second)).thenReturn(new AlertResponse(
+                "a-1", "tx-1", "user-7", 55, List.of("HIGH_VELOCITY"), second.getCreatedAt(), "evt-1", "trace-1"));
+
+        MvcResult started = mockMvc.perform(get("/api/v1/alerts/export").param("userId", "user-7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(AlertController.APPLICATION_NDJSON_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"a-2\""));
+        assertTrue(lines[1].contains("\"id\":\"a-1\""));
+        verify(alertQueryRepository).stream(eq(filter), any());
     }
 }
@@ -0,0 +1,34 @@
+package com.fraud.alert.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentEventFilterTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void checkAndPutShouldReportIdsSeenWithinTheWindow() {
+        RecentEventFilter filter = new RecentEventFilter(1_000, 0.01, Duration.ofMinutes(10), Duration.ofHours(1));
+
+        assertFalse(filter.checkAndPut("evt-1", 0));
+        assertTrue(filter.checkAndPut("evt-1", 25 * MINUTE));
+        assertFalse(filter.checkAndPut("evt-2", 25 * MINUTE));
+    }
+
+    @Test
+    void checkAndPutShouldForgetIdsOnceTheirBucketLeavesTheWindow() {
+        RecentEventFilter filter = new RecentEventFilter(1_000, 0.01, Duration.ofMinutes(10), Duration.ofMinutes(20));
+        filter.put("evt-1", 0);
+
+        for (long minute = 10; minute <= 30; minute += 10) {
+            filter.checkAndPut("evt-tick-" + minute, minute * MINUTE);
+        }
+
+        assertFalse(filter.checkAndPut("evt-1", 30 * MINUTE));
+    }
+}
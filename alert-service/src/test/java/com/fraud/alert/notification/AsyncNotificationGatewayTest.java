@@ -0,0 +1,197 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.model.PendingNotification;
+import com.fraud.alert.repository.AlertRepository;
+import com.fraud.alert.repository.PendingNotificationRepository;
+import com.fraud.alert.service.AlertMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncNotificationGatewayTest {
+
+    private final Alert alert = new Alert(
+            "a-1", "tx-1", "user-1", 85, "HIGH_AMOUNT", Instant.now()
+    );
+
+    private final PendingNotificationRepository pendingNotificationRepository = mock(PendingNotificationRepository.class);
+    private final AlertRepository alertRepository = mock(AlertRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<AsyncNotificationGateway> gateways = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (AsyncNotificationGateway gateway : gateways) {
+            gateway.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldStoreOneRowPerChannelAndDeleteItOnceDelivered() throws InterruptedException {
+        NotificationChannel log = channel("log");
+        NotificationChannel email = channel("email");
+        AsyncNotificationGateway gateway = gateway(List.of(log, email), 2, 10);
+
+        gateway.notifyFraud(alert);
+
+        ArgumentCaptor<List<PendingNotification>> saved = listCaptor();
+        verify(pendingNotificationRepository).saveAll(saved.capture());
+        assertEquals(List.of("log", "email"), saved.getValue().stream().map(PendingNotification::getChannel).toList());
+        verify(log, timeout(1000)).send(alert);
+        verify(email, timeout(1000)).send(alert);
+
+        // Drains the workers and deletes what they delivered.
+        gateway.shutdown();
+
+        ArgumentCaptor<List<String>> deleted = listCaptor();
+        verify(pendingNotificationRepository).deleteAllByIdInBatch(deleted.capture());
+        assertEquals(
+                saved.getValue().stream().map(PendingNotification::getId).sorted().toList(),
+                deleted.getValue().stream().sorted().toList()
+        );
+    }
+
+    @Test
+    void shouldKeepTheRowOfAFailedEmailForTheRetrySweep() throws InterruptedException {
+        NotificationChannel log = channel("log");
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        doThrow(new MailSendException("SMTP connection refused")).when(mailSender).send(any(MimeMessage.class));
+        EmailNotificationChannel email = new EmailNotificationChannel(mailSender, "fraud@test.com", List.of("ops@test.com"));
+        AsyncNotificationGateway gateway = gateway(List.of(log, email), 1, 10);
+
+        gateway.notifyFraud(alert);
+
+        ArgumentCaptor<List<PendingNotification>> saved = listCaptor();
+        verify(pendingNotificationRepository).saveAll(saved.capture());
+        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+        gateway.shutdown();
+
+        ArgumentCaptor<List<String>> deleted = listCaptor();
+        verify(pendingNotificationRepository).deleteAllByIdInBatch(deleted.capture());
+        assertEquals(List.of(saved.getValue().get(0).getId()), deleted.getValue());
+    }
+
+    @Test
+    void shouldOnlyDispatchAfterTheTransactionCommits() throws InterruptedException {
+        NotificationChannel email = channel("email");
+        AsyncNotificationGateway gateway = gateway(List.of(email), 1, 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        gateway.notifyFraud(alert);
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        verify(email, never()).send(any());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(email, timeout(1000)).send(alert);
+    }
+
+    @Test
+    void shouldLeaveRowForRetrySweepWhenChannelQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        NotificationChannel slow = channel("email");
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow).send(any());
+        AsyncNotificationGateway gateway = gateway(List.of(slow), 1, 1);
+
+        gateway.notifyFraud(alert);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        gateway.notifyFraud(alert);
+        gateway.notifyFraud(alert);
+
+        assertEquals(1.0, meterRegistry.get("notification_dispatch_rejected").tag("channel", "email").counter().count());
+        assertEquals(1.0, meterRegistry.get("notification_dispatch_queue_depth").tag("channel", "email").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void shouldRedispatchDueRowsAndAbandonExhaustedOnes() {
+        NotificationChannel email = channel("email");
+        AsyncNotificationGateway gateway = gateway(List.of(email), 1, 10);
+        Instant past = Instant.now().minusSeconds(120);
+        PendingNotification retry = new PendingNotification("n-1", "a-1", "email", past, past);
+        PendingNotification exhausted = new PendingNotification("n-2", "a-1", "email", past, past);
+        for (int attempt = 1; attempt < 5; attempt++) {
+            exhausted.claim(past);
+        }
+        PendingNotification orphan = new PendingNotification("n-3", "a-missing", "email", past, past);
+        when(pendingNotificationRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(retry, exhausted, orphan));
+        when(alertRepository.findAllById(any())).thenReturn(List.of(alert));
+
+        gateway.redispatchDue();
+
+        verify(email, timeout(1000)).send(alert);
+        assertEquals(2, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(Instant.now()));
+        verify(pendingNotificationRepository).delete(exhausted);
+        verify(pendingNotificationRepository).delete(orphan);
+        verify(pendingNotificationRepository, never()).delete(retry);
+    }
+
+    private AsyncNotificationGateway gateway(List<NotificationChannel> channels, int workers, int queueCapacity) {
+        AsyncNotificationGateway gateway = new AsyncNotificationGateway(
+                channels,
+                mock(AlertMetrics.class),
+                pendingNotificationRepository,
+                alertRepository,
+                meterRegistry,
+                workers,
+                queueCapacity,
+                Duration.ofMinutes(1),
+                200,
+                5,
+                Duration.ofSeconds(1),
+                false
+        );
+        gateways.add(gateway);
+        return gateway;
+    }
+
+    private static NotificationChannel channel(String name) {
+        NotificationChannel channel = mock(NotificationChannel.class);
+        when(channel.channelName()).thenReturn(name);
+        return channel;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,198 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import com.fraud.alert.service.AlertMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingNotificationChannelTest {
+
+    private final NotificationChannel email = mock(NotificationChannel.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AlertMetrics alertMetrics = new AlertMetrics(meterRegistry);
+    private CoalescingNotificationChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Test
+    void shouldSendOneDigestPerUserOnceTheWindowCloses() {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMillis(100), 100, 50);
+        Alert first = alert("a-1", "user-1", 85);
+        Alert second = alert("a-2", "user-1", 45);
+        Alert other = alert("a-3", "user-2", 90);
+
+        channel.send(first);
+        channel.send(second);
+        channel.send(other);
+
+        verify(email, never()).sendDigest(anyString(), any());
+        verify(email, timeout(1000)).sendDigest("user-1", List.of(first, second));
+        verify(email, timeout(1000)).send(other);
+        assertEquals(1.0, meterRegistry.get("notification_digests").tag("channel", "email").counter().count());
+        assertEquals(2.0, meterRegistry.get("notification_coalesced_alerts").tag("channel", "email").counter().count());
+    }
+
+    @Test
+    void shouldGroupBySeverity() {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.SEVERITY, Duration.ofMinutes(1), 100, 2);
+        Alert first = alert("a-1", "user-1", 85);
+        Alert second = alert("a-2", "user-2", 95);
+
+        channel.send(first);
+        channel.send(alert("a-3", "user-3", 45));
+        channel.send(second);
+
+        verify(email).sendDigest("critical", List.of(first, second));
+        assertEquals(1.0, meterRegistry.get("notification_coalescing_buffered").tag("channel", "email").gauge().value());
+    }
+
+    @Test
+    void shouldSendOldestGroupEarlyWhenMaxGroupsIsReached() {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1), 2, 50);
+        Alert first = alert("a-1", "user-1", 85);
+        Alert second = alert("a-2", "user-1", 85);
+
+        channel.send(first);
+        channel.send(second);
+        channel.send(alert("a-3", "user-2", 85));
+        verify(email, never()).sendDigest(anyString(), any());
+
+        channel.send(alert("a-4", "user-3", 85));
+
+        verify(email).sendDigest("user-1", List.of(first, second));
+        assertEquals(2.0, meterRegistry.get("notification_coalescing_buffered").tag("channel", "email").gauge().value());
+    }
+
+    @Test
+    void shouldFlushBufferedGroupsOnClose() {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1), 100, 50);
+        Alert first = alert("a-1", "user-1", 85);
+        Alert second = alert("a-2", "user-1", 85);
+        channel.send(first);
+        channel.send(second);
+
+        channel.close();
+
+        verify(email).sendDigest("user-1", List.of(first, second));
+        Alert late = alert("a-3", "user-1", 85);
+        channel.send(late);
+        verify(email).send(late);
+    }
+
+    @Test
+    void shouldRecordTheDigestOutcomeWhenItIsSentRatherThanWhenAlertsAreBuffered() {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1), 100, 2);
+        CompositeNotificationGateway gateway = new CompositeNotificationGateway(List.of(channel), alertMetrics);
+
+        gateway.notifyFraud(alert("a-1", "user-1", 85));
+        assertEquals(0.0, notifications("success"));
+
+        gateway.notifyFraud(alert("a-2", "user-1", 85));
+        assertEquals(1.0, notifications("success"));
+        assertEquals(1L, meterRegistry.get("fraud_alert_notification_latency").tag("channel", "email").timer().count());
+    }
+
+    @Test
+    void shouldRetryAFailedDigestUpToMaxAttempts() throws InterruptedException {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1), 100, 2);
+        Alert first = alert("a-1", "user-1", 85);
+        Alert second = alert("a-2", "user-1", 85);
+        doThrow(new IllegalStateException("smtp down"))
+                .doNothing()
+                .when(email).sendDigest("user-1", List.of(first, second));
+
+        channel.send(first);
+        channel.send(second);
+
+        verify(email, timeout(1000).times(2)).sendDigest("user-1", List.of(first, second));
+        awaitNotifications("failed", 1.0);
+        awaitNotifications("success", 1.0);
+        assertEquals(1.0, meterRegistry.get("notification_digests").tag("channel", "email").counter().count());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() throws InterruptedException {
+        channel = coalescing(CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1), 100, 1);
+        Alert only = alert("a-1", "user-1", 85);
+        doThrow(new IllegalStateException("smtp down")).when(email).send(only);
+
+        channel.send(only);
+
+        verify(email, timeout(1000).times(2)).send(only);
+        verify(email, after(200).times(2)).send(only);
+        awaitNotifications("failed", 2.0);
+    }
+
+    @Test
+    void shouldRetryADigestTheEmailChannelFailedToSend() throws InterruptedException {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doThrow(new MailSendException("SMTP connection refused"))
+                .doNothing()
+                .when(mailSender).send(any(MimeMessage.class));
+        EmailNotificationChannel smtp = new EmailNotificationChannel(mailSender, "fraud@test.com", List.of("ops@test.com"));
+        channel = new CoalescingNotificationChannel(smtp, CoalescingNotificationChannel.GroupBy.USER, Duration.ofMinutes(1),
+                100, 2, 2, Duration.ofMillis(50), alertMetrics, meterRegistry);
+
+        channel.send(alert("a-1", "user-1", 85));
+        channel.send(alert("a-2", "user-1", 85));
+
+        verify(mailSender, timeout(1000).times(2)).send(any(MimeMessage.class));
+        awaitNotifications("failed", 1.0);
+        awaitNotifications("success", 1.0);
+    }
+
+    // Retries run on the scheduler thread, which records the outcome just after the delegate returns.
+    private void awaitNotifications(String outcome, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (notifications(outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, notifications(outcome));
+    }
+
+    private double notifications(String outcome) {
+        var counter = meterRegistry.find("fraud_alert_notifications").tags("channel", "email", "outcome", outcome).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private CoalescingNotificationChannel coalescing(
+            CoalescingNotificationChannel.GroupBy groupBy,
+            Duration window,
+            int maxGroups,
+            int maxAlertsPerGroup
+    ) {
+        when(email.channelName()).thenReturn("email");
+        return new CoalescingNotificationChannel(
+                email, groupBy, window, maxGroups, maxAlertsPerGroup, 2, Duration.ofMillis(50), alertMetrics, meterRegistry);
+    }
+
+    private static Alert alert(String id, String userId, int riskScore) {
+        return new Alert(id, "tx-" + id, userId, riskScore, "HIGH_AMOUNT", Instant.now());
+    }
+}
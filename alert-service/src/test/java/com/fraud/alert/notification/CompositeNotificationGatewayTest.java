@@ -2,16 +2,27 @@ package com.fraud.alert.notification;
 
 import com.fraud.alert.model.Alert;
 import com.fraud.alert.service.AlertMetrics;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -59,4 +70,106 @@ class CompositeNotificationGatewayTest {
         verify(alertMetrics).recordNotification(eq("email"), eq("failed"), anyLong());
         verify(alertMetrics).recordNotification(eq("log"), eq("success"), anyLong());
     }
+
+    @Test
+    void parallelModeShouldSendToAllChannelsConcurrently() {
+        NotificationChannel email = slowChannel("email", 300);
+        NotificationChannel webhook = slowChannel("webhook", 300);
+        AlertMetrics alertMetrics = mock(AlertMetrics.class);
+        var gateway = new CompositeNotificationGateway(
+                List.of(email, webhook), alertMetrics, true, Duration.ofSeconds(2));
+
+        long startedAt = System.nanoTime();
+        gateway.notifyFraud(alert);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        gateway.shutdown();
+
+        assertTrue(elapsedMs < 550, "channels should run concurrently, took " + elapsedMs + " ms");
+        verify(alertMetrics).recordNotification(eq("email"), eq("success"), anyLong());
+        verify(alertMetrics).recordNotification(eq("webhook"), eq("success"), anyLong());
+    }
+
+    @Test
+    void parallelModeShouldRecordTimeoutAndKeepOtherChannelResults() {
+        NotificationChannel stuck = slowChannel("email", 5_000);
+        NotificationChannel healthy = mock(NotificationChannel.class);
+        when(healthy.channelName()).thenReturn("log");
+        AlertMetrics alertMetrics = mock(AlertMetrics.class);
+        var gateway = new CompositeNotificationGateway(
+                List.of(stuck, healthy), alertMetrics, true, Duration.ofMillis(200));
+
+        long startedAt = System.nanoTime();
+        assertDoesNotThrow(() -> gateway.notifyFraud(alert));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        gateway.shutdown();
+
+        assertTrue(elapsedMs < 1_000, "timed out channel should not be awaited, took " + elapsedMs + " ms");
+        verify(alertMetrics).recordNotification(eq("email"), eq("timeout"), anyLong());
+        verify(alertMetrics).recordNotification(eq("log"), eq("success"), anyLong());
+    }
+
+    @Test
+    void parallelModeShouldRecordAFailedSmtpSendAsFailed() {
+        JavaMailSender mailSender = mailSender();
+        doThrow(new MailSendException("SMTP connection refused")).when(mailSender).send(any(MimeMessage.class));
+        NotificationChannel healthy = mock(NotificationChannel.class);
+        when(healthy.channelName()).thenReturn("log");
+        AlertMetrics alertMetrics = mock(AlertMetrics.class);
+        var gateway = new CompositeNotificationGateway(
+                List.of(email(mailSender), healthy), alertMetrics, true, Duration.ofSeconds(2));
+
+        gateway.notifyFraud(alert);
+        gateway.shutdown();
+
+        verify(alertMetrics).recordNotification(eq("email"), eq("failed"), anyLong());
+        verify(alertMetrics, never()).recordNotification(eq("email"), eq("success"), anyLong());
+        verify(alertMetrics).recordNotification(eq("log"), eq("success"), anyLong());
+    }
+
+    @Test
+    void parallelModeShouldRecordAnInterruptedSmtpSendOnlyAsTimeout() throws InterruptedException {
+        JavaMailSender mailSender = mailSender();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            try {
+                TimeUnit.SECONDS.sleep(5);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw new MailSendException("Interrupted while sending", ex);
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage.class));
+        NotificationChannel healthy = mock(NotificationChannel.class);
+        when(healthy.channelName()).thenReturn("log");
+        AlertMetrics alertMetrics = mock(AlertMetrics.class);
+        var gateway = new CompositeNotificationGateway(
+                List.of(email(mailSender), healthy), alertMetrics, true, Duration.ofMillis(200));
+
+        gateway.notifyFraud(alert);
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        gateway.shutdown();
+        verify(alertMetrics).recordNotification(eq("email"), eq("timeout"), anyLong());
+        verify(alertMetrics, never()).recordNotification(eq("email"), eq("success"), anyLong());
+    }
+
+    private static JavaMailSender mailSender() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        return mailSender;
+    }
+
+    private static EmailNotificationChannel email(JavaMailSender mailSender) {
+        return new EmailNotificationChannel(mailSender, "fraud@test.com", List.of("ops@test.com"));
+    }
+
+    private static NotificationChannel slowChannel(String name, long sendMillis) {
+        NotificationChannel channel = mock(NotificationChannel.class);
+        when(channel.channelName()).thenReturn(name);
+        doAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(sendMillis);
+            return null;
+        }).when(channel).send(any());
+        return channel;
+    }
 }
@@ -8,13 +8,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,10 +73,35 @@ class EmailNotificationChannelTest {
     }
 
     @Test
-    void shouldNotThrowWhenMailSenderFails() {
-        when(mailSender.createMimeMessage()).thenThrow(new RuntimeException("SMTP connection refused"));
+    void shouldRethrowWhenMailSenderFails() {
+        MimeMessage mimeMessage = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        doThrow(new MailSendException("SMTP connection refused")).when(mailSender).send(mimeMessage);
+
+        assertThrows(MailSendException.class, () -> channel.send(highRiskAlert));
+    }
+
+    @Test
+    void shouldSendOneEmailListingEveryAlertOfADigest() {
+        MimeMessage mimeMessage = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+
+        channel.sendDigest("user-1", List.of(highRiskAlert, lowRiskAlert));
+
+        verify(mailSender).send(mimeMessage);
+        String body = channel.buildDigestHtmlBody("user-1", List.of(highRiskAlert, lowRiskAlert));
+        assertTrue(body.contains("2 alerts"));
+        assertTrue(body.contains("tx-1"));
+        assertTrue(body.contains("tx-2"));
+    }
+
+    @Test
+    void shouldRethrowWhenADigestCannotBeSent() {
+        MimeMessage mimeMessage = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        doThrow(new MailSendException("SMTP connection refused")).when(mailSender).send(mimeMessage);
 
-        assertDoesNotThrow(() -> channel.send(highRiskAlert));
+        assertThrows(MailSendException.class, () -> channel.sendDigest("user-1", List.of(highRiskAlert, lowRiskAlert)));
     }
 
     @Test
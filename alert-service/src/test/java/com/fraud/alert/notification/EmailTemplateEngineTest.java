@@ -0,0 +1,105 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplateEngineTest {
+
+    private final Alert alert = new Alert(
+            "a-1", "tx-1", "user<1>", 85,
+            "HIGH_AMOUNT, HIGH_RISK_MERCHANT,",
+            Instant.parse("2026-01-01T10:00:00Z")
+    );
+
+    @Test
+    void shouldRenderBundledEnglishTemplates() {
+        EmailTemplateEngine engine = new EmailTemplateEngine();
+
+        String body = engine.alertBody(alert);
+
+        assertEquals("[FRAUD ALERT] Risk score 85 - User user<1> - Transaction tx-1", engine.alertSubject(alert));
+        assertTrue(body.contains("Fraud Alert — CRITICAL"));
+        assertTrue(body.contains("<code>user&lt;1&gt;</code>"));
+        assertTrue(body.contains("<li style=\"padding:4px 0\">HIGH_AMOUNT</li><li style=\"padding:4px 0\">HIGH_RISK_MERCHANT</li>"));
+        assertTrue(body.contains("2026-01-01 10:00:00 UTC"));
+        assertTrue(body.contains("width:100%;"));
+        assertFalse(body.contains("{{"));
+        // The buffer is reused, so a second render must not carry anything over.
+        assertEquals(body, engine.alertBody(alert));
+    }
+
+    @Test
+    void shouldRenderOneRowPerAlertInDigest() {
+        EmailTemplateEngine engine = new EmailTemplateEngine();
+        Alert low = new Alert("a-2", "tx-2", "user<1>", 30, null, Instant.parse("2026-01-01T10:01:00Z"));
+
+        String body = engine.digestBody("user<1>", List.of(alert, low));
+
+        assertEquals("[FRAUD ALERT DIGEST] 2 alerts - user<1> - Max risk score 85",
+                engine.digestSubject("user<1>", List.of(alert, low)));
+        assertTrue(body.contains("2 alerts — user&lt;1&gt;"));
+        assertTrue(body.contains(">HIGH_AMOUNT, HIGH_RISK_MERCHANT<"));
+        assertTrue(body.contains(">UNSPECIFIED<"));
+        assertTrue(body.contains("color:#388e3c;font-weight:bold\">30<"));
+    }
+
+    @Test
+    void shouldPreferLocaleTemplatesAndFallBackToDefaultOnes() {
+        EmailTemplateEngine engine = new EmailTemplateEngine(
+                new DefaultResourceLoader(), EmailTemplateEngine.DEFAULT_LOCATION, Locale.forLanguageTag("es-MX"));
+
+        assertTrue(engine.alertBody(alert).contains("Alerta de fraude — CRITICAL"));
+        assertTrue(engine.alertSubject(alert).startsWith("[ALERTA DE FRAUDE]"));
+        // There is no Spanish digest row; the default one is used.
+        assertTrue(engine.digestBody("user-1", List.of(alert)).contains("<code>tx-1</code>"));
+    }
+
+    @Test
+    void shouldPreferSeverityTemplates(@TempDir Path dir) throws IOException {
+        writeDefaults(dir);
+        Files.writeString(dir.resolve("alert-critical.html"), "critical {{alertId}}");
+
+        EmailTemplateEngine engine = new EmailTemplateEngine(
+                new DefaultResourceLoader(), dir.toUri().toString(), Locale.ENGLISH);
+
+        assertEquals("critical a-1", engine.alertBody(alert));
+        assertEquals("default a-2", engine.alertBody(
+                new Alert("a-2", "tx-2", "user-2", 45, "HIGH_AMOUNT", Instant.now())));
+    }
+
+    @Test
+    void shouldRejectPlaceholdersTheTemplateCannotFill(@TempDir Path dir) throws IOException {
+        writeDefaults(dir);
+        Files.writeString(dir.resolve("alert.html"), "{{rows}}");
+
+        assertThrows(IllegalArgumentException.class, () -> new EmailTemplateEngine(
+                new DefaultResourceLoader(), dir.toUri().toString(), Locale.ENGLISH));
+
+        Files.writeString(dir.resolve("alert.html"), "{{unknown}}");
+
+        assertThrows(IllegalArgumentException.class, () -> new EmailTemplateEngine(
+                new DefaultResourceLoader(), dir.toUri().toString(), Locale.ENGLISH));
+    }
+
+    private static void writeDefaults(Path dir) throws IOException {
+        Files.writeString(dir.resolve("alert.html"), "default {{alertId}}");
+        Files.writeString(dir.resolve("alert-subject.txt"), "{{alertId}}\n");
+        Files.writeString(dir.resolve("digest.html"), "{{rows}}");
+        Files.writeString(dir.resolve("digest-row.html"), "{{alertId}}");
+        Files.writeString(dir.resolve("digest-subject.txt"), "{{alertCount}}\n");
+    }
+}
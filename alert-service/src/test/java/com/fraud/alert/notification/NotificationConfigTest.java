@@ -0,0 +1,47 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.service.AlertMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NotificationConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AlertMetrics alertMetrics = new AlertMetrics(meterRegistry);
+    private final NotificationConfig config = new NotificationConfig();
+
+    @Test
+    void coalescingShouldBeRejectedWithAsyncDispatch() {
+        // The async gateway deletes the pending_notifications row once send() returns, while the alert is only buffered.
+        assertThrows(IllegalStateException.class,
+                () -> config.logNotificationChannel(coalescing(), meterRegistry, alertMetrics, "async"));
+    }
+
+    @Test
+    void coalescingShouldWrapListedChannelsWithSyncDispatch() {
+        NotificationChannel channel = config.logNotificationChannel(coalescing(), meterRegistry, alertMetrics, "sync");
+
+        CoalescingNotificationChannel coalescing = assertInstanceOf(CoalescingNotificationChannel.class, channel);
+        coalescing.close();
+    }
+
+    @Test
+    void asyncDispatchShouldLeaveChannelsThatAreNotCoalescedAlone() {
+        NotificationProperties props = new NotificationProperties(true, null, new NotificationProperties.CoalescingProperties(
+                true, null, Duration.ofMinutes(1), 0, 0, 0, null, List.of("email")));
+
+        assertInstanceOf(LogNotificationChannel.class,
+                config.logNotificationChannel(props, meterRegistry, alertMetrics, "async"));
+    }
+
+    private static NotificationProperties coalescing() {
+        return new NotificationProperties(true, null, new NotificationProperties.CoalescingProperties(
+                true, null, Duration.ofMinutes(1), 0, 0, 0, null, List.of("log")));
+    }
+}
@@ -0,0 +1,230 @@
+package com.fraud.alert.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledJavaMailSenderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FakeSmtpServer server;
+    private PooledJavaMailSender sender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeSmtpServer();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (sender != null) {
+            sender.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void shouldSendSeveralMessagesOverOneConnection() throws Exception {
+        sender = sender(2, 100, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(message("alert " + i));
+        }
+
+        assertEquals(5, server.messages.get());
+        assertEquals(1, server.connections.get());
+        assertEquals(1.0, meterRegistry.get("smtp_pool_connections_opened").counter().count());
+        assertEquals(1.0, meterRegistry.get("smtp_pool_connections_idle").gauge().value());
+    }
+
+    @Test
+    void shouldRetireConnectionAfterMaxMessages() throws Exception {
+        sender = sender(1, 2, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(message("alert " + i));
+        }
+
+        assertEquals(5, server.messages.get());
+        assertEquals(3, server.connections.get());
+    }
+
+    @Test
+    void shouldRetryOnFreshConnectionWhenServerDroppedIdleOne() throws Exception {
+        sender = sender(1, 100, Duration.ofSeconds(30));
+        sender.send(message("first"));
+
+        server.dropOpenConnections();
+        sender.send(message("second"));
+
+        assertEquals(2, server.messages.get());
+        assertEquals(2, server.connections.get());
+    }
+
+    @Test
+    void shouldFailWhenNoConnectionFreesUpWithinBorrowTimeout() throws Exception {
+        server.dataDelay = new CountDownLatch(1);
+        sender = new PooledJavaMailSender(
+                settings(), meterRegistry, 1, 100, Duration.ofSeconds(30), Duration.ofMillis(100));
+        MimeMessage slow = message("slow");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(() -> sender.send(slow));
+            assertTrue(server.awaitData());
+
+            assertThrows(MailSendException.class, () -> sender.send(message("blocked")));
+            assertEquals(1.0, meterRegistry.get("smtp_pool_borrow_timeouts").counter().count());
+        } finally {
+            server.dataDelay.countDown();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private PooledJavaMailSender sender(int maxConnections, int maxMessages, Duration maxIdle) {
+        return new PooledJavaMailSender(
+                settings(), meterRegistry, maxConnections, maxMessages, maxIdle, Duration.ofSeconds(5));
+    }
+
+    private JavaMailSenderImpl settings() {
+        JavaMailSenderImpl settings = new JavaMailSenderImpl();
+        settings.setHost("127.0.0.1");
+        settings.setPort(server.port());
+        return settings;
+    }
+
+    private MimeMessage message(String subject) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("fraud@test.com");
+        helper.setTo("security@test.com");
+        helper.setSubject(subject);
+        helper.setText("body");
+        return message;
+    }
+
+    /**
+     * Just enough of SMTP for Jakarta Mail to deliver messages: accepts every command and counts connections and
+     * messages.
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch dataReceived = new CountDownLatch(1);
+        private volatile CountDownLatch dataDelay;
+
+        private FakeSmtpServer() throws IOException {
+            executor.submit(this::acceptLoop);
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        boolean awaitData() throws InterruptedException {
+            return dataReceived.await(5, TimeUnit.SECONDS);
+        }
+
+        void dropOpenConnections() throws IOException {
+            for (Socket socket : open) {
+                socket.close();
+            }
+        }
+
+        private Void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    open.add(socket);
+                    executor.submit(() -> serve(socket));
+                } catch (IOException ex) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private Void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost fake smtp");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "DATA" -> {
+                            reply(out, "354 end with .");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // message body
+                            }
+                            dataReceived.countDown();
+                            CountDownLatch delay = dataDelay;
+                            if (delay != null) {
+                                delay.await(5, TimeUnit.SECONDS);
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return null;
+                        }
+                        default -> reply(out, "250 ok");
+                    }
+                }
+            } catch (SocketException ex) {
+                // dropped by the test
+            } catch (IOException | InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                open.remove(socket);
+            }
+            return null;
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            dropOpenConnections();
+            executor.shutdownNow();
+        }
+    }
+}
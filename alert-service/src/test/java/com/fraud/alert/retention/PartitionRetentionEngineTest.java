@@ -0,0 +1,120 @@
+package com.fraud.alert.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionRetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:30:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ChunkedRetentionExecutor chunkedRetentionExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, String> relations = new HashMap<>();
+    private final List<String> partitions = new ArrayList<>();
+    private PartitionRetentionEngine engine;
+
+    // One hour of retention leaves the cutoff at 09:30; with two buckets of precreate the engine manages 09:00-13:00.
+    private final PartitionedTable processedEvents = new PartitionedTable(
+            "processed_events", "processed_at", PartitionedTable.Granularity.HOUR, Duration.ofHours(1));
+
+    @BeforeEach
+    void setUp() {
+        engine = new PartitionRetentionEngine(jdbcTemplate, chunkedRetentionExecutor, transactionManager, 2);
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT relkind"), eq(String.class), any()))
+                .thenAnswer(invocation -> {
+                    String kind = relations.get(invocation.<String>getArgument(2));
+                    return kind == null ? List.of() : List.of(kind);
+                });
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT child.relname"), eq(String.class), any()))
+                .thenAnswer(invocation -> List.copyOf(partitions));
+    }
+
+    @Test
+    void applyShouldCreateMissingBucketsUpToPrecreateAndMoveDefaultRowsIntoThem() {
+        partitioned("processed_events_p2026010109", "processed_events_p2026010110");
+
+        assertTrue(engine.apply(processedEvents, NOW));
+
+        for (String bucket : List.of("2026010111", "2026010112")) {
+            verify(jdbcTemplate).execute("CREATE TABLE processed_events_p" + bucket
+                    + " (LIKE processed_events INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        }
+        verify(jdbcTemplate).update(
+                "WITH moved AS (DELETE FROM processed_events_default WHERE processed_at >= ? AND processed_at < ? RETURNING *)"
+                        + " INSERT INTO processed_events_p2026010112 SELECT * FROM moved",
+                Timestamp.from(Instant.parse("2026-01-01T12:00:00Z")),
+                Timestamp.from(Instant.parse("2026-01-01T13:00:00Z"))
+        );
+        verify(jdbcTemplate).execute("ALTER TABLE processed_events ATTACH PARTITION processed_events_p2026010111"
+                + " FOR VALUES FROM ('2026-01-01T11:00:00Z') TO ('2026-01-01T12:00:00Z')");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+        verify(chunkedRetentionExecutor).purge(
+                "processed_events_default", "processed_at < ?", Instant.parse("2026-01-01T09:30:00Z"));
+    }
+
+    @Test
+    void applyShouldDropBucketsThatEndedBeforeTheCutoff() {
+        partitioned("processed_events_p2026010107", "processed_events_p2026010108", "processed_events_p2026010109",
+                "processed_events_p2026010110", "processed_events_p2026010111", "processed_events_p2026010112");
+
+        assertTrue(engine.apply(processedEvents, NOW));
+
+        verify(jdbcTemplate).execute("DROP TABLE processed_events_p2026010107");
+        verify(jdbcTemplate).execute("DROP TABLE processed_events_p2026010108");
+        // 09:00-10:00 still holds markers newer than the 09:30 cutoff.
+        verify(jdbcTemplate, never()).execute("DROP TABLE processed_events_p2026010109");
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void applyShouldLeaveAnUnpartitionedTableToTheCaller() {
+        relations.put("processed_events", "r");
+
+        assertFalse(engine.apply(processedEvents, NOW));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(chunkedRetentionExecutor);
+    }
+
+    private void partitioned(String... existing) {
+        relations.put("processed_events", "p");
+        relations.put("processed_events_default", "r");
+        for (String partition : existing) {
+            relations.put(partition, "r");
+            partitions.add(partition);
+        }
+    }
+}
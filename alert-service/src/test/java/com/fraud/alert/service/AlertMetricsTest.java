@@ -32,6 +32,8 @@ class AlertMetricsTest {
         assertEquals(1.0, meterRegistry.counter("fraud_alerts_by_severity", "severity", "high").count(), 0.00001);
         assertEquals(1.0, meterRegistry.counter("fraud_alert_notifications", "channel", "email", "outcome", "success").count(), 0.00001);
 
+        assertEquals(1L, meterRegistry.get("fraud_alert_notification_latency").tag("channel", "email").timer().count());
+
         DistributionSummary summary = meterRegistry.find("fraud_alert_risk_score").summary();
         assertEquals(1L, summary.count());
         assertEquals(73.0, summary.totalAmount(), 0.00001);
@@ -1,11 +1,10 @@
 package com.fraud.alert.service;
 
 import com.fraud.alert.events.FraudDetectedEvent;
+import com.fraud.alert.idempotency.ProcessedEventGuard;
 import com.fraud.alert.mapping.AlertEventMapper;
 import com.fraud.alert.model.Alert;
-import com.fraud.alert.model.ProcessedEvent;
 import com.fraud.alert.repository.AlertRepository;
-import com.fraud.alert.repository.ProcessedEventRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -14,7 +13,6 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
-import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.Instant;
 import java.util.List;
@@ -22,6 +20,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.same;
 import static org.mockito.Mockito.verify;
@@ -32,7 +32,7 @@ import static org.mockito.Mockito.when;
 class AlertProcessingServiceTest {
 
     @Mock
-    private ProcessedEventRepository processedEventRepository;
+    private ProcessedEventGuard processedEventGuard;
 
     @Mock
     private AlertRepository alertRepository;
@@ -52,20 +52,19 @@ class AlertProcessingServiceTest {
     @Test
     void processShouldSkipDuplicatedEvent() {
         FraudDetectedEvent event = buildEvent("evt-dup", List.of("HIGH_AMOUNT"));
-        when(processedEventRepository.saveAndFlush(any(ProcessedEvent.class)))
-                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-dup"), any(Instant.class), anyInt())).thenReturn(false);
 
         alertProcessingService.process(event);
 
-        verify(processedEventRepository).saveAndFlush(any(ProcessedEvent.class));
+        verify(processedEventGuard).tryMarkAsProcessed(eq("evt-dup"), any(Instant.class), anyInt());
         verify(alertRepository, never()).save(any(Alert.class));
-        verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
         verifyNoInteractions(alertMetrics, notificationGateway);
     }
 
     @Test
     void processShouldPersistAlertAndNotifyForNewEvent() {
         FraudDetectedEvent event = buildEvent("evt-1", List.of("HIGH_AMOUNT", "HIGH_RISK_MERCHANT"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-1"), any(Instant.class), anyInt())).thenReturn(true);
 
         alertProcessingService.process(event);
 
@@ -73,9 +72,8 @@ class AlertProcessingServiceTest {
         verify(alertRepository).save(alertCaptor.capture());
         Alert storedAlert = alertCaptor.getValue();
 
-        ArgumentCaptor<ProcessedEvent> processedCaptor = ArgumentCaptor.forClass(ProcessedEvent.class);
-        verify(processedEventRepository).saveAndFlush(processedCaptor.capture());
-        ProcessedEvent storedProcessed = processedCaptor.getValue();
+        ArgumentCaptor<Instant> processedAtCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(processedEventGuard).tryMarkAsProcessed(eq("evt-1"), processedAtCaptor.capture(), anyInt());
 
         verify(alertMetrics).recordAlertCreated(same(storedAlert));
         verify(notificationGateway).notifyFraud(same(storedAlert));
@@ -87,13 +85,25 @@ class AlertProcessingServiceTest {
         assertEquals(85, storedAlert.getRiskScore());
         assertEquals("HIGH_AMOUNT,HIGH_RISK_MERCHANT", storedAlert.getReasons());
 
-        assertEquals("evt-1", storedProcessed.getEventId());
-        assertEquals(storedAlert.getCreatedAt(), storedProcessed.getProcessedAt());
+        assertEquals(storedAlert.getCreatedAt(), processedAtCaptor.getValue());
+    }
+
+    @Test
+    void processShouldKeyProcessedMarkerOnEventTimeWithPartitionRetention() {
+        AlertProcessingService partitioned = new AlertProcessingService(
+                processedEventGuard, alertRepository, alertEventMapper, notificationGateway, alertMetrics, "partition");
+        FraudDetectedEvent event = buildEvent("evt-1", List.of("HIGH_AMOUNT"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-1"), any(Instant.class), anyInt())).thenReturn(true);
+
+        partitioned.process(event);
+
+        verify(processedEventGuard).tryMarkAsProcessed("evt-1", event.occurredAt(), -1);
     }
 
     @Test
     void processShouldUseFallbackReasonWhenNoReasonsWereProvided() {
         FraudDetectedEvent event = buildEvent("evt-2", List.of());
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-2"), any(Instant.class), anyInt())).thenReturn(true);
 
         alertProcessingService.process(event);
 
@@ -106,6 +116,7 @@ class AlertProcessingServiceTest {
     @Test
     void processShouldPreferEventTraceIdOverMdcTraceId() {
         FraudDetectedEvent event = buildEvent("evt-3", List.of("HIGH_AMOUNT"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-3"), any(Instant.class), anyInt())).thenReturn(true);
         MDC.put("traceId", "mdc-trace-that-must-not-win");
 
         try {
@@ -0,0 +1,161 @@
+package com.fraud.alert.notification;
+
+import com.fraud.alert.model.Alert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lives in the channel's package to reach the package-private renderer without going through SMTP.
+ * {@code formatHtmlBody} keeps the previous {@code String.format} renderer for comparison with the template engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+    private static final DateTimeFormatter TIMESTAMP_FMT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss 'UTC'")
+            .withZone(ZoneOffset.UTC);
+
+    private EmailNotificationChannel channel;
+    private Alert alert;
+    private List<Alert> digest;
+
+    @Setup
+    public void setUp() {
+        channel = new EmailNotificationChannel(null, "alerts@fraud-detection.local", List.of("security@fraud-detection.local"));
+        alert = new Alert(
+                "5d2e8a41-7c3b-4f96-b1e0-9a6d4c8f2e73",
+                "0c9e7a52-8f31-4b6d-a2c4-5e1f3d7b9a08",
+                "user-42",
+                80,
+                "HIGH_AMOUNT,HIGH_VELOCITY,HIGH_RISK_MERCHANT",
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "a3d8e1f0-5b2c-4e97-8c61-2f4b9d7e3a15",
+                "4bf92f3577b34da6a3ce929d0e0e4736"
+        );
+        digest = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            digest.add(new Alert(
+                    "alert-" + i, "tx-" + i, "user-42", 40 + i * 3, "HIGH_AMOUNT,HIGH_VELOCITY",
+                    Instant.parse("2026-01-01T10:00:00Z").plusSeconds(i)
+            ));
+        }
+    }
+
+    @Benchmark
+    public String renderHtmlBody() {
+        return channel.buildHtmlBody(alert);
+    }
+
+    @Benchmark
+    public String formatHtmlBody() {
+        return formatHtmlBody(alert);
+    }
+
+    @Benchmark
+    public String renderDigestHtmlBody() {
+        return channel.buildDigestHtmlBody("user-42", digest);
+    }
+
+    private static String formatHtmlBody(Alert alert) {
+        String severityColor = getSeverityColor(alert.getRiskScore());
+        String severityLabel = getSeverityLabel(alert.getRiskScore());
+        List<String> reasons = parseReasons(alert.getReasons());
+
+        StringBuilder reasonsList = new StringBuilder();
+        for (String reason : reasons) {
+            reasonsList.append(String.format("<li style=\"padding:4px 0\">%s</li>", escapeHtml(reason)));
+        }
+
+        return String.format("""
+                <div style="font-family:Arial,sans-serif;max-width:600px;margin:0 auto">
+                  <div style="background:%s;color:white;padding:16px 24px;border-radius:8px 8px 0 0">
+                    <h2 style="margin:0">Fraud Alert — %s</h2>
+                  </div>
+                  <div style="border:1px solid #e0e0e0;border-top:none;padding:24px;border-radius:0 0 8px 8px">
+                    <table style="width:100%%;border-collapse:collapse">
+                      <tr>
+                        <td style="padding:8px 0;font-weight:bold;color:#555">Transaction ID</td>
+                        <td style="padding:8px 0"><code>%s</code></td>
+                      </tr>
+                      <tr>
+                        <td style="padding:8px 0;font-weight:bold;color:#555">User ID</td>
+                        <td style="padding:8px 0"><code>%s</code></td>
+                      </tr>
+                      <tr>
+                        <td style="padding:8px 0;font-weight:bold;color:#555">Risk Score</td>
+                        <td style="padding:8px 0">
+                          <span style="background:%s;color:white;padding:4px 12px;border-radius:12px;font-weight:bold">%d / 100</span>
+                        </td>
+                      </tr>
+                      <tr>
+                        <td style="padding:8px 0;font-weight:bold;color:#555">Detected At</td>
+                        <td style="padding:8px 0">%s</td>
+                      </tr>
+                    </table>
+                    <h3 style="margin:20px 0 8px;color:#333">Triggered Rules</h3>
+                    <ul style="margin:0;padding-left:20px;color:#333">
+                      %s
+                    </ul>
+                    <hr style="margin:24px 0;border:none;border-top:1px solid #e0e0e0">
+                    <p style="color:#888;font-size:12px;margin:0">
+                      This is an automated alert from the Fraud Detection System. Alert ID: %s
+                    </p>
+                  </div>
+                </div>
+                """,
+                severityColor, severityLabel,
+                escapeHtml(alert.getTransactionId()),
+                escapeHtml(alert.getUserId()),
+                severityColor, alert.getRiskScore(),
+                TIMESTAMP_FMT.format(alert.getCreatedAt()),
+                reasonsList,
+                escapeHtml(alert.getId())
+        );
+    }
+
+    private static String getSeverityColor(int riskScore) {
+        if (riskScore >= 80) return "#d32f2f";
+        if (riskScore >= 60) return "#f57c00";
+        if (riskScore >= 40) return "#fbc02d";
+        return "#388e3c";
+    }
+
+    private static String getSeverityLabel(int riskScore) {
+        if (riskScore >= 80) return "CRITICAL";
+        if (riskScore >= 60) return "HIGH";
+        if (riskScore >= 40) return "MEDIUM";
+        return "LOW";
+    }
+
+    private static List<String> parseReasons(String reasons) {
+        if (reasons == null || reasons.isBlank()) return List.of("UNSPECIFIED");
+        return Arrays.stream(reasons.split(",")).map(String::trim).toList();
+    }
+
+    private static String escapeHtml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
+
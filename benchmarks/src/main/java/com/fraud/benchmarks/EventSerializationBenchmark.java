@@ -0,0 +1,82 @@
+package com.fraud.benchmarks;
+
+import com.fraud.detection.events.FraudDetectedEvent;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializers configured like the services' {@code application.yml}: no type headers, fixed target type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TRANSACTIONS_CREATED = "transactions.created";
+    private static final String FRAUD_DETECTED = "fraud.detected";
+
+    private JsonSerializer<Object> serializer;
+    private JsonDeserializer<TransactionCreatedEvent> transactionCreatedDeserializer;
+    private JsonDeserializer<com.fraud.alert.events.FraudDetectedEvent> fraudDetectedDeserializer;
+    private TransactionCreatedEvent transactionCreated;
+    private FraudDetectedEvent fraudDetected;
+    private byte[] transactionCreatedPayload;
+    private byte[] fraudDetectedPayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.setAddTypeInfo(false);
+        transactionCreatedDeserializer = new JsonDeserializer<>(TransactionCreatedEvent.class, false);
+        fraudDetectedDeserializer = new JsonDeserializer<>(com.fraud.alert.events.FraudDetectedEvent.class, false);
+
+        transactionCreated = Fixtures.transactionCreated("15000.00", "MRC-999", "AR");
+        fraudDetected = Fixtures.fraudDetected();
+        transactionCreatedPayload = serializer.serialize(TRANSACTIONS_CREATED, transactionCreated);
+        fraudDetectedPayload = serializer.serialize(FRAUD_DETECTED, fraudDetected);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        transactionCreatedDeserializer.close();
+        fraudDetectedDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionCreated() {
+        return serializer.serialize(TRANSACTIONS_CREATED, transactionCreated);
+    }
+
+    @Benchmark
+    public TransactionCreatedEvent deserializeTransactionCreated() {
+        return transactionCreatedDeserializer.deserialize(TRANSACTIONS_CREATED, transactionCreatedPayload);
+    }
+
+    @Benchmark
+    public byte[] serializeFraudDetected() {
+        return serializer.serialize(FRAUD_DETECTED, fraudDetected);
+    }
+
+    @Benchmark
+    public com.fraud.alert.events.FraudDetectedEvent deserializeFraudDetected() {
+        return fraudDetectedDeserializer.deserialize(FRAUD_DETECTED, fraudDetectedPayload);
+    }
+}
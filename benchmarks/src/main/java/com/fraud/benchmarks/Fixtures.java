@@ -0,0 +1,70 @@
+package com.fraud.benchmarks;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.events.FraudDetectedEvent;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inputs shared by the benchmarks, shaped like the events produced by the k6 stress scenario.
+ */
+final class Fixtures {
+
+    static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private Fixtures() {
+    }
+
+    static FraudRulesProperties rules() {
+        FraudRulesProperties rules = new FraudRulesProperties();
+        rules.setHighAmountThreshold(new BigDecimal("10000.00"));
+        rules.setVelocityMaxTransactions(5);
+        rules.setVelocityWindow(Duration.ofMinutes(1));
+        rules.setCountryChangeWindow(Duration.ofMinutes(30));
+        rules.setFraudScoreThreshold(70);
+        rules.setHighRiskMerchants(List.of("MRC-999", "MRC-666", "MRC-404"));
+        return rules;
+    }
+
+    static TransactionCreatedEvent transactionCreated(String amount, String merchantId, String country) {
+        return new TransactionCreatedEvent(
+                "6f1c2b8e-3d4a-4c1e-9a57-0b7e5f2d9c11",
+                NOW,
+                "0c9e7a52-8f31-4b6d-a2c4-5e1f3d7b9a08",
+                "4bf92f3577b34da6a3ce929d0e0e4736",
+                "user-42",
+                new BigDecimal(amount),
+                "USD",
+                merchantId,
+                country,
+                PaymentMethod.CARD
+        );
+    }
+
+    static FraudDetectedEvent fraudDetected() {
+        return new FraudDetectedEvent(
+                "a3d8e1f0-5b2c-4e97-8c61-2f4b9d7e3a15",
+                NOW,
+                "0c9e7a52-8f31-4b6d-a2c4-5e1f3d7b9a08",
+                "4bf92f3577b34da6a3ce929d0e0e4736",
+                "user-42",
+                80,
+                List.of("HIGH_AMOUNT", "HIGH_VELOCITY", "HIGH_RISK_MERCHANT"),
+                "v1.0.0"
+        );
+    }
+
+    static List<BigDecimal> amounts(int count) {
+        List<BigDecimal> amounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            amounts.add(new BigDecimal("25.00"));
+        }
+        return List.copyOf(amounts);
+    }
+}
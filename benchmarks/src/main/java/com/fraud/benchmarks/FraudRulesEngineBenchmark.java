@@ -0,0 +1,55 @@
+package com.fraud.benchmarks;
+
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.rules.FraudEvaluation;
+import com.fraud.detection.rules.FraudRulesEngine;
+import com.fraud.detection.state.UserActivity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudRulesEngineBenchmark {
+
+    private FraudRulesEngine engine;
+    private TransactionCreatedEvent cleanEvent;
+    private TransactionCreatedEvent fraudulentEvent;
+    private UserActivity quietUser;
+    private UserActivity busyUser;
+    private Instant referenceTime;
+
+    @Setup
+    public void setUp() {
+        engine = new FraudRulesEngine(Fixtures.rules());
+        referenceTime = Fixtures.NOW;
+        cleanEvent = Fixtures.transactionCreated("25.00", "MRC-100", "US");
+        fraudulentEvent = Fixtures.transactionCreated("15000.00", "MRC-999", "AR");
+        quietUser = new UserActivity(1, "US", referenceTime.minusSeconds(3600), Fixtures.amounts(1));
+        busyUser = new UserActivity(6, "US", referenceTime.minusSeconds(60), Fixtures.amounts(6));
+    }
+
+    @Benchmark
+    public FraudEvaluation cleanTransaction() {
+        return engine.evaluate(cleanEvent, quietUser, referenceTime);
+    }
+
+    @Benchmark
+    public FraudEvaluation fraudulentTransaction() {
+        return engine.evaluate(fraudulentEvent, busyUser, referenceTime);
+    }
+}
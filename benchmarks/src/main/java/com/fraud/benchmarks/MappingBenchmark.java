@@ -0,0 +1,81 @@
+package com.fraud.benchmarks;
+
+import com.fraud.alert.mapping.AlertEventMapper;
+import com.fraud.alert.model.Alert;
+import com.fraud.detection.events.FraudDetectedEvent;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.mapping.FraudDetectedEventMapper;
+import com.fraud.detection.mapping.UserTransactionHistoryMapper;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.rules.FraudEvaluation;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private UserTransactionHistoryMapper userTransactionHistoryMapper;
+    private FraudDetectedEventMapper fraudDetectedEventMapper;
+    private AlertEventMapper alertEventMapper;
+    private TransactionCreatedEvent transactionCreated;
+    private FraudEvaluation evaluation;
+    private com.fraud.alert.events.FraudDetectedEvent fraudDetected;
+
+    @Setup
+    public void setUp() {
+        userTransactionHistoryMapper = Mappers.getMapper(UserTransactionHistoryMapper.class);
+        fraudDetectedEventMapper = Mappers.getMapper(FraudDetectedEventMapper.class);
+        alertEventMapper = new AlertEventMapper();
+        transactionCreated = Fixtures.transactionCreated("15000.00", "MRC-999", "AR");
+        evaluation = new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT", "HIGH_VELOCITY", "HIGH_RISK_MERCHANT"), "v1.0.0");
+        FraudDetectedEvent source = Fixtures.fraudDetected();
+        fraudDetected = new com.fraud.alert.events.FraudDetectedEvent(
+                source.eventId(),
+                source.occurredAt(),
+                source.transactionId(),
+                source.traceId(),
+                source.userId(),
+                source.riskScore(),
+                source.reasons(),
+                source.ruleVersion()
+        );
+    }
+
+    @Benchmark
+    public UserTransactionHistory userTransactionHistory() {
+        return userTransactionHistoryMapper.toHistory(transactionCreated, Fixtures.NOW, 7);
+    }
+
+    @Benchmark
+    public FraudDetectedEvent fraudDetectedEvent() {
+        return fraudDetectedEventMapper.toFraudDetectedEvent(
+                transactionCreated,
+                evaluation,
+                "a3d8e1f0-5b2c-4e97-8c61-2f4b9d7e3a15",
+                Fixtures.NOW,
+                transactionCreated.traceId()
+        );
+    }
+
+    @Benchmark
+    public Alert alert() {
+        return alertEventMapper.toAlert(fraudDetected, Fixtures.NOW, fraudDetected.traceId());
+    }
+}
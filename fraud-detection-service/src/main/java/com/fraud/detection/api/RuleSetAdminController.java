@@ -0,0 +1,53 @@
+package com.fraud.detection.api;
+
+import com.fraud.detection.rules.RuleSetDefinition;
+import com.fraud.detection.rules.RuleSetManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/rules")
+public class RuleSetAdminController {
+
+    private final RuleSetManager ruleSetManager;
+
+    public RuleSetAdminController(RuleSetManager ruleSetManager) {
+        this.ruleSetManager = ruleSetManager;
+    }
+
+    @GetMapping
+    public RuleSetDefinition activeRuleSet() {
+        return ruleSetManager.active();
+    }
+
+    @PutMapping
+    public RuleSetDefinition updateRuleSet(@RequestBody RuleSetDefinition definition) {
+        return ruleSetManager.update(definition);
+    }
+
+    @PostMapping("/reload")
+    public RuleSetDefinition reloadRuleSet() {
+        ruleSetManager.refresh();
+        return ruleSetManager.active();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRuleSet(IllegalArgumentException exception) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("message", exception.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 @ConfigurationProperties(prefix = "app.fraud.rules")
 public class FraudRulesProperties {
 
+    private String version = "v1.0.0";
     private BigDecimal highAmountThreshold = new BigDecimal("10000.00");
     private int velocityMaxTransactions = 5;
     private Duration velocityWindow = Duration.ofMinutes(1);
@@ -17,6 +18,14 @@ public class FraudRulesProperties {
     private int fraudScoreThreshold = 70;
     private List<String> highRiskMerchants = new ArrayList<>();
 
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
     public BigDecimal getHighAmountThreshold() {
         return highAmountThreshold;
     }
@@ -49,6 +58,10 @@ public class FraudRulesProperties {
         this.countryChangeWindow = countryChangeWindow;
     }
 
+    public Duration stateRetention() {
+        return velocityWindow.compareTo(countryChangeWindow) >= 0 ? velocityWindow : countryChangeWindow;
+    }
+
     public List<String> getHighRiskMerchants() {
         return highRiskMerchants;
     }
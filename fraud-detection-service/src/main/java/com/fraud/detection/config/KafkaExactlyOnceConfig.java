@@ -0,0 +1,44 @@
+package com.fraud.detection.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.UUID;
+
+/**
+ * Replaces Boot's producer factory and template with transactional ones when exactly-once processing is enabled.
+ * No {@code KafkaTransactionManager} bean is registered on purpose: it would make Boot back off from creating the JPA
+ * transaction manager. The listener container gets its own instance in {@link KafkaListenerConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.fraud.exactly-once.enabled", havingValue = "true")
+public class KafkaExactlyOnceConfig {
+
+    @Bean
+    public ProducerFactory<?, ?> kafkaProducerFactory(
+            KafkaProperties kafkaProperties,
+            @Value("${app.fraud.exactly-once.transaction-id-prefix:}") String transactionIdPrefix
+    ) {
+        DefaultKafkaProducerFactory<Object, Object> factory =
+                new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null));
+        String prefix = transactionIdPrefix == null || transactionIdPrefix.isBlank()
+                ? "fraud-detection-" + UUID.randomUUID() + "-"
+                : transactionIdPrefix;
+        factory.setTransactionIdPrefix(prefix);
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<?, ?> kafkaTemplate(ProducerFactory<Object, Object> kafkaProducerFactory, KafkaProperties kafkaProperties) {
+        KafkaTemplate<Object, Object> kafkaTemplate = new KafkaTemplate<>(kafkaProducerFactory);
+        kafkaTemplate.setAllowNonTransactional(true);
+        kafkaTemplate.setObservationEnabled(kafkaProperties.getTemplate().isObservationEnabled());
+        return kafkaTemplate;
+    }
+}
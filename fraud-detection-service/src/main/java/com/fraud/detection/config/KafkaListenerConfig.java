@@ -0,0 +1,63 @@
+package com.fraud.detection.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> transactionsCreatedListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ObjectProvider<ProducerFactory<Object, Object>> producerFactory,
+            ObjectProvider<KafkaTemplate<Object, Object>> kafkaTemplate,
+            ObjectProvider<DeadLetterPublishingRecoverer> deadLetterPublishingRecoverer,
+            @Value("${app.fraud.consumer.mode:record}") String mode,
+            @Value("${app.fraud.publisher.mode:sync}") String publisherMode,
+            @Value("${app.fraud.exactly-once.enabled:false}") boolean exactlyOnce
+    ) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        if ("batch".equalsIgnoreCase(mode)) {
+            factory.setBatchListener(true);
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        } else if ("key-ordered".equalsIgnoreCase(mode)) {
+            if (exactlyOnce) {
+                throw new IllegalStateException("app.fraud.consumer.mode=key-ordered cannot be combined with exactly-once");
+            }
+            // Lanes acknowledge out of order; the container commits only the contiguous prefix per partition.
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        } else if (exactlyOnce) {
+            // Consume, produce and offset commit share one Kafka transaction; failed records are retried and
+            // dead-lettered by the after-rollback processor, which commits the recovered offset transactionally.
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                    new KafkaTransactionManager<>(producerFactory.getObject())
+            );
+            factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(
+                    deadLetterPublishingRecoverer.getObject(),
+                    KafkaErrorHandlerConfig.retryBackOff(),
+                    kafkaTemplate.getObject(),
+                    true
+            ));
+        } else if ("async".equalsIgnoreCase(publisherMode)) {
+            // Offsets are acknowledged from the producer callback, possibly out of order; the container only commits
+            // the contiguous prefix per partition.
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        }
+        return factory;
+    }
+}
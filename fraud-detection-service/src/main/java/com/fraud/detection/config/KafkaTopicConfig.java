@@ -2,6 +2,7 @@ package com.fraud.detection.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -44,4 +45,18 @@ public class KafkaTopicConfig {
                 .replicas(replicas)
                 .build();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.fraud.state-store.type", havingValue = "changelog")
+    public NewTopic userStateChangelogTopic(
+            @Value("${app.kafka.topics.user-state-changelog}") String topic,
+            @Value("${app.kafka.partitions:18}") int partitions,
+            @Value("${app.kafka.replicas:3}") int replicas
+    ) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
 }
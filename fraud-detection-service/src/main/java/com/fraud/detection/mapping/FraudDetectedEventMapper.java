@@ -18,13 +18,12 @@ public interface FraudDetectedEventMapper {
     @Mapping(target = "userId", source = "event.userId")
     @Mapping(target = "riskScore", source = "evaluation.riskScore")
     @Mapping(target = "reasons", source = "evaluation.reasons")
-    @Mapping(target = "ruleVersion", source = "ruleVersion")
+    @Mapping(target = "ruleVersion", source = "evaluation.ruleVersion")
     FraudDetectedEvent toFraudDetectedEvent(
             TransactionCreatedEvent event,
             FraudEvaluation evaluation,
             String eventId,
             Instant occurredAt,
-            String traceId,
-            String ruleVersion
+            String traceId
     );
 }
@@ -18,5 +18,10 @@ public interface UserTransactionHistoryMapper {
     @Mapping(target = "merchantId", source = "event.merchantId")
     @Mapping(target = "country", source = "event.country")
     @Mapping(target = "occurredAt", source = "occurredAt")
-    UserTransactionHistory toHistory(TransactionCreatedEvent event, Instant occurredAt);
+    @Mapping(target = "sourcePartition", source = "sourcePartition")
+    UserTransactionHistory toHistory(TransactionCreatedEvent event, Instant occurredAt, Integer sourcePartition);
+
+    default UserTransactionHistory toHistory(TransactionCreatedEvent event, Instant occurredAt) {
+        return toHistory(event, occurredAt, null);
+    }
 }
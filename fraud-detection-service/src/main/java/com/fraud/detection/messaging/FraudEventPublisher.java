@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -25,7 +26,7 @@ public class FraudEventPublisher {
 
     public void publish(FraudDetectedEvent event) {
         try {
-            kafkaTemplate.send(topic, event.transactionId(), event).get(5, TimeUnit.SECONDS);
+            publishAsync(event).get(5, TimeUnit.SECONDS);
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Kafka publish interrupted", ex);
@@ -33,4 +34,10 @@ public class FraudEventPublisher {
             throw new IllegalStateException("Unable to publish fraud event", ex);
         }
     }
+
+    public CompletableFuture<Void> publishAsync(FraudDetectedEvent event) {
+        return kafkaTemplate.send(topic, event.transactionId(), event)
+                .orTimeout(5, TimeUnit.SECONDS)
+                .thenApply(ignored -> null);
+    }
 }
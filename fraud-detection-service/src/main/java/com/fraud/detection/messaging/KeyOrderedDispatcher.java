@@ -0,0 +1,96 @@
+package com.fraud.detection.messaging;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs listener work on a fixed set of single-threaded lanes picked by key hash: records with the same key run one
+ * after another in arrival order, records with different keys run concurrently. At most {@code maxInFlight} tasks may
+ * be pending or running; {@link #dispatch} blocks the listener thread when that many are outstanding, which keeps the
+ * consumer from polling further ahead than the lanes can drain.
+ */
+public class KeyOrderedDispatcher {
+
+    private final ExecutorService[] lanes;
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    public KeyOrderedDispatcher(String name, int laneCount, int maxInFlight, boolean virtualThreads) {
+        if (laneCount < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Key-ordered lanes and max in-flight must be at least 1");
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int lane = 0; lane < laneCount; lane++) {
+            lanes[lane] = Executors.newSingleThreadExecutor(threadFactory(name + "-" + lane, virtualThreads));
+        }
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Queues {@code task} on the lane owning {@code key}. The permit is held until the stage returned by the task
+     * completes, so work the task hands off asynchronously (a Kafka send, for instance) still counts as in flight.
+     */
+    public void dispatch(String key, Supplier<? extends CompletionStage<?>> task) throws InterruptedException {
+        permits.acquire();
+        try {
+            lanes[laneFor(key)].execute(() -> run(task));
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until every dispatched task has completed, for instance before the partitions they came from are revoked.
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        if (!permits.tryAcquire(maxInFlight, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        permits.release(maxInFlight);
+        return true;
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    int laneFor(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    private void run(Supplier<? extends CompletionStage<?>> task) {
+        CompletionStage<?> completion;
+        try {
+            completion = task.get();
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+        if (completion == null) {
+            completion = CompletableFuture.completedFuture(null);
+        }
+        completion.whenComplete((ignored, ex) -> permits.release());
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return Thread.ofPlatform().name(name).daemon(true).factory();
+    }
+}
@@ -0,0 +1,68 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.commons.partitioning.JumpConsistentHash;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Checks that a record arrived on the partition its user is expected to live on, mirroring the partitioning strategy
+ * configured on transaction-service. Per-user state may only be kept partition-local when this holds.
+ */
+@Component
+public class PartitionAffinityGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionAffinityGuard.class);
+
+    private final PartitioningStrategy strategy;
+    private final int partitions;
+    private final Counter violationsCounter;
+
+    public PartitionAffinityGuard(
+            @Value("${app.kafka.partitioning.strategy:transaction}") String strategy,
+            @Value("${app.kafka.partitions:18}") int partitions,
+            MeterRegistry meterRegistry
+    ) {
+        this.strategy = PartitioningStrategy.from(strategy);
+        this.partitions = partitions;
+        this.violationsCounter = Counter.builder("fraud_partition_affinity_violations")
+                .description("Transaction events received on a partition other than the one owning their user")
+                .register(meterRegistry);
+    }
+
+    public boolean isAffine(TransactionCreatedEvent event, int partition) {
+        if (strategy == PartitioningStrategy.TRANSACTION || partition < 0 || event.userId() == null) {
+            return false;
+        }
+        int expected = expectedPartition(event.userId());
+        if (expected == partition) {
+            return true;
+        }
+        violationsCounter.increment();
+        log.warn("fraud_partition_affinity_violation",
+                kv("event", "fraud_partition_affinity_violation"),
+                kv("outcome", "failed"),
+                kv("eventId", event.eventId()),
+                kv("transactionId", event.transactionId()),
+                kv("partition", partition),
+                kv("expected_partition", expected)
+        );
+        return false;
+    }
+
+    int expectedPartition(String userId) {
+        if (strategy == PartitioningStrategy.USER_HASH) {
+            return JumpConsistentHash.bucket(userId, partitions);
+        }
+        return Utils.toPositive(Utils.murmur2(userId.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+}
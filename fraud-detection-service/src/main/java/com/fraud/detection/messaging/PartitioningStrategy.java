@@ -0,0 +1,16 @@
+package com.fraud.detection.messaging;
+
+import java.util.Locale;
+
+public enum PartitioningStrategy {
+    TRANSACTION,
+    USER,
+    USER_HASH;
+
+    public static PartitioningStrategy from(String value) {
+        if (value == null || value.isBlank()) {
+            return TRANSACTION;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,218 @@
+package com.fraud.detection.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.detection.events.FraudDetectedEvent;
+import com.fraud.detection.model.PendingFraudEvent;
+import com.fraud.detection.repository.PendingFraudEventRepository;
+import com.fraud.detection.service.FraudDetectionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Asynchronous FraudDetected publishing ({@code app.fraud.publisher.mode=async}). The event is stored in
+ * {@code pending_fraud_events} inside the consumer transaction and sent once that transaction commits, so the listener
+ * thread never waits for the broker. Rows are removed once the send is acknowledged; rows left behind by a failed send
+ * or a crash are re-sent by {@link #republishStale()}, which leases them in a short transaction and sends without
+ * holding a connection or row locks.
+ */
+@Component
+public class PendingFraudEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingFraudEventRelay.class);
+
+    private final PendingFraudEventRepository pendingFraudEventRepository;
+    private final FraudEventPublisher fraudEventPublisher;
+    private final FraudDetectionMetrics fraudDetectionMetrics;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration retryAfter;
+    private final Duration lease;
+    private final int retryBatchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<String> published = new ConcurrentLinkedQueue<>();
+
+    public PendingFraudEventRelay(
+            PendingFraudEventRepository pendingFraudEventRepository,
+            FraudEventPublisher fraudEventPublisher,
+            FraudDetectionMetrics fraudDetectionMetrics,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.fraud.publisher.mode:sync}") String mode,
+            @Value("${app.fraud.publisher.retry-after:PT10S}") Duration retryAfter,
+            @Value("${app.fraud.publisher.lease:PT30S}") Duration lease,
+            @Value("${app.fraud.publisher.retry-batch-size:200}") int retryBatchSize
+    ) {
+        this.pendingFraudEventRepository = pendingFraudEventRepository;
+        this.fraudEventPublisher = fraudEventPublisher;
+        this.fraudDetectionMetrics = fraudDetectionMetrics;
+        this.objectMapper = objectMapper;
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.retryAfter = retryAfter;
+        this.lease = lease;
+        this.retryBatchSize = retryBatchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a future that completes once the send has been acknowledged by the broker or handed over to the retry
+     * sweep, i.e. once it is safe to commit the offset of the record that produced the event.
+     */
+    public CompletableFuture<Void> publishAfterCommit(FraudDetectedEvent event) {
+        pendingFraudEventRepository.save(new PendingFraudEvent(event.eventId(), objectMapper.valueToTree(event), Instant.now()));
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(event, completion);
+            return completion;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(event, completion);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    completion.completeExceptionally(new IllegalStateException("Transaction rolled back before publishing"));
+                }
+            }
+        });
+        return completion;
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.publisher.cleanup-interval-ms:500}")
+    public void deletePublished() {
+        if (!enabled) {
+            return;
+        }
+        List<String> eventIds = new ArrayList<>();
+        String eventId;
+        while (eventIds.size() < retryBatchSize && (eventId = published.poll()) != null) {
+            eventIds.add(eventId);
+        }
+        if (!eventIds.isEmpty()) {
+            pendingFraudEventRepository.deleteAllByIdInBatch(eventIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.publisher.retry-interval-ms:5000}")
+    public void republishStale() {
+        if (!enabled) {
+            return;
+        }
+        List<PendingFraudEvent> stale = claimStaleBatch();
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(stale.size());
+        List<FraudDetectedEvent> events = new ArrayList<>(stale.size());
+        for (PendingFraudEvent pending : stale) {
+            FraudDetectedEvent event = objectMapper.convertValue(pending.getPayload(), FraudDetectedEvent.class);
+            events.add(event);
+            sends.add(fraudEventPublisher.publishAsync(event));
+        }
+
+        List<String> acknowledged = new ArrayList<>(stale.size());
+        for (int i = 0; i < stale.size(); i++) {
+            try {
+                sends.get(i).join();
+                acknowledged.add(stale.get(i).getEventId());
+                logPublished(events.get(i));
+            } catch (CompletionException ex) {
+                // The lease runs out and the row is claimed again on a later sweep.
+                logPublishFailed(events.get(i), ex.getCause() != null ? ex.getCause() : ex);
+            }
+        }
+        if (!acknowledged.isEmpty()) {
+            pendingFraudEventRepository.deleteAllByIdInBatch(acknowledged);
+        }
+
+        log.info("fraud_pending_events_republished",
+                kv("event", "fraud_pending_events_republished"),
+                kv("outcome", acknowledged.size() == stale.size() ? "success" : "partial"),
+                kv("batch_size", stale.size()),
+                kv("published", acknowledged.size())
+        );
+    }
+
+    /**
+     * Leases a batch of stale rows and commits straight away, so the row locks are released before anything is sent.
+     */
+    private List<PendingFraudEvent> claimStaleBatch() {
+        List<PendingFraudEvent> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<PendingFraudEvent> stale = pendingFraudEventRepository.lockStaleBatch(
+                    now.minus(retryAfter), now, retryBatchSize);
+            for (PendingFraudEvent pending : stale) {
+                pending.claim(now.plus(lease));
+            }
+            return stale;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void send(FraudDetectedEvent event, CompletableFuture<Void> completion) {
+        CompletableFuture<Void> send;
+        try {
+            send = fraudEventPublisher.publishAsync(event);
+        } catch (RuntimeException ex) {
+            send = CompletableFuture.failedFuture(ex);
+        }
+        send.whenComplete((ignored, ex) -> {
+            if (ex == null) {
+                published.add(event.eventId());
+                logPublished(event);
+            } else {
+                logPublishFailed(event, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+            completion.complete(null);
+        });
+    }
+
+    private void logPublished(FraudDetectedEvent event) {
+        fraudDetectionMetrics.recordFraudEventPublished("success");
+        log.info("fraud_event_published",
+                kv("event", "fraud_event_published"),
+                kv("outcome", "success"),
+                kv("eventId", event.eventId()),
+                kv("transactionId", event.transactionId()),
+                kv("risk_score", event.riskScore())
+        );
+    }
+
+    private void logPublishFailed(FraudDetectedEvent event, Throwable ex) {
+        fraudDetectionMetrics.recordFraudEventPublished("failed");
+        log.error("fraud_event_publish_failed",
+                kv("event", "fraud_event_publish_failed"),
+                kv("outcome", "deferred"),
+                kv("eventId", event.eventId()),
+                kv("transactionId", event.transactionId()),
+                kv("error_code", "KAFKA_PUBLISH_FAILED"),
+                kv("error_class", ex.getClass().getSimpleName()),
+                kv("error_message", ex.getMessage())
+        );
+    }
+}
@@ -0,0 +1,103 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.service.BatchRecordFailedException;
+import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.service.PartitionedTransactionEvent;
+import com.fraud.detection.state.UserStateStore;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Batch counterpart of {@link TransactionCreatedConsumer}. A failing record rolls back the whole batch; the records
+ * before it are then re-applied in their own transaction and the failure is reported with its index, so
+ * {@code DefaultErrorHandler} commits the good prefix and only retries (and eventually dead-letters) the bad record.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.consumer.mode", havingValue = "batch")
+public class TransactionCreatedBatchConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionCreatedBatchConsumer.class);
+
+    private final FraudDetectionService fraudDetectionService;
+    private final UserStateStore userStateStore;
+
+    public TransactionCreatedBatchConsumer(FraudDetectionService fraudDetectionService, UserStateStore userStateStore) {
+        this.fraudDetectionService = fraudDetectionService;
+        this.userStateStore = userStateStore;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        userStateStore.onPartitionsAssigned(assignments.keySet().stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        userStateStore.onPartitionsRevoked(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.transactions-created}",
+            containerFactory = "transactionsCreatedListenerContainerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, TransactionCreatedEvent>> records) {
+        List<PartitionedTransactionEvent> batch = new ArrayList<>(records.size());
+        List<Integer> recordIndexes = new ArrayList<>(records.size());
+        for (int index = 0; index < records.size(); index++) {
+            ConsumerRecord<String, TransactionCreatedEvent> record = records.get(index);
+            if (record.value() == null) {
+                log.warn("transaction_event_received",
+                        kv("event", "transaction_event_received"),
+                        kv("outcome", "failed"),
+                        kv("topic", record.topic()),
+                        kv("partition", record.partition()),
+                        kv("offset", record.offset()),
+                        kv("error_code", "EMPTY_EVENT_PAYLOAD")
+                );
+                continue;
+            }
+            batch.add(new PartitionedTransactionEvent(record.value(), record.partition()));
+            recordIndexes.add(index);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            fraudDetectionService.processBatch(batch);
+        } catch (BatchRecordFailedException ex) {
+            int failedIndex = ex.getIndex();
+            ConsumerRecord<String, TransactionCreatedEvent> failedRecord = records.get(recordIndexes.get(failedIndex));
+            log.warn("transaction_batch_record_failed",
+                    kv("event", "transaction_batch_record_failed"),
+                    kv("outcome", "failed"),
+                    kv("eventId", failedRecord.value().eventId()),
+                    kv("transactionId", failedRecord.value().transactionId()),
+                    kv("topic", failedRecord.topic()),
+                    kv("partition", failedRecord.partition()),
+                    kv("offset", failedRecord.offset()),
+                    kv("batch_index", failedIndex),
+                    kv("batch_size", records.size())
+            );
+            if (failedIndex > 0) {
+                fraudDetectionService.processBatch(batch.subList(0, failedIndex));
+            }
+            throw new BatchListenerFailedException(ex.getMessage(), ex.getCause(), recordIndexes.get(failedIndex));
+        }
+    }
+}
@@ -1,34 +1,74 @@
 package com.fraud.detection.messaging;
 
 import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
 import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.state.UserStateStore;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Component
-public class TransactionCreatedConsumer {
+@ConditionalOnProperty(name = "app.fraud.consumer.mode", havingValue = "record", matchIfMissing = true)
+public class TransactionCreatedConsumer implements ConsumerSeekAware {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionCreatedConsumer.class);
 
     private final FraudDetectionService fraudDetectionService;
+    private final UserStateStore userStateStore;
+    private final ProcessedEventGuard processedEventGuard;
 
-    public TransactionCreatedConsumer(FraudDetectionService fraudDetectionService) {
+    public TransactionCreatedConsumer(
+            FraudDetectionService fraudDetectionService,
+            UserStateStore userStateStore,
+            ProcessedEventGuard processedEventGuard
+    ) {
         this.fraudDetectionService = fraudDetectionService;
+        this.userStateStore = userStateStore;
+        this.processedEventGuard = processedEventGuard;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        userStateStore.onPartitionsAssigned(partitionNumbers(assignments.keySet()));
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        userStateStore.onPartitionsRevoked(partitionNumbers(partitions));
+        processedEventGuard.forget(partitionNumbers(partitions));
+    }
+
+    private static List<Integer> partitionNumbers(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).toList();
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.transactions-created}")
+    @KafkaListener(
+            topics = "${app.kafka.topics.transactions-created}",
+            containerFactory = "transactionsCreatedListenerContainerFactory"
+    )
     public void consume(
             TransactionCreatedEvent event,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset
+            @Header(KafkaHeaders.OFFSET) long offset,
+            @Header(name = KafkaHeaders.ACKNOWLEDGMENT, required = false) @Nullable Acknowledgment acknowledgment
     ) {
         String previousTraceId = MDC.get("traceId");
         boolean injectedTraceId = false;
@@ -46,6 +86,9 @@ public class TransactionCreatedConsumer {
                     kv("offset", offset),
                     kv("error_code", "EMPTY_EVENT_PAYLOAD")
             );
+            if (acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
             if (injectedTraceId) {
                 MDC.remove("traceId");
             }
@@ -63,7 +106,12 @@ public class TransactionCreatedConsumer {
                     kv("offset", offset)
             );
 
-            fraudDetectionService.process(event);
+            CompletableFuture<Void> processed = fraudDetectionService.process(event, partition);
+            // Only the MANUAL ack mode (async publisher) injects an Acknowledgment; with the default record ack mode
+            // the container commits the offset itself once this method returns.
+            if (acknowledgment != null) {
+                processed.whenComplete((ignored, ex) -> acknowledgment.acknowledge());
+            }
 
             log.info("transaction_event_processed",
                     kv("event", "transaction_event_processed"),
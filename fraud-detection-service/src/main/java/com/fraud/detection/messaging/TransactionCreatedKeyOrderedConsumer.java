@@ -0,0 +1,226 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.detection.config.KafkaErrorHandlerConfig;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
+import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.state.UserStateStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Processes records from one partition concurrently while keeping per-user order: each record goes to the
+ * {@link KeyOrderedDispatcher} lane owning its {@code userId} and is acknowledged when done. The container runs with
+ * async acks, so it only commits the contiguous prefix of acknowledged offsets per partition. Failures are retried on
+ * the lane with the same back-off as {@code DefaultErrorHandler} and then dead-lettered, since async acks cannot seek.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.consumer.mode", havingValue = "key-ordered")
+public class TransactionCreatedKeyOrderedConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionCreatedKeyOrderedConsumer.class);
+
+    private final FraudDetectionService fraudDetectionService;
+    private final UserStateStore userStateStore;
+    private final ProcessedEventGuard processedEventGuard;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final BackOff retryBackOff;
+    private final Duration drainTimeout;
+    private final KeyOrderedDispatcher dispatcher;
+
+    public TransactionCreatedKeyOrderedConsumer(
+            FraudDetectionService fraudDetectionService,
+            UserStateStore userStateStore,
+            ProcessedEventGuard processedEventGuard,
+            DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+            MeterRegistry meterRegistry,
+            @Value("${app.fraud.consumer.key-ordered.lanes:16}") int lanes,
+            @Value("${app.fraud.consumer.key-ordered.max-in-flight:1000}") int maxInFlight,
+            @Value("${app.fraud.consumer.key-ordered.drain-timeout:PT10S}") Duration drainTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.fraudDetectionService = fraudDetectionService;
+        this.userStateStore = userStateStore;
+        this.processedEventGuard = processedEventGuard;
+        this.deadLetterPublishingRecoverer = deadLetterPublishingRecoverer;
+        this.retryBackOff = KafkaErrorHandlerConfig.retryBackOff();
+        this.drainTimeout = drainTimeout;
+        this.dispatcher = new KeyOrderedDispatcher("fraud-lane", lanes, maxInFlight, virtualThreads);
+        Gauge.builder("kafka_key_ordered_in_flight", dispatcher, KeyOrderedDispatcher::inFlight)
+                .description("Records handed to key-ordered lanes and not yet acknowledged")
+                .tag("listener", "transactions-created")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        userStateStore.onPartitionsAssigned(assignments.keySet().stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        // Let the lanes finish before the new owner starts on the same users.
+        try {
+            if (!dispatcher.awaitIdle(drainTimeout)) {
+                log.warn("transaction_key_ordered_drain_timeout",
+                        kv("event", "transaction_key_ordered_drain_timeout"),
+                        kv("outcome", "failed"),
+                        kv("in_flight", dispatcher.inFlight()),
+                        kv("timeout_ms", drainTimeout.toMillis())
+                );
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Integer> revoked = partitions.stream().map(TopicPartition::partition).toList();
+        userStateStore.onPartitionsRevoked(revoked);
+        processedEventGuard.forget(revoked);
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.transactions-created}",
+            containerFactory = "transactionsCreatedListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, TransactionCreatedEvent> record, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        TransactionCreatedEvent event = record.value();
+        if (event == null) {
+            log.warn("transaction_event_received",
+                    kv("event", "transaction_event_received"),
+                    kv("outcome", "failed"),
+                    kv("topic", record.topic()),
+                    kv("partition", record.partition()),
+                    kv("offset", record.offset()),
+                    kv("error_code", "EMPTY_EVENT_PAYLOAD")
+            );
+            acknowledgment.acknowledge();
+            return;
+        }
+        String key = event.userId() != null ? event.userId() : event.transactionId();
+        dispatcher.dispatch(key, () -> process(record, acknowledgment));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    private CompletableFuture<Void> process(
+            ConsumerRecord<String, TransactionCreatedEvent> record,
+            Acknowledgment acknowledgment
+    ) {
+        TransactionCreatedEvent event = record.value();
+        boolean injectedTraceId = event.traceId() != null && !event.traceId().isBlank();
+        if (injectedTraceId) {
+            MDC.put("traceId", event.traceId());
+        }
+        try {
+            BackOffExecution backOff = retryBackOff.start();
+            int deliveryAttempt = 1;
+            while (true) {
+                try {
+                    CompletableFuture<Void> completion = fraudDetectionService.process(event, record.partition());
+                    log.info("transaction_event_processed",
+                            kv("event", "transaction_event_processed"),
+                            kv("outcome", "success"),
+                            kv("eventId", event.eventId()),
+                            kv("transactionId", event.transactionId()),
+                            kv("topic", record.topic()),
+                            kv("partition", record.partition()),
+                            kv("offset", record.offset())
+                    );
+                    return completion.whenComplete((ignored, ex) -> acknowledgment.acknowledge());
+                } catch (RuntimeException ex) {
+                    long delay = backOff.nextBackOff();
+                    if (delay == BackOffExecution.STOP) {
+                        if (deadLetter(record, ex, deliveryAttempt)) {
+                            acknowledgment.acknowledge();
+                        }
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (deliveryAttempt == 1) {
+                        log.warn("transaction_event_retry",
+                                kv("event", "transaction_event_retry"),
+                                kv("outcome", "retry"),
+                                kv("topic", record.topic()),
+                                kv("partition", record.partition()),
+                                kv("offset", record.offset()),
+                                kv("eventId", event.eventId()),
+                                kv("transactionId", event.transactionId()),
+                                kv("delivery_attempt", deliveryAttempt),
+                                kv("error_class", ex.getClass().getSimpleName()),
+                                kv("error_message", ex.getMessage())
+                        );
+                    }
+                    deliveryAttempt++;
+                    Thread.sleep(delay);
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Shutting down: leave the record unacknowledged so it is redelivered.
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            if (injectedTraceId) {
+                MDC.remove("traceId");
+            }
+        }
+    }
+
+    /**
+     * Returns false when the dead-letter publish itself failed; the record then stays unacknowledged, which holds back
+     * the partition's commits until it is redelivered after a restart or rebalance.
+     */
+    private boolean deadLetter(ConsumerRecord<String, TransactionCreatedEvent> record, RuntimeException ex, int attempts) {
+        log.error("transaction_event_dead_lettered",
+                kv("event", "transaction_event_dead_lettered"),
+                kv("outcome", "failed"),
+                kv("topic", record.topic()),
+                kv("partition", record.partition()),
+                kv("offset", record.offset()),
+                kv("eventId", record.value().eventId()),
+                kv("transactionId", record.value().transactionId()),
+                kv("delivery_attempts", attempts),
+                kv("error_class", ex.getClass().getSimpleName()),
+                kv("error_message", ex.getMessage())
+        );
+        try {
+            deadLetterPublishingRecoverer.accept(record, ex);
+            return true;
+        } catch (RuntimeException dlqEx) {
+            log.error("transaction_event_dead_letter_failed",
+                    kv("event", "transaction_event_dead_letter_failed"),
+                    kv("outcome", "failed"),
+                    kv("topic", record.topic()),
+                    kv("partition", record.partition()),
+                    kv("offset", record.offset()),
+                    kv("error_class", dlqEx.getClass().getSimpleName()),
+                    kv("error_message", dlqEx.getMessage())
+            );
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.fraud.detection.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "fraud_rule_sets",
+        indexes = @Index(name = "idx_fraud_rule_sets_created_at", columnList = "created_at")
+)
+public class FraudRuleSet {
+
+    @Id
+    @Column(name = "version")
+    private String version;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "definition", nullable = false, columnDefinition = "jsonb", updatable = false)
+    private JsonNode definition;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected FraudRuleSet() {
+    }
+
+    public FraudRuleSet(String version, JsonNode definition, Instant createdAt) {
+        this.version = version;
+        this.definition = definition;
+        this.createdAt = createdAt;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public JsonNode getDefinition() {
+        return definition;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fraud.detection.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "pending_fraud_events",
+        indexes = @Index(name = "idx_pending_fraud_events_created_at", columnList = "created_at")
+)
+public class PendingFraudEvent implements Persistable<String> {
+
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false, columnDefinition = "jsonb", updatable = false)
+    private JsonNode payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected PendingFraudEvent() {
+    }
+
+    public PendingFraudEvent(String eventId, JsonNode payload, Instant createdAt) {
+        this.eventId = eventId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public JsonNode getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    /**
+     * Reserves the row for one re-send until {@code leaseUntil}; if it is still here after that, the send failed or
+     * the relay died and the row can be claimed again.
+     */
+    public void claim(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
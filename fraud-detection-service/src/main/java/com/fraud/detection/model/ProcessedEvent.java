@@ -3,13 +3,21 @@ package com.fraud.detection.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
 @Entity
-@Table(name = "processed_events")
-public class ProcessedEvent {
+@Table(
+        name = "processed_events",
+        indexes = @Index(name = "idx_processed_events_source_partition", columnList = "sourcePartition")
+)
+public class ProcessedEvent implements Persistable<String> {
 
     @Id
     private String eventId;
@@ -17,12 +25,22 @@ public class ProcessedEvent {
     @Column(nullable = false)
     private Instant processedAt;
 
+    private Integer sourcePartition;
+
+    @Transient
+    private boolean isNew = true;
+
     protected ProcessedEvent() {
     }
 
     public ProcessedEvent(String eventId, Instant processedAt) {
+        this(eventId, processedAt, null);
+    }
+
+    public ProcessedEvent(String eventId, Instant processedAt, Integer sourcePartition) {
         this.eventId = eventId;
         this.processedAt = processedAt;
+        this.sourcePartition = sourcePartition;
     }
 
     public String getEventId() {
@@ -32,4 +50,24 @@ public class ProcessedEvent {
     public Instant getProcessedAt() {
         return processedAt;
     }
+
+    public Integer getSourcePartition() {
+        return sourcePartition;
+    }
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
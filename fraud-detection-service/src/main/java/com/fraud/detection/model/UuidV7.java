@@ -0,0 +1,25 @@
+package com.fraud.detection.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): a 48-bit millisecond timestamp followed by random bits. Keys generated
+ * close in time land next to each other in the primary-key index instead of at random pages.
+ */
+public final class UuidV7 {
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    public static String nextString() {
+        return next().toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.fraud.detection.repository;
+
+import com.fraud.detection.model.FraudRuleSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface FraudRuleSetRepository extends JpaRepository<FraudRuleSet, String> {
+
+    Optional<FraudRuleSet> findTopByOrderByCreatedAtDesc();
+}
@@ -0,0 +1,27 @@
+package com.fraud.detection.repository;
+
+import com.fraud.detection.model.PendingFraudEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PendingFraudEventRepository extends JpaRepository<PendingFraudEvent, String> {
+
+    @Query(value = """
+            SELECT *
+            FROM pending_fraud_events
+            WHERE created_at <= :cutoff
+              AND (lease_until IS NULL OR lease_until <= :now)
+            ORDER BY created_at
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PendingFraudEvent> lockStaleBatch(
+            @Param("cutoff") Instant cutoff,
+            @Param("now") Instant now,
+            @Param("batchSize") int batchSize
+    );
+}
@@ -0,0 +1,53 @@
+package com.fraud.detection.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+public class ProcessedEventBulkRepository {
+
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO processed_events (event_id, processed_at)
+            SELECT event_id, processed_at::timestamptz
+            FROM unnest(?::text[], ?::text[]) AS batch(event_id, processed_at)
+            ON CONFLICT DO NOTHING
+            RETURNING event_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedEventBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marks every event as processed in a single statement and returns the ids that were not already present.
+     */
+    public Set<String> insertIfAbsent(Map<String, Instant> processedAtByEventId) {
+        if (processedAtByEventId.isEmpty()) {
+            return Set.of();
+        }
+        String[] eventIds = processedAtByEventId.keySet().toArray(String[]::new);
+        String[] processedAt = processedAtByEventId.values().stream().map(Instant::toString).toArray(String[]::new);
+
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT);
+                    statement.setArray(1, connection.createArrayOf("text", eventIds));
+                    statement.setArray(2, connection.createArrayOf("text", processedAt));
+                    return statement;
+                },
+                resultSet -> {
+                    inserted.add(resultSet.getString(1));
+                }
+        );
+        return inserted;
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserTransactionHistoryRepository extends JpaRepository<UserTransactionHistory, Long> {
@@ -15,7 +17,26 @@ public interface UserTransactionHistoryRepository extends JpaRepository<UserTran
 
     Optional<UserTransactionHistory> findTopByUserIdOrderByOccurredAtDesc(String userId);
 
+    List<UserTransactionHistory> findByUserIdInAndOccurredAtAfter(Collection<String> userIds, Instant occurredAtAfter);
+
+    List<UserTransactionHistory> findBySourcePartitionInAndOccurredAtAfterOrderByOccurredAtAsc(
+            Collection<Integer> sourcePartitions,
+            Instant occurredAtAfter
+    );
+
+    /**
+     * Inserts the row unless one for the same transaction exists, e.g. left behind by an exactly-once attempt whose
+     * Kafka transaction aborted after the database commit.
+     *
+     * @return 1 if the row was inserted, 0 if it was already there
+     */
     @Modifying
-    @Query("DELETE FROM UserTransactionHistory h WHERE h.occurredAt < :cutoff")
-    int deleteByOccurredAtBefore(@Param("cutoff") Instant cutoff);
+    @Query(value = """
+            INSERT INTO user_transaction_history
+                (id, transaction_id, user_id, amount, currency, merchant_id, country, occurred_at, source_partition)
+            VALUES (nextval('user_transaction_history_seq'), :#{#h.transactionId}, :#{#h.userId}, :#{#h.amount},
+                    :#{#h.currency}, :#{#h.merchantId}, :#{#h.country}, :#{#h.occurredAt}, :#{#h.sourcePartition})
+            ON CONFLICT (transaction_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("h") UserTransactionHistory history);
 }
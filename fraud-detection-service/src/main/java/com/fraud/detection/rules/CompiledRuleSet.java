@@ -0,0 +1,110 @@
+package com.fraud.detection.rules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable evaluation plan built from a {@link RuleSetDefinition}. Every rule maps to one bit; since the score only
+ * depends on which rules fired, the {@link FraudEvaluation} for each of the 16 combinations is built here once and the
+ * hot path just looks it up.
+ */
+final class CompiledRuleSet {
+
+    static final int HIGH_AMOUNT = 1;
+    static final int HIGH_VELOCITY = 1 << 1;
+    static final int COUNTRY_CHANGE = 1 << 2;
+    static final int HIGH_RISK_MERCHANT = 1 << 3;
+
+    private static final String[] REASONS = {
+            "HIGH_AMOUNT", "HIGH_VELOCITY", "COUNTRY_CHANGE_IN_SHORT_WINDOW", "HIGH_RISK_MERCHANT"
+    };
+    private static final int[] SCORES = {45, 35, 30, 25};
+
+    private final RuleSetDefinition definition;
+    private final BigDecimal highAmountThreshold;
+    private final long velocityMaxTransactions;
+    private final long countryChangeWindowSeconds;
+    private final int countryChangeWindowNanos;
+    private final Set<String> highRiskMerchants;
+    private final FraudEvaluation[] evaluations;
+
+    private CompiledRuleSet(RuleSetDefinition definition, Duration countryChangeWindow) {
+        this.definition = definition;
+        // Amounts arrive with two decimals; matching the scale keeps compareTo on its cheap same-scale path.
+        BigDecimal threshold = definition.highAmountThreshold();
+        this.highAmountThreshold = threshold.scale() < 2 ? threshold.setScale(2, RoundingMode.UNNECESSARY) : threshold;
+        this.velocityMaxTransactions = definition.velocityMaxTransactions();
+        this.countryChangeWindowSeconds = countryChangeWindow.getSeconds();
+        this.countryChangeWindowNanos = countryChangeWindow.getNano();
+
+        Set<String> merchants = new HashSet<>();
+        for (String merchant : definition.highRiskMerchants()) {
+            merchants.add(merchant.toUpperCase(Locale.ROOT));
+        }
+        this.highRiskMerchants = Set.copyOf(merchants);
+
+        this.evaluations = new FraudEvaluation[1 << REASONS.length];
+        for (int mask = 0; mask < evaluations.length; mask++) {
+            evaluations[mask] = buildEvaluation(mask, definition.fraudScoreThreshold(), definition.version());
+        }
+    }
+
+    static CompiledRuleSet compile(RuleSetDefinition definition, Duration countryChangeWindow) {
+        return new CompiledRuleSet(definition, countryChangeWindow);
+    }
+
+    RuleSetDefinition definition() {
+        return definition;
+    }
+
+    FraudEvaluation evaluation(int mask) {
+        return evaluations[mask];
+    }
+
+    boolean isHighAmount(BigDecimal amount) {
+        return amount != null && amount.compareTo(highAmountThreshold) > 0;
+    }
+
+    boolean isHighVelocity(long recentTransactionsCount) {
+        return recentTransactionsCount + 1 >= velocityMaxTransactions;
+    }
+
+    /**
+     * Same as {@code lastOccurredAt.isAfter(referenceTime.minus(window))} without creating the intermediate Instant.
+     */
+    boolean isInsideCountryChangeWindow(Instant lastOccurredAt, Instant referenceTime) {
+        long cutoffSeconds = referenceTime.getEpochSecond() - countryChangeWindowSeconds;
+        int cutoffNanos = referenceTime.getNano() - countryChangeWindowNanos;
+        if (cutoffNanos < 0) {
+            cutoffNanos += 1_000_000_000;
+            cutoffSeconds--;
+        }
+        long lastSeconds = lastOccurredAt.getEpochSecond();
+        return lastSeconds > cutoffSeconds || (lastSeconds == cutoffSeconds && lastOccurredAt.getNano() > cutoffNanos);
+    }
+
+    boolean isHighRiskMerchant(String merchantId) {
+        // toUpperCase returns the same instance when the id is already upper case, which is the usual format.
+        return merchantId != null && highRiskMerchants.contains(merchantId.toUpperCase(Locale.ROOT));
+    }
+
+    private static FraudEvaluation buildEvaluation(int mask, int fraudScoreThreshold, String version) {
+        List<String> reasons = new ArrayList<>(REASONS.length);
+        int score = 0;
+        for (int rule = 0; rule < REASONS.length; rule++) {
+            if ((mask & (1 << rule)) != 0) {
+                reasons.add(REASONS[rule]);
+                score += SCORES[rule];
+            }
+        }
+        int cappedScore = Math.min(100, score);
+        return new FraudEvaluation(cappedScore >= fraudScoreThreshold, cappedScore, List.copyOf(reasons), version);
+    }
+}
@@ -0,0 +1,40 @@
+package com.fraud.detection.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.detection.model.FraudRuleSet;
+import com.fraud.detection.repository.FraudRuleSetRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps every version in {@code fraud_rule_sets}; the most recently saved one is active.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.rules.store.type", havingValue = "database")
+public class DatabaseRuleSetStore implements RuleSetStore {
+
+    private final FraudRuleSetRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public DatabaseRuleSetStore(FraudRuleSetRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Optional<RuleSetDefinition> load() {
+        return repository.findTopByOrderByCreatedAtDesc()
+                .map(ruleSet -> objectMapper.convertValue(ruleSet.getDefinition(), RuleSetDefinition.class));
+    }
+
+    @Override
+    public void save(RuleSetDefinition definition) {
+        if (repository.existsById(definition.version())) {
+            throw new IllegalArgumentException("Rule set version already exists: " + definition.version());
+        }
+        repository.save(new FraudRuleSet(definition.version(), objectMapper.valueToTree(definition), Instant.now()));
+    }
+}
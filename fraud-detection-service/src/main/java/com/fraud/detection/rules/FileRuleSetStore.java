@@ -0,0 +1,55 @@
+package com.fraud.detection.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Reads the rule set from a local JSON file (e.g. a mounted ConfigMap). Saves replace the file atomically so a
+ * concurrent reader never sees a partially written version.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.rules.store.type", havingValue = "file")
+public class FileRuleSetStore implements RuleSetStore {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileRuleSetStore(@Value("${app.fraud.rules.store.path}") Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Optional<RuleSetDefinition> load() {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), RuleSetDefinition.class));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read rule set from " + path, ex);
+        }
+    }
+
+    @Override
+    public void save(RuleSetDefinition definition) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), definition);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write rule set to " + path, ex);
+        }
+    }
+}
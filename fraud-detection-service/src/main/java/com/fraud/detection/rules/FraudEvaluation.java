@@ -5,6 +5,7 @@ import java.util.List;
 public record FraudEvaluation(
         boolean fraudulent,
         int riskScore,
-        List<String> reasons
+        List<String> reasons,
+        String ruleVersion
 ) {
 }
@@ -2,85 +2,72 @@ package com.fraud.detection.rules;
 
 import com.fraud.detection.config.FraudRulesProperties;
 import com.fraud.detection.events.TransactionCreatedEvent;
-import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.state.UserActivity;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
 
 @Component
 public class FraudRulesEngine {
 
     private final FraudRulesProperties rules;
+    private volatile CompiledRuleSet ruleSet;
 
     public FraudRulesEngine(FraudRulesProperties rules) {
         this.rules = rules;
+        this.ruleSet = CompiledRuleSet.compile(RuleSetDefinition.fromProperties(rules), rules.getCountryChangeWindow());
     }
 
-    public FraudEvaluation evaluate(
-            TransactionCreatedEvent event,
-            Optional<UserTransactionHistory> lastTransaction,
-            long recentTransactionsCount,
-            Instant referenceTime
-    ) {
-        List<String> reasons = new ArrayList<>();
-        int score = 0;
+    public FraudEvaluation evaluate(TransactionCreatedEvent event, UserActivity activity, Instant referenceTime) {
+        CompiledRuleSet ruleSet = this.ruleSet;
+        int mask = 0;
 
-        if (event.amount() != null && event.amount().compareTo(rules.getHighAmountThreshold()) > 0) {
-            reasons.add("HIGH_AMOUNT");
-            score += 45;
+        if (ruleSet.isHighAmount(event.amount())) {
+            mask |= CompiledRuleSet.HIGH_AMOUNT;
         }
 
-        if (recentTransactionsCount + 1 >= rules.getVelocityMaxTransactions()) {
-            reasons.add("HIGH_VELOCITY");
-            score += 35;
+        if (ruleSet.isHighVelocity(activity.recentTransactionsCount())) {
+            mask |= CompiledRuleSet.HIGH_VELOCITY;
         }
 
-        if (isCountryChangeSuspicious(event, lastTransaction, referenceTime)) {
-            reasons.add("COUNTRY_CHANGE_IN_SHORT_WINDOW");
-            score += 30;
+        if (isCountryChangeSuspicious(ruleSet, event, activity, referenceTime)) {
+            mask |= CompiledRuleSet.COUNTRY_CHANGE;
         }
 
-        if (isHighRiskMerchant(event.merchantId())) {
-            reasons.add("HIGH_RISK_MERCHANT");
-            score += 25;
+        if (ruleSet.isHighRiskMerchant(event.merchantId())) {
+            mask |= CompiledRuleSet.HIGH_RISK_MERCHANT;
         }
 
-        int cappedScore = Math.min(100, score);
-        boolean fraudulent = cappedScore >= rules.getFraudScoreThreshold();
-        return new FraudEvaluation(fraudulent, cappedScore, List.copyOf(reasons));
+        return ruleSet.evaluation(mask);
+    }
+
+    /**
+     * Compiles the definition on the calling thread and then swaps it in with a single write. Evaluations already
+     * running finish with the plan they started with.
+     */
+    public void apply(RuleSetDefinition definition) {
+        this.ruleSet = CompiledRuleSet.compile(definition, rules.getCountryChangeWindow());
+    }
+
+    public RuleSetDefinition activeRuleSet() {
+        return ruleSet.definition();
     }
 
     private boolean isCountryChangeSuspicious(
+            CompiledRuleSet ruleSet,
             TransactionCreatedEvent event,
-            Optional<UserTransactionHistory> lastTransaction,
+            UserActivity activity,
             Instant referenceTime
     ) {
-        if (lastTransaction.isEmpty()) {
+        if (!activity.hasPreviousTransaction()) {
             return false;
         }
 
-        UserTransactionHistory previous = lastTransaction.get();
-        if (event.country() == null || previous.getCountry() == null) {
+        if (event.country() == null || activity.lastCountry() == null) {
             return false;
         }
 
-        boolean changedCountry = !previous.getCountry().equalsIgnoreCase(event.country());
-        boolean insideWindow = previous.getOccurredAt().isAfter(referenceTime.minus(rules.getCountryChangeWindow()));
-        return changedCountry && insideWindow;
-    }
-
-    private boolean isHighRiskMerchant(String merchantId) {
-        if (merchantId == null) {
-            return false;
-        }
-        String normalizedMerchant = merchantId.toUpperCase(Locale.ROOT);
-        return rules.getHighRiskMerchants()
-                .stream()
-                .map(value -> value.toUpperCase(Locale.ROOT))
-                .anyMatch(normalizedMerchant::equals);
+        boolean changedCountry = !activity.lastCountry().equalsIgnoreCase(event.country());
+        return changedCountry && ruleSet.isInsideCountryChangeWindow(activity.lastOccurredAt(), referenceTime);
     }
 }
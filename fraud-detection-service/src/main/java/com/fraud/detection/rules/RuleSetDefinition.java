@@ -0,0 +1,38 @@
+package com.fraud.detection.rules;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The hot-reloadable part of the fraud rules. The velocity and country-change windows are not included: they size the
+ * user state kept by the state stores, so they stay bound to {@link FraudRulesProperties} and change with a restart.
+ */
+public record RuleSetDefinition(
+        @NotBlank String version,
+        @NotNull @DecimalMin("0.00") BigDecimal highAmountThreshold,
+        @Min(1) int velocityMaxTransactions,
+        @Min(0) @Max(100) int fraudScoreThreshold,
+        List<@NotBlank String> highRiskMerchants
+) {
+
+    public RuleSetDefinition {
+        highRiskMerchants = highRiskMerchants == null ? List.of() : List.copyOf(highRiskMerchants);
+    }
+
+    public static RuleSetDefinition fromProperties(FraudRulesProperties rules) {
+        return new RuleSetDefinition(
+                rules.getVersion(),
+                rules.getHighAmountThreshold(),
+                rules.getVelocityMaxTransactions(),
+                rules.getFraudScoreThreshold(),
+                rules.getHighRiskMerchants()
+        );
+    }
+}
@@ -0,0 +1,117 @@
+package com.fraud.detection.rules;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Loads rule sets from the configured {@link RuleSetStore} and applies them to the {@link FraudRulesEngine}. Compilation
+ * happens on the scheduler or admin request thread, never on a consumer thread. Without a store the rules bound from
+ * {@code app.fraud.rules} stay active and admin updates only affect this replica.
+ */
+@Service
+public class RuleSetManager implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetManager.class);
+
+    private final FraudRulesEngine fraudRulesEngine;
+    private final RuleSetStore ruleSetStore;
+    private final Validator validator;
+    // Not synchronized: the store does JDBC or file I/O, which would pin the carrier when run on a virtual thread.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RuleSetManager(FraudRulesEngine fraudRulesEngine, ObjectProvider<RuleSetStore> ruleSetStore, Validator validator) {
+        this.fraudRulesEngine = fraudRulesEngine;
+        this.ruleSetStore = ruleSetStore.getIfAvailable();
+        this.validator = validator;
+    }
+
+    /**
+     * Runs before the listener containers start, so the first record is already evaluated with the stored rule set.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    public RuleSetDefinition active() {
+        return fraudRulesEngine.activeRuleSet();
+    }
+
+    public RuleSetDefinition update(RuleSetDefinition definition) {
+        lock.lock();
+        try {
+            validate(definition);
+            if (definition.version().equals(active().version())) {
+                throw new IllegalArgumentException("Rule set version " + definition.version() + " is already active");
+            }
+            if (ruleSetStore != null) {
+                ruleSetStore.save(definition);
+            }
+            apply(definition, "admin");
+            return definition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.rules.store.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (ruleSetStore == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            ruleSetStore.load()
+                    .filter(definition -> !definition.version().equals(active().version()))
+                    .ifPresent(definition -> {
+                        validate(definition);
+                        apply(definition, "store");
+                    });
+        } catch (RuntimeException ex) {
+            log.error("fraud_rule_set_refresh_failed",
+                    kv("event", "fraud_rule_set_refresh_failed"),
+                    kv("outcome", "failed"),
+                    kv("active_rule_version", active().version()),
+                    kv("error_class", ex.getClass().getSimpleName()),
+                    kv("error_message", ex.getMessage()),
+                    ex
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(RuleSetDefinition definition, String source) {
+        String previousVersion = active().version();
+        fraudRulesEngine.apply(definition);
+        log.info("fraud_rule_set_applied",
+                kv("event", "fraud_rule_set_applied"),
+                kv("outcome", "success"),
+                kv("source", source),
+                kv("previous_rule_version", previousVersion),
+                kv("rule_version", definition.version())
+        );
+    }
+
+    private void validate(RuleSetDefinition definition) {
+        Set<ConstraintViolation<RuleSetDefinition>> violations = validator.validate(definition);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Invalid rule set " + definition.version() + ": " + violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.fraud.detection.rules;
+
+import java.util.Optional;
+
+/**
+ * Shared source of the active rule set. Every replica polls it, so a version saved through one replica's admin endpoint
+ * reaches the others without a restart.
+ */
+public interface RuleSetStore {
+
+    Optional<RuleSetDefinition> load();
+
+    void save(RuleSetDefinition definition);
+}
@@ -0,0 +1,15 @@
+package com.fraud.detection.service;
+
+public class BatchRecordFailedException extends RuntimeException {
+
+    private final int index;
+
+    public BatchRecordFailedException(int index, Throwable cause) {
+        super("Unable to process batch record at index " + index, cause);
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+}
@@ -1,59 +1,63 @@
 package com.fraud.detection.service;
 
-import com.fraud.detection.repository.ProcessedEventRepository;
-import com.fraud.detection.repository.UserTransactionHistoryRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.fraud.detection.retention.ChunkedRetentionExecutor;
+import com.fraud.detection.retention.PartitionRetentionEngine;
+import com.fraud.detection.retention.PartitionedTable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
 
+/**
+ * Expires processed-event markers and transaction history. With {@code app.data-retention.strategy=partition} both
+ * tables are handled by {@link PartitionRetentionEngine} once they have been converted to partitioned tables (see
+ * {@code scripts/partition-fraud-retention-tables.sql}); until then, and with the default {@code delete} strategy,
+ * expired rows are deleted in chunks by {@link ChunkedRetentionExecutor}.
+ */
 @Service
 public class DataRetentionService {
 
-    private static final Logger log = LoggerFactory.getLogger(DataRetentionService.class);
-
-    private final ProcessedEventRepository processedEventRepository;
-    private final UserTransactionHistoryRepository historyRepository;
+    private final PartitionRetentionEngine partitionRetentionEngine;
+    private final ChunkedRetentionExecutor chunkedRetentionExecutor;
     private final Duration processedEventRetention;
     private final Duration transactionHistoryRetention;
+    private final boolean partitionStrategy;
+    private final PartitionedTable processedEventsTable;
+    private final PartitionedTable historyTable;
 
     public DataRetentionService(
-            ProcessedEventRepository processedEventRepository,
-            UserTransactionHistoryRepository historyRepository,
+            PartitionRetentionEngine partitionRetentionEngine,
+            ChunkedRetentionExecutor chunkedRetentionExecutor,
             @Value("${app.data-retention.processed-event-ttl:PT1H}") Duration processedEventRetention,
-            @Value("${app.data-retention.transaction-history-ttl:PT1H}") Duration transactionHistoryRetention
+            @Value("${app.data-retention.transaction-history-ttl:PT1H}") Duration transactionHistoryRetention,
+            @Value("${app.data-retention.strategy:delete}") String strategy,
+            @Value("${app.data-retention.partition.granularity:HOUR}") PartitionedTable.Granularity granularity
     ) {
-        this.processedEventRepository = processedEventRepository;
-        this.historyRepository = historyRepository;
+        if (!"delete".equalsIgnoreCase(strategy) && !"partition".equalsIgnoreCase(strategy)) {
+            throw new IllegalArgumentException("Unsupported data retention strategy: " + strategy);
+        }
+        this.partitionRetentionEngine = partitionRetentionEngine;
+        this.chunkedRetentionExecutor = chunkedRetentionExecutor;
         this.processedEventRetention = processedEventRetention;
         this.transactionHistoryRetention = transactionHistoryRetention;
+        this.partitionStrategy = "partition".equalsIgnoreCase(strategy);
+        this.processedEventsTable = new PartitionedTable(
+                "processed_events", "processed_at", granularity, processedEventRetention);
+        this.historyTable = new PartitionedTable(
+                "user_transaction_history", "occurred_at", granularity, transactionHistoryRetention);
     }
 
     @Scheduled(fixedRateString = "${app.data-retention.cleanup-interval:300000}")
-    @Transactional
     public void purgeExpiredData() {
-        purgeProcessedEvents();
-        purgeTransactionHistory();
-    }
-
-    private void purgeProcessedEvents() {
-        Instant cutoff = Instant.now().minus(processedEventRetention);
-        int deleted = processedEventRepository.deleteByProcessedAtBefore(cutoff);
-        if (deleted > 0) {
-            log.info("Purged {} expired processed events older than {}", deleted, cutoff);
+        Instant now = Instant.now();
+        if (!partitionStrategy || !partitionRetentionEngine.apply(processedEventsTable, now)) {
+            chunkedRetentionExecutor.purge("processed_events", "processed_at < ?", now.minus(processedEventRetention));
         }
-    }
-
-    private void purgeTransactionHistory() {
-        Instant cutoff = Instant.now().minus(transactionHistoryRetention);
-        int deleted = historyRepository.deleteByOccurredAtBefore(cutoff);
-        if (deleted > 0) {
-            log.info("Purged {} expired transaction history records older than {}", deleted, cutoff);
+        if (!partitionStrategy || !partitionRetentionEngine.apply(historyTable, now)) {
+            chunkedRetentionExecutor.purge(
+                    "user_transaction_history", "occurred_at < ?", now.minus(transactionHistoryRetention));
         }
     }
 }
@@ -3,25 +3,40 @@ package com.fraud.detection.service;
 import com.fraud.detection.config.FraudRulesProperties;
 import com.fraud.detection.events.FraudDetectedEvent;
 import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
 import com.fraud.detection.mapping.FraudDetectedEventMapper;
 import com.fraud.detection.mapping.UserTransactionHistoryMapper;
 import com.fraud.detection.messaging.FraudEventPublisher;
-import com.fraud.detection.model.ProcessedEvent;
+import com.fraud.detection.messaging.PartitionAffinityGuard;
+import com.fraud.detection.messaging.PendingFraudEventRelay;
 import com.fraud.detection.model.UserTransactionHistory;
-import com.fraud.detection.repository.ProcessedEventRepository;
+import com.fraud.detection.model.UuidV7;
+import com.fraud.detection.repository.ProcessedEventBulkRepository;
 import com.fraud.detection.repository.UserTransactionHistoryRepository;
 import com.fraud.detection.rules.FraudEvaluation;
 import com.fraud.detection.rules.FraudRulesEngine;
+import com.fraud.detection.state.UserActivity;
+import com.fraud.detection.state.UserActivityWindow;
+import com.fraud.detection.state.UserStateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
@@ -29,41 +44,243 @@ import static net.logstash.logback.argument.StructuredArguments.kv;
 public class FraudDetectionService {
 
     private static final Logger log = LoggerFactory.getLogger(FraudDetectionService.class);
-    private static final String RULE_VERSION = "v1.0.0";
 
-    private final ProcessedEventRepository processedEventRepository;
+    private final ProcessedEventGuard processedEventGuard;
+    private final ProcessedEventBulkRepository processedEventBulkRepository;
     private final UserTransactionHistoryRepository historyRepository;
     private final FraudRulesEngine fraudRulesEngine;
     private final FraudEventPublisher fraudEventPublisher;
+    private final PendingFraudEventRelay pendingFraudEventRelay;
+    private final UserStateStore userStateStore;
+    private final PartitionAffinityGuard partitionAffinityGuard;
     private final FraudRulesProperties rules;
     private final UserTransactionHistoryMapper userTransactionHistoryMapper;
     private final FraudDetectedEventMapper fraudDetectedEventMapper;
     private final FraudDetectionMetrics fraudDetectionMetrics;
+    private final boolean exactlyOnce;
 
     public FraudDetectionService(
-            ProcessedEventRepository processedEventRepository,
+            ProcessedEventGuard processedEventGuard,
+            ProcessedEventBulkRepository processedEventBulkRepository,
             UserTransactionHistoryRepository historyRepository,
             FraudRulesEngine fraudRulesEngine,
             FraudEventPublisher fraudEventPublisher,
+            PendingFraudEventRelay pendingFraudEventRelay,
+            UserStateStore userStateStore,
+            PartitionAffinityGuard partitionAffinityGuard,
             FraudRulesProperties rules,
             UserTransactionHistoryMapper userTransactionHistoryMapper,
             FraudDetectedEventMapper fraudDetectedEventMapper,
-            FraudDetectionMetrics fraudDetectionMetrics
+            FraudDetectionMetrics fraudDetectionMetrics,
+            @Value("${app.fraud.exactly-once.enabled:false}") boolean exactlyOnce
     ) {
-        this.processedEventRepository = processedEventRepository;
+        this.processedEventGuard = processedEventGuard;
+        this.processedEventBulkRepository = processedEventBulkRepository;
         this.historyRepository = historyRepository;
         this.fraudRulesEngine = fraudRulesEngine;
         this.fraudEventPublisher = fraudEventPublisher;
+        this.pendingFraudEventRelay = pendingFraudEventRelay;
+        this.userStateStore = userStateStore;
+        this.partitionAffinityGuard = partitionAffinityGuard;
         this.rules = rules;
         this.userTransactionHistoryMapper = userTransactionHistoryMapper;
         this.fraudDetectedEventMapper = fraudDetectedEventMapper;
         this.fraudDetectionMetrics = fraudDetectionMetrics;
+        this.exactlyOnce = exactlyOnce;
     }
 
     @Transactional
     public void process(TransactionCreatedEvent event) {
+        process(event, UserStateStore.UNKNOWN_PARTITION);
+    }
+
+    /**
+     * Evaluates a single event. The returned future completes once any FraudDetected event it produced has been
+     * acknowledged by Kafka (or, in async publisher mode, safely handed over to the pending-event relay); it is
+     * already complete when publishing is synchronous or nothing had to be published.
+     */
+    @Transactional
+    public CompletableFuture<Void> process(TransactionCreatedEvent event, int partition) {
+        recordConsumed(event);
+        Instant occurredAt = resolveOccurredAt(event);
+
+        // With exactly-once processing a record from the listener is never committed twice, so the dedupe row is only
+        // needed when the partition is unknown (e.g. replays from the DLQ).
+        boolean transactionalRecord = exactlyOnce && partition != UserStateStore.UNKNOWN_PARTITION;
+        if (!transactionalRecord && !processedEventGuard.tryMarkAsProcessed(event.eventId(), occurredAt, partition)) {
+            logDuplicate(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int statePartition = resolveStatePartition(event, partition);
+        UserActivity activity = userStateStore.load(statePartition, event.userId(), occurredAt);
+        FraudEvaluation evaluation = evaluate(event, activity, occurredAt);
+
+        UserTransactionHistory history = toHistory(event, occurredAt, statePartition);
+        if (transactionalRecord) {
+            // The history row commits with the database transaction, before the Kafka one. If Kafka then aborts, the
+            // record comes back and is evaluated again, so the row left behind by the aborted attempt must not fail it.
+            if (historyRepository.insertIfAbsent(history) == 0) {
+                logReplayed(event);
+            }
+        } else {
+            historyRepository.save(history);
+        }
+        userStateStore.stage(statePartition, history);
+        recordStateAfterCommit(statePartition, history);
+
+        if (!recordDecision(event, evaluation)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        FraudDetectedEvent fraudDetectedEvent = toFraudDetectedEvent(event, evaluation);
+        if (transactionalRecord) {
+            // The send joins the listener's Kafka transaction; the commit flushes it, so there is nothing to wait for.
+            fraudEventPublisher.publishAsync(fraudDetectedEvent).whenComplete((ignored, ex) -> {
+                if (ex == null) {
+                    logPublished(fraudDetectedEvent);
+                } else {
+                    logPublishFailed(fraudDetectedEvent, ex);
+                }
+            });
+            return CompletableFuture.completedFuture(null);
+        }
+        if (pendingFraudEventRelay.isEnabled()) {
+            return pendingFraudEventRelay.publishAfterCommit(fraudDetectedEvent);
+        }
+        try {
+            fraudEventPublisher.publish(fraudDetectedEvent);
+            logPublished(fraudDetectedEvent);
+        } catch (IllegalStateException ex) {
+            logPublishFailed(fraudDetectedEvent, ex);
+            throw ex;
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Evaluates a whole poll in one transaction: one multi-row insert into {@code processed_events}, one history query
+     * for every user in the batch and one bulk history insert. Events are evaluated in order, so a user appearing
+     * several times in the batch sees its earlier transactions exactly as the per-record path would. In async publisher
+     * mode FraudDetected events are handed to the {@link PendingFraudEventRelay} and sent after commit; otherwise the
+     * batch waits for every send before committing.
+     *
+     * @throws BatchRecordFailedException carrying the index of the first record that could not be processed
+     */
+    @Transactional
+    public void processBatch(List<PartitionedTransactionEvent> batch) {
+        Map<String, Integer> firstIndexByEventId = new LinkedHashMap<>();
+        Map<String, Instant> occurredAtByEventId = new LinkedHashMap<>();
+        for (int index = 0; index < batch.size(); index++) {
+            TransactionCreatedEvent event = batch.get(index).event();
+            recordConsumed(event);
+            if (firstIndexByEventId.putIfAbsent(event.eventId(), index) == null) {
+                occurredAtByEventId.put(event.eventId(), resolveOccurredAt(event));
+            } else {
+                logDuplicate(event);
+            }
+        }
+
+        Set<String> inserted = processedEventBulkRepository.insertIfAbsent(occurredAtByEventId);
+        List<Integer> accepted = new ArrayList<>(inserted.size());
+        Instant oldestOccurredAt = null;
+        for (Map.Entry<String, Integer> entry : firstIndexByEventId.entrySet()) {
+            if (!inserted.contains(entry.getKey())) {
+                logDuplicate(batch.get(entry.getValue()).event());
+                continue;
+            }
+            accepted.add(entry.getValue());
+            Instant occurredAt = occurredAtByEventId.get(entry.getKey());
+            if (oldestOccurredAt == null || occurredAt.isBefore(oldestOccurredAt)) {
+                oldestOccurredAt = occurredAt;
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Map<String, UserActivityWindow> windows = loadWindows(batch, accepted, oldestOccurredAt);
+        List<UserTransactionHistory> histories = new ArrayList<>(accepted.size());
+        List<Integer> statePartitions = new ArrayList<>(accepted.size());
+        List<PendingFraudEvent> pendingFraudEvents = new ArrayList<>();
+        int fraudEvents = 0;
+
+        for (int index : accepted) {
+            PartitionedTransactionEvent item = batch.get(index);
+            TransactionCreatedEvent event = item.event();
+            try {
+                Instant occurredAt = occurredAtByEventId.get(event.eventId());
+                UserActivityWindow window = windows.computeIfAbsent(event.userId(), ignored -> new UserActivityWindow());
+                FraudEvaluation evaluation = evaluate(event, window.snapshot(occurredAt.minus(rules.getVelocityWindow())), occurredAt);
+
+                int statePartition = resolveStatePartition(event, item.partition());
+                UserTransactionHistory history = toHistory(event, occurredAt, statePartition);
+                window.add(history, Instant.MIN);
+                histories.add(history);
+                statePartitions.add(statePartition);
+
+                if (recordDecision(event, evaluation)) {
+                    FraudDetectedEvent fraudDetectedEvent = toFraudDetectedEvent(event, evaluation);
+                    fraudEvents++;
+                    if (pendingFraudEventRelay.isEnabled()) {
+                        // Stored with the batch and sent after commit; the relay re-sends it if that send fails.
+                        pendingFraudEventRelay.publishAfterCommit(fraudDetectedEvent);
+                    } else {
+                        pendingFraudEvents.add(new PendingFraudEvent(index, fraudDetectedEvent, fraudEventPublisher.publishAsync(fraudDetectedEvent)));
+                    }
+                }
+            } catch (RuntimeException ex) {
+                throw new BatchRecordFailedException(index, ex);
+            }
+        }
+
+        historyRepository.saveAll(histories);
+        for (int i = 0; i < histories.size(); i++) {
+            recordStateAfterCommit(statePartitions.get(i), histories.get(i));
+        }
+
+        for (PendingFraudEvent pending : pendingFraudEvents) {
+            try {
+                pending.future().join();
+                logPublished(pending.event());
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                logPublishFailed(pending.event(), cause);
+                throw new BatchRecordFailedException(pending.index(), new IllegalStateException("Unable to publish fraud event", cause));
+            }
+        }
+
+        log.info("fraud_batch_processed",
+                kv("event", "fraud_batch_processed"),
+                kv("outcome", "success"),
+                kv("batch_size", batch.size()),
+                kv("evaluated", accepted.size()),
+                kv("fraud_events", fraudEvents)
+        );
+    }
+
+    private Map<String, UserActivityWindow> loadWindows(
+            List<PartitionedTransactionEvent> batch,
+            List<Integer> accepted,
+            Instant oldestOccurredAt
+    ) {
+        Set<String> userIds = new HashSet<>();
+        for (int index : accepted) {
+            userIds.add(batch.get(index).event().userId());
+        }
+        Map<String, UserActivityWindow> windows = new HashMap<>();
+        List<UserTransactionHistory> rows = historyRepository.findByUserIdInAndOccurredAtAfter(
+                userIds,
+                oldestOccurredAt.minus(rules.stateRetention())
+        );
+        for (UserTransactionHistory row : rows) {
+            windows.computeIfAbsent(row.getUserId(), ignored -> new UserActivityWindow()).add(row, Instant.MIN);
+        }
+        return windows;
+    }
+
+    private void recordConsumed(TransactionCreatedEvent event) {
         fraudDetectionMetrics.recordEventConsumed();
-        String traceId = resolveTraceId(event.traceId());
         long lagMs = event.occurredAt() == null ? 0 : Math.max(0, Instant.now().toEpochMilli() - event.occurredAt().toEpochMilli());
         log.info("fraud_event_consumed",
                 kv("event", "fraud_event_consumed"),
@@ -72,28 +289,29 @@ public class FraudDetectionService {
                 kv("transactionId", event.transactionId()),
                 kv("lag_ms", lagMs)
         );
+    }
 
-        Instant occurredAt = event.occurredAt() != null ? event.occurredAt() : Instant.now();
-
-        if (!tryMarkAsProcessed(event.eventId(), occurredAt)) {
-            log.info("fraud_event_duplicate",
-                    kv("event", "fraud_event_duplicate"),
-                    kv("outcome", "duplicate"),
-                    kv("eventId", event.eventId()),
-                    kv("transactionId", event.transactionId())
-            );
-            return;
-        }
-
-        long recentTransactionsCount = historyRepository.countByUserIdAndOccurredAtAfter(
-                event.userId(),
-                occurredAt.minus(rules.getVelocityWindow())
+    private void logReplayed(TransactionCreatedEvent event) {
+        log.info("fraud_event_replayed",
+                kv("event", "fraud_event_replayed"),
+                kv("outcome", "replayed"),
+                kv("eventId", event.eventId()),
+                kv("transactionId", event.transactionId())
         );
+    }
 
-        Optional<UserTransactionHistory> lastTransaction = historyRepository.findTopByUserIdOrderByOccurredAtDesc(event.userId());
+    private void logDuplicate(TransactionCreatedEvent event) {
+        log.info("fraud_event_duplicate",
+                kv("event", "fraud_event_duplicate"),
+                kv("outcome", "duplicate"),
+                kv("eventId", event.eventId()),
+                kv("transactionId", event.transactionId())
+        );
+    }
 
+    private FraudEvaluation evaluate(TransactionCreatedEvent event, UserActivity activity, Instant occurredAt) {
         long evaluationStartNanos = System.nanoTime();
-        FraudEvaluation evaluation = fraudRulesEngine.evaluate(event, lastTransaction, recentTransactionsCount, occurredAt);
+        FraudEvaluation evaluation = fraudRulesEngine.evaluate(event, activity, occurredAt);
         long evaluationDurationNanos = System.nanoTime() - evaluationStartNanos;
         fraudDetectionMetrics.recordEvaluationNanos(evaluationDurationNanos);
         double evaluationDurationMs = evaluationDurationNanos / 1_000_000.0;
@@ -118,9 +336,10 @@ public class FraudDetectionService {
                     kv("rule", rule)
             );
         }
+        return evaluation;
+    }
 
-        historyRepository.save(userTransactionHistoryMapper.toHistory(event, occurredAt));
-
+    private boolean recordDecision(TransactionCreatedEvent event, FraudEvaluation evaluation) {
         if (!evaluation.fraudulent()) {
             fraudDetectionMetrics.recordDecision("clean");
             log.info("fraud_decision_made",
@@ -130,9 +349,9 @@ public class FraudDetectionService {
                     kv("transactionId", event.transactionId()),
                     kv("decision", "clean"),
                     kv("risk_score", evaluation.riskScore()),
-                    kv("rule_version", RULE_VERSION)
+                    kv("rule_version", evaluation.ruleVersion())
             );
-            return;
+            return false;
         }
 
         fraudDetectionMetrics.recordDecision("fraud");
@@ -144,40 +363,59 @@ public class FraudDetectionService {
                 kv("decision", "fraud"),
                 kv("risk_score", evaluation.riskScore()),
                 kv("reasons", evaluation.reasons()),
-                kv("rule_version", RULE_VERSION)
+                kv("rule_version", evaluation.ruleVersion())
         );
+        return true;
+    }
 
-        FraudDetectedEvent fraudDetectedEvent = fraudDetectedEventMapper.toFraudDetectedEvent(
+    private FraudDetectedEvent toFraudDetectedEvent(TransactionCreatedEvent event, FraudEvaluation evaluation) {
+        return fraudDetectedEventMapper.toFraudDetectedEvent(
                 event,
                 evaluation,
-                UUID.randomUUID().toString(),
+                UuidV7.nextString(),
                 Instant.now(),
-                traceId,
-                RULE_VERSION
+                resolveTraceId(event.traceId())
+        );
+    }
+
+    private void logPublished(FraudDetectedEvent fraudDetectedEvent) {
+        fraudDetectionMetrics.recordFraudEventPublished("success");
+        log.info("fraud_event_published",
+                kv("event", "fraud_event_published"),
+                kv("outcome", "success"),
+                kv("eventId", fraudDetectedEvent.eventId()),
+                kv("transactionId", fraudDetectedEvent.transactionId()),
+                kv("risk_score", fraudDetectedEvent.riskScore())
+        );
+    }
+
+    private void logPublishFailed(FraudDetectedEvent fraudDetectedEvent, Throwable ex) {
+        fraudDetectionMetrics.recordFraudEventPublished("failed");
+        log.error("fraud_event_publish_failed",
+                kv("event", "fraud_event_publish_failed"),
+                kv("outcome", "failed"),
+                kv("eventId", fraudDetectedEvent.eventId()),
+                kv("transactionId", fraudDetectedEvent.transactionId()),
+                kv("error_code", "KAFKA_PUBLISH_FAILED"),
+                kv("error_class", ex.getClass().getSimpleName()),
+                kv("error_message", ex.getMessage())
+        );
+    }
+
+    private Instant resolveOccurredAt(TransactionCreatedEvent event) {
+        return event.occurredAt() != null ? event.occurredAt() : Instant.now();
+    }
+
+    private int resolveStatePartition(TransactionCreatedEvent event, int partition) {
+        return partitionAffinityGuard.isAffine(event, partition) ? partition : UserStateStore.UNKNOWN_PARTITION;
+    }
+
+    private UserTransactionHistory toHistory(TransactionCreatedEvent event, Instant occurredAt, int statePartition) {
+        return userTransactionHistoryMapper.toHistory(
+                event,
+                occurredAt,
+                statePartition == UserStateStore.UNKNOWN_PARTITION ? null : statePartition
         );
-        try {
-            fraudEventPublisher.publish(fraudDetectedEvent);
-            fraudDetectionMetrics.recordFraudEventPublished("success");
-            log.info("fraud_event_published",
-                    kv("event", "fraud_event_published"),
-                    kv("outcome", "success"),
-                    kv("eventId", fraudDetectedEvent.eventId()),
-                    kv("transactionId", fraudDetectedEvent.transactionId()),
-                    kv("risk_score", fraudDetectedEvent.riskScore())
-            );
-        } catch (IllegalStateException ex) {
-            fraudDetectionMetrics.recordFraudEventPublished("failed");
-            log.error("fraud_event_publish_failed",
-                    kv("event", "fraud_event_publish_failed"),
-                    kv("outcome", "failed"),
-                    kv("eventId", fraudDetectedEvent.eventId()),
-                    kv("transactionId", fraudDetectedEvent.transactionId()),
-                    kv("error_code", "KAFKA_PUBLISH_FAILED"),
-                    kv("error_class", ex.getClass().getSimpleName()),
-                    kv("error_message", ex.getMessage())
-            );
-            throw ex;
-        }
     }
 
     private String resolveTraceId(String eventTraceId) {
@@ -191,12 +429,19 @@ public class FraudDetectionService {
         return null;
     }
 
-    private boolean tryMarkAsProcessed(String eventId, Instant processedAt) {
-        try {
-            processedEventRepository.saveAndFlush(new ProcessedEvent(eventId, processedAt));
-            return true;
-        } catch (DataIntegrityViolationException ignored) {
-            return false;
+    private void recordStateAfterCommit(int partition, UserTransactionHistory history) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userStateStore.record(partition, history);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userStateStore.record(partition, history);
+            }
+        });
+    }
+
+    private record PendingFraudEvent(int index, FraudDetectedEvent event, CompletableFuture<Void> future) {
     }
 }
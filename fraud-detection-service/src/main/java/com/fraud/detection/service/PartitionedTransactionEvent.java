@@ -0,0 +1,6 @@
+package com.fraud.detection.service;
+
+import com.fraud.detection.events.TransactionCreatedEvent;
+
+public record PartitionedTransactionEvent(TransactionCreatedEvent event, int partition) {
+}
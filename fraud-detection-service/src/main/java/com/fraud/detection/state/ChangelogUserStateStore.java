@@ -0,0 +1,114 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Partition-local state backed by a compacted changelog topic keyed by userId. Every update is written to the
+ * changelog partition matching the source partition from inside the processing transaction, so with exactly-once
+ * processing the state, the FraudDetected output and the consumer offsets commit or abort together. The in-memory copy
+ * is only updated after commit and is restored from the changelog when a partition is assigned.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.state-store.type", havingValue = "changelog")
+public class ChangelogUserStateStore extends PartitionLocalUserStateStore {
+
+    private final KafkaTemplate<Object, Object> kafkaTemplate;
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final String topic;
+    private final Duration restoreTimeout;
+
+    public ChangelogUserStateStore(
+            UserTransactionHistoryRepository historyRepository,
+            FraudRulesProperties rules,
+            MeterRegistry meterRegistry,
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${app.kafka.topics.user-state-changelog}") String topic,
+            @Value("${app.fraud.state-store.restore-timeout:PT2M}") Duration restoreTimeout
+    ) {
+        super(historyRepository, rules, meterRegistry);
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerFactory = consumerFactory;
+        this.topic = topic;
+        this.restoreTimeout = restoreTimeout;
+    }
+
+    @Override
+    public void stage(int partition, UserTransactionHistory transaction) {
+        if (!owns(partition)) {
+            return;
+        }
+        UserActivityWindow current = window(partition, transaction.getUserId());
+        UserActivityWindow next = current == null ? new UserActivityWindow() : UserActivityWindow.fromSnapshot(current.toSnapshot());
+        next.add(transaction, transaction.getOccurredAt().minus(rules.stateRetention()));
+        kafkaTemplate.send(topic, partition, transaction.getUserId(), next.toSnapshot());
+    }
+
+    @Override
+    protected long restore(List<Integer> partitions, Instant since, Map<Integer, Map<String, UserActivityWindow>> target) {
+        List<TopicPartition> topicPartitions = partitions.stream().map(partition -> new TopicPartition(topic, partition)).toList();
+        long records = 0;
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(null, "fraud-state-restore", null, restoreProperties())) {
+            consumer.assign(topicPartitions);
+            consumer.seekToBeginning(topicPartitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(topicPartitions);
+            Instant deadline = Instant.now().plus(restoreTimeout);
+
+            while (!caughtUp(consumer, endOffsets)) {
+                if (Instant.now().isAfter(deadline)) {
+                    throw new IllegalStateException("Timed out restoring user state from " + topic + " partitions " + partitions);
+                }
+                for (ConsumerRecord<Object, Object> record : consumer.poll(Duration.ofMillis(500))) {
+                    records++;
+                    Map<String, UserActivityWindow> users = target.get(record.partition());
+                    String userId = String.valueOf(record.key());
+                    if (record.value() instanceof UserStateSnapshot snapshot) {
+                        users.put(userId, UserActivityWindow.fromSnapshot(snapshot));
+                    } else {
+                        users.remove(userId);
+                    }
+                }
+            }
+        }
+        target.values().forEach(users -> users.values().removeIf(window -> window.isIdleSince(since)));
+        return records;
+    }
+
+    private boolean caughtUp(Consumer<Object, Object> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Properties restoreProperties() {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserStateSnapshot.class.getName());
+        properties.put(JsonDeserializer.TRUSTED_PACKAGES, UserStateSnapshot.class.getPackageName());
+        properties.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        return properties;
+    }
+}
@@ -0,0 +1,44 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.fraud.state-store.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseUserStateStore implements UserStateStore {
+
+    private final UserTransactionHistoryRepository historyRepository;
+    private final FraudRulesProperties rules;
+
+    public DatabaseUserStateStore(UserTransactionHistoryRepository historyRepository, FraudRulesProperties rules) {
+        this.historyRepository = historyRepository;
+        this.rules = rules;
+    }
+
+    @Override
+    public UserActivity load(int partition, String userId, Instant referenceTime) {
+        long recentTransactionsCount = historyRepository.countByUserIdAndOccurredAtAfter(
+                userId,
+                referenceTime.minus(rules.getVelocityWindow())
+        );
+        Optional<UserTransactionHistory> lastTransaction = historyRepository.findTopByUserIdOrderByOccurredAtDesc(userId);
+        return new UserActivity(
+                recentTransactionsCount,
+                lastTransaction.map(UserTransactionHistory::getCountry).orElse(null),
+                lastTransaction.map(UserTransactionHistory::getOccurredAt).orElse(null),
+                List.of()
+        );
+    }
+
+    @Override
+    public void record(int partition, UserTransactionHistory transaction) {
+        // History rows are persisted by FraudDetectionService; nothing is cached here.
+    }
+}
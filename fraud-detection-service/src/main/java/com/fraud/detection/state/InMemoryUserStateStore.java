@@ -0,0 +1,42 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition-local state rebuilt from {@code user_transaction_history} when a partition is assigned.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.state-store.type", havingValue = "in-memory")
+public class InMemoryUserStateStore extends PartitionLocalUserStateStore {
+
+    private final UserTransactionHistoryRepository historyRepository;
+
+    public InMemoryUserStateStore(
+            UserTransactionHistoryRepository historyRepository,
+            FraudRulesProperties rules,
+            MeterRegistry meterRegistry
+    ) {
+        super(historyRepository, rules, meterRegistry);
+        this.historyRepository = historyRepository;
+    }
+
+    @Override
+    protected long restore(List<Integer> partitions, Instant since, Map<Integer, Map<String, UserActivityWindow>> target) {
+        List<UserTransactionHistory> rows = historyRepository.findBySourcePartitionInAndOccurredAtAfterOrderByOccurredAtAsc(partitions, since);
+        for (UserTransactionHistory row : rows) {
+            target.get(row.getSourcePartition())
+                    .computeIfAbsent(row.getUserId(), ignored -> new UserActivityWindow())
+                    .add(row, since);
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,136 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Keeps the recent activity of every user seen on the partitions assigned to this instance.
+ * State is restored when a partition is assigned and dropped when it is revoked; lookups for partitions that are not
+ * owned fall back to the database.
+ */
+public abstract class PartitionLocalUserStateStore implements UserStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionLocalUserStateStore.class);
+
+    protected final FraudRulesProperties rules;
+    private final DatabaseUserStateStore fallback;
+    private final Map<Integer, Map<String, UserActivityWindow>> partitions = new ConcurrentHashMap<>();
+
+    protected PartitionLocalUserStateStore(
+            UserTransactionHistoryRepository historyRepository,
+            FraudRulesProperties rules,
+            MeterRegistry meterRegistry
+    ) {
+        this.rules = rules;
+        this.fallback = new DatabaseUserStateStore(historyRepository, rules);
+        Gauge.builder("fraud_state_store_users", this, PartitionLocalUserStateStore::trackedUsers)
+                .description("Users tracked by the partition-local fraud state store")
+                .register(meterRegistry);
+        Gauge.builder("fraud_state_store_partitions", partitions, Map::size)
+                .description("Partitions owned by the partition-local fraud state store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the state of the given partitions into {@code target}, which already holds an empty map per partition.
+     *
+     * @return the number of records read
+     */
+    protected abstract long restore(List<Integer> partitions, Instant since, Map<Integer, Map<String, UserActivityWindow>> target);
+
+    @Override
+    public UserActivity load(int partition, String userId, Instant referenceTime) {
+        Map<String, UserActivityWindow> users = partitions.get(partition);
+        if (users == null) {
+            return fallback.load(partition, userId, referenceTime);
+        }
+        UserActivityWindow window = users.get(userId);
+        if (window == null) {
+            return UserActivity.empty();
+        }
+        return window.snapshot(referenceTime.minus(rules.getVelocityWindow()));
+    }
+
+    @Override
+    public void record(int partition, UserTransactionHistory transaction) {
+        Map<String, UserActivityWindow> users = partitions.get(partition);
+        if (users == null) {
+            return;
+        }
+        users.computeIfAbsent(transaction.getUserId(), ignored -> new UserActivityWindow())
+                .add(transaction, transaction.getOccurredAt().minus(rules.stateRetention()));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<Integer> assigned) {
+        List<Integer> missing = assigned.stream().filter(partition -> !partitions.containsKey(partition)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        Instant since = Instant.now().minus(rules.stateRetention());
+        Map<Integer, Map<String, UserActivityWindow>> rebuilt = new ConcurrentHashMap<>();
+        missing.forEach(partition -> rebuilt.put(partition, new ConcurrentHashMap<>()));
+
+        long records = restore(missing, since, rebuilt);
+        partitions.putAll(rebuilt);
+
+        log.info("fraud_state_store_rebuilt",
+                kv("event", "fraud_state_store_rebuilt"),
+                kv("outcome", "success"),
+                kv("partitions", missing),
+                kv("rows", records),
+                kv("duration_ms", (System.nanoTime() - startNanos) / 1_000_000)
+        );
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<Integer> revoked) {
+        revoked.forEach(partitions::remove);
+        log.info("fraud_state_store_evicted",
+                kv("event", "fraud_state_store_evicted"),
+                kv("outcome", "success"),
+                kv("partitions", revoked)
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.state-store.eviction-interval-ms:60000}")
+    public void evictIdleUsers() {
+        Instant cutoff = Instant.now().minus(rules.stateRetention());
+        for (Map<String, UserActivityWindow> users : partitions.values()) {
+            users.values().removeIf(window -> window.isIdleSince(cutoff));
+        }
+    }
+
+    protected UserActivityWindow window(int partition, String userId) {
+        Map<String, UserActivityWindow> users = partitions.get(partition);
+        return users == null ? null : users.get(userId);
+    }
+
+    protected boolean owns(int partition) {
+        return partitions.containsKey(partition);
+    }
+
+    int trackedUsers() {
+        int total = 0;
+        for (Map<String, UserActivityWindow> users : partitions.values()) {
+            total += users.size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fraud.detection.state;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record UserActivity(
+        long recentTransactionsCount,
+        String lastCountry,
+        Instant lastOccurredAt,
+        List<BigDecimal> recentAmounts
+) {
+
+    private static final UserActivity EMPTY = new UserActivity(0, null, null, List.of());
+
+    public static UserActivity empty() {
+        return EMPTY;
+    }
+
+    public boolean hasPreviousTransaction() {
+        return lastOccurredAt != null;
+    }
+}
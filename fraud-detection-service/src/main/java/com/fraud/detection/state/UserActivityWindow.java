@@ -0,0 +1,78 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.model.UserTransactionHistory;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Recent transactions of a single user, kept in arrival order. Answers the same questions the rules engine asks the
+ * database: how many transactions happened after a point in time and which one was the latest.
+ */
+public final class UserActivityWindow {
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private String lastCountry;
+    private Instant lastOccurredAt;
+
+    public static UserActivityWindow fromSnapshot(UserStateSnapshot snapshot) {
+        UserActivityWindow window = new UserActivityWindow();
+        window.lastCountry = snapshot.lastCountry();
+        window.lastOccurredAt = snapshot.lastOccurredAt();
+        for (UserStateSnapshot.Entry entry : snapshot.entries()) {
+            window.entries.addLast(new Entry(entry.occurredAt(), entry.amount()));
+        }
+        return window;
+    }
+
+    public synchronized void add(UserTransactionHistory transaction, Instant pruneBefore) {
+        Instant occurredAt = transaction.getOccurredAt();
+        entries.addLast(new Entry(occurredAt, transaction.getAmount()));
+        if (lastOccurredAt == null || !occurredAt.isBefore(lastOccurredAt)) {
+            lastOccurredAt = occurredAt;
+            lastCountry = transaction.getCountry();
+        }
+        prune(pruneBefore);
+    }
+
+    public synchronized UserActivity snapshot(Instant since) {
+        long count = 0;
+        List<BigDecimal> amounts = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.occurredAt().isAfter(since)) {
+                count++;
+                amounts.add(entry.amount());
+            }
+        }
+        return new UserActivity(count, lastCountry, lastOccurredAt, List.copyOf(amounts));
+    }
+
+    public synchronized UserStateSnapshot toSnapshot() {
+        List<UserStateSnapshot.Entry> snapshotEntries = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            snapshotEntries.add(new UserStateSnapshot.Entry(entry.occurredAt(), entry.amount()));
+        }
+        return new UserStateSnapshot(lastCountry, lastOccurredAt, List.copyOf(snapshotEntries));
+    }
+
+    public synchronized boolean isIdleSince(Instant cutoff) {
+        prune(cutoff);
+        return entries.isEmpty() && (lastOccurredAt == null || lastOccurredAt.isBefore(cutoff));
+    }
+
+    private void prune(Instant before) {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().occurredAt().isBefore(before)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private record Entry(Instant occurredAt, BigDecimal amount) {
+    }
+}
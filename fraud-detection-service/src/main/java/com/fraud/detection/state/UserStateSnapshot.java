@@ -0,0 +1,18 @@
+package com.fraud.detection.state;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Serialized form of a {@link UserActivityWindow}, written to the user-state changelog topic.
+ */
+public record UserStateSnapshot(String lastCountry, Instant lastOccurredAt, List<Entry> entries) {
+
+    public UserStateSnapshot {
+        entries = entries == null ? List.of() : entries;
+    }
+
+    public record Entry(Instant occurredAt, BigDecimal amount) {
+    }
+}
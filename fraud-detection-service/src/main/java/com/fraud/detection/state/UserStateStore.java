@@ -0,0 +1,35 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.model.UserTransactionHistory;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Per-user view of recent transactions used by the fraud rules.
+ * Implementations are organised by the {@code transactions.created} partition the events arrive on.
+ */
+public interface UserStateStore {
+
+    int UNKNOWN_PARTITION = -1;
+
+    UserActivity load(int partition, String userId, Instant referenceTime);
+
+    /**
+     * Called inside the processing transaction, before it commits. Stores that persist their state through Kafka write
+     * it here so the write is part of the same transaction.
+     */
+    default void stage(int partition, UserTransactionHistory transaction) {
+    }
+
+    /**
+     * Called once the processing transaction has committed.
+     */
+    void record(int partition, UserTransactionHistory transaction);
+
+    default void onPartitionsAssigned(Collection<Integer> partitions) {
+    }
+
+    default void onPartitionsRevoked(Collection<Integer> partitions) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.fraud.detection.idempotency;
+
+import com.fraud.detection.model.ProcessedEvent;
+import com.fraud.detection.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedEventGuardTest {
+
+    private static final Instant PROCESSED_AT = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private ProcessedEventRepository processedEventRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tryMarkAsProcessedShouldInsertIfAbsentWhenFilterIsDisabled() {
+        ProcessedEventGuard guard = newGuard(false);
+        when(processedEventRepository.insertIfAbsent("evt-1", PROCESSED_AT, 2)).thenReturn(0);
+
+        assertFalse(guard.tryMarkAsProcessed("evt-1", PROCESSED_AT, 2));
+
+        verify(processedEventRepository, never()).streamEventIdsBySourcePartition(anyInt(), any());
+        verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
+    }
+
+    @Test
+    void tryMarkAsProcessedShouldSaveWithoutConflictCheckWhenFilterHasNotSeenTheId() {
+        ProcessedEventGuard guard = newGuard(true);
+        when(processedEventRepository.streamEventIdsBySourcePartition(eq(2), any(Instant.class))).thenReturn(Stream.of("evt-old"));
+
+        assertTrue(guard.tryMarkAsProcessed("evt-1", PROCESSED_AT, 2));
+
+        ArgumentCaptor<ProcessedEvent> captor = ArgumentCaptor.forClass(ProcessedEvent.class);
+        verify(processedEventRepository).save(captor.capture());
+        assertEquals("evt-1", captor.getValue().getEventId());
+        assertEquals(2, captor.getValue().getSourcePartition());
+        verify(processedEventRepository, never()).insertIfAbsent(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.counter("processed_event_checks", "path", "filter", "outcome", "new").count());
+    }
+
+    @Test
+    void tryMarkAsProcessedShouldAskTheDatabaseWhenFilterMayHaveSeenTheId() {
+        ProcessedEventGuard guard = newGuard(true);
+        when(processedEventRepository.streamEventIdsBySourcePartition(eq(2), any(Instant.class))).thenReturn(Stream.of("evt-old"));
+        when(processedEventRepository.insertIfAbsent("evt-old", PROCESSED_AT, 2)).thenReturn(0);
+
+        assertFalse(guard.tryMarkAsProcessed("evt-old", PROCESSED_AT, 2));
+
+        verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
+        assertEquals(1.0, meterRegistry.counter("processed_event_checks", "path", "database", "outcome", "duplicate").count());
+    }
+
+    @Test
+    void tryMarkAsProcessedShouldBypassFilterForUnknownPartition() {
+        ProcessedEventGuard guard = newGuard(true);
+        when(processedEventRepository.insertIfAbsent("evt-1", PROCESSED_AT, -1)).thenReturn(1);
+
+        assertTrue(guard.tryMarkAsProcessed("evt-1", PROCESSED_AT, -1));
+
+        verify(processedEventRepository, never()).streamEventIdsBySourcePartition(anyInt(), any());
+    }
+
+    @Test
+    void forgetShouldReloadFilterWhenPartitionComesBack() {
+        ProcessedEventGuard guard = newGuard(true);
+        when(processedEventRepository.streamEventIdsBySourcePartition(eq(2), any(Instant.class))).thenAnswer(invocation -> Stream.empty());
+
+        guard.tryMarkAsProcessed("evt-1", PROCESSED_AT, 2);
+        guard.tryMarkAsProcessed("evt-2", PROCESSED_AT, 2);
+        guard.forget(List.of(2));
+        guard.tryMarkAsProcessed("evt-3", PROCESSED_AT, 2);
+
+        verify(processedEventRepository, times(2)).streamEventIdsBySourcePartition(eq(2), any(Instant.class));
+    }
+
+    @Test
+    void filterShouldOnlyLoadIdsWithinTheRetentionWindowAndCloseTheStream() {
+        ProcessedEventGuard guard = newGuard(true);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(processedEventRepository.streamEventIdsBySourcePartition(eq(2), any(Instant.class)))
+                .thenReturn(Stream.of("evt-legacy").onClose(() -> closed.set(true)));
+        when(processedEventRepository.insertIfAbsent("evt-legacy", PROCESSED_AT, 2)).thenReturn(0);
+        Instant before = Instant.now();
+
+        // The query also returns markers stored without a partition, so a pre-upgrade redelivery asks the database.
+        assertFalse(guard.tryMarkAsProcessed("evt-legacy", PROCESSED_AT, 2));
+
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(processedEventRepository).streamEventIdsBySourcePartition(eq(2), since.capture());
+        assertFalse(since.getValue().isBefore(before.minus(Duration.ofHours(1)).minusSeconds(1)));
+        assertFalse(since.getValue().isAfter(Instant.now().minus(Duration.ofHours(1))));
+        assertTrue(closed.get());
+        verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
+    }
+
+    private ProcessedEventGuard newGuard(boolean filterEnabled) {
+        return new ProcessedEventGuard(
+                processedEventRepository,
+                meterRegistry,
+                filterEnabled,
+                1_000,
+                0.01,
+                Duration.ofMinutes(10),
+                Duration.ofHours(1)
+        );
+    }
+}
@@ -0,0 +1,91 @@
+package com.fraud.detection.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void sameKeyShouldRunInOrderWhileOtherKeysProceed() throws Exception {
+        dispatcher = new KeyOrderedDispatcher("test-lane", 4, 10, false);
+        assertNotEquals(dispatcher.laneFor("user-1"), dispatcher.laneFor("user-2"));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherKeyDone = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch("user-1", () -> {
+            await(release);
+            order.add("user-1:first");
+            return null;
+        });
+        dispatcher.dispatch("user-1", () -> {
+            order.add("user-1:second");
+            return null;
+        });
+        dispatcher.dispatch("user-2", () -> {
+            order.add("user-2");
+            otherKeyDone.countDown();
+            return null;
+        });
+
+        assertTrue(otherKeyDone.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("user-2"), order);
+
+        release.countDown();
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(List.of("user-2", "user-1:first", "user-1:second"), order);
+    }
+
+    @Test
+    void permitShouldBeHeldUntilReturnedStageCompletes() throws Exception {
+        dispatcher = new KeyOrderedDispatcher("test-lane", 2, 1, false);
+        CompletableFuture<Void> send = new CompletableFuture<>();
+
+        dispatcher.dispatch("user-1", () -> send);
+
+        assertFalse(dispatcher.awaitIdle(Duration.ofMillis(100)));
+        assertEquals(1, dispatcher.inFlight());
+
+        send.complete(null);
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(0, dispatcher.inFlight());
+    }
+
+    @Test
+    void failingTaskShouldReleaseItsPermit() throws Exception {
+        dispatcher = new KeyOrderedDispatcher("test-lane", 1, 1, false);
+
+        dispatcher.dispatch("user-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.commons.partitioning.JumpConsistentHash;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.model.PaymentMethod;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionAffinityGuardTest {
+
+    @Test
+    void userStrategyShouldAcceptOnlyTheDefaultPartitionerChoice() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PartitionAffinityGuard guard = new PartitionAffinityGuard("user", 18, meterRegistry);
+        TransactionCreatedEvent event = sampleEvent("user-1");
+        int expected = guard.expectedPartition("user-1");
+
+        assertTrue(guard.isAffine(event, expected));
+        assertFalse(guard.isAffine(event, (expected + 1) % 18));
+        assertEquals(1.0, meterRegistry.counter("fraud_partition_affinity_violations").count());
+    }
+
+    @Test
+    void userHashStrategyShouldUseJumpConsistentHash() {
+        PartitionAffinityGuard guard = new PartitionAffinityGuard("user-hash", 18, new SimpleMeterRegistry());
+
+        assertTrue(guard.isAffine(sampleEvent("user-7"), JumpConsistentHash.bucket("user-7", 18)));
+    }
+
+    @Test
+    void transactionStrategyAndUnknownPartitionShouldNeverBeAffine() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PartitionAffinityGuard transactionGuard = new PartitionAffinityGuard("transaction", 18, meterRegistry);
+        PartitionAffinityGuard userGuard = new PartitionAffinityGuard("user", 18, meterRegistry);
+
+        assertFalse(transactionGuard.isAffine(sampleEvent("user-1"), 0));
+        assertFalse(userGuard.isAffine(sampleEvent("user-1"), -1));
+        assertEquals(0.0, meterRegistry.counter("fraud_partition_affinity_violations").count());
+    }
+
+    private TransactionCreatedEvent sampleEvent(String userId) {
+        return new TransactionCreatedEvent(
+                "evt-1",
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "tx-1",
+                "0123456789abcdef0123456789abcdef",
+                userId,
+                new BigDecimal("250.00"),
+                "USD",
+                "MRC-101",
+                "US",
+                PaymentMethod.CARD
+        );
+    }
+}
@@ -0,0 +1,148 @@
+package com.fraud.detection.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.detection.events.FraudDetectedEvent;
+import com.fraud.detection.model.PendingFraudEvent;
+import com.fraud.detection.repository.PendingFraudEventRepository;
+import com.fraud.detection.service.FraudDetectionMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PendingFraudEventRelayTest {
+
+    @Mock
+    private PendingFraudEventRepository pendingFraudEventRepository;
+
+    @Mock
+    private FraudEventPublisher fraudEventPublisher;
+
+    @Mock
+    private FraudDetectionMetrics fraudDetectionMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void publishAfterCommitShouldCompleteOnlyWhenSendIsAcknowledged() {
+        PendingFraudEventRelay relay = relay();
+        CompletableFuture<Void> send = new CompletableFuture<>();
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class))).thenReturn(send);
+
+        CompletableFuture<Void> completion = relay.publishAfterCommit(sampleEvent());
+
+        verify(pendingFraudEventRepository).save(any(PendingFraudEvent.class));
+        assertFalse(completion.isDone());
+
+        send.complete(null);
+        relay.deletePublished();
+
+        assertTrue(completion.isDone());
+        verify(fraudDetectionMetrics).recordFraudEventPublished("success");
+        verify(pendingFraudEventRepository).deleteAllByIdInBatch(List.of("fraud-1"));
+    }
+
+    @Test
+    void failedSendShouldLeavePendingRowForRetry() {
+        PendingFraudEventRelay relay = relay();
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka unavailable")));
+
+        CompletableFuture<Void> completion = relay.publishAfterCommit(sampleEvent());
+        relay.deletePublished();
+
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCompletedExceptionally());
+        verify(fraudDetectionMetrics).recordFraudEventPublished("failed");
+        verify(pendingFraudEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void republishStaleShouldLeaseRowsAndCommitBeforeSending() {
+        PendingFraudEventRelay relay = relay("async");
+        PendingFraudEvent acknowledged = new PendingFraudEvent("fraud-1", objectMapper.valueToTree(sampleEvent("fraud-1")), Instant.now());
+        PendingFraudEvent failed = new PendingFraudEvent("fraud-2", objectMapper.valueToTree(sampleEvent("fraud-2")), Instant.now());
+        when(pendingFraudEventRepository.lockStaleBatch(any(Instant.class), any(Instant.class), anyInt()))
+                .thenReturn(List.of(acknowledged, failed));
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka unavailable")));
+
+        relay.republishStale();
+
+        assertNotNull(acknowledged.getLeaseUntil());
+        assertTrue(failed.getLeaseUntil().isAfter(Instant.now()));
+        InOrder order = inOrder(transactionManager, fraudEventPublisher, pendingFraudEventRepository);
+        order.verify(transactionManager).commit(any());
+        order.verify(fraudEventPublisher, times(2)).publishAsync(any(FraudDetectedEvent.class));
+        order.verify(pendingFraudEventRepository).deleteAllByIdInBatch(List.of("fraud-1"));
+    }
+
+    @Test
+    void sweepsShouldNotTouchTheTableWhenPublishingSynchronously() {
+        PendingFraudEventRelay relay = relay("sync");
+
+        relay.deletePublished();
+        relay.republishStale();
+
+        verifyNoInteractions(pendingFraudEventRepository, transactionManager);
+    }
+
+    private PendingFraudEventRelay relay() {
+        return relay("async");
+    }
+
+    private PendingFraudEventRelay relay(String mode) {
+        return new PendingFraudEventRelay(
+                pendingFraudEventRepository,
+                fraudEventPublisher,
+                fraudDetectionMetrics,
+                objectMapper,
+                transactionManager,
+                mode,
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(30),
+                200
+        );
+    }
+
+    private FraudDetectedEvent sampleEvent() {
+        return sampleEvent("fraud-1");
+    }
+
+    private FraudDetectedEvent sampleEvent(String eventId) {
+        return new FraudDetectedEvent(
+                eventId,
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "tx-1",
+                "0123456789abcdef0123456789abcdef",
+                "user-1",
+                80,
+                List.of("HIGH_AMOUNT"),
+                "v1.0.0"
+        );
+    }
+}
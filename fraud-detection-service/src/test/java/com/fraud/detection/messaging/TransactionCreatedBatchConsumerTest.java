@@ -0,0 +1,91 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.model.PaymentMethod;
+import com.fraud.detection.service.BatchRecordFailedException;
+import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.service.PartitionedTransactionEvent;
+import com.fraud.detection.state.UserStateStore;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCreatedBatchConsumerTest {
+
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+
+    @Mock
+    private UserStateStore userStateStore;
+
+    @Test
+    void consumeShouldCommitGoodPrefixAndReportFailedRecordIndex() {
+        TransactionCreatedBatchConsumer consumer = new TransactionCreatedBatchConsumer(fraudDetectionService, userStateStore);
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records = List.of(
+                record(0, sampleEvent("evt-1")),
+                record(1, null),
+                record(2, sampleEvent("evt-2")),
+                record(3, sampleEvent("evt-3"))
+        );
+        doThrow(new BatchRecordFailedException(1, new IllegalStateException("boom")))
+                .doNothing()
+                .when(fraudDetectionService).processBatch(anyList());
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class, () -> consumer.consume(records));
+
+        assertEquals(2, failure.getIndex());
+        ArgumentCaptor<List<PartitionedTransactionEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fraudDetectionService, times(2)).processBatch(captor.capture());
+        assertEquals(3, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+        assertEquals("evt-1", captor.getAllValues().get(1).get(0).event().eventId());
+    }
+
+    @Test
+    void consumeShouldPassPartitionOfEachRecord() {
+        TransactionCreatedBatchConsumer consumer = new TransactionCreatedBatchConsumer(fraudDetectionService, userStateStore);
+        doNothing().when(fraudDetectionService).processBatch(anyList());
+
+        consumer.consume(List.of(record(0, sampleEvent("evt-1"))));
+
+        ArgumentCaptor<List<PartitionedTransactionEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fraudDetectionService).processBatch(captor.capture());
+        assertEquals(List.of(new PartitionedTransactionEvent(sampleEvent("evt-1"), 4)), captor.getValue());
+    }
+
+    private ConsumerRecord<String, TransactionCreatedEvent> record(long offset, TransactionCreatedEvent event) {
+        return new ConsumerRecord<>("transactions.created", 4, offset, "user-1", event);
+    }
+
+    private TransactionCreatedEvent sampleEvent(String eventId) {
+        return new TransactionCreatedEvent(
+                eventId,
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "tx-1",
+                "0123456789abcdef0123456789abcdef",
+                "user-1",
+                new BigDecimal("250.00"),
+                "USD",
+                "MRC-101",
+                "US",
+                PaymentMethod.CARD
+        );
+    }
+}
@@ -0,0 +1,143 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.detection.config.KafkaListenerConfig;
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
+import com.fraud.detection.model.PaymentMethod;
+import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.state.UserStateStore;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link TransactionCreatedConsumer} inside a real listener container built by {@link KafkaListenerConfig}, fed
+ * by a {@link MockConsumer}, so the listener method is resolved and committed exactly as in each ack mode.
+ */
+class TransactionCreatedConsumerContainerTest {
+
+    private static final String TOPIC = "transactions.created";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final MockConsumer<Object, Object> kafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+    private final CompletableFuture<Void> processed = new CompletableFuture<>();
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(KafkaAutoConfiguration.class))
+            .withUserConfiguration(KafkaListenerConfig.class, TransactionCreatedConsumer.class)
+            .withBean(ConsumerFactory.class, this::consumerFactory)
+            .withBean(FraudDetectionService.class, () -> fraudDetectionService)
+            .withBean(UserStateStore.class, () -> mock(UserStateStore.class))
+            .withBean(ProcessedEventGuard.class, () -> mock(ProcessedEventGuard.class))
+            .withPropertyValues(
+                    "app.kafka.topics.transactions-created=" + TOPIC,
+                    "spring.kafka.listener.ack-mode=record",
+                    "spring.kafka.listener.concurrency=1"
+            );
+
+    @Test
+    void defaultRecordAckModeShouldProcessAndCommitWithoutAManualAcknowledgment() {
+        processed.complete(null);
+        when(fraudDetectionService.process(any(TransactionCreatedEvent.class), anyInt())).thenReturn(processed);
+
+        contextRunner.run(context -> {
+            deliver(event("evt-1"));
+
+            verify(fraudDetectionService, timeout(5000)).process(eq(event("evt-1")), eq(0));
+            awaitCommittedOffset(1L);
+        });
+    }
+
+    @Test
+    void asyncPublisherModeShouldCommitOnlyOnceProcessingCompletes() {
+        when(fraudDetectionService.process(any(TransactionCreatedEvent.class), anyInt())).thenReturn(processed);
+
+        contextRunner.withPropertyValues("app.fraud.publisher.mode=async").run(context -> {
+            deliver(event("evt-1"));
+
+            verify(fraudDetectionService, timeout(5000)).process(eq(event("evt-1")), eq(0));
+            Thread.sleep(200);
+            assertNotEquals(1L, committedOffset() == null ? null : committedOffset().offset());
+
+            processed.complete(null);
+            awaitCommittedOffset(1L);
+        });
+    }
+
+    private ConsumerFactory<Object, Object> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(Map.of(ConsumerConfig.GROUP_ID_CONFIG, "fraud-detection-service")) {
+            @Override
+            protected Consumer<Object, Object> createKafkaConsumer(Map<String, Object> configProps) {
+                return kafkaConsumer;
+            }
+        };
+    }
+
+    private void deliver(TransactionCreatedEvent event) {
+        kafkaConsumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        kafkaConsumer.schedulePollTask(() -> {
+            kafkaConsumer.rebalance(List.of(PARTITION));
+            kafkaConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0L, event.userId(), event));
+        });
+    }
+
+    private void awaitCommittedOffset(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            OffsetAndMetadata committed = committedOffset();
+            if (committed != null && committed.offset() == expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expected, committedOffset() == null ? null : committedOffset().offset());
+    }
+
+    private OffsetAndMetadata committedOffset() {
+        return kafkaConsumer.committed(Set.of(PARTITION)).get(PARTITION);
+    }
+
+    private static TransactionCreatedEvent event(String eventId) {
+        return new TransactionCreatedEvent(
+                eventId,
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "tx-" + eventId,
+                null,
+                "user-1",
+                new BigDecimal("10.00"),
+                "USD",
+                "merchant-1",
+                "US",
+                PaymentMethod.CARD
+        );
+    }
+}
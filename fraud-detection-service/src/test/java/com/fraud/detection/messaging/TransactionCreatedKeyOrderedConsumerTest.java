@@ -0,0 +1,121 @@
+package com.fraud.detection.messaging;
+
+import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
+import com.fraud.detection.model.PaymentMethod;
+import com.fraud.detection.service.FraudDetectionService;
+import com.fraud.detection.state.UserStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCreatedKeyOrderedConsumerTest {
+
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+
+    @Mock
+    private UserStateStore userStateStore;
+
+    @Mock
+    private ProcessedEventGuard processedEventGuard;
+
+    @Mock
+    private DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionCreatedKeyOrderedConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new TransactionCreatedKeyOrderedConsumer(
+                fraudDetectionService,
+                userStateStore,
+                processedEventGuard,
+                deadLetterPublishingRecoverer,
+                meterRegistry,
+                4,
+                10,
+                Duration.ofSeconds(5),
+                false
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+    }
+
+    @Test
+    void consumeShouldAcknowledgeOnlyWhenAsyncPublishCompletes() throws Exception {
+        CompletableFuture<Void> publish = new CompletableFuture<>();
+        when(fraudDetectionService.process(any(TransactionCreatedEvent.class), anyInt())).thenReturn(publish);
+
+        consumer.consume(record(7, sampleEvent("evt-1", "user-1")), acknowledgment);
+
+        verify(fraudDetectionService, timeout(5000)).process(sampleEvent("evt-1", "user-1"), 4);
+        verify(acknowledgment, never()).acknowledge();
+        assertEquals(1.0, meterRegistry.get("kafka_key_ordered_in_flight").gauge().value());
+
+        publish.complete(null);
+
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        consumer.onPartitionsRevoked(List.of());
+        assertEquals(0.0, meterRegistry.get("kafka_key_ordered_in_flight").gauge().value());
+        verifyNoInteractions(deadLetterPublishingRecoverer);
+    }
+
+    @Test
+    void consumeShouldAcknowledgeEmptyPayloadWithoutDispatching() throws Exception {
+        consumer.consume(record(8, null), acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(fraudDetectionService);
+    }
+
+    private ConsumerRecord<String, TransactionCreatedEvent> record(long offset, TransactionCreatedEvent event) {
+        return new ConsumerRecord<>("transactions.created", 4, offset, "user-1", event);
+    }
+
+    private TransactionCreatedEvent sampleEvent(String eventId, String userId) {
+        return new TransactionCreatedEvent(
+                eventId,
+                Instant.parse("2026-01-01T10:00:00Z"),
+                "tx-1",
+                "0123456789abcdef0123456789abcdef",
+                userId,
+                new BigDecimal("250.00"),
+                "USD",
+                "MRC-101",
+                "US",
+                PaymentMethod.CARD
+        );
+    }
+}
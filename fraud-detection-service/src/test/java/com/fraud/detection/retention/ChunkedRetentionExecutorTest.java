@@ -0,0 +1,94 @@
+package com.fraud.detection.retention;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedRetentionExecutorTest {
+
+    private static final Instant CUTOFF = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void purgeShouldDeleteChunksByCtidUntilAShortChunk() {
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofMinutes(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100, 100, 30);
+
+        long deleted = executor.purge("processed_events", "processed_at < ?", CUTOFF);
+
+        assertEquals(230, deleted);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).update(sqlCaptor.capture(), any(Object[].class));
+        assertEquals(
+                "DELETE FROM processed_events WHERE ctid = ANY(ARRAY(SELECT ctid FROM processed_events"
+                        + " WHERE processed_at < ? LIMIT 100))",
+                sqlCaptor.getValue()
+        );
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+        assertEquals(0.0, meterRegistry.get("data_retention_backlog_rows").tag("table", "processed_events").gauge().value());
+        assertTrue(meterRegistry.get("data_retention_rows_per_second").tag("table", "processed_events").gauge().value() > 0);
+    }
+
+    @Test
+    void purgeShouldStopAtTheRunBudgetAndReportTheBacklog() {
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofMillis(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(4_200L);
+
+        long deleted = executor.purge("processed_events", "processed_at < ?", CUTOFF);
+
+        assertEquals(100, deleted);
+        assertEquals(4_200.0, meterRegistry.get("data_retention_backlog_rows").tag("table", "processed_events").gauge().value());
+    }
+
+    @Test
+    void purgeShouldPairCtidWithTableOidOnPartitionedTables() {
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofMinutes(1));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("user_transaction_history")))
+                .thenReturn(List.of("p"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+
+        executor.purge("user_transaction_history", "occurred_at < ?", CUTOFF);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sqlCaptor.capture(), any(Object[].class));
+        assertTrue(sqlCaptor.getValue().contains("(tableoid, ctid) IN (SELECT tableoid, ctid FROM user_transaction_history"));
+    }
+
+    private ChunkedRetentionExecutor newExecutor(Duration maxRunDuration) {
+        return new ChunkedRetentionExecutor(
+                jdbcTemplate,
+                meterRegistry,
+                100,
+                Duration.ofMillis(5),
+                Duration.ofMillis(5),
+                Duration.ofSeconds(1),
+                10_000,
+                maxRunDuration,
+                1_000_000
+        );
+    }
+}
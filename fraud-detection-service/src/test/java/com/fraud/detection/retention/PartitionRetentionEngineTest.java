@@ -0,0 +1,125 @@
+package com.fraud.detection.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionRetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-10T10:30:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ChunkedRetentionExecutor chunkedRetentionExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, String> relations = new HashMap<>();
+    private final List<String> partitions = new ArrayList<>();
+    private PartitionRetentionEngine engine;
+
+    // Two days of retention leave the cutoff at 2026-01-08T10:30; with two buckets of precreate the engine manages
+    // 2026-01-08 to 2026-01-12.
+    private final PartitionedTable history = new PartitionedTable(
+            "user_transaction_history", "occurred_at", PartitionedTable.Granularity.DAY, Duration.ofDays(2));
+
+    @BeforeEach
+    void setUp() {
+        engine = new PartitionRetentionEngine(jdbcTemplate, chunkedRetentionExecutor, transactionManager, 2);
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT relkind"), eq(String.class), any()))
+                .thenAnswer(invocation -> {
+                    String kind = relations.get(invocation.<String>getArgument(2));
+                    return kind == null ? List.of() : List.of(kind);
+                });
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT child.relname"), eq(String.class), any()))
+                .thenAnswer(invocation -> List.copyOf(partitions));
+    }
+
+    @Test
+    void applyShouldCreateMissingDaysUpToPrecreateAndMoveDefaultRowsIntoThem() {
+        partitioned("user_transaction_history_p20260108", "user_transaction_history_p20260109",
+                "user_transaction_history_p20260110");
+
+        assertTrue(engine.apply(history, NOW));
+
+        for (String day : List.of("20260111", "20260112")) {
+            verify(jdbcTemplate).execute("CREATE TABLE user_transaction_history_p" + day
+                    + " (LIKE user_transaction_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        }
+        verify(jdbcTemplate).update(
+                "WITH moved AS (DELETE FROM user_transaction_history_default"
+                        + " WHERE occurred_at >= ? AND occurred_at < ? RETURNING *)"
+                        + " INSERT INTO user_transaction_history_p20260111 SELECT * FROM moved",
+                Timestamp.from(Instant.parse("2026-01-11T00:00:00Z")),
+                Timestamp.from(Instant.parse("2026-01-12T00:00:00Z"))
+        );
+        verify(jdbcTemplate).execute("ALTER TABLE user_transaction_history ATTACH PARTITION"
+                + " user_transaction_history_p20260112 FOR VALUES FROM ('2026-01-12T00:00:00Z') TO ('2026-01-13T00:00:00Z')");
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE user_transaction_history_p20260110"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+        // No pending-row condition: every expired row of the default partition goes.
+        verify(chunkedRetentionExecutor).purge(
+                "user_transaction_history_default", "occurred_at < ?", Instant.parse("2026-01-08T10:30:00Z"));
+    }
+
+    @Test
+    void applyShouldDropExpiredDaysWithoutLookingForPendingRows() {
+        partitioned("user_transaction_history_p20260107", "user_transaction_history_p20260108",
+                "user_transaction_history_p20260109", "user_transaction_history_p20260110",
+                "user_transaction_history_p20260111", "user_transaction_history_p20260112");
+
+        assertTrue(engine.apply(history, NOW));
+
+        verify(jdbcTemplate).execute("DROP TABLE user_transaction_history_p20260107");
+        // 2026-01-08 still holds rows newer than the 10:30 cutoff.
+        verify(jdbcTemplate, never()).execute("DROP TABLE user_transaction_history_p20260108");
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void applyShouldLeaveAnUnpartitionedTableToTheCaller() {
+        relations.put("user_transaction_history", "r");
+
+        assertFalse(engine.apply(history, NOW));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(chunkedRetentionExecutor);
+    }
+
+    private void partitioned(String... existing) {
+        relations.put("user_transaction_history", "p");
+        relations.put("user_transaction_history_default", "r");
+        for (String partition : existing) {
+            relations.put(partition, "r");
+            partitions.add(partition);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fraud.detection.retention;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PartitionedTableTest {
+
+    private final PartitionedTable hourly = new PartitionedTable(
+            "processed_events", "processed_at", PartitionedTable.Granularity.HOUR, Duration.ofHours(1));
+
+    @Test
+    void partitionNameShouldEncodeTheUtcBucket() {
+        Instant start = PartitionedTable.Granularity.HOUR.truncate(Instant.parse("2026-03-07T09:41:12Z"));
+
+        assertEquals("processed_events_p2026030709", hourly.partitionName(start));
+        assertEquals(start, hourly.partitionStart("processed_events_p2026030709"));
+    }
+
+    @Test
+    void dailyPartitionsShouldRoundTripThroughTheirName() {
+        PartitionedTable daily = new PartitionedTable(
+                "user_transaction_history", "occurred_at", PartitionedTable.Granularity.DAY, Duration.ofDays(7));
+        Instant start = PartitionedTable.Granularity.DAY.truncate(Instant.parse("2026-03-07T09:41:12Z"));
+
+        assertEquals("user_transaction_history_p20260307", daily.partitionName(start));
+        assertEquals(Instant.parse("2026-03-07T00:00:00Z"), daily.partitionStart("user_transaction_history_p20260307"));
+    }
+
+    @Test
+    void partitionStartShouldIgnorePartitionsItDoesNotManage() {
+        assertNull(hourly.partitionStart("processed_events_default"));
+        assertNull(hourly.partitionStart("processed_events_p2026"));
+        assertNull(hourly.partitionStart("other_table_p2026030709"));
+    }
+}
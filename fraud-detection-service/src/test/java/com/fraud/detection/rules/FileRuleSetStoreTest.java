@@ -0,0 +1,30 @@
+package com.fraud.detection.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileRuleSetStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void savedRuleSetShouldBeLoadedBack() {
+        FileRuleSetStore store = new FileRuleSetStore(directory.resolve("rules.json"), new ObjectMapper());
+        assertTrue(store.load().isEmpty());
+
+        RuleSetDefinition definition = new RuleSetDefinition("v2.0.0", new BigDecimal("5000.00"), 4, 60, List.of("MRC-1", "MRC-2"));
+        store.save(definition);
+
+        assertEquals(Optional.of(definition), store.load());
+    }
+}
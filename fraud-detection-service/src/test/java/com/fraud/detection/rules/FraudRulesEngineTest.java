@@ -3,17 +3,17 @@ package com.fraud.detection.rules;
 import com.fraud.detection.config.FraudRulesProperties;
 import com.fraud.detection.events.TransactionCreatedEvent;
 import com.fraud.detection.model.PaymentMethod;
-import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.state.UserActivity;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FraudRulesEngineTest {
@@ -23,7 +23,7 @@ class FraudRulesEngineTest {
         FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
         TransactionCreatedEvent event = buildEvent("15000.00", "MRC-999", "AR");
 
-        FraudEvaluation evaluation = engine.evaluate(event, Optional.empty(), 0, Instant.now());
+        FraudEvaluation evaluation = engine.evaluate(event, activity(0), Instant.now());
 
         assertTrue(evaluation.fraudulent());
         assertTrue(evaluation.reasons().contains("HIGH_AMOUNT"));
@@ -36,19 +36,11 @@ class FraudRulesEngineTest {
         FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
         Instant now = Instant.now();
 
-        UserTransactionHistory last = new UserTransactionHistory(
-                "old-transaction",
-                "user-1",
-                new BigDecimal("45.00"),
-                "USD",
-                "MRC-100",
-                "US",
-                now.minus(Duration.ofMinutes(5))
-        );
+        UserActivity activity = new UserActivity(4, "US", now.minus(Duration.ofMinutes(5)), List.of(new BigDecimal("45.00")));
 
         TransactionCreatedEvent event = buildEvent("30.00", "MRC-100", "BR");
 
-        FraudEvaluation evaluation = engine.evaluate(event, Optional.of(last), 4, now);
+        FraudEvaluation evaluation = engine.evaluate(event, activity, now);
 
         assertFalse(evaluation.fraudulent());
         assertTrue(evaluation.reasons().contains("HIGH_VELOCITY"));
@@ -61,13 +53,68 @@ class FraudRulesEngineTest {
         FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
         TransactionCreatedEvent event = buildEvent("25.00", "MRC-100", "US");
 
-        FraudEvaluation evaluation = engine.evaluate(event, Optional.empty(), 1, Instant.now());
+        FraudEvaluation evaluation = engine.evaluate(event, activity(1), Instant.now());
 
         assertFalse(evaluation.fraudulent());
         assertTrue(evaluation.reasons().isEmpty());
         assertEquals(0, evaluation.riskScore());
     }
 
+    @Test
+    void cleanEvaluationsShouldReuseTheSamePrecomputedInstance() {
+        FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
+
+        FraudEvaluation first = engine.evaluate(buildEvent("25.00", "MRC-100", "US"), activity(0), Instant.now());
+        FraudEvaluation second = engine.evaluate(buildEvent("30.00", "MRC-101", "AR"), activity(1), Instant.now());
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void highRiskMerchantShouldMatchIgnoringCase() {
+        FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
+
+        FraudEvaluation evaluation = engine.evaluate(buildEvent("25.00", "mrc-666", "US"), activity(0), Instant.now());
+
+        assertEquals(List.of("HIGH_RISK_MERCHANT"), evaluation.reasons());
+        assertEquals(25, evaluation.riskScore());
+    }
+
+    @Test
+    void countryChangeWindowShouldExcludeTheExactBoundary() {
+        FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
+        Instant now = Instant.parse("2026-01-01T10:00:00.000000500Z");
+        UserActivity atBoundary = new UserActivity(0, "US", now.minus(Duration.ofMinutes(30)), List.of());
+        UserActivity justInside = new UserActivity(0, "US", now.minus(Duration.ofMinutes(30)).plusNanos(1), List.of());
+
+        TransactionCreatedEvent event = buildEvent("30.00", "MRC-100", "BR");
+
+        assertTrue(engine.evaluate(event, atBoundary, now).reasons().isEmpty());
+        assertEquals(List.of("COUNTRY_CHANGE_IN_SHORT_WINDOW"), engine.evaluate(event, justInside, now).reasons());
+    }
+
+    @Test
+    void applyShouldSwapRuleSetAndTagEvaluationsWithItsVersion() {
+        FraudRulesEngine engine = new FraudRulesEngine(defaultRules());
+        TransactionCreatedEvent event = buildEvent("500.00", "MRC-100", "US");
+
+        FraudEvaluation before = engine.evaluate(event, activity(0), Instant.now());
+        assertTrue(before.reasons().isEmpty());
+        assertEquals("v1.0.0", before.ruleVersion());
+
+        engine.apply(new RuleSetDefinition("v1.1.0", new BigDecimal("100"), 5, 40, List.of("MRC-100")));
+        FraudEvaluation after = engine.evaluate(event, activity(0), Instant.now());
+
+        assertEquals(List.of("HIGH_AMOUNT", "HIGH_RISK_MERCHANT"), after.reasons());
+        assertTrue(after.fraudulent());
+        assertEquals("v1.1.0", after.ruleVersion());
+        assertEquals("v1.1.0", engine.activeRuleSet().version());
+    }
+
+    private static UserActivity activity(long recentTransactionsCount) {
+        return new UserActivity(recentTransactionsCount, null, null, List.of());
+    }
+
     private FraudRulesProperties defaultRules() {
         FraudRulesProperties properties = new FraudRulesProperties();
         properties.setHighAmountThreshold(new BigDecimal("10000.00"));
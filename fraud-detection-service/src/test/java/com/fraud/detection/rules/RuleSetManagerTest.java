@@ -0,0 +1,90 @@
+package com.fraud.detection.rules;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RuleSetManagerTest {
+
+    @Mock
+    private RuleSetStore ruleSetStore;
+
+    @Mock
+    private ObjectProvider<RuleSetStore> ruleSetStoreProvider;
+
+    private ValidatorFactory validatorFactory;
+    private FraudRulesEngine engine;
+    private RuleSetManager manager;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        engine = new FraudRulesEngine(new FraudRulesProperties());
+        when(ruleSetStoreProvider.getIfAvailable()).thenReturn(ruleSetStore);
+        manager = new RuleSetManager(engine, ruleSetStoreProvider, validatorFactory.getValidator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void refreshShouldApplyNewerStoredVersion() {
+        when(ruleSetStore.load()).thenReturn(Optional.of(definition("v2.0.0", "5000.00")));
+
+        manager.refresh();
+
+        assertEquals("v2.0.0", engine.activeRuleSet().version());
+        assertEquals(new BigDecimal("5000.00"), engine.activeRuleSet().highAmountThreshold());
+    }
+
+    @Test
+    void refreshShouldKeepActiveRuleSetWhenStoredOneIsInvalid() {
+        when(ruleSetStore.load()).thenReturn(Optional.of(definition("v2.0.0", "-1")));
+
+        manager.refresh();
+
+        assertEquals("v1.0.0", engine.activeRuleSet().version());
+    }
+
+    @Test
+    void updateShouldSaveToStoreAndApply() {
+        RuleSetDefinition definition = definition("v2.0.0", "5000.00");
+
+        manager.update(definition);
+
+        verify(ruleSetStore).save(definition);
+        assertEquals("v2.0.0", manager.active().version());
+    }
+
+    @Test
+    void updateShouldRejectAlreadyActiveVersion() {
+        assertThrows(IllegalArgumentException.class, () -> manager.update(definition("v1.0.0", "5000.00")));
+
+        verify(ruleSetStore, never()).save(any(RuleSetDefinition.class));
+    }
+
+    private RuleSetDefinition definition(String version, String highAmountThreshold) {
+        return new RuleSetDefinition(version, new BigDecimal(highAmountThreshold), 5, 70, List.of("MRC-999"));
+    }
+}
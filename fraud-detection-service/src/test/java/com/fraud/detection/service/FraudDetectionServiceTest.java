@@ -3,16 +3,21 @@ package com.fraud.detection.service;
 import com.fraud.detection.config.FraudRulesProperties;
 import com.fraud.detection.events.FraudDetectedEvent;
 import com.fraud.detection.events.TransactionCreatedEvent;
+import com.fraud.detection.idempotency.ProcessedEventGuard;
 import com.fraud.detection.mapping.FraudDetectedEventMapper;
 import com.fraud.detection.mapping.UserTransactionHistoryMapper;
 import com.fraud.detection.messaging.FraudEventPublisher;
+import com.fraud.detection.messaging.PartitionAffinityGuard;
+import com.fraud.detection.messaging.PendingFraudEventRelay;
 import com.fraud.detection.model.PaymentMethod;
-import com.fraud.detection.model.ProcessedEvent;
 import com.fraud.detection.model.UserTransactionHistory;
-import com.fraud.detection.repository.ProcessedEventRepository;
+import com.fraud.detection.repository.ProcessedEventBulkRepository;
 import com.fraud.detection.repository.UserTransactionHistoryRepository;
 import com.fraud.detection.rules.FraudEvaluation;
 import com.fraud.detection.rules.FraudRulesEngine;
+import com.fraud.detection.state.DatabaseUserStateStore;
+import com.fraud.detection.state.UserActivity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,21 +26,27 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mapstruct.factory.Mappers;
 import org.slf4j.MDC;
-import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -44,7 +55,10 @@ import static org.mockito.Mockito.when;
 class FraudDetectionServiceTest {
 
     @Mock
-    private ProcessedEventRepository processedEventRepository;
+    private ProcessedEventGuard processedEventGuard;
+
+    @Mock
+    private ProcessedEventBulkRepository processedEventBulkRepository;
 
     @Mock
     private UserTransactionHistoryRepository historyRepository;
@@ -55,6 +69,9 @@ class FraudDetectionServiceTest {
     @Mock
     private FraudEventPublisher fraudEventPublisher;
 
+    @Mock
+    private PendingFraudEventRelay pendingFraudEventRelay;
+
     @Mock
     private FraudDetectionMetrics fraudDetectionMetrics;
 
@@ -69,29 +86,36 @@ class FraudDetectionServiceTest {
         rules.setVelocityWindow(Duration.ofMinutes(1));
         userTransactionHistoryMapper = Mappers.getMapper(UserTransactionHistoryMapper.class);
         fraudDetectedEventMapper = Mappers.getMapper(FraudDetectedEventMapper.class);
-        fraudDetectionService = new FraudDetectionService(
-                processedEventRepository,
+        fraudDetectionService = newService(false);
+    }
+
+    private FraudDetectionService newService(boolean exactlyOnce) {
+        return new FraudDetectionService(
+                processedEventGuard,
+                processedEventBulkRepository,
                 historyRepository,
                 fraudRulesEngine,
                 fraudEventPublisher,
+                pendingFraudEventRelay,
+                new DatabaseUserStateStore(historyRepository, rules),
+                new PartitionAffinityGuard("user", 18, new SimpleMeterRegistry()),
                 rules,
                 userTransactionHistoryMapper,
                 fraudDetectedEventMapper,
-                fraudDetectionMetrics
+                fraudDetectionMetrics,
+                exactlyOnce
         );
     }
 
     @Test
     void processShouldSkipWhenEventWasAlreadyProcessed() {
         TransactionCreatedEvent event = buildEvent("evt-1", Instant.parse("2026-01-01T10:00:00Z"));
-        when(processedEventRepository.saveAndFlush(any(ProcessedEvent.class)))
-                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-1"), any(Instant.class), anyInt())).thenReturn(false);
 
         fraudDetectionService.process(event);
 
-        verify(processedEventRepository).saveAndFlush(any(ProcessedEvent.class));
+        verify(processedEventGuard).tryMarkAsProcessed(eq("evt-1"), any(Instant.class), anyInt());
         verifyNoInteractions(historyRepository, fraudRulesEngine, fraudEventPublisher);
-        verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
     }
 
     @Test
@@ -99,11 +123,12 @@ class FraudDetectionServiceTest {
         Instant occurredAt = Instant.parse("2026-01-01T10:00:00Z");
         TransactionCreatedEvent event = buildEvent("evt-2", occurredAt);
 
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-2"), eq(occurredAt), anyInt())).thenReturn(true);
         when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), eq(occurredAt.minus(Duration.ofMinutes(1)))))
                 .thenReturn(2L);
         when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
-        when(fraudRulesEngine.evaluate(event, Optional.empty(), 2L, occurredAt))
-                .thenReturn(new FraudEvaluation(false, 0, List.of()));
+        when(fraudRulesEngine.evaluate(event, new UserActivity(2L, null, null, List.of()), occurredAt))
+                .thenReturn(new FraudEvaluation(false, 0, List.of(), "v1.0.0"));
 
         fraudDetectionService.process(event);
 
@@ -111,19 +136,14 @@ class FraudDetectionServiceTest {
         verify(historyRepository).save(historyCaptor.capture());
         UserTransactionHistory storedHistory = historyCaptor.getValue();
 
-        ArgumentCaptor<ProcessedEvent> processedCaptor = ArgumentCaptor.forClass(ProcessedEvent.class);
-        verify(processedEventRepository).saveAndFlush(processedCaptor.capture());
-        ProcessedEvent processedEvent = processedCaptor.getValue();
+        verify(processedEventGuard).tryMarkAsProcessed(eq(event.eventId()), eq(occurredAt), anyInt());
 
-        verify(fraudRulesEngine).evaluate(event, Optional.empty(), 2L, occurredAt);
+        verify(fraudRulesEngine).evaluate(event, new UserActivity(2L, null, null, List.of()), occurredAt);
         verify(fraudEventPublisher, never()).publish(any(FraudDetectedEvent.class));
 
         assertEquals(event.transactionId(), storedHistory.getTransactionId());
         assertEquals(event.userId(), storedHistory.getUserId());
         assertEquals(occurredAt, storedHistory.getOccurredAt());
-
-        assertEquals(event.eventId(), processedEvent.getEventId());
-        assertEquals(occurredAt, processedEvent.getProcessedAt());
     }
 
     @Test
@@ -131,10 +151,11 @@ class FraudDetectionServiceTest {
         TransactionCreatedEvent event = buildEvent("evt-3", null);
         Instant before = Instant.now();
 
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-3"), any(Instant.class), anyInt())).thenReturn(true);
         when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(0L);
         when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
-        when(fraudRulesEngine.evaluate(eq(event), eq(Optional.empty()), eq(0L), any(Instant.class)))
-                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT", "HIGH_RISK_MERCHANT")));
+        when(fraudRulesEngine.evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT", "HIGH_RISK_MERCHANT"), "v1.0.0"));
 
         fraudDetectionService.process(event);
         Instant after = Instant.now();
@@ -143,18 +164,18 @@ class FraudDetectionServiceTest {
         verify(historyRepository).save(historyCaptor.capture());
         UserTransactionHistory storedHistory = historyCaptor.getValue();
 
-        ArgumentCaptor<ProcessedEvent> processedCaptor = ArgumentCaptor.forClass(ProcessedEvent.class);
-        verify(processedEventRepository).saveAndFlush(processedCaptor.capture());
-        ProcessedEvent processedEvent = processedCaptor.getValue();
+        ArgumentCaptor<Instant> processedAtCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(processedEventGuard).tryMarkAsProcessed(eq(event.eventId()), processedAtCaptor.capture(), anyInt());
+        Instant processedAt = processedAtCaptor.getValue();
 
         ArgumentCaptor<FraudDetectedEvent> fraudEventCaptor = ArgumentCaptor.forClass(FraudDetectedEvent.class);
         verify(fraudEventPublisher).publish(fraudEventCaptor.capture());
         FraudDetectedEvent fraudEvent = fraudEventCaptor.getValue();
 
         assertNotNull(storedHistory.getOccurredAt());
-        assertEquals(storedHistory.getOccurredAt(), processedEvent.getProcessedAt());
-        assertFalse(processedEvent.getProcessedAt().isBefore(before));
-        assertFalse(processedEvent.getProcessedAt().isAfter(after));
+        assertEquals(storedHistory.getOccurredAt(), processedAt);
+        assertFalse(processedAt.isBefore(before));
+        assertFalse(processedAt.isAfter(after));
 
         assertEquals(event.transactionId(), fraudEvent.transactionId());
         assertEquals(event.traceId(), fraudEvent.traceId());
@@ -170,10 +191,11 @@ class FraudDetectionServiceTest {
         TransactionCreatedEvent event = buildEvent("evt-4", null);
         MDC.put("traceId", "mdc-trace-that-must-not-win");
 
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-4"), any(Instant.class), anyInt())).thenReturn(true);
         when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(0L);
         when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
-        when(fraudRulesEngine.evaluate(eq(event), eq(Optional.empty()), eq(0L), any(Instant.class)))
-                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT")));
+        when(fraudRulesEngine.evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
 
         try {
             fraudDetectionService.process(event);
@@ -186,6 +208,174 @@ class FraudDetectionServiceTest {
         assertEquals(event.traceId(), fraudEventCaptor.getValue().traceId());
     }
 
+    @Test
+    void processShouldHandFraudEventToRelayWhenPublishingAsynchronously() {
+        TransactionCreatedEvent event = buildEvent("evt-5", Instant.parse("2026-01-01T10:00:00Z"));
+        CompletableFuture<Void> relayCompletion = new CompletableFuture<>();
+
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-5"), any(Instant.class), anyInt())).thenReturn(true);
+        when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(0L);
+        when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
+        when(fraudRulesEngine.evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
+        when(pendingFraudEventRelay.isEnabled()).thenReturn(true);
+        when(pendingFraudEventRelay.publishAfterCommit(any(FraudDetectedEvent.class))).thenReturn(relayCompletion);
+
+        CompletableFuture<Void> completion = fraudDetectionService.process(event, 3);
+
+        assertSame(relayCompletion, completion);
+        verify(fraudEventPublisher, never()).publish(any(FraudDetectedEvent.class));
+        verify(historyRepository).save(any(UserTransactionHistory.class));
+    }
+
+    @Test
+    void processShouldSkipDedupeAndPublishWithinKafkaTransactionWhenExactlyOnce() {
+        FraudDetectionService exactlyOnceService = newService(true);
+        TransactionCreatedEvent event = buildEvent("evt-6", Instant.parse("2026-01-01T10:00:00Z"));
+
+        when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(0L);
+        when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
+        when(fraudRulesEngine.evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class))).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<Void> completion = exactlyOnceService.process(event, 3);
+
+        assertTrue(completion.isDone());
+        verifyNoInteractions(processedEventGuard);
+        verify(historyRepository).insertIfAbsent(any(UserTransactionHistory.class));
+        verify(historyRepository, never()).save(any(UserTransactionHistory.class));
+        verify(fraudEventPublisher).publishAsync(any(FraudDetectedEvent.class));
+        verify(fraudEventPublisher, never()).publish(any(FraudDetectedEvent.class));
+    }
+
+    @Test
+    void processShouldReEvaluateRecordRedeliveredAfterKafkaAbortWhenExactlyOnce() {
+        FraudDetectionService exactlyOnceService = newService(true);
+        TransactionCreatedEvent event = buildEvent("evt-8", Instant.parse("2026-01-01T10:00:00Z"));
+
+        when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(0L);
+        when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
+        when(fraudRulesEngine.evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class))).thenReturn(new CompletableFuture<>());
+        // The first attempt committed its history row and then lost its Kafka transaction; the redelivery finds the row.
+        when(historyRepository.insertIfAbsent(any(UserTransactionHistory.class))).thenReturn(1, 0);
+
+        exactlyOnceService.process(event, 3);
+        CompletableFuture<Void> redelivery = exactlyOnceService.process(event, 3);
+
+        assertTrue(redelivery.isDone());
+        verify(historyRepository, times(2)).insertIfAbsent(any(UserTransactionHistory.class));
+        verify(historyRepository, never()).save(any(UserTransactionHistory.class));
+        verify(fraudRulesEngine, times(2)).evaluate(eq(event), eq(UserActivity.empty()), any(Instant.class));
+        ArgumentCaptor<FraudDetectedEvent> published = ArgumentCaptor.forClass(FraudDetectedEvent.class);
+        verify(fraudEventPublisher, times(2)).publishAsync(published.capture());
+        assertEquals("tx-1", published.getAllValues().get(1).transactionId());
+        verifyNoInteractions(processedEventGuard);
+    }
+
+    @Test
+    void processShouldStillDedupeUnpartitionedEventsWhenExactlyOnce() {
+        FraudDetectionService exactlyOnceService = newService(true);
+        TransactionCreatedEvent event = buildEvent("evt-7", Instant.parse("2026-01-01T10:00:00Z"));
+        when(processedEventGuard.tryMarkAsProcessed(eq("evt-7"), any(Instant.class), anyInt())).thenReturn(false);
+
+        exactlyOnceService.process(event);
+
+        verify(historyRepository, never()).save(any(UserTransactionHistory.class));
+        verifyNoInteractions(fraudEventPublisher);
+    }
+
+    @Test
+    void processBatchShouldDedupeInOneInsertAndEvaluateAgainstEarlierEntriesOfTheBatch() {
+        Instant occurredAt = Instant.parse("2026-01-01T10:00:00Z");
+        TransactionCreatedEvent first = buildEvent("evt-a", occurredAt);
+        TransactionCreatedEvent repeated = buildEvent("evt-a", occurredAt);
+        TransactionCreatedEvent alreadyProcessed = buildEvent("evt-b", occurredAt.plusSeconds(5));
+        TransactionCreatedEvent second = buildEvent("evt-c", occurredAt.plusSeconds(10));
+        UserTransactionHistory previous = userTransactionHistoryMapper.toHistory(
+                buildEvent("evt-0", occurredAt.minusSeconds(30)),
+                occurredAt.minusSeconds(30),
+                null
+        );
+
+        when(processedEventBulkRepository.insertIfAbsent(any())).thenReturn(Set.of("evt-a", "evt-c"));
+        when(historyRepository.findByUserIdInAndOccurredAtAfter(eq(Set.of("user-1")), any(Instant.class)))
+                .thenReturn(List.of(previous));
+        when(fraudRulesEngine.evaluate(any(TransactionCreatedEvent.class), any(UserActivity.class), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(false, 0, List.of(), "v1.0.0"));
+
+        fraudDetectionService.processBatch(List.of(
+                new PartitionedTransactionEvent(first, 0),
+                new PartitionedTransactionEvent(repeated, 0),
+                new PartitionedTransactionEvent(alreadyProcessed, 0),
+                new PartitionedTransactionEvent(second, 0)
+        ));
+
+        ArgumentCaptor<Map<String, Instant>> processedCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(processedEventBulkRepository).insertIfAbsent(processedCaptor.capture());
+        assertEquals(List.of("evt-a", "evt-b", "evt-c"), List.copyOf(processedCaptor.getValue().keySet()));
+
+        ArgumentCaptor<UserActivity> activityCaptor = ArgumentCaptor.forClass(UserActivity.class);
+        verify(fraudRulesEngine, times(2)).evaluate(any(TransactionCreatedEvent.class), activityCaptor.capture(), any(Instant.class));
+        assertEquals(1, activityCaptor.getAllValues().get(0).recentTransactionsCount());
+        assertEquals(2, activityCaptor.getAllValues().get(1).recentTransactionsCount());
+        assertEquals(occurredAt, activityCaptor.getAllValues().get(1).lastOccurredAt());
+
+        ArgumentCaptor<List<UserTransactionHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).saveAll(historyCaptor.capture());
+        assertEquals(2, historyCaptor.getValue().size());
+        verifyNoInteractions(processedEventGuard);
+        verifyNoInteractions(fraudEventPublisher);
+    }
+
+    @Test
+    void processBatchShouldReportIndexOfRecordWhosePublishFailed() {
+        Instant occurredAt = Instant.parse("2026-01-01T10:00:00Z");
+        TransactionCreatedEvent clean = buildEvent("evt-a", occurredAt);
+        TransactionCreatedEvent fraudulent = buildEvent("evt-b", occurredAt.plusSeconds(1));
+
+        when(processedEventBulkRepository.insertIfAbsent(any())).thenReturn(Set.of("evt-a", "evt-b"));
+        when(historyRepository.findByUserIdInAndOccurredAtAfter(any(), any(Instant.class))).thenReturn(List.of());
+        when(fraudRulesEngine.evaluate(eq(clean), any(UserActivity.class), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(false, 0, List.of(), "v1.0.0"));
+        when(fraudRulesEngine.evaluate(eq(fraudulent), any(UserActivity.class), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
+        when(fraudEventPublisher.publishAsync(any(FraudDetectedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka unavailable")));
+
+        BatchRecordFailedException failure = assertThrows(BatchRecordFailedException.class, () ->
+                fraudDetectionService.processBatch(List.of(
+                        new PartitionedTransactionEvent(clean, 0),
+                        new PartitionedTransactionEvent(fraudulent, 0)
+                ))
+        );
+
+        assertEquals(1, failure.getIndex());
+        verify(fraudDetectionMetrics).recordFraudEventPublished("failed");
+    }
+
+    @Test
+    void processBatchShouldHandFraudEventsToRelayWithoutWaitingWhenPublishingAsynchronously() {
+        Instant occurredAt = Instant.parse("2026-01-01T10:00:00Z");
+        TransactionCreatedEvent fraudulent = buildEvent("evt-a", occurredAt);
+
+        when(processedEventBulkRepository.insertIfAbsent(any())).thenReturn(Set.of("evt-a"));
+        when(historyRepository.findByUserIdInAndOccurredAtAfter(any(), any(Instant.class))).thenReturn(List.of());
+        when(fraudRulesEngine.evaluate(eq(fraudulent), any(UserActivity.class), any(Instant.class)))
+                .thenReturn(new FraudEvaluation(true, 80, List.of("HIGH_AMOUNT"), "v1.0.0"));
+        when(pendingFraudEventRelay.isEnabled()).thenReturn(true);
+        // Never completes: the batch must not wait for the broker.
+        when(pendingFraudEventRelay.publishAfterCommit(any(FraudDetectedEvent.class))).thenReturn(new CompletableFuture<>());
+
+        fraudDetectionService.processBatch(List.of(new PartitionedTransactionEvent(fraudulent, 0)));
+
+        verify(pendingFraudEventRelay).publishAfterCommit(any(FraudDetectedEvent.class));
+        verify(historyRepository).saveAll(any());
+        verifyNoInteractions(fraudEventPublisher);
+    }
+
     private TransactionCreatedEvent buildEvent(String eventId, Instant occurredAt) {
         return new TransactionCreatedEvent(
                 eventId,
@@ -0,0 +1,117 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangelogUserStateStoreTest {
+
+    private static final String TOPIC = "fraud.user-state.changelog";
+
+    @Mock
+    private UserTransactionHistoryRepository historyRepository;
+
+    @Mock
+    private KafkaTemplate<Object, Object> kafkaTemplate;
+
+    @Mock
+    private ConsumerFactory<Object, Object> consumerFactory;
+
+    private ChangelogUserStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        FraudRulesProperties rules = new FraudRulesProperties();
+        rules.setVelocityWindow(Duration.ofMinutes(1));
+        rules.setCountryChangeWindow(Duration.ofMinutes(30));
+        store = new ChangelogUserStateStore(
+                historyRepository,
+                rules,
+                new SimpleMeterRegistry(),
+                kafkaTemplate,
+                consumerFactory,
+                TOPIC,
+                Duration.ofSeconds(5)
+        );
+    }
+
+    @Test
+    void assignedPartitionShouldBeRestoredFromChangelogAndUpdatesStagedToSamePartition() {
+        Instant now = Instant.now();
+        TopicPartition partition = new TopicPartition(TOPIC, 3);
+        MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, 1L));
+        consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>(TOPIC, 3, 0L, "user-1", new UserStateSnapshot(
+                "US",
+                now.minusSeconds(30),
+                List.of(new UserStateSnapshot.Entry(now.minusSeconds(30), new BigDecimal("10.00")))
+        ))));
+        when(consumerFactory.createConsumer(isNull(), eq("fraud-state-restore"), isNull(), any(Properties.class)))
+                .thenReturn(consumer);
+
+        store.onPartitionsAssigned(List.of(3));
+        UserTransactionHistory transaction = history("tx-2", "AR", now.minusSeconds(5), 3);
+        store.stage(3, transaction);
+
+        ArgumentCaptor<Object> snapshotCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq(TOPIC), eq(3), eq("user-1"), snapshotCaptor.capture());
+        UserStateSnapshot staged = (UserStateSnapshot) snapshotCaptor.getValue();
+        assertEquals("AR", staged.lastCountry());
+        assertEquals(2, staged.entries().size());
+
+        // Staging must not leak into memory before the transaction commits.
+        assertEquals("US", store.load(3, "user-1", now).lastCountry());
+        store.record(3, transaction);
+        assertEquals("AR", store.load(3, "user-1", now).lastCountry());
+    }
+
+    @Test
+    void stageShouldIgnorePartitionsThatAreNotOwned() {
+        store.stage(UserStateStore.UNKNOWN_PARTITION, history("tx-1", "US", Instant.now(), 7));
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private UserTransactionHistory history(String transactionId, String country, Instant occurredAt, int partition) {
+        return new UserTransactionHistory(
+                transactionId,
+                "user-1",
+                new BigDecimal("10.00"),
+                "USD",
+                "MRC-100",
+                country,
+                occurredAt,
+                partition
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package com.fraud.detection.state;
+
+import com.fraud.detection.config.FraudRulesProperties;
+import com.fraud.detection.model.UserTransactionHistory;
+import com.fraud.detection.repository.UserTransactionHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryUserStateStoreTest {
+
+    @Mock
+    private UserTransactionHistoryRepository historyRepository;
+
+    private InMemoryUserStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        FraudRulesProperties rules = new FraudRulesProperties();
+        rules.setVelocityWindow(Duration.ofMinutes(1));
+        rules.setCountryChangeWindow(Duration.ofMinutes(30));
+        store = new InMemoryUserStateStore(historyRepository, rules, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void assignedPartitionShouldBeRebuiltFromHistoryAndServedFromMemory() {
+        Instant now = Instant.now();
+        when(historyRepository.findBySourcePartitionInAndOccurredAtAfterOrderByOccurredAtAsc(eq(List.of(3)), any(Instant.class)))
+                .thenReturn(List.of(
+                        history("tx-1", "US", now.minus(Duration.ofMinutes(10)), 3),
+                        history("tx-2", "AR", now.minusSeconds(20), 3)
+                ));
+
+        store.onPartitionsAssigned(List.of(3));
+        store.record(3, history("tx-3", "BR", now.minusSeconds(5), 3));
+
+        UserActivity activity = store.load(3, "user-1", now);
+
+        assertEquals(2, activity.recentTransactionsCount());
+        assertEquals("BR", activity.lastCountry());
+        assertEquals(now.minusSeconds(5), activity.lastOccurredAt());
+        assertEquals(List.of(new BigDecimal("10.00"), new BigDecimal("10.00")), activity.recentAmounts());
+        verify(historyRepository, never()).countByUserIdAndOccurredAtAfter(anyString(), any(Instant.class));
+    }
+
+    @Test
+    void unownedPartitionShouldFallBackToDatabase() {
+        Instant now = Instant.now();
+        when(historyRepository.countByUserIdAndOccurredAtAfter(eq("user-1"), any(Instant.class))).thenReturn(4L);
+        when(historyRepository.findTopByUserIdOrderByOccurredAtDesc("user-1")).thenReturn(Optional.empty());
+
+        store.record(7, history("tx-1", "US", now, 7));
+        UserActivity activity = store.load(7, "user-1", now);
+
+        assertEquals(4, activity.recentTransactionsCount());
+        assertFalse(activity.hasPreviousTransaction());
+    }
+
+    @Test
+    void revokedPartitionShouldDropItsState() {
+        when(historyRepository.findBySourcePartitionInAndOccurredAtAfterOrderByOccurredAtAsc(eq(List.of(1)), any(Instant.class)))
+                .thenReturn(List.of(history("tx-1", "US", Instant.now(), 1)));
+
+        store.onPartitionsAssigned(List.of(1));
+        assertEquals(1, store.trackedUsers());
+
+        store.onPartitionsRevoked(List.of(1));
+        assertEquals(0, store.trackedUsers());
+    }
+
+    private UserTransactionHistory history(String transactionId, String country, Instant occurredAt, int partition) {
+        return new UserTransactionHistory(
+                transactionId,
+                "user-1",
+                new BigDecimal("10.00"),
+                "USD",
+                "MRC-100",
+                country,
+                occurredAt,
+                partition
+        );
+    }
+}
@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+BASELINE_FILE="${BASELINE_FILE:-${SCRIPT_DIR}/../benchmarks/baseline/jmh-baseline.json}"
+MAX_REGRESSION_PCT="${MAX_REGRESSION_PCT:-10}"
+
+usage() {
+  cat <<'USAGE'
+Usage: ./compare-jmh-baseline.sh <jmh-result.json>
+
+Compares a JMH JSON result (java -jar benchmarks/target/benchmarks.jar -rf json -rff result.json)
+against benchmarks/baseline/jmh-baseline.json and fails if any benchmark got slower than
+MAX_REGRESSION_PCT (default: 10). A change inside the combined error margin is not a regression.
+
+Environment variables:
+  BASELINE_FILE       Baseline to compare against.
+  MAX_REGRESSION_PCT  Allowed slowdown in percent.
+
+The committed baseline is only comparable to results from similar hardware; CI measures the previous
+release on the same runner and passes it as BASELINE_FILE instead.
+USAGE
+}
+
+if [[ $# -ne 1 || "$1" == "-h" || "$1" == "--help" ]]; then
+  usage
+  exit 1
+fi
+
+CURRENT_FILE="$1"
+
+for file in "${BASELINE_FILE}" "${CURRENT_FILE}"; do
+  if [[ ! -f "${file}" ]]; then
+    echo "File not found: ${file}" >&2
+    exit 1
+  fi
+done
+
+# One line per benchmark present in both files: name, mode, unit, baseline, error, current, error, delta %.
+# The delta is oriented so that a positive value is always a slowdown (thrpt: higher is better).
+report="$(jq -r -n \
+  --slurpfile baseline "${BASELINE_FILE}" \
+  --slurpfile current "${CURRENT_FILE}" '
+  ($baseline[0] | map({key: (.benchmark + "|" + .mode), value: .primaryMetric}) | from_entries) as $base
+  | $current[0][]
+  | (.benchmark + "|" + .mode) as $key
+  | select($base[$key] != null)
+  | $base[$key] as $b
+  | .primaryMetric as $c
+  | (if .mode == "thrpt" then ($b.score - $c.score) else ($c.score - $b.score) end) as $diff
+  | [
+      .benchmark,
+      .mode,
+      $c.scoreUnit,
+      $b.score,
+      $b.scoreError,
+      $c.score,
+      $c.scoreError,
+      ($diff / $b.score * 100),
+      (if ($diff | fabs) <= (($b.scoreError | if . == "NaN" then 0 else . end) + ($c.scoreError | if . == "NaN" then 0 else . end)) then "noise" else "" end)
+    ]
+  | @tsv
+')"
+
+if [[ -z "${report}" ]]; then
+  echo "No benchmarks in common between ${BASELINE_FILE} and ${CURRENT_FILE}" >&2
+  exit 1
+fi
+
+regressions=0
+printf '%-80s %-6s %14s %14s %9s\n' "Benchmark" "Mode" "Baseline" "Current" "Delta"
+while IFS=$'\t' read -r name mode unit base_score _ current_score _ delta noise; do
+  status=""
+  if [[ -z "${noise}" ]] && awk -v d="${delta}" -v max="${MAX_REGRESSION_PCT}" 'BEGIN { exit !(d > max) }'; then
+    status="REGRESSION"
+    regressions=$((regressions + 1))
+  elif [[ -n "${noise}" ]]; then
+    status="(within error)"
+  fi
+  printf '%-80s %-6s %9.3f %-4s %9.3f %-4s %+8.1f%% %s\n' \
+    "${name}" "${mode}" "${base_score}" "${unit%%/*}" "${current_score}" "${unit%%/*}" "${delta}" "${status}"
+done <<< "${report}"
+
+if [[ "${regressions}" -gt 0 ]]; then
+  echo "${regressions} benchmark(s) regressed more than ${MAX_REGRESSION_PCT}% against the baseline" >&2
+  exit 1
+fi
+
+echo "No regressions above ${MAX_REGRESSION_PCT}%"
@@ -0,0 +1,7 @@
+-- Builds the indexes behind the keyset-paginated alerts API without blocking inserts, before the new alert-service
+-- version starts (Hibernate would otherwise create them with a plain, write-blocking CREATE INDEX). idx_alert_user is
+-- covered by idx_alert_user_created_id and is dropped. CONCURRENTLY cannot run inside a transaction block, so run the
+-- file as-is with psql, without --single-transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_alert_created_id ON alerts (created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_alert_user_created_id ON alerts (user_id, created_at, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_alert_user;
@@ -0,0 +1,13 @@
+BEGIN;
+
+-- Hibernate only adds missing columns on ddl-auto=update; the enum check constraint it created for older versions
+-- does not know the IN_FLIGHT status used by APP_OUTBOX_CLAIM_MODE=lease.
+ALTER TABLE transaction_outbox ADD COLUMN IF NOT EXISTS lease_until timestamp(6) with time zone;
+
+ALTER TABLE transaction_outbox DROP CONSTRAINT IF EXISTS transaction_outbox_status_check;
+ALTER TABLE transaction_outbox
+    ADD CONSTRAINT transaction_outbox_status_check CHECK (status IN ('PENDING', 'IN_FLIGHT', 'PUBLISHED'));
+
+CREATE INDEX IF NOT EXISTS idx_transaction_outbox_lease ON transaction_outbox (status, lease_until);
+
+COMMIT;
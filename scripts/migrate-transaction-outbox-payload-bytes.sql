@@ -0,0 +1,8 @@
+BEGIN;
+
+-- Needed before enabling APP_OUTBOX_PAYLOAD_FORMAT=bytes on an existing database: rows written in that format carry
+-- payload_bytes and leave the jsonb payload empty.
+ALTER TABLE transaction_outbox ADD COLUMN IF NOT EXISTS payload_bytes bytea;
+ALTER TABLE transaction_outbox ALTER COLUMN payload DROP NOT NULL;
+
+COMMIT;
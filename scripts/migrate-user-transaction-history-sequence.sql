@@ -0,0 +1,9 @@
+BEGIN;
+
+-- user_transaction_history.id moved from IDENTITY to a pooled sequence (allocationSize=50). ddl-auto=update creates the
+-- sequence starting at 1, which would collide with ids already handed out by the identity column, so move it past them.
+CREATE SEQUENCE IF NOT EXISTS user_transaction_history_seq INCREMENT BY 50;
+
+SELECT setval('user_transaction_history_seq', COALESCE((SELECT max(id) FROM user_transaction_history), 0) + 50);
+
+COMMIT;
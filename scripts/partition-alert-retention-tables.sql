@@ -0,0 +1,41 @@
+BEGIN;
+
+-- Converts processed_events into a table range-partitioned by hour, as managed by APP_DATA_RETENTION_STRATEGY=partition
+-- with the default HOUR granularity. Run it with alert-service stopped. The primary key has to include the partition
+-- column and becomes (event_id, processed_at). Rows older than a day go to the default partition and are purged by the
+-- next retention run.
+CREATE FUNCTION pg_temp.create_hourly_partitions(parent text) RETURNS void AS $$
+DECLARE
+    bucket timestamptz;
+BEGIN
+    FOR bucket IN
+        SELECT generate_series(
+            date_trunc('hour', now() - interval '1 day', 'UTC'),
+            date_trunc('hour', now(), 'UTC') + interval '3 hours',
+            interval '1 hour'
+        )
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            parent || '_p' || to_char(bucket AT TIME ZONE 'UTC', 'YYYYMMDDHH24'),
+            parent,
+            bucket,
+            bucket + interval '1 hour'
+        );
+    END LOOP;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE processed_events RENAME TO processed_events_unpartitioned;
+CREATE TABLE processed_events (
+    LIKE processed_events_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (processed_at);
+SELECT pg_temp.create_hourly_partitions('processed_events');
+INSERT INTO processed_events SELECT * FROM processed_events_unpartitioned;
+DROP TABLE processed_events_unpartitioned;
+
+ALTER TABLE processed_events ADD PRIMARY KEY (event_id, processed_at);
+CREATE INDEX idx_processed_events_source_partition ON processed_events (source_partition);
+
+COMMIT;
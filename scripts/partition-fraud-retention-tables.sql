@@ -0,0 +1,56 @@
+BEGIN;
+
+-- Converts user_transaction_history and processed_events into tables range-partitioned by hour, as managed by
+-- APP_DATA_RETENTION_STRATEGY=partition with the default HOUR granularity. Run it with fraud-detection-service stopped.
+-- Postgres requires unique constraints on a partitioned table to include the partition column, so uniqueness becomes
+-- (id, occurred_at), (transaction_id, occurred_at) and (event_id, processed_at). Rows older than a day go to the default
+-- partition and are purged by the next retention run.
+CREATE FUNCTION pg_temp.create_hourly_partitions(parent text) RETURNS void AS $$
+DECLARE
+    bucket timestamptz;
+BEGIN
+    FOR bucket IN
+        SELECT generate_series(
+            date_trunc('hour', now() - interval '1 day', 'UTC'),
+            date_trunc('hour', now(), 'UTC') + interval '3 hours',
+            interval '1 hour'
+        )
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            parent || '_p' || to_char(bucket AT TIME ZONE 'UTC', 'YYYYMMDDHH24'),
+            parent,
+            bucket,
+            bucket + interval '1 hour'
+        );
+    END LOOP;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE user_transaction_history RENAME TO user_transaction_history_unpartitioned;
+ALTER TABLE user_transaction_history_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE TABLE user_transaction_history (
+    LIKE user_transaction_history_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (occurred_at);
+SELECT pg_temp.create_hourly_partitions('user_transaction_history');
+INSERT INTO user_transaction_history SELECT * FROM user_transaction_history_unpartitioned;
+DROP TABLE user_transaction_history_unpartitioned;
+
+ALTER TABLE user_transaction_history ADD PRIMARY KEY (id, occurred_at);
+CREATE UNIQUE INDEX idx_history_transaction ON user_transaction_history (transaction_id, occurred_at);
+CREATE INDEX idx_history_user_occurred ON user_transaction_history (user_id, occurred_at);
+CREATE INDEX idx_history_partition_occurred ON user_transaction_history (source_partition, occurred_at);
+
+ALTER TABLE processed_events RENAME TO processed_events_unpartitioned;
+CREATE TABLE processed_events (
+    LIKE processed_events_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (processed_at);
+SELECT pg_temp.create_hourly_partitions('processed_events');
+INSERT INTO processed_events SELECT * FROM processed_events_unpartitioned;
+DROP TABLE processed_events_unpartitioned;
+
+ALTER TABLE processed_events ADD PRIMARY KEY (event_id, processed_at);
+CREATE INDEX idx_processed_events_source_partition ON processed_events (source_partition);
+
+COMMIT;
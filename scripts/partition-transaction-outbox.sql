@@ -0,0 +1,43 @@
+BEGIN;
+
+-- Converts transaction_outbox into a table range-partitioned by created_at hour, as managed by
+-- APP_DATA_RETENTION_STRATEGY=partition with the default HOUR granularity. Run it with transaction-service stopped.
+-- The primary key and the event_id unique index have to include the partition column. Rows older than
+-- APP_OUTBOX_PUBLISHED_RETENTION's default (a day) go to the default partition; published ones are purged by the next run.
+CREATE FUNCTION pg_temp.create_hourly_partitions(parent text) RETURNS void AS $$
+DECLARE
+    bucket timestamptz;
+BEGIN
+    FOR bucket IN
+        SELECT generate_series(
+            date_trunc('hour', now() - interval '1 day', 'UTC'),
+            date_trunc('hour', now(), 'UTC') + interval '3 hours',
+            interval '1 hour'
+        )
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            parent || '_p' || to_char(bucket AT TIME ZONE 'UTC', 'YYYYMMDDHH24'),
+            parent,
+            bucket,
+            bucket + interval '1 hour'
+        );
+    END LOOP;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE transaction_outbox RENAME TO transaction_outbox_unpartitioned;
+CREATE TABLE transaction_outbox (
+    LIKE transaction_outbox_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (created_at);
+SELECT pg_temp.create_hourly_partitions('transaction_outbox');
+INSERT INTO transaction_outbox SELECT * FROM transaction_outbox_unpartitioned;
+DROP TABLE transaction_outbox_unpartitioned;
+
+ALTER TABLE transaction_outbox ADD PRIMARY KEY (id, created_at);
+CREATE UNIQUE INDEX idx_transaction_outbox_event_id ON transaction_outbox (event_id, created_at);
+CREATE INDEX idx_transaction_outbox_pending ON transaction_outbox (status, next_attempt_at, created_at);
+CREATE INDEX idx_transaction_outbox_lease ON transaction_outbox (status, lease_until);
+
+COMMIT;
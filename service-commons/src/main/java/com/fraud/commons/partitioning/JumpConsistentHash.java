@@ -0,0 +1,44 @@
+package com.fraud.commons.partitioning;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lamping &amp; Veach jump consistent hash. Growing the bucket count from n to n + 1 only moves 1/(n + 1) of the keys,
+ * which keeps most users on their partition when the topic is expanded. The producer and the consumer-side affinity
+ * check both use this class, so they can never disagree on the partition of a user.
+ */
+public final class JumpConsistentHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private JumpConsistentHash() {
+    }
+
+    public static int bucket(String key, int buckets) {
+        return bucket(fnv1a64(key), buckets);
+    }
+
+    public static int bucket(long key, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    static long fnv1a64(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte value : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= value & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
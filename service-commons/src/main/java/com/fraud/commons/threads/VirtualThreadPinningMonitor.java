@@ -0,0 +1,96 @@
+package com.fraud.commons.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} JFR event into the {@code jvm_virtual_thread_pinned} timer. The
+ * event fires when a virtual thread blocks while it cannot unmount from its carrier, typically inside a
+ * {@code synchronized} block, and the timer is tagged with the first non-JDK frame so the call site is visible.
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String UNKNOWN_FRAME = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::record);
+        recordingStream.startAsync();
+        stream = recordingStream;
+        log.info("virtual_thread_pinning_monitor_started",
+                kv("event", "virtual_thread_pinning_monitor_started"),
+                kv("outcome", "success"),
+                kv("threshold_ms", threshold.toMillis())
+        );
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private void record(RecordedEvent event) {
+        Timer.builder("jvm_virtual_thread_pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .tag("frame", pinnedFrame(event.getStackTrace()))
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+
+    private static String pinnedFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return UNKNOWN_FRAME;
+        }
+        String topFrame = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            String name = type + "." + frame.getMethod().getName();
+            if (topFrame == null) {
+                topFrame = name;
+            }
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return name;
+            }
+        }
+        return topFrame == null ? UNKNOWN_FRAME : topFrame;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fraud.commons.partitioning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pins the partition of known keys. The producer partitions {@code transactions.created} with these values and the
+ * fraud consumer checks affinity against them, so any change here moves users across partitions.
+ */
+class JumpConsistentHashTest {
+
+    @Test
+    void fnv1aShouldMatchTheReferenceVectors() {
+        assertEquals(0xcbf29ce484222325L, JumpConsistentHash.fnv1a64(""));
+        assertEquals(0xaf63dc4c8601ec8cL, JumpConsistentHash.fnv1a64("a"));
+        assertEquals(0x85944171f73967e8L, JumpConsistentHash.fnv1a64("foobar"));
+    }
+
+    @Test
+    void userKeysShouldLandInTheirKnownBuckets() {
+        assertBuckets("user-1", 1, 11, 12, 47);
+        assertBuckets("user-7", 0, 8, 8, 8);
+        assertBuckets("user-42", 0, 9, 9, 52);
+        assertBuckets("customer-9f3a", 0, 7, 7, 47);
+        assertBuckets("ünïcødé", 1, 5, 5, 32);
+    }
+
+    @Test
+    void numericKeysShouldLandInTheirKnownBuckets() {
+        assertEquals(0, JumpConsistentHash.bucket(0L, 1000));
+        assertEquals(17, JumpConsistentHash.bucket(1L, 18));
+        assertEquals(549, JumpConsistentHash.bucket(1L, 1000));
+        assertEquals(16, JumpConsistentHash.bucket(0xdeadbeefL, 18));
+        assertEquals(285, JumpConsistentHash.bucket(0xdeadbeefL, 1000));
+    }
+
+    @Test
+    void shouldRejectNonPositiveBucketCounts() {
+        assertThrows(IllegalArgumentException.class, () -> JumpConsistentHash.bucket("user-1", 0));
+    }
+
+    private static void assertBuckets(String key, int of3, int of12, int of18, int of64) {
+        assertEquals(of3, JumpConsistentHash.bucket(key, 3), key + " of 3");
+        assertEquals(of12, JumpConsistentHash.bucket(key, 12), key + " of 12");
+        assertEquals(of18, JumpConsistentHash.bucket(key, 18), key + " of 18");
+        assertEquals(of64, JumpConsistentHash.bucket(key, 64), key + " of 64");
+    }
+}
@@ -0,0 +1,53 @@
+package com.fraud.commons.threads;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void shouldRecordVirtualThreadBlockedInsideSynchronizedBlock() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ZERO);
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+
+            Timer timer = awaitPinnedTimer(meterRegistry, Duration.ofSeconds(10));
+            assertNotNull(timer);
+            assertEquals(getClass().getName() + ".sleepWhileHoldingLock", timer.getId().getTag("frame"));
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private void sleepWhileHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Timer awaitPinnedTimer(SimpleMeterRegistry meterRegistry, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            Timer timer = meterRegistry.find("jvm_virtual_thread_pinned").timer();
+            if (timer != null) {
+                return timer;
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.fraud.transaction.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fraud.transaction.service.TransactionBatchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch ingestion for bursty callers. Accepts a JSON array or NDJSON (one request per line); both are read item by item
+ * as the body streams in, so an oversized batch is rejected once it passes {@code max-items} rather than after the
+ * whole body has been parsed. Every item is validated on its own and the valid ones are stored together in one
+ * transaction.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class TransactionBatchController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final TransactionBatchService transactionBatchService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final int maxItems;
+
+    public TransactionBatchController(
+            TransactionBatchService transactionBatchService,
+            ObjectMapper objectMapper,
+            @Value("${app.transactions.batch.max-items:1000}") int maxItems
+    ) {
+        this.transactionBatchService = transactionBatchService;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(TransactionRequest.class);
+        this.maxItems = maxItems;
+    }
+
+    @PostMapping(value = "/transactions/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TransactionBatchResponse createTransactions(InputStream body) throws IOException {
+        return transactionBatchService.createTransactions(fromJsonArray(body), "api");
+    }
+
+    @PostMapping(value = "/transactions/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public TransactionBatchResponse createTransactionsFromNdjson(InputStream body) throws IOException {
+        return transactionBatchService.createTransactions(fromNdjson(body), "api");
+    }
+
+    @PostMapping(value = "/webhooks/transactions/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TransactionBatchResponse createTransactionsFromWebhook(InputStream body) throws IOException {
+        return transactionBatchService.createTransactions(fromJsonArray(body), "webhook");
+    }
+
+    @PostMapping(value = "/webhooks/transactions/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public TransactionBatchResponse createTransactionsFromWebhookNdjson(InputStream body) throws IOException {
+        return transactionBatchService.createTransactions(fromNdjson(body), "webhook");
+    }
+
+    private List<TransactionBatchItem> fromJsonArray(InputStream body) throws IOException {
+        List<TransactionBatchItem> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch body must be a JSON array");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                int index = items.size();
+                ensureWithinLimit(index + 1);
+                // Only the current item is held as a tree; a malformed one is reported without losing the rest.
+                JsonNode item = parser.readValueAsTree();
+                try {
+                    items.add(TransactionBatchItem.parsed(index, objectMapper.treeToValue(item, TransactionRequest.class)));
+                } catch (IOException | IllegalArgumentException ex) {
+                    items.add(TransactionBatchItem.unreadable(index, "item is not a valid transaction request"));
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch body is not valid JSON", ex);
+        }
+        return items;
+    }
+
+    private List<TransactionBatchItem> fromNdjson(InputStream body) throws IOException {
+        List<TransactionBatchItem> items = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int index = items.size();
+            ensureWithinLimit(index + 1);
+            try {
+                items.add(TransactionBatchItem.parsed(index, requestReader.readValue(line)));
+            } catch (IOException ex) {
+                items.add(TransactionBatchItem.unreadable(index, "line is not a valid transaction request"));
+            }
+        }
+        return items;
+    }
+
+    private void ensureWithinLimit(int size) {
+        if (size > maxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Batch exceeds " + maxItems + " items");
+        }
+    }
+}
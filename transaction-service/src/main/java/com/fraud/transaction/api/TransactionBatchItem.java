@@ -0,0 +1,15 @@
+package com.fraud.transaction.api;
+
+/**
+ * One entry of a batch request: either the parsed request or the reason it could not be read.
+ */
+public record TransactionBatchItem(int index, TransactionRequest request, String parseError) {
+
+    public static TransactionBatchItem parsed(int index, TransactionRequest request) {
+        return new TransactionBatchItem(index, request, null);
+    }
+
+    public static TransactionBatchItem unreadable(int index, String parseError) {
+        return new TransactionBatchItem(index, null, parseError);
+    }
+}
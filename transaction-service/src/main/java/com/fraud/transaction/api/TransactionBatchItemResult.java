@@ -0,0 +1,22 @@
+package com.fraud.transaction.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionBatchItemResult(
+        int index,
+        String status,
+        TransactionResponse transaction,
+        Map<String, String> errors
+) {
+
+    public static TransactionBatchItemResult created(int index, TransactionResponse transaction) {
+        return new TransactionBatchItemResult(index, "created", transaction, null);
+    }
+
+    public static TransactionBatchItemResult rejected(int index, Map<String, String> errors) {
+        return new TransactionBatchItemResult(index, "rejected", null, errors);
+    }
+}
@@ -0,0 +1,11 @@
+package com.fraud.transaction.api;
+
+import java.util.List;
+
+public record TransactionBatchResponse(
+        int received,
+        int created,
+        int rejected,
+        List<TransactionBatchItemResult> items
+) {
+}
@@ -0,0 +1,51 @@
+package com.fraud.transaction.config;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+/**
+ * Adds a byte-array producer for outbox rows stored with {@code app.outbox.payload-format=bytes}. Declaring any
+ * producer factory or template makes Boot back off from its own, so the default JSON ones are declared here as well.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.outbox.payload-format", havingValue = "bytes")
+public class KafkaOutboxPayloadConfig {
+
+    @Bean
+    public ProducerFactory<?, ?> kafkaProducerFactory(KafkaProperties kafkaProperties) {
+        return new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null));
+    }
+
+    @Bean
+    public KafkaTemplate<?, ?> kafkaTemplate(ProducerFactory<Object, Object> kafkaProducerFactory, KafkaProperties kafkaProperties) {
+        KafkaTemplate<Object, Object> kafkaTemplate = new KafkaTemplate<>(kafkaProducerFactory);
+        kafkaTemplate.setObservationEnabled(kafkaProperties.getTemplate().isObservationEnabled());
+        return kafkaTemplate;
+    }
+
+    @Bean
+    public ProducerFactory<String, byte[]> serializedPayloadProducerFactory(KafkaProperties kafkaProperties) {
+        return new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(null),
+                new StringSerializer(),
+                new ByteArraySerializer()
+        );
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> serializedPayloadKafkaTemplate(
+            ProducerFactory<String, byte[]> serializedPayloadProducerFactory,
+            KafkaProperties kafkaProperties
+    ) {
+        KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(serializedPayloadProducerFactory);
+        kafkaTemplate.setObservationEnabled(kafkaProperties.getTemplate().isObservationEnabled());
+        return kafkaTemplate;
+    }
+}
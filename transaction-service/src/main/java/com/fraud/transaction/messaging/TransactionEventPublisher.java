@@ -2,6 +2,7 @@ package com.fraud.transaction.messaging;
 
 import com.fraud.transaction.events.TransactionCreatedEvent;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
@@ -15,23 +16,33 @@ import java.util.concurrent.TimeoutException;
 public class TransactionEventPublisher {
 
     private final KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> serializedKafkaTemplate;
+    private final TransactionPartitioner partitioner;
     private final String topic;
 
     public TransactionEventPublisher(
             KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate,
+            ObjectProvider<KafkaTemplate<String, byte[]>> serializedKafkaTemplate,
+            TransactionPartitioner partitioner,
             @Value("${app.kafka.topics.transactions-created}") String topic
     ) {
         this.kafkaTemplate = kafkaTemplate;
+        this.serializedKafkaTemplate = serializedKafkaTemplate.getIfAvailable();
+        this.partitioner = partitioner;
         this.topic = topic;
     }
 
     public void publish(TransactionCreatedEvent event) {
-        publish(topic, event.transactionId(), event);
+        publish(topic, partitioner.key(event), partitioner.partition(event), event);
     }
 
     public void publish(String topic, String key, TransactionCreatedEvent event) {
+        publish(topic, key, null, event);
+    }
+
+    public void publish(String topic, String key, Integer partition, TransactionCreatedEvent event) {
         try {
-            publishAsync(topic, key, event).get(5, TimeUnit.SECONDS);
+            publishAsync(topic, key, partition, event).get(5, TimeUnit.SECONDS);
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Kafka publish interrupted", ex);
@@ -41,9 +52,26 @@ public class TransactionEventPublisher {
     }
 
     public CompletableFuture<Void> publishAsync(String topic, String key, TransactionCreatedEvent event) {
-        ProducerRecord<String, TransactionCreatedEvent> record = new ProducerRecord<>(topic, key, event);
+        return publishAsync(topic, key, null, event);
+    }
+
+    public CompletableFuture<Void> publishAsync(String topic, String key, Integer partition, TransactionCreatedEvent event) {
+        ProducerRecord<String, TransactionCreatedEvent> record = new ProducerRecord<>(topic, partition, key, event);
         return kafkaTemplate.send(record)
                 .orTimeout(5, TimeUnit.SECONDS)
                 .thenApply(ignored -> null);
     }
+
+    /**
+     * Sends a value that was already serialized when it was enqueued in the outbox.
+     */
+    public CompletableFuture<Void> publishSerializedAsync(String topic, String key, Integer partition, byte[] payload) {
+        if (serializedKafkaTemplate == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Serialized outbox payloads require app.outbox.payload-format=bytes"));
+        }
+        return serializedKafkaTemplate.send(new ProducerRecord<>(topic, partition, key, payload))
+                .orTimeout(5, TimeUnit.SECONDS)
+                .thenApply(ignored -> null);
+    }
 }
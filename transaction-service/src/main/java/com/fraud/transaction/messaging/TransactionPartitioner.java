@@ -0,0 +1,44 @@
+package com.fraud.transaction.messaging;
+
+import com.fraud.commons.partitioning.JumpConsistentHash;
+import com.fraud.transaction.events.TransactionCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the record key and, for {@link PartitioningStrategy#USER_HASH}, the explicit partition used to publish
+ * {@code transactions.created}. Keying by user keeps all of a user's transactions on one partition so the fraud
+ * service can hold per-user state locally.
+ */
+@Component
+public class TransactionPartitioner {
+
+    private final PartitioningStrategy strategy;
+    private final int partitions;
+
+    public TransactionPartitioner(
+            @Value("${app.kafka.partitioning.strategy:transaction}") String strategy,
+            @Value("${app.kafka.partitions:18}") int partitions
+    ) {
+        this.strategy = PartitioningStrategy.from(strategy);
+        this.partitions = partitions;
+    }
+
+    public String key(TransactionCreatedEvent event) {
+        return switch (strategy) {
+            case TRANSACTION -> event.transactionId();
+            case USER, USER_HASH -> event.userId();
+        };
+    }
+
+    public Integer partition(TransactionCreatedEvent event) {
+        if (strategy != PartitioningStrategy.USER_HASH) {
+            return null;
+        }
+        return JumpConsistentHash.bucket(event.userId(), partitions);
+    }
+
+    public PartitioningStrategy strategy() {
+        return strategy;
+    }
+}
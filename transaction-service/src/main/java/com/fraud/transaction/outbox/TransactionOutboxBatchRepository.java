@@ -0,0 +1,48 @@
+package com.fraud.transaction.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+public class TransactionOutboxBatchRepository {
+
+    private static final String INSERT = """
+            INSERT INTO transaction_outbox (id, event_id, topic, event_key, event_partition, payload, payload_bytes,
+                                            trace_parent, baggage, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionOutboxBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts every pending event with one JDBC batch, joining the caller's transaction.
+     */
+    public void insertAll(List<TransactionOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getId());
+            statement.setString(2, event.getEventId());
+            statement.setString(3, event.getTopic());
+            statement.setString(4, event.getEventKey());
+            statement.setObject(5, event.getPartition(), Types.INTEGER);
+            statement.setString(6, event.getPayload() != null ? event.getPayload().toString() : null);
+            statement.setBytes(7, event.getPayloadBytes());
+            statement.setString(8, event.getTraceParent());
+            statement.setString(9, event.getBaggage());
+            statement.setString(10, event.getStatus().name());
+            statement.setInt(11, event.getAttempts());
+            statement.setTimestamp(12, Timestamp.from(event.getNextAttemptAt()));
+            statement.setTimestamp(13, Timestamp.from(event.getCreatedAt()));
+        });
+    }
+}
@@ -7,9 +7,13 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
@@ -18,10 +22,11 @@ import java.time.Instant;
         name = "transaction_outbox",
         indexes = {
                 @Index(name = "idx_transaction_outbox_pending", columnList = "status,next_attempt_at,created_at"),
+                @Index(name = "idx_transaction_outbox_lease", columnList = "status,lease_until"),
                 @Index(name = "idx_transaction_outbox_event_id", columnList = "event_id", unique = true)
         }
 )
-public class TransactionOutboxEvent {
+public class TransactionOutboxEvent implements Persistable<String> {
 
     @Id
     private String id;
@@ -35,10 +40,19 @@ public class TransactionOutboxEvent {
     @Column(name = "event_key", nullable = false, updatable = false)
     private String eventKey;
 
+    @Column(name = "event_partition", updatable = false)
+    private Integer partition;
+
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "payload", nullable = false, columnDefinition = "jsonb", updatable = false)
+    @Column(name = "payload", columnDefinition = "jsonb", updatable = false)
     private JsonNode payload;
 
+    /**
+     * Exact record value bytes, set instead of {@link #payload} when {@code app.outbox.payload-format=bytes}.
+     */
+    @Column(name = "payload_bytes", updatable = false)
+    private byte[] payloadBytes;
+
     @Column(name = "trace_parent", length = 128, updatable = false)
     private String traceParent;
 
@@ -64,6 +78,12 @@ public class TransactionOutboxEvent {
     @Column(name = "last_error", length = 512)
     private String lastError;
 
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Transient
+    private boolean isNew = true;
+
     protected TransactionOutboxEvent() {
     }
 
@@ -72,7 +92,9 @@ public class TransactionOutboxEvent {
             String eventId,
             String topic,
             String eventKey,
+            Integer partition,
             JsonNode payload,
+            byte[] payloadBytes,
             String traceParent,
             String baggage,
             Instant createdAt
@@ -81,7 +103,9 @@ public class TransactionOutboxEvent {
         this.eventId = eventId;
         this.topic = topic;
         this.eventKey = eventKey;
+        this.partition = partition;
         this.payload = payload;
+        this.payloadBytes = payloadBytes;
         this.traceParent = traceParent;
         this.baggage = baggage;
         this.status = TransactionOutboxStatus.PENDING;
@@ -100,13 +124,71 @@ public class TransactionOutboxEvent {
             String baggage,
             Instant createdAt
     ) {
-        return new TransactionOutboxEvent(id, eventId, topic, eventKey, payload, traceParent, baggage, createdAt);
+        return pending(id, eventId, topic, eventKey, null, payload, traceParent, baggage, createdAt);
+    }
+
+    public static TransactionOutboxEvent pending(
+            String id,
+            String eventId,
+            String topic,
+            String eventKey,
+            Integer partition,
+            JsonNode payload,
+            String traceParent,
+            String baggage,
+            Instant createdAt
+    ) {
+        return new TransactionOutboxEvent(
+                id, eventId, topic, eventKey, partition, payload, null, traceParent, baggage, createdAt
+        );
+    }
+
+    public static TransactionOutboxEvent pendingSerialized(
+            String id,
+            String eventId,
+            String topic,
+            String eventKey,
+            Integer partition,
+            byte[] payloadBytes,
+            String traceParent,
+            String baggage,
+            Instant createdAt
+    ) {
+        return new TransactionOutboxEvent(
+                id, eventId, topic, eventKey, partition, null, payloadBytes, traceParent, baggage, createdAt
+        );
+    }
+
+    /**
+     * Rebuilds a row claimed through {@link TransactionOutboxLeaseRepository}. The instance is never attached to a
+     * persistence context; its status changes are written back in bulk by the relay.
+     */
+    static TransactionOutboxEvent claimed(
+            String id,
+            String eventId,
+            String topic,
+            String eventKey,
+            Integer partition,
+            JsonNode payload,
+            byte[] payloadBytes,
+            String traceParent,
+            String baggage,
+            int attempts,
+            Instant createdAt
+    ) {
+        TransactionOutboxEvent event = new TransactionOutboxEvent(
+                id, eventId, topic, eventKey, partition, payload, payloadBytes, traceParent, baggage, createdAt
+        );
+        event.status = TransactionOutboxStatus.IN_FLIGHT;
+        event.attempts = attempts;
+        return event;
     }
 
     public void markPublished(Instant publishedAt) {
         this.status = TransactionOutboxStatus.PUBLISHED;
         this.publishedAt = publishedAt;
         this.lastError = null;
+        this.leaseUntil = null;
     }
 
     public void markFailed(String error, Instant nextAttemptAt) {
@@ -114,8 +196,10 @@ public class TransactionOutboxEvent {
         this.status = TransactionOutboxStatus.PENDING;
         this.nextAttemptAt = nextAttemptAt;
         this.lastError = truncate(error);
+        this.leaseUntil = null;
     }
 
+    @Override
     public String getId() {
         return id;
     }
@@ -132,10 +216,18 @@ public class TransactionOutboxEvent {
         return eventKey;
     }
 
+    public Integer getPartition() {
+        return partition;
+    }
+
     public JsonNode getPayload() {
         return payload;
     }
 
+    public byte[] getPayloadBytes() {
+        return payloadBytes;
+    }
+
     public String getTraceParent() {
         return traceParent;
     }
@@ -164,6 +256,14 @@ public class TransactionOutboxEvent {
         return publishedAt;
     }
 
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
     private String truncate(String value) {
         if (value == null || value.isBlank()) {
             return null;
@@ -173,4 +273,15 @@ public class TransactionOutboxEvent {
         }
         return value.substring(0, 512);
     }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
@@ -0,0 +1,186 @@
+package com.fraud.transaction.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Plain JDBC access for the lease claim mode. Every method is a single auto-committed statement, so row locks only
+ * last as long as the statement itself.
+ */
+@Repository
+public class TransactionOutboxLeaseRepository {
+
+    private static final String CLAIM_BATCH = """
+            UPDATE transaction_outbox
+            SET status = 'IN_FLIGHT', lease_until = ?
+            WHERE id IN (
+                SELECT id
+                FROM transaction_outbox
+                WHERE (status = 'PENDING' AND next_attempt_at <= ?)
+                   OR (status = 'IN_FLIGHT' AND lease_until <= ?)
+                ORDER BY created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, event_id, topic, event_key, event_partition, payload::text, payload_bytes, trace_parent,
+                      baggage, attempts, created_at
+            """;
+
+    private static final String CLAIM_SHARD_BATCH = """
+            WITH shard_lock AS (
+                SELECT pg_try_advisory_xact_lock(hashtext('transaction_outbox'), ?) AS acquired
+            )
+            UPDATE transaction_outbox
+            SET status = 'IN_FLIGHT', lease_until = ?
+            WHERE id IN (
+                SELECT outbox.id
+                FROM transaction_outbox outbox, shard_lock
+                WHERE shard_lock.acquired
+                  AND ((outbox.status = 'PENDING' AND outbox.next_attempt_at <= ?)
+                    OR (outbox.status = 'IN_FLIGHT' AND outbox.lease_until <= ?))
+                  AND (hashtext(outbox.event_key) & 2147483647) % ? = ?
+                  AND NOT EXISTS (
+                      SELECT 1
+                      FROM transaction_outbox leased
+                      WHERE leased.status = 'IN_FLIGHT'
+                        AND leased.lease_until > ?
+                        AND (hashtext(leased.event_key) & 2147483647) % ? = ?
+                  )
+                ORDER BY outbox.created_at
+                LIMIT ?
+                FOR UPDATE OF outbox SKIP LOCKED
+            )
+            RETURNING id, event_id, topic, event_key, event_partition, payload::text, payload_bytes, trace_parent,
+                      baggage, attempts, created_at
+            """;
+
+    private static final String MARK_PUBLISHED = """
+            UPDATE transaction_outbox
+            SET status = 'PUBLISHED', published_at = ?, lease_until = NULL, last_error = NULL
+            WHERE id = ANY(?)
+            """;
+
+    private static final String MARK_FAILED = """
+            UPDATE transaction_outbox AS outbox
+            SET status = 'PENDING', attempts = outbox.attempts + 1, next_attempt_at = ?, lease_until = NULL,
+                last_error = failed.last_error
+            FROM unnest(?::text[], ?::text[]) AS failed(id, last_error)
+            WHERE outbox.id = failed.id
+              AND outbox.status = 'IN_FLIGHT'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TransactionOutboxLeaseRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Moves up to {@code batchSize} due rows to {@code IN_FLIGHT} until {@code leaseUntil} and returns them. Rows whose
+     * lease expired (the relay holding them died or stalled) are claimable again.
+     */
+    public List<TransactionOutboxEvent> claimBatch(Instant now, Instant leaseUntil, int batchSize) {
+        return jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(CLAIM_BATCH);
+                    statement.setTimestamp(1, Timestamp.from(leaseUntil));
+                    statement.setTimestamp(2, Timestamp.from(now));
+                    statement.setTimestamp(3, Timestamp.from(now));
+                    statement.setInt(4, batchSize);
+                    return statement;
+                },
+                (resultSet, rowNum) -> mapClaimed(resultSet)
+        );
+    }
+
+    /**
+     * Claims a batch from one key-hash shard. The advisory lock serialises claims on the shard and the shard is skipped
+     * while it still has an unexpired lease, so at most one batch per shard is in flight and per-key order holds.
+     */
+    public List<TransactionOutboxEvent> claimShardBatch(
+            Instant now,
+            Instant leaseUntil,
+            int shardCount,
+            int shard,
+            int batchSize
+    ) {
+        return jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(CLAIM_SHARD_BATCH);
+                    statement.setInt(1, shard);
+                    statement.setTimestamp(2, Timestamp.from(leaseUntil));
+                    statement.setTimestamp(3, Timestamp.from(now));
+                    statement.setTimestamp(4, Timestamp.from(now));
+                    statement.setInt(5, shardCount);
+                    statement.setInt(6, shard);
+                    statement.setTimestamp(7, Timestamp.from(now));
+                    statement.setInt(8, shardCount);
+                    statement.setInt(9, shard);
+                    statement.setInt(10, batchSize);
+                    return statement;
+                },
+                (resultSet, rowNum) -> mapClaimed(resultSet)
+        );
+    }
+
+    public int markPublished(List<String> ids, Instant publishedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MARK_PUBLISHED);
+            statement.setTimestamp(1, Timestamp.from(publishedAt));
+            statement.setArray(2, connection.createArrayOf("text", ids.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * Returns failed rows to {@code PENDING}. Only rows still {@code IN_FLIGHT} are touched so a late failure never
+     * overwrites a row that another relay published after our lease expired.
+     */
+    public int markFailed(List<String> ids, List<String> errors, Instant nextAttemptAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MARK_FAILED);
+            statement.setTimestamp(1, Timestamp.from(nextAttemptAt));
+            statement.setArray(2, connection.createArrayOf("text", ids.toArray()));
+            statement.setArray(3, connection.createArrayOf("text", errors.toArray()));
+            return statement;
+        });
+    }
+
+    private TransactionOutboxEvent mapClaimed(ResultSet resultSet) throws SQLException {
+        try {
+            String payload = resultSet.getString("payload");
+            return TransactionOutboxEvent.claimed(
+                    resultSet.getString("id"),
+                    resultSet.getString("event_id"),
+                    resultSet.getString("topic"),
+                    resultSet.getString("event_key"),
+                    resultSet.getObject("event_partition", Integer.class),
+                    payload == null ? null : objectMapper.readTree(payload),
+                    resultSet.getBytes("payload_bytes"),
+                    resultSet.getString("trace_parent"),
+                    resultSet.getString("baggage"),
+                    resultSet.getInt("attempts"),
+                    resultSet.getTimestamp("created_at").toInstant()
+            );
+        } catch (JsonProcessingException ex) {
+            throw new SQLException("Unreadable outbox payload for row " + resultSet.getString("id"), ex);
+        }
+    }
+}
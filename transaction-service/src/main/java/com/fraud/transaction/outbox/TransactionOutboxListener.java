@@ -0,0 +1,155 @@
+package com.fraud.transaction.outbox;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Event-driven relay trigger: keeps a dedicated connection (outside the pool) listening on the outbox channel and relays
+ * as soon as a committed enqueue notifies it. If nothing arrives within the fallback interval it relays anyway, which
+ * picks up retries whose {@code next_attempt_at} has passed and anything missed while reconnecting.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay-mode", havingValue = "notify")
+public class TransactionOutboxListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionOutboxListener.class);
+
+    private final TransactionOutboxRelayService relayService;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final Duration fallbackInterval;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public TransactionOutboxListener(
+            TransactionOutboxRelayService relayService,
+            DataSourceProperties dataSourceProperties,
+            @Value("${app.outbox.notify.channel:transaction_outbox}") String channel,
+            @Value("${app.outbox.notify.fallback-interval:PT5S}") Duration fallbackInterval,
+            @Value("${app.outbox.notify.reconnect-delay:PT2S}") Duration reconnectDelay
+    ) {
+        this.relayService = relayService;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.fallbackInterval = fallbackInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("outbox-listener").daemon(true).start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(fallbackInterval.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listenConnection = openListenConnection()) {
+                connection = listenConnection;
+                log.info("transaction_outbox_listener_connected",
+                        kv("event", "transaction_outbox_listener_connected"),
+                        kv("outcome", "success"),
+                        kv("channel", channel)
+                );
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                // Catch up on anything committed while we were not listening.
+                relayUntilDrained();
+                while (running) {
+                    pgConnection.getNotifications((int) fallbackInterval.toMillis());
+                    relayUntilDrained();
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    return;
+                }
+                log.error("transaction_outbox_listener_failed",
+                        kv("event", "transaction_outbox_listener_failed"),
+                        kv("outcome", "failed"),
+                        kv("channel", channel),
+                        kv("error_class", ex.getClass().getSimpleName()),
+                        kv("error_message", ex.getMessage())
+                );
+                sleep(reconnectDelay);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Connection listenConnection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+        listenConnection.setAutoCommit(true);
+        try (Statement statement = listenConnection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+        return listenConnection;
+    }
+
+    private void relayUntilDrained() {
+        while (running && relayService.relayPendingEvents() >= relayService.batchSize()) {
+            // A full batch means more rows may be due; keep going instead of waiting for the next notification.
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Closing only unblocks getNotifications during shutdown.
+        }
+    }
+}
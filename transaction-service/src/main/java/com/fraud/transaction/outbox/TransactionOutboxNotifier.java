@@ -0,0 +1,41 @@
+package com.fraud.transaction.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Issues {@code NOTIFY} on the outbox channel from inside the enqueueing transaction. Postgres only delivers it once the
+ * transaction commits (and folds repeated notifications of one transaction into one), so the relay never wakes up
+ * before the row is visible.
+ */
+@Component
+public class TransactionOutboxNotifier {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String notifyStatement;
+
+    public TransactionOutboxNotifier(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.outbox.relay-mode:poll}") String relayMode,
+            @Value("${app.outbox.notify.channel:transaction_outbox}") String channel
+    ) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid outbox notification channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = "notify".equalsIgnoreCase(relayMode);
+        this.notifyStatement = "NOTIFY " + channel;
+    }
+
+    public void notifyPending() {
+        if (enabled) {
+            jdbcTemplate.execute(notifyStatement);
+        }
+    }
+}
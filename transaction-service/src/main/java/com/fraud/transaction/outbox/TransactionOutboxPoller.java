@@ -0,0 +1,27 @@
+package com.fraud.transaction.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default relay trigger: polls the outbox at a fixed delay.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay-mode", havingValue = "poll", matchIfMissing = true)
+public class TransactionOutboxPoller {
+
+    private final TransactionOutboxRelayService relayService;
+
+    public TransactionOutboxPoller(TransactionOutboxRelayService relayService) {
+        this.relayService = relayService;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.outbox.relay-interval-ms:200}",
+            initialDelayString = "${app.outbox.relay-initial-delay-ms:1000}"
+    )
+    public void poll() {
+        relayService.relayPendingEvents();
+    }
+}
@@ -7,22 +7,28 @@ import com.fraud.transaction.service.TransactionMetrics;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.propagation.Propagator;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
@@ -30,73 +36,174 @@ import static net.logstash.logback.argument.StructuredArguments.kv;
 public class TransactionOutboxRelayService {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionOutboxRelayService.class);
+    private static final int UNSHARDED = -1;
 
     private final TransactionOutboxRepository transactionOutboxRepository;
+    private final TransactionOutboxLeaseRepository leaseRepository;
     private final TransactionEventPublisher transactionEventPublisher;
     private final TransactionMetrics transactionMetrics;
     private final ObjectMapper objectMapper;
     private final Tracer tracer;
     private final Propagator propagator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean leaseMode;
     private final int batchSize;
     private final Duration retryDelay;
-    private final Duration publishedRetention;
+    private final Duration leaseDuration;
+    private final int shardCount;
+    private final ExecutorService shardExecutor;
 
     public TransactionOutboxRelayService(
             TransactionOutboxRepository transactionOutboxRepository,
+            TransactionOutboxLeaseRepository leaseRepository,
             TransactionEventPublisher transactionEventPublisher,
             TransactionMetrics transactionMetrics,
             ObjectMapper objectMapper,
             Tracer tracer,
             Propagator propagator,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.outbox.claim-mode:lock}") String claimMode,
             @Value("${app.outbox.relay-batch-size:200}") int batchSize,
             @Value("${app.outbox.retry-delay:PT2S}") Duration retryDelay,
-            @Value("${app.outbox.published-retention:PT24H}") Duration publishedRetention
+            @Value("${app.outbox.lease-duration:PT30S}") Duration leaseDuration,
+            @Value("${app.outbox.shards:1}") int shardCount,
+            @Value("${app.outbox.relay-workers:0}") int relayWorkers,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
     ) {
+        if (!"lock".equalsIgnoreCase(claimMode) && !"lease".equalsIgnoreCase(claimMode)) {
+            throw new IllegalArgumentException("Unsupported outbox claim mode: " + claimMode);
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("app.outbox.shards must be at least 1");
+        }
         this.transactionOutboxRepository = transactionOutboxRepository;
+        this.leaseRepository = leaseRepository;
         this.transactionEventPublisher = transactionEventPublisher;
         this.transactionMetrics = transactionMetrics;
         this.objectMapper = objectMapper;
         this.tracer = tracer;
         this.propagator = propagator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseMode = "lease".equalsIgnoreCase(claimMode);
         this.batchSize = batchSize;
         this.retryDelay = retryDelay;
-        this.publishedRetention = publishedRetention;
+        this.leaseDuration = leaseDuration;
+        this.shardCount = shardCount;
+        this.shardExecutor = shardCount == 1
+                ? null
+                : newShardExecutor(relayWorkers > 0 ? relayWorkers : shardCount, virtualThreads);
+    }
+
+    /**
+     * Publishes one batch of due events and returns how many rows it claimed; a full batch means more may be waiting.
+     * Triggered by {@link TransactionOutboxPoller} or {@link TransactionOutboxListener} depending on the relay mode.
+     */
+    public int relayPendingEvents() {
+        if (shardExecutor == null) {
+            return relayShard(UNSHARDED);
+        }
+        return relayAllShards();
     }
 
-    @Scheduled(
-            fixedDelayString = "${app.outbox.relay-interval-ms:200}",
-            initialDelayString = "${app.outbox.relay-initial-delay-ms:1000}"
-    )
-    @Transactional
-    public void relayPendingEvents() {
+    /**
+     * Relays every key-hash shard in parallel on the worker pool. Shards owned by another relay (this or another
+     * replica) come back empty. Returns the largest per-shard batch so callers keep draining while any shard was full.
+     */
+    private int relayAllShards() {
+        List<Future<Integer>> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            results.add(shardExecutor.submit(() -> relayShard(current)));
+        }
+        int largestBatch = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            try {
+                largestBatch = Math.max(largestBatch, results.get(shard).get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return largestBatch;
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                log.error("transaction_outbox_shard_failed",
+                        kv("event", "transaction_outbox_shard_failed"),
+                        kv("outcome", "failed"),
+                        kv("shard", shard),
+                        kv("error_class", cause.getClass().getSimpleName()),
+                        kv("error_message", resolveErrorMessage(cause))
+                );
+            }
+        }
+        return largestBatch;
+    }
+
+    private int relayShard(int shard) {
+        if (leaseMode) {
+            return relayLeasedBatch(shard);
+        }
+        Integer claimed = transactionTemplate.execute(status -> relayLockedBatch(shard));
+        return claimed == null ? 0 : claimed;
+    }
+
+    /**
+     * Lock mode: the row locks and the DB transaction stay open until every Kafka ack arrives, and the status changes
+     * are flushed by dirty checking on commit.
+     */
+    private int relayLockedBatch(int shard) {
         Instant now = Instant.now();
-        List<TransactionOutboxEvent> pendingBatch = transactionOutboxRepository.lockPendingBatch(now, batchSize);
+        List<TransactionOutboxEvent> pendingBatch = shard == UNSHARDED
+                ? transactionOutboxRepository.lockPendingBatch(now, batchSize)
+                : transactionOutboxRepository.lockPendingShardBatch(now, shardCount, shard, batchSize);
         if (pendingBatch.isEmpty()) {
-            return;
+            return 0;
+        }
+        BatchResult result = publishBatch(pendingBatch);
+        logBatchProcessed(shard, pendingBatch.size(), result);
+        return pendingBatch.size();
+    }
+
+    /**
+     * Lease mode: the claim is its own short statement, publishing happens outside any DB transaction and the outcome
+     * is written back with one bulk update per status. A relay that dies mid-batch leaves its rows to be reclaimed once
+     * the lease expires, so the lease must comfortably exceed the publish timeout.
+     */
+    private int relayLeasedBatch(int shard) {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plus(leaseDuration);
+        List<TransactionOutboxEvent> claimedBatch = shard == UNSHARDED
+                ? leaseRepository.claimBatch(now, leaseUntil, batchSize)
+                : leaseRepository.claimShardBatch(now, leaseUntil, shardCount, shard, batchSize);
+        if (claimedBatch.isEmpty()) {
+            return 0;
         }
+        BatchResult result = publishBatch(claimedBatch);
+        leaseRepository.markPublished(
+                result.published().stream().map(TransactionOutboxEvent::getId).toList(),
+                Instant.now()
+        );
+        leaseRepository.markFailed(
+                result.failed().stream().map(TransactionOutboxEvent::getId).toList(),
+                result.failed().stream().map(TransactionOutboxEvent::getLastError).toList(),
+                Instant.now().plus(retryDelay)
+        );
+        logBatchProcessed(shard, claimedBatch.size(), result);
+        return claimedBatch.size();
+    }
 
-        int publishedCount = 0;
-        int failedCount = 0;
-        List<PendingPublication> pendingPublications = new ArrayList<>(pendingBatch.size());
+    private BatchResult publishBatch(List<TransactionOutboxEvent> batch) {
+        List<TransactionOutboxEvent> published = new ArrayList<>(batch.size());
+        List<TransactionOutboxEvent> failed = new ArrayList<>();
+        List<PendingPublication> pendingPublications = new ArrayList<>(batch.size());
 
-        for (TransactionOutboxEvent outboxEvent : pendingBatch) {
+        for (TransactionOutboxEvent outboxEvent : batch) {
             long publishStartedNanos = System.nanoTime();
             try {
-                TransactionCreatedEvent event = objectMapper.treeToValue(outboxEvent.getPayload(), TransactionCreatedEvent.class);
-                CompletableFuture<Void> publishFuture;
-                try (TracingScope ignored = openTracingScope(outboxEvent, event)) {
-                    publishFuture = transactionEventPublisher.publishAsync(
-                            outboxEvent.getTopic(),
-                            outboxEvent.getEventKey(),
-                            event
-                    );
-                }
+                CompletableFuture<Void> publishFuture = publish(outboxEvent);
                 pendingPublications.add(new PendingPublication(outboxEvent, publishFuture, publishStartedNanos));
             } catch (Exception ex) {
                 long publishDurationMs = (System.nanoTime() - publishStartedNanos) / 1_000_000;
                 transactionMetrics.recordTransactionEventPublished("failed", publishDurationMs);
                 outboxEvent.markFailed(resolveErrorMessage(ex), Instant.now().plus(retryDelay));
-                failedCount++;
+                failed.add(outboxEvent);
                 logPublishFailed(outboxEvent, ex);
             }
         }
@@ -117,49 +224,82 @@ public class TransactionOutboxRelayService {
                     publication.publishFuture().join();
                     transactionMetrics.recordTransactionEventPublished("success", publishDurationMs);
                     publication.outboxEvent().markPublished(Instant.now());
-                    publishedCount++;
+                    published.add(publication.outboxEvent());
                 } catch (CompletionException ex) {
                     Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
                     transactionMetrics.recordTransactionEventPublished("failed", publishDurationMs);
                     publication.outboxEvent().markFailed(resolveErrorMessage(cause), Instant.now().plus(retryDelay));
-                    failedCount++;
+                    failed.add(publication.outboxEvent());
                     logPublishFailed(publication.outboxEvent(), cause);
                 }
             }
         }
+        return new BatchResult(published, failed);
+    }
+
+    private CompletableFuture<Void> publish(TransactionOutboxEvent outboxEvent) throws Exception {
+        if (outboxEvent.getPayloadBytes() != null) {
+            try (TracingScope ignored = openTracingScope(outboxEvent, null)) {
+                return transactionEventPublisher.publishSerializedAsync(
+                        outboxEvent.getTopic(),
+                        outboxEvent.getEventKey(),
+                        outboxEvent.getPartition(),
+                        outboxEvent.getPayloadBytes()
+                );
+            }
+        }
+        TransactionCreatedEvent event = objectMapper.treeToValue(outboxEvent.getPayload(), TransactionCreatedEvent.class);
+        try (TracingScope ignored = openTracingScope(outboxEvent, event)) {
+            return transactionEventPublisher.publishAsync(
+                    outboxEvent.getTopic(),
+                    outboxEvent.getEventKey(),
+                    outboxEvent.getPartition(),
+                    event
+            );
+        }
+    }
 
+    private void logBatchProcessed(int shard, int claimed, BatchResult result) {
         log.info("transaction_outbox_batch_processed",
                 kv("event", "transaction_outbox_batch_processed"),
-                kv("batch_size", pendingBatch.size()),
-                kv("published", publishedCount),
-                kv("failed", failedCount)
+                kv("claim_mode", leaseMode ? "lease" : "lock"),
+                kv("shard", shard == UNSHARDED ? "all" : Integer.toString(shard)),
+                kv("batch_size", claimed),
+                kv("published", result.published().size()),
+                kv("failed", result.failed().size())
         );
     }
 
-    @Scheduled(
-            fixedDelayString = "${app.outbox.cleanup-interval-ms:300000}",
-            initialDelayString = "${app.outbox.cleanup-initial-delay-ms:60000}"
-    )
-    @Transactional
-    public void purgePublishedEvents() {
-        Instant cutoff = Instant.now().minus(publishedRetention);
-        int deleted = transactionOutboxRepository.deleteByStatusAndPublishedAtBefore(
-                TransactionOutboxStatus.PUBLISHED,
-                cutoff
-        );
-        if (deleted > 0) {
-            log.info("transaction_outbox_cleanup",
-                    kv("event", "transaction_outbox_cleanup"),
-                    kv("deleted", deleted),
-                    kv("cutoff", cutoff)
-            );
+    public int batchSize() {
+        return batchSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdownNow();
         }
     }
 
+    private static ExecutorService newShardExecutor(int workers, boolean virtualThreads) {
+        if (virtualThreads) {
+            // Workers spend the batch waiting on JDBC and Kafka acks; the pool size still caps concurrent shards.
+            return Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("outbox-relay-", 0).factory());
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> Thread.ofPlatform()
+                .name("outbox-relay-" + sequence.getAndIncrement())
+                .daemon(true)
+                .unstarted(runnable));
+    }
+
     private String resolveTraceParent(TransactionOutboxEvent outboxEvent, TransactionCreatedEvent event) {
         if (outboxEvent.getTraceParent() != null && !outboxEvent.getTraceParent().isBlank()) {
             return outboxEvent.getTraceParent();
         }
+        if (event == null) {
+            return null;
+        }
         String traceId = normalizeHex(event.traceId(), 32);
         if (traceId == null) {
             return null;
@@ -216,13 +356,18 @@ public class TransactionOutboxRelayService {
                 kv("event", "transaction_outbox_publish_failed"),
                 kv("outcome", "failed"),
                 kv("eventId", outboxEvent.getEventId()),
-                kv("transactionId", outboxEvent.getEventKey()),
+                kv("transactionId", outboxEvent.getPayload() != null
+                        ? outboxEvent.getPayload().path("transactionId").asText(null)
+                        : null),
                 kv("attempt", outboxEvent.getAttempts()),
                 kv("error_class", throwable.getClass().getSimpleName()),
                 kv("error_message", resolveErrorMessage(throwable))
         );
     }
 
+    private record BatchResult(List<TransactionOutboxEvent> published, List<TransactionOutboxEvent> failed) {
+    }
+
     private record PendingPublication(
             TransactionOutboxEvent outboxEvent,
             CompletableFuture<Void> publishFuture,
@@ -12,13 +12,37 @@ public interface TransactionOutboxRepository extends JpaRepository<TransactionOu
     @Query(value = """
             SELECT *
             FROM transaction_outbox
-            WHERE status = 'PENDING'
-              AND next_attempt_at <= :now
+            WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+               OR (status = 'IN_FLIGHT' AND lease_until <= :now)
             ORDER BY created_at
             LIMIT :batchSize
             FOR UPDATE SKIP LOCKED
             """, nativeQuery = true)
     List<TransactionOutboxEvent> lockPendingBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 
-    int deleteByStatusAndPublishedAtBefore(TransactionOutboxStatus status, Instant cutoff);
+    /**
+     * Same as {@link #lockPendingBatch} restricted to one key-hash shard. The transaction-scoped advisory lock makes the
+     * caller the only relay (in any replica) working on that shard until it commits, which keeps per-key order; if
+     * another relay holds it the query returns nothing.
+     */
+    @Query(value = """
+            WITH shard_lock AS (
+                SELECT pg_try_advisory_xact_lock(hashtext('transaction_outbox'), :shard) AS acquired
+            )
+            SELECT outbox.*
+            FROM transaction_outbox outbox, shard_lock
+            WHERE shard_lock.acquired
+              AND ((outbox.status = 'PENDING' AND outbox.next_attempt_at <= :now)
+                OR (outbox.status = 'IN_FLIGHT' AND outbox.lease_until <= :now))
+              AND (hashtext(outbox.event_key) & 2147483647) % :shardCount = :shard
+            ORDER BY outbox.created_at
+            LIMIT :batchSize
+            FOR UPDATE OF outbox SKIP LOCKED
+            """, nativeQuery = true)
+    List<TransactionOutboxEvent> lockPendingShardBatch(
+            @Param("now") Instant now,
+            @Param("shardCount") int shardCount,
+            @Param("shard") int shard,
+            @Param("batchSize") int batchSize
+    );
 }
@@ -0,0 +1,65 @@
+package com.fraud.transaction.outbox;
+
+import com.fraud.transaction.retention.ChunkedRetentionExecutor;
+import com.fraud.transaction.retention.PartitionRetentionEngine;
+import com.fraud.transaction.retention.PartitionedTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Removes published outbox rows. With {@code app.data-retention.strategy=partition} and a {@code transaction_outbox}
+ * partitioned by {@code created_at}, whole partitions are dropped once every row in them has been published; a
+ * partition still holding a pending or in-flight row is kept until that row is published.
+ */
+@Service
+public class TransactionOutboxRetentionService {
+
+    private final PartitionRetentionEngine partitionRetentionEngine;
+    private final ChunkedRetentionExecutor chunkedRetentionExecutor;
+    private final Duration publishedRetention;
+    private final boolean partitionStrategy;
+    private final PartitionedTable outboxTable;
+
+    public TransactionOutboxRetentionService(
+            PartitionRetentionEngine partitionRetentionEngine,
+            ChunkedRetentionExecutor chunkedRetentionExecutor,
+            @Value("${app.outbox.published-retention:PT24H}") Duration publishedRetention,
+            @Value("${app.data-retention.strategy:delete}") String strategy,
+            @Value("${app.data-retention.partition.granularity:HOUR}") PartitionedTable.Granularity granularity
+    ) {
+        if (!"delete".equalsIgnoreCase(strategy) && !"partition".equalsIgnoreCase(strategy)) {
+            throw new IllegalArgumentException("Unsupported data retention strategy: " + strategy);
+        }
+        this.partitionRetentionEngine = partitionRetentionEngine;
+        this.chunkedRetentionExecutor = chunkedRetentionExecutor;
+        this.publishedRetention = publishedRetention;
+        this.partitionStrategy = "partition".equalsIgnoreCase(strategy);
+        this.outboxTable = new PartitionedTable(
+                "transaction_outbox",
+                "created_at",
+                granularity,
+                publishedRetention,
+                "status <> '" + TransactionOutboxStatus.PUBLISHED.name() + "'"
+        );
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.outbox.cleanup-interval-ms:300000}",
+            initialDelayString = "${app.outbox.cleanup-initial-delay-ms:60000}"
+    )
+    public void purgePublishedEvents() {
+        Instant now = Instant.now();
+        if (partitionStrategy && partitionRetentionEngine.apply(outboxTable, now)) {
+            return;
+        }
+        chunkedRetentionExecutor.purge(
+                "transaction_outbox",
+                "status = '" + TransactionOutboxStatus.PUBLISHED.name() + "' AND published_at < ?",
+                now.minus(publishedRetention)
+        );
+    }
+}
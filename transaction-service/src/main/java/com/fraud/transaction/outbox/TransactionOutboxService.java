@@ -1,15 +1,21 @@
 package com.fraud.transaction.outbox;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.transaction.domain.UuidV7;
 import com.fraud.transaction.events.TransactionCreatedEvent;
+import com.fraud.transaction.messaging.TransactionPartitioner;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.JacksonUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
 
@@ -17,38 +23,85 @@ import java.util.UUID;
 public class TransactionOutboxService {
 
     private final TransactionOutboxRepository transactionOutboxRepository;
+    private final TransactionOutboxBatchRepository transactionOutboxBatchRepository;
     private final ObjectMapper objectMapper;
     private final String topic;
     private final Tracer tracer;
+    private final TransactionPartitioner partitioner;
+    private final TransactionOutboxNotifier notifier;
+    private final ObjectMapper wireObjectMapper;
 
     public TransactionOutboxService(
             TransactionOutboxRepository transactionOutboxRepository,
+            TransactionOutboxBatchRepository transactionOutboxBatchRepository,
             ObjectMapper objectMapper,
             Tracer tracer,
-            @Value("${app.kafka.topics.transactions-created}") String topic
+            TransactionPartitioner partitioner,
+            TransactionOutboxNotifier notifier,
+            @Value("${app.kafka.topics.transactions-created}") String topic,
+            @Value("${app.outbox.payload-format:json}") String payloadFormat
     ) {
+        if (!"json".equalsIgnoreCase(payloadFormat) && !"bytes".equalsIgnoreCase(payloadFormat)) {
+            throw new IllegalArgumentException("Unsupported outbox payload format: " + payloadFormat);
+        }
         this.transactionOutboxRepository = transactionOutboxRepository;
+        this.transactionOutboxBatchRepository = transactionOutboxBatchRepository;
+        this.notifier = notifier;
         this.objectMapper = objectMapper;
         this.tracer = tracer;
+        this.partitioner = partitioner;
         this.topic = topic;
+        // Same mapper JsonSerializer builds by default, so the stored bytes match what the json format sends.
+        this.wireObjectMapper = "bytes".equalsIgnoreCase(payloadFormat) ? JacksonUtils.enhancedObjectMapper() : null;
     }
 
     public void enqueue(TransactionCreatedEvent event) {
+        transactionOutboxRepository.save(toOutboxEvent(event));
+        notifier.notifyPending();
+    }
+
+    /**
+     * Enqueues a whole batch with one JDBC batch insert and a single notification.
+     */
+    public void enqueueAll(List<TransactionCreatedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<TransactionOutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (TransactionCreatedEvent event : events) {
+            outboxEvents.add(toOutboxEvent(event));
+        }
+        transactionOutboxBatchRepository.insertAll(outboxEvents);
+        notifier.notifyPending();
+    }
+
+    private TransactionOutboxEvent toOutboxEvent(TransactionCreatedEvent event) {
         Instant createdAt = event.occurredAt() != null ? event.occurredAt() : Instant.now();
-        JsonNode payload = serialize(event);
         TraceHeaders traceHeaders = resolveTraceHeaders(event.traceId());
 
-        TransactionOutboxEvent outboxEvent = TransactionOutboxEvent.pending(
-                UUID.randomUUID().toString(),
-                event.eventId(),
-                topic,
-                event.transactionId(),
-                payload,
-                traceHeaders.traceParent(),
-                traceHeaders.baggage(),
-                createdAt
-        );
-        transactionOutboxRepository.save(outboxEvent);
+        return wireObjectMapper != null
+                ? TransactionOutboxEvent.pendingSerialized(
+                        UuidV7.nextString(),
+                        event.eventId(),
+                        topic,
+                        partitioner.key(event),
+                        partitioner.partition(event),
+                        serializeToBytes(event),
+                        traceHeaders.traceParent(),
+                        traceHeaders.baggage(),
+                        createdAt
+                )
+                : TransactionOutboxEvent.pending(
+                        UuidV7.nextString(),
+                        event.eventId(),
+                        topic,
+                        partitioner.key(event),
+                        partitioner.partition(event),
+                        serialize(event),
+                        traceHeaders.traceParent(),
+                        traceHeaders.baggage(),
+                        createdAt
+                );
     }
 
     private TraceHeaders resolveTraceHeaders(String eventTraceId) {
@@ -108,4 +161,12 @@ public class TransactionOutboxService {
     private JsonNode serialize(TransactionCreatedEvent event) {
         return objectMapper.valueToTree(event);
     }
+
+    private byte[] serializeToBytes(TransactionCreatedEvent event) {
+        try {
+            return wireObjectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize transaction event", ex);
+        }
+    }
 }
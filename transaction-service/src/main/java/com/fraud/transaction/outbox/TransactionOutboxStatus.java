@@ -2,5 +2,6 @@ package com.fraud.transaction.outbox;
 
 public enum TransactionOutboxStatus {
     PENDING,
+    IN_FLIGHT,
     PUBLISHED
 }
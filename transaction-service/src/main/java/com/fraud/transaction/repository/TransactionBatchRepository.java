@@ -0,0 +1,42 @@
+package com.fraud.transaction.repository;
+
+import com.fraud.transaction.domain.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String INSERT = """
+            INSERT INTO transactions (id, user_id, amount, currency, merchant_id, country, payment_method, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts every transaction with one JDBC batch, joining the caller's transaction.
+     */
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, transactions, transactions.size(), (statement, transaction) -> {
+            statement.setString(1, transaction.getId());
+            statement.setString(2, transaction.getUserId());
+            statement.setBigDecimal(3, transaction.getAmount());
+            statement.setString(4, transaction.getCurrency());
+            statement.setString(5, transaction.getMerchantId());
+            statement.setString(6, transaction.getCountry());
+            statement.setString(7, transaction.getPaymentMethod().name());
+            statement.setTimestamp(8, Timestamp.from(transaction.getCreatedAt()));
+        });
+    }
+}
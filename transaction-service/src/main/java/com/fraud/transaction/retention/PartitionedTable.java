@@ -0,0 +1,88 @@
+package com.fraud.transaction.retention;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * A table range-partitioned on {@code column}, one partition per {@link Granularity} bucket named
+ * {@code <name>_p<bucket>} plus a {@code <name>_default} partition for rows outside every bucket. Rows matching
+ * {@code pendingRowCondition} (a SQL predicate, may be null) are never expired, and keep their partition alive.
+ */
+public record PartitionedTable(
+        String name,
+        String column,
+        Granularity granularity,
+        Duration retention,
+        String pendingRowCondition
+) {
+
+    public PartitionedTable(String name, String column, Granularity granularity, Duration retention) {
+        this(name, column, granularity, retention, null);
+    }
+
+    String partitionName(Instant start) {
+        return name + "_p" + granularity.format(start);
+    }
+
+    String defaultPartitionName() {
+        return name + "_default";
+    }
+
+    /**
+     * Returns the lower bound encoded in {@code partitionName}, or null for partitions this engine does not manage.
+     */
+    Instant partitionStart(String partitionName) {
+        String prefix = name + "_p";
+        if (!partitionName.startsWith(prefix)) {
+            return null;
+        }
+        return granularity.parse(partitionName.substring(prefix.length()));
+    }
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS, "yyyyMMddHH"),
+        DAY(ChronoUnit.DAYS, "yyyyMMdd");
+
+        private final ChronoUnit unit;
+        private final DateTimeFormatter formatter;
+
+        Granularity(ChronoUnit unit, String pattern) {
+            this.unit = unit;
+            this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.UTC);
+        }
+
+        Instant truncate(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+
+        Instant next(Instant start) {
+            return start.plus(1, unit);
+        }
+
+        Instant plus(Instant start, long buckets) {
+            return start.plus(buckets, unit);
+        }
+
+        String format(Instant start) {
+            return formatter.format(start);
+        }
+
+        Instant parse(String bucket) {
+            try {
+                TemporalAccessor parsed = formatter.parse(bucket);
+                return this == HOUR
+                        ? LocalDateTime.from(parsed).toInstant(ZoneOffset.UTC)
+                        : LocalDate.from(parsed).atStartOfDay(ZoneOffset.UTC).toInstant();
+            } catch (DateTimeParseException ex) {
+                return null;
+            }
+        }
+    }
+}
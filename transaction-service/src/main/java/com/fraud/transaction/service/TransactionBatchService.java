@@ -0,0 +1,165 @@
+package com.fraud.transaction.service;
+
+import com.fraud.transaction.api.TransactionBatchItem;
+import com.fraud.transaction.api.TransactionBatchItemResult;
+import com.fraud.transaction.api.TransactionBatchResponse;
+import com.fraud.transaction.api.TransactionRequest;
+import com.fraud.transaction.domain.Transaction;
+import com.fraud.transaction.domain.UuidV7;
+import com.fraud.transaction.events.TransactionCreatedEvent;
+import com.fraud.transaction.mapping.TransactionMapper;
+import com.fraud.transaction.outbox.TransactionOutboxService;
+import com.fraud.transaction.repository.TransactionBatchRepository;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+@Service
+public class TransactionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionOutboxService transactionOutboxService;
+    private final TransactionMapper transactionMapper;
+    private final TransactionMetrics transactionMetrics;
+    private final Validator validator;
+    private final Tracer tracer;
+
+    public TransactionBatchService(
+            TransactionBatchRepository transactionBatchRepository,
+            TransactionOutboxService transactionOutboxService,
+            TransactionMapper transactionMapper,
+            TransactionMetrics transactionMetrics,
+            Validator validator,
+            Tracer tracer
+    ) {
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.transactionOutboxService = transactionOutboxService;
+        this.transactionMapper = transactionMapper;
+        this.transactionMetrics = transactionMetrics;
+        this.validator = validator;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Validates every item and stores the valid ones, with their outbox events, in one transaction using JDBC batches.
+     * Invalid items are reported back and do not affect the rest of the batch.
+     */
+    @Transactional
+    public TransactionBatchResponse createTransactions(List<TransactionBatchItem> items, String channel) {
+        long startedNanos = System.nanoTime();
+        String normalizedChannel = normalizeChannel(channel);
+        String traceId = resolveOrGenerateTraceId();
+        Instant now = Instant.now();
+        transactionMetrics.recordTransactionsReceived(normalizedChannel, items.size());
+
+        List<TransactionBatchItemResult> results = new ArrayList<>(items.size());
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        List<TransactionCreatedEvent> events = new ArrayList<>(items.size());
+        int rejected = 0;
+
+        for (TransactionBatchItem item : items) {
+            Map<String, String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                results.add(TransactionBatchItemResult.rejected(item.index(), errors));
+                rejected++;
+                continue;
+            }
+            Transaction transaction = transactionMapper.toTransaction(item.request(), UuidV7.nextString(), now);
+            transactions.add(transaction);
+            events.add(transactionMapper.toCreatedEvent(transaction, UuidV7.nextString(), now, traceId));
+            results.add(TransactionBatchItemResult.created(item.index(), transactionMapper.toResponse(transaction)));
+        }
+
+        long persistStartedNanos = System.nanoTime();
+        transactionBatchRepository.insertAll(transactions);
+        long enqueueStartedNanos = System.nanoTime();
+        transactionOutboxService.enqueueAll(events);
+        long finishedNanos = System.nanoTime();
+
+        if (!transactions.isEmpty()) {
+            transactionMetrics.recordTransactionPersisted((enqueueStartedNanos - persistStartedNanos) / 1_000_000);
+            transactionMetrics.recordTransactionEventsEnqueued(
+                    "success",
+                    events.size(),
+                    (finishedNanos - enqueueStartedNanos) / 1_000_000
+            );
+        }
+        transactionMetrics.recordTransactionBatch(normalizedChannel, transactions.size(), rejected, finishedNanos - startedNanos);
+        log.info("transaction_batch_processed",
+                kv("event", "transaction_batch_processed"),
+                kv("outcome", rejected == 0 ? "success" : "partial"),
+                kv("channel", normalizedChannel),
+                kv("received", items.size()),
+                kv("created", transactions.size()),
+                kv("rejected", rejected),
+                kv("duration_ms", (finishedNanos - startedNanos) / 1_000_000)
+        );
+        return new TransactionBatchResponse(items.size(), transactions.size(), rejected, results);
+    }
+
+    private Map<String, String> validate(TransactionBatchItem item) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        TransactionRequest request = item.request();
+        if (request == null) {
+            errors.put("item", item.parseError() != null ? item.parseError() : "item is required");
+            return errors;
+        }
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        for (ConstraintViolation<TransactionRequest> violation : violations) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private String normalizeChannel(String channel) {
+        if (channel == null || channel.isBlank()) {
+            return "unknown";
+        }
+        return channel.toLowerCase(Locale.ROOT);
+    }
+
+    private String resolveOrGenerateTraceId() {
+        Span currentSpan = tracer.currentSpan();
+        if (currentSpan != null && currentSpan.context() != null) {
+            String traceId = normalizeHex(currentSpan.context().traceId(), 32);
+            if (traceId != null) {
+                return traceId;
+            }
+        }
+        String normalizedMdcTraceId = normalizeHex(MDC.get("traceId"), 32);
+        if (normalizedMdcTraceId != null) {
+            return normalizedMdcTraceId;
+        }
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private String normalizeHex(String value, int expectedLength) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT).replace("-", "");
+        if (normalized.length() != expectedLength || !normalized.matches("[0-9a-f]+")) {
+            return null;
+        }
+        return normalized;
+    }
+}
@@ -1,5 +1,6 @@
 package com.fraud.transaction.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
@@ -13,6 +14,9 @@ public class TransactionMetrics {
     private final Timer transactionPersistTimer;
     private final Timer transactionOutboxEnqueueTimer;
     private final Timer transactionPublishTimer;
+    private final DistributionSummary transactionBatchSize;
+    private final Timer transactionBatchTimer;
+    private final Timer transactionBatchItemTimer;
 
     public TransactionMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -25,12 +29,36 @@ public class TransactionMetrics {
         this.transactionPublishTimer = Timer.builder("transaction_event_publish_latency")
                 .description("Latency for publishing transaction.created events")
                 .register(meterRegistry);
+        this.transactionBatchSize = DistributionSummary.builder("transaction_batch_size")
+                .description("Items per batch ingestion request")
+                .register(meterRegistry);
+        this.transactionBatchTimer = Timer.builder("transaction_batch_latency")
+                .description("Latency for validating and storing a whole batch")
+                .register(meterRegistry);
+        this.transactionBatchItemTimer = Timer.builder("transaction_batch_item_latency")
+                .description("Batch latency divided by the items in the batch")
+                .register(meterRegistry);
     }
 
     public void recordTransactionReceived(String channel) {
         meterRegistry.counter("transactions_received", "channel", channel).increment();
     }
 
+    public void recordTransactionsReceived(String channel, int count) {
+        meterRegistry.counter("transactions_received", "channel", channel).increment(count);
+    }
+
+    public void recordTransactionBatch(String channel, int created, int rejected, long durationNanos) {
+        int size = created + rejected;
+        transactionBatchSize.record(size);
+        meterRegistry.counter("transaction_batch_items", "channel", channel, "outcome", "created").increment(created);
+        meterRegistry.counter("transaction_batch_items", "channel", channel, "outcome", "rejected").increment(rejected);
+        transactionBatchTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (size > 0) {
+            transactionBatchItemTimer.record(durationNanos / size, TimeUnit.NANOSECONDS);
+        }
+    }
+
     public void recordTransactionPersisted(long durationMs) {
         transactionPersistTimer.record(durationMs, TimeUnit.MILLISECONDS);
     }
@@ -40,6 +68,11 @@ public class TransactionMetrics {
         transactionOutboxEnqueueTimer.record(durationMs, TimeUnit.MILLISECONDS);
     }
 
+    public void recordTransactionEventsEnqueued(String outcome, int count, long durationMs) {
+        meterRegistry.counter("transaction_events_enqueued", "outcome", outcome).increment(count);
+        transactionOutboxEnqueueTimer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
     public void recordTransactionEventPublished(String outcome, long durationMs) {
         meterRegistry.counter("transaction_events_published", "outcome", outcome).increment();
         transactionPublishTimer.record(durationMs, TimeUnit.MILLISECONDS);
@@ -3,6 +3,7 @@ package com.fraud.transaction.service;
 import com.fraud.transaction.api.TransactionRequest;
 import com.fraud.transaction.api.TransactionResponse;
 import com.fraud.transaction.domain.Transaction;
+import com.fraud.transaction.domain.UuidV7;
 import com.fraud.transaction.events.TransactionCreatedEvent;
 import com.fraud.transaction.mapping.TransactionMapper;
 import com.fraud.transaction.outbox.TransactionOutboxService;
@@ -53,7 +54,7 @@ public class TransactionService {
 
     @Transactional
     public TransactionResponse createTransaction(TransactionRequest request, String channel) {
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = UuidV7.nextString();
         Instant now = Instant.now();
         String normalizedChannel = normalizeChannel(channel);
         String traceId = resolveOrGenerateTraceId();
@@ -85,7 +86,7 @@ public class TransactionService {
 
         TransactionCreatedEvent event = transactionMapper.toCreatedEvent(
                 transaction,
-                UUID.randomUUID().toString(),
+                UuidV7.nextString(),
                 now,
                 traceId
         );
@@ -0,0 +1,114 @@
+package com.fraud.transaction.api;
+
+import com.fraud.transaction.domain.PaymentMethod;
+import com.fraud.transaction.service.TransactionBatchService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = TransactionBatchController.class)
+@Import(ApiExceptionHandler.class)
+@TestPropertySource(properties = "app.transactions.batch.max-items=3")
+class TransactionBatchControllerTest {
+
+    private static final String VALID_ITEM = """
+            {"userId":"user-1","amount":10.00,"currency":"USD","merchantId":"MRC-1","country":"US","paymentMethod":"CARD"}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    @Test
+    void ndjsonBatchShouldParseEachLineAndKeepUnreadableOnesAsItems() throws Exception {
+        when(transactionBatchService.createTransactions(anyList(), eq("webhook")))
+                .thenReturn(new TransactionBatchResponse(2, 1, 1, List.of()));
+
+        mockMvc.perform(post("/api/v1/webhooks/transactions/batch")
+                        .contentType(TransactionBatchController.APPLICATION_NDJSON_VALUE)
+                        .content(VALID_ITEM + "\n\n{\"userId\":\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+
+        ArgumentCaptor<List<TransactionBatchItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchService).createTransactions(captor.capture(), eq("webhook"));
+        List<TransactionBatchItem> items = captor.getValue();
+        assertEquals(2, items.size());
+        assertEquals(PaymentMethod.CARD, items.get(0).request().paymentMethod());
+        assertNull(items.get(1).request());
+        assertEquals(1, items.get(1).index());
+    }
+
+    @Test
+    void jsonArrayBatchShouldRejectItemsThatDoNotMapToARequest() throws Exception {
+        when(transactionBatchService.createTransactions(anyList(), eq("api")))
+                .thenReturn(new TransactionBatchResponse(2, 1, 1, List.of()));
+
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + VALID_ITEM + ",{\"paymentMethod\":\"CHEQUE\"}]"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<List<TransactionBatchItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchService).createTransactions(captor.capture(), eq("api"));
+        assertEquals("user-1", captor.getValue().get(0).request().userId());
+        assertEquals("item is not a valid transaction request", captor.getValue().get(1).parseError());
+    }
+
+    @Test
+    void batchLargerThanLimitShouldBeRejectedBeforeProcessing() throws Exception {
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", VALID_ITEM, VALID_ITEM, VALID_ITEM, VALID_ITEM) + "]"))
+                .andExpect(status().isPayloadTooLarge());
+
+        verifyNoInteractions(transactionBatchService);
+    }
+
+    @Test
+    void jsonArrayBatchShouldStopReadingOnceItPassesTheLimit() throws Exception {
+        // Everything after the fourth item is never parsed, so the broken tail does not turn this into a 400.
+        mockMvc.perform(post("/api/v1/webhooks/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", VALID_ITEM, VALID_ITEM, VALID_ITEM, VALID_ITEM) + ",{\"userId\":"))
+                .andExpect(status().isPayloadTooLarge());
+
+        verifyNoInteractions(transactionBatchService);
+    }
+
+    @Test
+    void batchThatIsNotAJsonArrayShouldBeRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_ITEM))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + VALID_ITEM + ",{\"userId\":]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionBatchService);
+    }
+}
@@ -0,0 +1,32 @@
+package com.fraud.transaction.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void nextShouldBeVersionSevenWithTheCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+
+    @Test
+    void idsFromLaterMillisecondsShouldSortAfterEarlierOnes() throws InterruptedException {
+        String first = UuidV7.nextString();
+        Thread.sleep(2);
+        String second = UuidV7.nextString();
+
+        assertTrue(first.compareTo(second) < 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fraud.transaction.messaging;
+
+import com.fraud.commons.partitioning.JumpConsistentHash;
+import com.fraud.transaction.domain.PaymentMethod;
+import com.fraud.transaction.events.TransactionCreatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionPartitionerTest {
+
+    @Test
+    void transactionStrategyShouldKeyByTransactionId() {
+        TransactionPartitioner partitioner = new TransactionPartitioner("transaction", 18);
+        TransactionCreatedEvent event = sampleEvent("user-1");
+
+        assertEquals(event.transactionId(), partitioner.key(event));
+        assertNull(partitioner.partition(event));
+    }
+
+    @Test
+    void userStrategyShouldKeyByUserIdAndLeavePartitionToProducer() {
+        TransactionPartitioner partitioner = new TransactionPartitioner("user", 18);
+        TransactionCreatedEvent event = sampleEvent("user-1");
+
+        assertEquals("user-1", partitioner.key(event));
+        assertNull(partitioner.partition(event));
+    }
+
+    @Test
+    void userHashStrategyShouldPinEveryUserToAStablePartition() {
+        TransactionPartitioner partitioner = new TransactionPartitioner("user-hash", 18);
+
+        for (int i = 0; i < 500; i++) {
+            TransactionCreatedEvent event = sampleEvent("user-" + i);
+            Integer partition = partitioner.partition(event);
+            assertTrue(partition >= 0 && partition < 18);
+            assertEquals(partition, partitioner.partition(sampleEvent("user-" + i)));
+        }
+    }
+
+    @Test
+    void jumpHashShouldOnlyMoveKeysToTheNewBucketWhenGrowing() {
+        for (int i = 0; i < 1000; i++) {
+            String key = "user-" + i;
+            int before = JumpConsistentHash.bucket(key, 18);
+            int after = JumpConsistentHash.bucket(key, 19);
+            assertTrue(after == before || after == 18);
+        }
+    }
+
+    private TransactionCreatedEvent sampleEvent(String userId) {
+        return new TransactionCreatedEvent(
+                "event-1",
+                Instant.parse("2026-03-04T20:00:00Z"),
+                "tx-1",
+                "0123456789abcdef0123456789abcdef",
+                userId,
+                new BigDecimal("45.00"),
+                "USD",
+                "MRC-1",
+                "US",
+                PaymentMethod.CARD
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.fraud.transaction.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionOutboxNotifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void notifyModeShouldNotifyOutboxChannel() {
+        new TransactionOutboxNotifier(jdbcTemplate, "notify", "transaction_outbox").notifyPending();
+
+        verify(jdbcTemplate).execute("NOTIFY transaction_outbox");
+    }
+
+    @Test
+    void pollModeShouldNotTouchTheDatabase() {
+        new TransactionOutboxNotifier(jdbcTemplate, "poll", "transaction_outbox").notifyPending();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void channelShouldBeAPlainIdentifier() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransactionOutboxNotifier(jdbcTemplate, "notify", "outbox; DROP TABLE transaction_outbox"));
+    }
+}
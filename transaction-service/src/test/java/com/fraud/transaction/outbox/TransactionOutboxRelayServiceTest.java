@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -22,12 +23,17 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,12 +42,18 @@ class TransactionOutboxRelayServiceTest {
     @Mock
     private TransactionOutboxRepository transactionOutboxRepository;
 
+    @Mock
+    private TransactionOutboxLeaseRepository leaseRepository;
+
     @Mock
     private TransactionEventPublisher transactionEventPublisher;
 
     @Mock
     private TransactionMetrics transactionMetrics;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Mock
     private Tracer tracer;
 
@@ -78,20 +90,27 @@ class TransactionOutboxRelayServiceTest {
         when(transactionEventPublisher.publishAsync(
                 eq("transactions.created"),
                 eq(event.transactionId()),
+                isNull(),
                 any(TransactionCreatedEvent.class)
         )).thenReturn(CompletableFuture.completedFuture(null));
         mockTraceScope();
 
         TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
                 transactionOutboxRepository,
+                leaseRepository,
                 transactionEventPublisher,
                 transactionMetrics,
                 objectMapper,
                 tracer,
                 propagator,
+                transactionManager,
+                "lock",
                 50,
                 Duration.ofSeconds(2),
-                Duration.ofHours(24)
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
         );
 
         relayService.relayPendingEvents();
@@ -100,6 +119,7 @@ class TransactionOutboxRelayServiceTest {
         verify(transactionEventPublisher).publishAsync(
                 eq("transactions.created"),
                 eq(event.transactionId()),
+                isNull(),
                 eventCaptor.capture()
         );
         TransactionCreatedEvent publishedEvent = eventCaptor.getValue();
@@ -130,19 +150,26 @@ class TransactionOutboxRelayServiceTest {
         when(transactionEventPublisher.publishAsync(
                 eq("transactions.created"),
                 eq(event.transactionId()),
+                isNull(),
                 any(TransactionCreatedEvent.class)
         )).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka unavailable")));
 
         TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
                 transactionOutboxRepository,
+                leaseRepository,
                 transactionEventPublisher,
                 transactionMetrics,
                 objectMapper,
                 tracer,
                 propagator,
+                transactionManager,
+                "lock",
                 25,
                 Duration.ofSeconds(5),
-                Duration.ofHours(24)
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
         );
 
         Instant beforeRun = Instant.now();
@@ -184,20 +211,27 @@ class TransactionOutboxRelayServiceTest {
         when(transactionEventPublisher.publishAsync(
                 eq("transactions.created"),
                 eq(event.transactionId()),
+                isNull(),
                 any(TransactionCreatedEvent.class)
         )).thenReturn(CompletableFuture.completedFuture(null));
         mockTraceScope();
 
         TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
                 transactionOutboxRepository,
+                leaseRepository,
                 transactionEventPublisher,
                 transactionMetrics,
                 objectMapper,
                 tracer,
                 propagator,
+                transactionManager,
+                "lock",
                 10,
                 Duration.ofSeconds(2),
-                Duration.ofHours(24)
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
         );
 
         relayService.relayPendingEvents();
@@ -206,12 +240,193 @@ class TransactionOutboxRelayServiceTest {
         verify(transactionEventPublisher).publishAsync(
                 eq("transactions.created"),
                 eq(event.transactionId()),
+                isNull(),
                 any(TransactionCreatedEvent.class)
         );
         verify(propagator).extract(headersCaptor.capture(), any());
         assertTrue(headersCaptor.getValue().get("traceparent").matches("00-0123456789abcdef0123456789abcdef-[0-9a-f]{16}-01"));
     }
 
+    @Test
+    void leaseModeShouldPublishOutsideTransactionAndFinaliseInBulk() throws Exception {
+        TransactionCreatedEvent event = sampleEvent();
+        TransactionOutboxEvent published = claimed("outbox-4", event, "tx-ok");
+        TransactionOutboxEvent failed = claimed("outbox-5", event, "tx-failed");
+
+        when(leaseRepository.claimBatch(any(Instant.class), any(Instant.class), eq(20)))
+                .thenReturn(List.of(published, failed));
+        when(transactionEventPublisher.publishAsync(eq("transactions.created"), eq("tx-ok"), isNull(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(transactionEventPublisher.publishAsync(eq("transactions.created"), eq("tx-failed"), isNull(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka unavailable")));
+
+        TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
+                transactionOutboxRepository,
+                leaseRepository,
+                transactionEventPublisher,
+                transactionMetrics,
+                objectMapper,
+                tracer,
+                propagator,
+                transactionManager,
+                "lease",
+                20,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
+        );
+
+        Instant beforeRun = Instant.now();
+        assertEquals(2, relayService.relayPendingEvents());
+
+        ArgumentCaptor<Instant> leaseCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(leaseRepository).claimBatch(any(Instant.class), leaseCaptor.capture(), eq(20));
+        assertTrue(leaseCaptor.getValue().isAfter(beforeRun.plusSeconds(29)));
+        verify(leaseRepository).markPublished(eq(List.of("outbox-4")), any(Instant.class));
+        verify(leaseRepository).markFailed(eq(List.of("outbox-5")), eq(List.of("Kafka unavailable")), any(Instant.class));
+        assertEquals(1, failed.getAttempts());
+        verifyNoInteractions(transactionManager, transactionOutboxRepository);
+    }
+
+    @Test
+    void shardedRelayShouldClaimEveryShardOnTheWorkerPool() throws Exception {
+        TransactionCreatedEvent event = sampleEvent();
+        TransactionOutboxEvent outboxEvent = TransactionOutboxEvent.pending(
+                "outbox-6",
+                event.eventId(),
+                "transactions.created",
+                event.transactionId(),
+                objectMapper.valueToTree(event),
+                null,
+                null,
+                Instant.now()
+        );
+
+        when(transactionOutboxRepository.lockPendingShardBatch(any(Instant.class), eq(3), eq(0), eq(10)))
+                .thenReturn(List.of());
+        when(transactionOutboxRepository.lockPendingShardBatch(any(Instant.class), eq(3), eq(1), eq(10)))
+                .thenReturn(List.of(outboxEvent));
+        when(transactionOutboxRepository.lockPendingShardBatch(any(Instant.class), eq(3), eq(2), eq(10)))
+                .thenThrow(new IllegalStateException("connection reset"));
+        when(transactionEventPublisher.publishAsync(
+                eq("transactions.created"),
+                eq(event.transactionId()),
+                isNull(),
+                any(TransactionCreatedEvent.class)
+        )).thenReturn(CompletableFuture.completedFuture(null));
+
+        TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
+                transactionOutboxRepository,
+                leaseRepository,
+                transactionEventPublisher,
+                transactionMetrics,
+                objectMapper,
+                tracer,
+                propagator,
+                transactionManager,
+                "lock",
+                10,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(30),
+                3,
+                2,
+                false
+        );
+
+        try {
+            assertEquals(1, relayService.relayPendingEvents());
+        } finally {
+            relayService.shutdown();
+        }
+
+        assertEquals(TransactionOutboxStatus.PUBLISHED, outboxEvent.getStatus());
+        verify(transactionOutboxRepository, never()).lockPendingBatch(any(Instant.class), anyInt());
+    }
+
+    @Test
+    void relayShouldSendStoredBytesWithoutMapping() throws Exception {
+        byte[] payload = "{\"transactionId\":\"tx-7\"}".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        TransactionOutboxEvent outboxEvent = TransactionOutboxEvent.pendingSerialized(
+                "outbox-7",
+                "event-7",
+                "transactions.created",
+                "tx-7",
+                4,
+                payload,
+                null,
+                null,
+                Instant.now()
+        );
+
+        when(transactionOutboxRepository.lockPendingBatch(any(Instant.class), eq(10)))
+                .thenReturn(List.of(outboxEvent));
+        when(transactionEventPublisher.publishSerializedAsync("transactions.created", "tx-7", 4, payload))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        TransactionOutboxRelayService relayService = new TransactionOutboxRelayService(
+                transactionOutboxRepository,
+                leaseRepository,
+                transactionEventPublisher,
+                transactionMetrics,
+                objectMapper,
+                tracer,
+                propagator,
+                transactionManager,
+                "lock",
+                10,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
+        );
+
+        relayService.relayPendingEvents();
+
+        verify(transactionEventPublisher, never()).publishAsync(any(), any(), any(), any());
+        verifyNoInteractions(propagator);
+        assertEquals(TransactionOutboxStatus.PUBLISHED, outboxEvent.getStatus());
+    }
+
+    @Test
+    void unknownClaimModeShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionOutboxRelayService(
+                transactionOutboxRepository,
+                leaseRepository,
+                transactionEventPublisher,
+                transactionMetrics,
+                objectMapper,
+                tracer,
+                propagator,
+                transactionManager,
+                "optimistic",
+                20,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(30),
+                1,
+                0,
+                false
+        ));
+    }
+
+    private TransactionOutboxEvent claimed(String id, TransactionCreatedEvent event, String key) {
+        return TransactionOutboxEvent.claimed(
+                id,
+                event.eventId() + "-" + id,
+                "transactions.created",
+                key,
+                null,
+                objectMapper.valueToTree(event),
+                null,
+                null,
+                null,
+                0,
+                Instant.now()
+        );
+    }
+
     private void mockTraceScope() {
         when(propagator.extract(anyMap(), any())).thenReturn(spanBuilder);
         when(spanBuilder.name(any())).thenReturn(spanBuilder);
@@ -0,0 +1,88 @@
+package com.fraud.transaction.outbox;
+
+import com.fraud.transaction.retention.ChunkedRetentionExecutor;
+import com.fraud.transaction.retention.PartitionRetentionEngine;
+import com.fraud.transaction.retention.PartitionedTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionOutboxRetentionServiceTest {
+
+    @Mock
+    private PartitionRetentionEngine partitionRetentionEngine;
+
+    @Mock
+    private ChunkedRetentionExecutor chunkedRetentionExecutor;
+
+    @Test
+    void deleteStrategyShouldPurgePublishedRowsOlderThanTheRetention() {
+        Instant before = Instant.now();
+
+        newService("delete").purgePublishedEvents();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(chunkedRetentionExecutor).purge(
+                eq("transaction_outbox"), eq("status = 'PUBLISHED' AND published_at < ?"), cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofHours(24))));
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofHours(24))));
+        verifyNoInteractions(partitionRetentionEngine);
+    }
+
+    @Test
+    void partitionStrategyShouldKeepPartitionsWithUnpublishedRowsAndSkipRowDeletes() {
+        when(partitionRetentionEngine.apply(any(PartitionedTable.class), any(Instant.class))).thenReturn(true);
+
+        newService("partition").purgePublishedEvents();
+
+        ArgumentCaptor<PartitionedTable> table = ArgumentCaptor.forClass(PartitionedTable.class);
+        verify(partitionRetentionEngine).apply(table.capture(), any(Instant.class));
+        assertEquals("transaction_outbox", table.getValue().name());
+        assertEquals("created_at", table.getValue().column());
+        assertEquals(Duration.ofHours(24), table.getValue().retention());
+        assertEquals("status <> 'PUBLISHED'", table.getValue().pendingRowCondition());
+        verify(chunkedRetentionExecutor, never()).purge(anyString(), anyString(), any(Instant.class));
+    }
+
+    @Test
+    void partitionStrategyShouldFallBackToRowDeletesWhileTheTableIsNotPartitioned() {
+        when(partitionRetentionEngine.apply(any(PartitionedTable.class), any(Instant.class))).thenReturn(false);
+
+        newService("partition").purgePublishedEvents();
+
+        verify(chunkedRetentionExecutor).purge(
+                eq("transaction_outbox"), eq("status = 'PUBLISHED' AND published_at < ?"), any(Instant.class));
+    }
+
+    @Test
+    void unknownStrategyShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> newService("truncate"));
+    }
+
+    private TransactionOutboxRetentionService newService(String strategy) {
+        return new TransactionOutboxRetentionService(
+                partitionRetentionEngine,
+                chunkedRetentionExecutor,
+                Duration.ofHours(24),
+                strategy,
+                PartitionedTable.Granularity.HOUR
+        );
+    }
+}
@@ -3,6 +3,7 @@ package com.fraud.transaction.outbox;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fraud.transaction.domain.PaymentMethod;
 import com.fraud.transaction.events.TransactionCreatedEvent;
+import com.fraud.transaction.messaging.TransactionPartitioner;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.TraceContext;
 import io.micrometer.tracing.Tracer;
@@ -11,14 +12,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,9 +34,15 @@ class TransactionOutboxServiceTest {
     @Mock
     private TransactionOutboxRepository transactionOutboxRepository;
 
+    @Mock
+    private TransactionOutboxBatchRepository transactionOutboxBatchRepository;
+
     @Mock
     private Tracer tracer;
 
+    @Mock
+    private TransactionOutboxNotifier notifier;
+
     @Mock
     private Span span;
 
@@ -42,9 +55,13 @@ class TransactionOutboxServiceTest {
     void enqueueShouldPersistTraceparentFromEventTraceAndMdcSpan() {
         TransactionOutboxService outboxService = new TransactionOutboxService(
                 transactionOutboxRepository,
+                transactionOutboxBatchRepository,
                 objectMapper,
                 tracer,
-                "transactions.created"
+                new TransactionPartitioner("transaction", 18),
+                notifier,
+                "transactions.created",
+                "json"
         );
         TransactionCreatedEvent event = sampleEvent();
         when(tracer.currentSpan()).thenReturn(span);
@@ -62,15 +79,20 @@ class TransactionOutboxServiceTest {
         assertNotNull(saved.getId());
         assertEquals(event.eventId(), saved.getEventId());
         assertEquals("00-0123456789abcdef0123456789abcdef-0123456789abcdef-01", saved.getTraceParent());
+        verify(notifier).notifyPending();
     }
 
     @Test
     void enqueueShouldPersistTraceparentFromEventTraceWithoutSpanContext() {
         TransactionOutboxService outboxService = new TransactionOutboxService(
                 transactionOutboxRepository,
+                transactionOutboxBatchRepository,
                 objectMapper,
                 tracer,
-                "transactions.created"
+                new TransactionPartitioner("transaction", 18),
+                notifier,
+                "transactions.created",
+                "json"
         );
         when(tracer.currentSpan()).thenReturn(null);
 
@@ -83,6 +105,93 @@ class TransactionOutboxServiceTest {
         assertTrue(traceParent.matches("00-0123456789abcdef0123456789abcdef-[0-9a-f]{16}-01"));
     }
 
+    @Test
+    void enqueueShouldKeyByUserAndPinPartitionWhenUsingUserHashStrategy() {
+        TransactionPartitioner partitioner = new TransactionPartitioner("user-hash", 18);
+        TransactionOutboxService outboxService = new TransactionOutboxService(
+                transactionOutboxRepository,
+                transactionOutboxBatchRepository,
+                objectMapper,
+                tracer,
+                partitioner,
+                notifier,
+                "transactions.created",
+                "json"
+        );
+        TransactionCreatedEvent event = sampleEvent();
+        when(tracer.currentSpan()).thenReturn(null);
+
+        outboxService.enqueue(event);
+
+        ArgumentCaptor<TransactionOutboxEvent> captor = ArgumentCaptor.forClass(TransactionOutboxEvent.class);
+        verify(transactionOutboxRepository).save(captor.capture());
+        TransactionOutboxEvent saved = captor.getValue();
+        assertEquals(event.userId(), saved.getEventKey());
+        assertEquals(partitioner.partition(event), saved.getPartition());
+    }
+
+    @Test
+    void enqueueShouldStoreWireBytesWhenUsingBytesPayloadFormat() {
+        TransactionOutboxService outboxService = new TransactionOutboxService(
+                transactionOutboxRepository,
+                transactionOutboxBatchRepository,
+                objectMapper,
+                tracer,
+                new TransactionPartitioner("transaction", 18),
+                notifier,
+                "transactions.created",
+                "bytes"
+        );
+        TransactionCreatedEvent event = sampleEvent();
+        when(tracer.currentSpan()).thenReturn(null);
+
+        outboxService.enqueue(event);
+
+        ArgumentCaptor<TransactionOutboxEvent> captor = ArgumentCaptor.forClass(TransactionOutboxEvent.class);
+        verify(transactionOutboxRepository).save(captor.capture());
+        TransactionOutboxEvent saved = captor.getValue();
+        assertNull(saved.getPayload());
+        try (JsonSerializer<TransactionCreatedEvent> serializer = new JsonSerializer<>()) {
+            assertArrayEquals(serializer.serialize("transactions.created", event), saved.getPayloadBytes());
+        }
+    }
+
+    @Test
+    void enqueueAllShouldInsertOneBatchAndNotifyOnce() {
+        TransactionOutboxService outboxService = new TransactionOutboxService(
+                transactionOutboxRepository,
+                transactionOutboxBatchRepository,
+                objectMapper,
+                tracer,
+                new TransactionPartitioner("transaction", 18),
+                notifier,
+                "transactions.created",
+                "json"
+        );
+        TransactionCreatedEvent first = sampleEvent();
+        TransactionCreatedEvent second = new TransactionCreatedEvent(
+                "event-2",
+                first.occurredAt(),
+                "tx-2",
+                first.traceId(),
+                "user-2",
+                first.amount(),
+                first.currency(),
+                first.merchantId(),
+                first.country(),
+                first.paymentMethod()
+        );
+        when(tracer.currentSpan()).thenReturn(null);
+
+        outboxService.enqueueAll(List.of(first, second));
+
+        ArgumentCaptor<List<TransactionOutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionOutboxBatchRepository).insertAll(captor.capture());
+        assertEquals(List.of("event-1", "event-2"), captor.getValue().stream().map(TransactionOutboxEvent::getEventId).toList());
+        verify(notifier, times(1)).notifyPending();
+        verifyNoInteractions(transactionOutboxRepository);
+    }
+
     private TransactionCreatedEvent sampleEvent() {
         return new TransactionCreatedEvent(
                 "event-1",
@@ -0,0 +1,105 @@
+package com.fraud.transaction.retention;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedRetentionExecutorTest {
+
+    private static final Instant CUTOFF = Instant.parse("2026-01-01T10:00:00Z");
+    private static final String PUBLISHED = "status = 'PUBLISHED' AND published_at < ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void purgeShouldDeleteOutboxChunksByCtidUntilAShortChunk() {
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofSeconds(1), Duration.ofMinutes(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100, 100, 30);
+
+        long deleted = executor.purge("transaction_outbox", PUBLISHED, CUTOFF);
+
+        assertEquals(230, deleted);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).update(sqlCaptor.capture(), any(Object[].class));
+        assertEquals(
+                "DELETE FROM transaction_outbox WHERE ctid = ANY(ARRAY(SELECT ctid FROM transaction_outbox"
+                        + " WHERE " + PUBLISHED + " LIMIT 100))",
+                sqlCaptor.getValue()
+        );
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+        assertEquals(0.0, meterRegistry.get("data_retention_backlog_rows").tag("table", "transaction_outbox").gauge().value());
+    }
+
+    @Test
+    void purgeShouldStopAtTheRunBudgetAndReportTheBacklog() {
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofSeconds(1), Duration.ofMillis(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(4_200L);
+
+        long deleted = executor.purge("transaction_outbox", PUBLISHED, CUTOFF);
+
+        assertEquals(100, deleted);
+        assertEquals(4_200.0, meterRegistry.get("data_retention_backlog_rows").tag("table", "transaction_outbox").gauge().value());
+    }
+
+    @Test
+    void purgeShouldYieldWhileRequestsWaitForAPooledConnection() {
+        Gauge.builder("hikaricp.connections.pending", () -> 3).register(meterRegistry);
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofMillis(200), Duration.ofMinutes(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100, 30);
+
+        long startedAt = System.nanoTime();
+        executor.purge("transaction_outbox", PUBLISHED, CUTOFF);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) >= 200);
+    }
+
+    @Test
+    void purgeShouldIgnoreKafkaConsumerLag() {
+        // transaction-service runs no consumers whose lag retention could worsen.
+        Gauge.builder("kafka.consumer.fetch.manager.records.lag.max", () -> 1_000_000).register(meterRegistry);
+        ChunkedRetentionExecutor executor = newExecutor(Duration.ofSeconds(5), Duration.ofMinutes(1));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(100, 30);
+
+        long startedAt = System.nanoTime();
+        executor.purge("transaction_outbox", PUBLISHED, CUTOFF);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1_000);
+    }
+
+    private ChunkedRetentionExecutor newExecutor(Duration yieldPause, Duration maxRunDuration) {
+        return new ChunkedRetentionExecutor(
+                jdbcTemplate,
+                meterRegistry,
+                100,
+                Duration.ofMillis(5),
+                yieldPause,
+                Duration.ofSeconds(1),
+                maxRunDuration,
+                1_000_000
+        );
+    }
+}
@@ -0,0 +1,140 @@
+package com.fraud.transaction.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionRetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:30:00Z");
+    private static final String PENDING = "status <> 'PUBLISHED'";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ChunkedRetentionExecutor chunkedRetentionExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, String> relations = new HashMap<>();
+    private final List<String> partitions = new ArrayList<>();
+    private PartitionRetentionEngine engine;
+
+    // Two hours of retention leaves the cutoff at 08:30; with two buckets of precreate the engine manages 08:00-13:00.
+    private final PartitionedTable outbox = new PartitionedTable(
+            "transaction_outbox", "created_at", PartitionedTable.Granularity.HOUR, Duration.ofHours(2), PENDING);
+
+    @BeforeEach
+    void setUp() {
+        engine = new PartitionRetentionEngine(jdbcTemplate, chunkedRetentionExecutor, transactionManager, 2);
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT relkind"), eq(String.class), any()))
+                .thenAnswer(invocation -> {
+                    String kind = relations.get(invocation.<String>getArgument(2));
+                    return kind == null ? List.of() : List.of(kind);
+                });
+        lenient().when(jdbcTemplate.queryForList(startsWith("SELECT child.relname"), eq(String.class), any()))
+                .thenAnswer(invocation -> List.copyOf(partitions));
+    }
+
+    @Test
+    void applyShouldCreateMissingBucketsUpToPrecreateAndMoveDefaultRowsIntoThem() {
+        partitioned("transaction_outbox_p2026010108", "transaction_outbox_p2026010109", "transaction_outbox_p2026010110");
+
+        assertTrue(engine.apply(outbox, NOW));
+
+        for (String bucket : List.of("2026010111", "2026010112")) {
+            verify(jdbcTemplate).execute("CREATE TABLE transaction_outbox_p" + bucket
+                    + " (LIKE transaction_outbox INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        }
+        verify(jdbcTemplate).update(
+                "WITH moved AS (DELETE FROM transaction_outbox_default WHERE created_at >= ? AND created_at < ? RETURNING *)"
+                        + " INSERT INTO transaction_outbox_p2026010111 SELECT * FROM moved",
+                Timestamp.from(Instant.parse("2026-01-01T11:00:00Z")),
+                Timestamp.from(Instant.parse("2026-01-01T12:00:00Z"))
+        );
+        verify(jdbcTemplate).execute("ALTER TABLE transaction_outbox ATTACH PARTITION transaction_outbox_p2026010112"
+                + " FOR VALUES FROM ('2026-01-01T12:00:00Z') TO ('2026-01-01T13:00:00Z')");
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE transaction_outbox_p2026010110"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+        verify(chunkedRetentionExecutor).purge(
+                "transaction_outbox_default",
+                "created_at < ? AND NOT (" + PENDING + ")",
+                Instant.parse("2026-01-01T08:30:00Z")
+        );
+    }
+
+    @Test
+    void applyShouldDropBucketsThatEndedBeforeTheCutoff() {
+        partitioned("transaction_outbox_p2026010107", "transaction_outbox_p2026010108", "transaction_outbox_p2026010109",
+                "transaction_outbox_p2026010110", "transaction_outbox_p2026010111", "transaction_outbox_p2026010112");
+        when(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM transaction_outbox_p2026010107 WHERE " + PENDING + ")", Boolean.class))
+                .thenReturn(false);
+
+        assertTrue(engine.apply(outbox, NOW));
+
+        verify(jdbcTemplate).execute("DROP TABLE transaction_outbox_p2026010107");
+        // 08:00-09:00 still holds rows newer than the 08:30 cutoff.
+        verify(jdbcTemplate, never()).execute("DROP TABLE transaction_outbox_p2026010108");
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void applyShouldKeepAnExpiredBucketThatStillHoldsUnpublishedOutboxRows() {
+        partitioned("transaction_outbox_p2026010107", "transaction_outbox_p2026010108", "transaction_outbox_p2026010109",
+                "transaction_outbox_p2026010110", "transaction_outbox_p2026010111", "transaction_outbox_p2026010112");
+        when(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM transaction_outbox_p2026010107 WHERE " + PENDING + ")", Boolean.class))
+                .thenReturn(true);
+
+        assertTrue(engine.apply(outbox, NOW));
+
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    void applyShouldLeaveAnUnpartitionedTableToTheCaller() {
+        relations.put("transaction_outbox", "r");
+
+        assertFalse(engine.apply(outbox, NOW));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(chunkedRetentionExecutor);
+    }
+
+    private void partitioned(String... existing) {
+        relations.put("transaction_outbox", "p");
+        relations.put("transaction_outbox_default", "r");
+        for (String partition : existing) {
+            relations.put(partition, "r");
+            partitions.add(partition);
+        }
+    }
+}
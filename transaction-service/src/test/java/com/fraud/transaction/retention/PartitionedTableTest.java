@@ -0,0 +1,43 @@
+package com.fraud.transaction.retention;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PartitionedTableTest {
+
+    private final PartitionedTable outbox = new PartitionedTable(
+            "transaction_outbox", "created_at", PartitionedTable.Granularity.HOUR, Duration.ofHours(24),
+            "status <> 'PUBLISHED'");
+
+    @Test
+    void partitionNameShouldEncodeTheUtcBucket() {
+        Instant start = PartitionedTable.Granularity.HOUR.truncate(Instant.parse("2026-03-07T09:41:12Z"));
+
+        assertEquals("transaction_outbox_p2026030709", outbox.partitionName(start));
+        assertEquals(start, outbox.partitionStart("transaction_outbox_p2026030709"));
+        assertEquals("transaction_outbox_default", outbox.defaultPartitionName());
+    }
+
+    @Test
+    void dailyPartitionsShouldRoundTripThroughTheirName() {
+        PartitionedTable daily = new PartitionedTable(
+                "transaction_outbox", "created_at", PartitionedTable.Granularity.DAY, Duration.ofDays(1));
+        Instant start = PartitionedTable.Granularity.DAY.truncate(Instant.parse("2026-03-07T09:41:12Z"));
+
+        assertEquals("transaction_outbox_p20260307", daily.partitionName(start));
+        assertEquals(Instant.parse("2026-03-07T00:00:00Z"), daily.partitionStart("transaction_outbox_p20260307"));
+        assertNull(daily.pendingRowCondition());
+    }
+
+    @Test
+    void partitionStartShouldIgnorePartitionsItDoesNotManage() {
+        assertNull(outbox.partitionStart("transaction_outbox_default"));
+        assertNull(outbox.partitionStart("transaction_outbox_p2026"));
+        assertNull(outbox.partitionStart("transactions_p2026030709"));
+    }
+}
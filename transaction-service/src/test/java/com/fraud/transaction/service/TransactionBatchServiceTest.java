@@ -0,0 +1,109 @@
+package com.fraud.transaction.service;
+
+import com.fraud.transaction.api.TransactionBatchItem;
+import com.fraud.transaction.api.TransactionBatchItemResult;
+import com.fraud.transaction.api.TransactionBatchResponse;
+import com.fraud.transaction.api.TransactionRequest;
+import com.fraud.transaction.domain.PaymentMethod;
+import com.fraud.transaction.domain.Transaction;
+import com.fraud.transaction.events.TransactionCreatedEvent;
+import com.fraud.transaction.mapping.TransactionMapper;
+import com.fraud.transaction.outbox.TransactionOutboxService;
+import com.fraud.transaction.repository.TransactionBatchRepository;
+import io.micrometer.tracing.Tracer;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private TransactionOutboxService transactionOutboxService;
+
+    @Mock
+    private TransactionMetrics transactionMetrics;
+
+    @Mock
+    private Tracer tracer;
+
+    private ValidatorFactory validatorFactory;
+    private TransactionBatchService transactionBatchService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        transactionBatchService = new TransactionBatchService(
+                transactionBatchRepository,
+                transactionOutboxService,
+                Mappers.getMapper(TransactionMapper.class),
+                transactionMetrics,
+                validatorFactory.getValidator(),
+                tracer
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void createTransactionsShouldStoreValidItemsTogetherAndReportRejectedOnes() {
+        List<TransactionBatchItem> items = List.of(
+                TransactionBatchItem.parsed(0, request("user-1", "10.00", "USD")),
+                TransactionBatchItem.parsed(1, request("user-2", "0", "usd")),
+                TransactionBatchItem.unreadable(2, "line is not a valid transaction request"),
+                TransactionBatchItem.parsed(3, request("user-3", "25.50", "EUR"))
+        );
+
+        TransactionBatchResponse response = transactionBatchService.createTransactions(items, "webhook");
+
+        assertEquals(4, response.received());
+        assertEquals(2, response.created());
+        assertEquals(2, response.rejected());
+        List<TransactionBatchItemResult> results = response.items();
+        assertEquals("created", results.get(0).status());
+        assertNotNull(results.get(0).transaction().transactionId());
+        assertEquals("amount must be greater than zero", results.get(1).errors().get("amount"));
+        assertEquals("currency must be ISO-4217 code", results.get(1).errors().get("currency"));
+        assertEquals("line is not a valid transaction request", results.get(2).errors().get("item"));
+        assertEquals(3, results.get(3).index());
+
+        ArgumentCaptor<List<Transaction>> transactionsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertAll(transactionsCaptor.capture());
+        assertEquals(List.of("user-1", "user-3"), transactionsCaptor.getValue().stream().map(Transaction::getUserId).toList());
+
+        ArgumentCaptor<List<TransactionCreatedEvent>> eventsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionOutboxService).enqueueAll(eventsCaptor.capture());
+        assertEquals(
+                transactionsCaptor.getValue().stream().map(Transaction::getId).toList(),
+                eventsCaptor.getValue().stream().map(TransactionCreatedEvent::transactionId).toList()
+        );
+        verify(transactionMetrics).recordTransactionsReceived("webhook", 4);
+        verify(transactionMetrics).recordTransactionBatch(eq("webhook"), eq(2), eq(2), anyLong());
+    }
+
+    private TransactionRequest request(String userId, String amount, String currency) {
+        return new TransactionRequest(userId, new BigDecimal(amount), currency, "MRC-1", "US", PaymentMethod.CARD);
+    }
+}